@@ -24,6 +24,11 @@
 
 package com.artipie.docker;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 
 /**
@@ -51,7 +56,7 @@ public interface Digest {
      * @return Digest string representation
      */
     default String string() {
-        return String.format("%s:%s", this.alg(), this.hex());
+        return this.alg().concat(":").concat(this.hex());
     }
 
     /**
@@ -154,14 +159,206 @@ public interface Digest {
          * @return Part
          */
         private String part(final int pos) {
-            if (!this.valid()) {
+            final String[] parts = this.original.split(":");
+            if (parts.length != 2) {
                 throw new IllegalStateException(
                     String.format(
                         "Expected two parts separated by `:`, but was `%s`", this.original
                     )
                 );
             }
-            return this.original.split(":")[pos];
+            return parts[pos];
+        }
+    }
+
+    /**
+     * Digest parsed once from string and stored compactly.
+     * <p>
+     * Lowercase hex of even length is stored as raw hash bytes,
+     * any other hex part is stored as is.
+     * Hex and string forms are produced on first use and memoized.
+     * Digests are equal if they have same algorithm and hex,
+     * so they can be used as cache keys.
+     * @since 0.13
+     */
+    final class Parsed implements Digest {
+
+        /**
+         * Algorithm name.
+         */
+        private final String algorithm;
+
+        /**
+         * Raw hash bytes if hex is encoded, hex chars otherwise.
+         */
+        private final byte[] hash;
+
+        /**
+         * Whether hash holds raw bytes decoded from hex.
+         */
+        private final boolean decoded;
+
+        /**
+         * Memoized digest string.
+         */
+        private final AtomicReference<String> memo;
+
+        /**
+         * Memoized hex string.
+         */
+        private final AtomicReference<String> hexmemo;
+
+        /**
+         * Ctor.
+         * @param digest Digest to parse
+         */
+        public Parsed(final Digest digest) {
+            this(digest.string());
+        }
+
+        /**
+         * Ctor.
+         * @param digest Digest string, e.g. {@code sha256:0000}
+         */
+        public Parsed(final String digest) {
+            this(digest, Parsed.separator(digest));
+        }
+
+        /**
+         * Ctor.
+         * @param digest Digest string
+         * @param sep Position of separator
+         */
+        private Parsed(final String digest, final int sep) {
+            this(digest.substring(0, sep), digest.substring(sep + 1));
+        }
+
+        /**
+         * Ctor.
+         * @param algorithm Algorithm name
+         * @param hex Hex string
+         */
+        private Parsed(final String algorithm, final String hex) {
+            this(algorithm, Parsed.bytes(hex), Parsed.lowerHex(hex));
+        }
+
+        /**
+         * Ctor.
+         * @param algorithm Algorithm name
+         * @param hash Raw hash bytes if hex is decoded, hex chars otherwise
+         * @param decoded Whether hash holds raw bytes decoded from hex
+         */
+        private Parsed(final String algorithm, final byte[] hash, final boolean decoded) {
+            this.algorithm = algorithm;
+            this.hash = hash;
+            this.decoded = decoded;
+            this.memo = new AtomicReference<>();
+            this.hexmemo = new AtomicReference<>();
+        }
+
+        @Override
+        public String alg() {
+            return this.algorithm;
+        }
+
+        @Override
+        public String hex() {
+            String hex = this.hexmemo.get();
+            if (hex == null) {
+                if (this.decoded) {
+                    hex = Hex.encodeHexString(this.hash);
+                } else {
+                    hex = new String(this.hash, StandardCharsets.UTF_8);
+                }
+                this.hexmemo.set(hex);
+            }
+            return hex;
+        }
+
+        @Override
+        public String string() {
+            String str = this.memo.get();
+            if (str == null) {
+                str = this.algorithm.concat(":").concat(this.hex());
+                this.memo.set(str);
+            }
+            return str;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            final boolean res;
+            if (this == other) {
+                res = true;
+            } else if (other == null || this.getClass() != other.getClass()) {
+                res = false;
+            } else {
+                final Parsed that = (Parsed) other;
+                res = this.decoded == that.decoded
+                    && this.algorithm.equals(that.algorithm)
+                    && Arrays.equals(this.hash, that.hash);
+            }
+            return res;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.algorithm, this.decoded, Arrays.hashCode(this.hash));
+        }
+
+        @Override
+        public String toString() {
+            return this.string();
+        }
+
+        /**
+         * Find position of separator in digest string.
+         * @param digest Digest string
+         * @return Position of single {@code :} separating non-empty parts
+         * @throws IllegalStateException If digest is not two parts separated by {@code :}
+         */
+        private static int separator(final String digest) {
+            final int sep = digest.indexOf(':');
+            if (sep <= 0 || sep == digest.length() - 1 || digest.indexOf(':', sep + 1) >= 0) {
+                throw new IllegalStateException(
+                    String.format("Expected algorithm and hex separated by `:`, got `%s`", digest)
+                );
+            }
+            return sep;
+        }
+
+        /**
+         * Hash bytes: raw bytes decoded from lowercase hex, hex chars otherwise.
+         * @param hex Hex string
+         * @return Bytes
+         */
+        private static byte[] bytes(final String hex) {
+            final byte[] res;
+            if (Parsed.lowerHex(hex)) {
+                res = new byte[hex.length() / 2];
+                for (int idx = 0; idx < res.length; idx += 1) {
+                    // @checkstyle MagicNumberCheck (1 line)
+                    res[idx] = (byte) Integer.parseInt(hex.substring(idx * 2, idx * 2 + 2), 16);
+                }
+            } else {
+                res = hex.getBytes(StandardCharsets.UTF_8);
+            }
+            return res;
+        }
+
+        /**
+         * Check if string is lowercase hex of even length.
+         * @param hex Hex string
+         * @return True if string is lowercase hex of even length
+         */
+        private static boolean lowerHex(final String hex) {
+            final int len = hex.length();
+            boolean res = len % 2 == 0;
+            for (int idx = 0; res && idx < len; idx += 1) {
+                final char chr = hex.charAt(idx);
+                res = chr >= '0' && chr <= '9' || chr >= 'a' && chr <= 'f';
+            }
+            return res;
         }
     }
 }
@@ -54,6 +54,17 @@ public interface Manifests {
      */
     CompletionStage<Optional<Manifest>> get(ManifestRef ref);
 
+    /**
+     * Check if manifest exists by reference.
+     * Implementations should override it with check not reading manifest content.
+     *
+     * @param ref Manifest reference
+     * @return True if manifest exists, false otherwise.
+     */
+    default CompletionStage<Boolean> exists(final ManifestRef ref) {
+        return this.get(ref).thenApply(Optional::isPresent);
+    }
+
     /**
      * List manifest tags.
      *
@@ -94,6 +105,11 @@ public interface Manifests {
             return this.manifests.get(ref);
         }
 
+        @Override
+        public final CompletionStage<Boolean> exists(final ManifestRef ref) {
+            return this.manifests.exists(ref);
+        }
+
         @Override
         public final CompletionStage<Tags> tags(final Optional<Tag> from, final int limit) {
             return this.manifests.tags(from, limit);
@@ -128,6 +128,51 @@ public interface RepoName {
         }
     }
 
+    /**
+     * Repo name validated once on creation.
+     * Instances are created by {@link RepoNames}, which validates name
+     * and may return same instance for same name string.
+     * @since 0.13
+     */
+    final class Checked implements RepoName {
+
+        /**
+         * Validated repository name string.
+         */
+        private final String name;
+
+        /**
+         * Ctor.
+         * @param name Validated repo name string
+         */
+        Checked(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String value() {
+            return this.name;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            final boolean res;
+            if (this == other) {
+                res = true;
+            } else if (other == null || this.getClass() != other.getClass()) {
+                res = false;
+            } else {
+                res = this.name.equals(((RepoName.Checked) other).name);
+            }
+            return res;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode();
+        }
+    }
+
     /**
      * Simple repo name. Can be used for tests as fake object.
      * @since 0.1
@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker;
+
+import com.artipie.docker.misc.LruCache;
+
+/**
+ * Bounded intern cache of validated repository names.
+ * Name string is validated once, repeated lookups of same name
+ * return same {@link RepoName.Checked} instance without validation.
+ * When cache reaches max size least recently used name is evicted.
+ *
+ * @since 0.13
+ */
+public final class RepoNames {
+
+    /**
+     * Shared cache of repository names.
+     * @checkstyle MagicNumberCheck (2 lines)
+     */
+    public static final RepoNames SHARED = new RepoNames(1024);
+
+    /**
+     * Validated names by name string.
+     */
+    private final LruCache<String, RepoName.Checked> names;
+
+    /**
+     * Ctor.
+     *
+     * @param max Max number of names cached.
+     */
+    public RepoNames(final int max) {
+        this.names = new LruCache<>(max);
+    }
+
+    /**
+     * Get validated repository name.
+     *
+     * @param name Repository name string.
+     * @return Validated repository name.
+     * @throws com.artipie.docker.error.InvalidRepoNameException If name is not valid.
+     */
+    public RepoName.Checked name(final String name) {
+        return this.names.computeIfAbsent(
+            name, value -> new RepoName.Checked(new RepoName.Valid(value).value())
+        );
+    }
+}
@@ -30,6 +30,7 @@ import com.artipie.docker.Blob;
 import com.artipie.docker.Digest;
 import com.artipie.docker.RepoName;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
@@ -53,6 +54,11 @@ public final class AstoBlobs implements BlobStore {
      */
     private final RepoName name;
 
+    /**
+     * Blob uses.
+     */
+    private final BlobUses uses;
+
     /**
      * Ctor.
      * @param asto Storage
@@ -60,33 +66,74 @@ public final class AstoBlobs implements BlobStore {
      * @param name Repository name.
      */
     public AstoBlobs(final Storage asto, final BlobsLayout layout, final RepoName name) {
+        this(asto, layout, name, new BlobUses.None());
+    }
+
+    /**
+     * Ctor.
+     * @param asto Storage
+     * @param layout Blobs layout.
+     * @param name Repository name.
+     * @param uses Blob uses, marked when blob is found or put.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public AstoBlobs(
+        final Storage asto, final BlobsLayout layout, final RepoName name, final BlobUses uses
+    ) {
         this.asto = asto;
         this.layout = layout;
         this.name = name;
+        this.uses = uses;
     }
 
     @Override
     public CompletionStage<Optional<Blob>> blob(final Digest digest) {
-        final Key key = this.layout.blob(this.name, digest);
-        return this.asto.exists(key).thenApply(
-            exists -> {
-                final Optional<Blob> blob;
-                if (exists) {
-                    blob = Optional.of(new AstoBlob(this.asto, key, digest));
-                } else {
-                    blob = Optional.empty();
+        CompletionStage<Optional<Blob>> res = CompletableFuture.completedFuture(Optional.empty());
+        for (final Key key : this.layout.reads(this.name, digest)) {
+            res = res.thenCompose(
+                found -> {
+                    final CompletionStage<Optional<Blob>> blob;
+                    if (found.isPresent()) {
+                        blob = CompletableFuture.completedFuture(found);
+                    } else {
+                        blob = this.blob(key, digest);
+                    }
+                    return blob;
                 }
-                return blob;
-            }
-        );
+            );
+        }
+        return res;
     }
 
     @Override
     public CompletionStage<Blob> put(final BlobSource source) {
         final Digest digest = source.digest();
         final Key key = this.layout.blob(this.name, digest);
-        return source.saveTo(this.asto, key).thenApply(
-            nothing -> new AstoBlob(this.asto, key, digest)
+        return source.saveTo(this.asto, key)
+            .thenCompose(nothing -> this.uses.touch(digest))
+            .thenApply(nothing -> new AstoBlob(this.asto, key, digest));
+    }
+
+    /**
+     * Load blob by key.
+     *
+     * @param key Blob key.
+     * @param digest Blob digest.
+     * @return Blob if it exists.
+     */
+    private CompletionStage<Optional<Blob>> blob(final Key key, final Digest digest) {
+        return this.asto.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Blob>> blob;
+                if (exists) {
+                    blob = this.uses.touch(digest).thenApply(
+                        nothing -> Optional.of(new AstoBlob(this.asto, key, digest))
+                    );
+                } else {
+                    blob = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return blob;
+            }
         );
     }
 }
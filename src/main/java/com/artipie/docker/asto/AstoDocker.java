@@ -24,12 +24,12 @@
 
 package com.artipie.docker.asto;
 
-import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.docker.Catalog;
 import com.artipie.docker.Docker;
 import com.artipie.docker.Repo;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.misc.CatalogPage;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
@@ -49,6 +49,26 @@ public final class AstoDocker implements Docker {
      */
     private final Layout layout;
 
+    /**
+     * Active upload sessions.
+     */
+    private final UploadSessions sessions;
+
+    /**
+     * Repositories catalog index.
+     */
+    private final CatalogIndex index;
+
+    /**
+     * Repository tags index.
+     */
+    private final TagsIndex tags;
+
+    /**
+     * Blob uses.
+     */
+    private final BlobUses uses;
+
     /**
      * Ctor.
      * @param asto Asto storage
@@ -64,18 +84,62 @@ public final class AstoDocker implements Docker {
      * @param layout Storage layout.
      */
     public AstoDocker(final Storage asto, final Layout layout) {
+        this(asto, layout, new UploadSessions());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Storage.
+     * @param layout Storage layout.
+     * @param sessions Active upload sessions.
+     */
+    public AstoDocker(final Storage asto, final Layout layout, final UploadSessions sessions) {
+        this(
+            asto, layout, sessions,
+            new CatalogIndex(asto, layout), new TagsIndex(asto, layout),
+            new BlobUses.Stored(asto, layout)
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Storage.
+     * @param layout Storage layout.
+     * @param sessions Active upload sessions.
+     * @param index Repositories catalog index.
+     * @param tags Repository tags index.
+     * @param uses Blob uses.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoDocker(
+        final Storage asto,
+        final Layout layout,
+        final UploadSessions sessions,
+        final CatalogIndex index,
+        final TagsIndex tags,
+        final BlobUses uses
+    ) {
         this.asto = asto;
         this.layout = layout;
+        this.sessions = sessions;
+        this.index = index;
+        this.tags = tags;
+        this.uses = uses;
     }
 
     @Override
     public Repo repo(final RepoName name) {
-        return new AstoRepo(this.asto, this.layout, name);
+        return new AstoRepo(
+            this.asto, this.layout, name, this.sessions, this.index, this.tags, this.uses
+        );
     }
 
     @Override
     public CompletionStage<Catalog> catalog(final Optional<RepoName> from, final int limit) {
-        final Key root = this.layout.repositories();
-        return this.asto.list(root).thenApply(keys -> new AstoCatalog(root, keys, from, limit));
+        return this.index.names(from, limit).thenApply(
+            names -> new CatalogPage(names, from, limit)
+        );
     }
 }
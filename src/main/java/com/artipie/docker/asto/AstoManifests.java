@@ -36,11 +36,14 @@ import com.artipie.docker.error.InvalidManifestException;
 import com.artipie.docker.manifest.JsonManifest;
 import com.artipie.docker.manifest.Layer;
 import com.artipie.docker.manifest.Manifest;
+import com.artipie.docker.misc.TagsPage;
 import com.artipie.docker.ref.ManifestRef;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.json.JsonException;
 
@@ -48,6 +51,7 @@ import javax.json.JsonException;
  * Asto implementation of {@link Manifests}.
  *
  * @since 0.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class AstoManifests implements Manifests {
 
@@ -62,34 +66,74 @@ public final class AstoManifests implements Manifests {
     private final BlobStore blobs;
 
     /**
-     * Manifests layout.
+     * Storage layout.
      */
-    private final ManifestsLayout layout;
+    private final Layout layout;
 
     /**
      * Repository name.
      */
     private final RepoName name;
 
+    /**
+     * Repositories catalog index.
+     */
+    private final CatalogIndex catalog;
+
+    /**
+     * Repository tags index.
+     */
+    private final TagsIndex index;
+
     /**
      * Ctor.
+     * Repository is registered in catalog index of this instance, so each put
+     * checks repository marker in storage. {@link AstoRepo} passes index shared
+     * by all repositories instead.
      *
      * @param asto Asto storage
      * @param blobs Blobs storage.
-     * @param layout Manifests layout.
+     * @param layout Storage layout.
      * @param name Repository name
      * @checkstyle ParameterNumberCheck (2 lines)
      */
     public AstoManifests(
         final Storage asto,
         final BlobStore blobs,
-        final ManifestsLayout layout,
+        final Layout layout,
         final RepoName name
+    ) {
+        this(
+            asto, blobs, layout, name,
+            new CatalogIndex(asto, layout), new TagsIndex(asto, layout)
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Asto storage
+     * @param blobs Blobs storage.
+     * @param layout Storage layout.
+     * @param name Repository name
+     * @param catalog Repositories catalog index.
+     * @param index Repository tags index.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoManifests(
+        final Storage asto,
+        final BlobStore blobs,
+        final Layout layout,
+        final RepoName name,
+        final CatalogIndex catalog,
+        final TagsIndex index
     ) {
         this.asto = asto;
         this.blobs = blobs;
         this.layout = layout;
         this.name = name;
+        this.catalog = catalog;
+        this.index = index;
     }
 
     @Override
@@ -98,9 +142,21 @@ public final class AstoManifests implements Manifests {
             bytes -> this.blobs.put(new TrustedBlobSource(bytes))
                 .thenApply(blob -> new JsonManifest(blob.digest(), bytes))
                 .thenCompose(
-                    manifest -> this.validate(manifest)
-                        .thenCompose(nothing -> this.addManifestLinks(ref, manifest.digest()))
-                        .thenApply(nothing -> manifest)
+                    manifest -> {
+                        final Collection<Digest> digests = AstoManifests.digests(manifest);
+                        return this.validate(digests)
+                            .thenCompose(
+                                nothing -> new BlobRefs(this.asto, this.layout).add(
+                                    this.name,
+                                    manifest.digest(),
+                                    Stream.concat(Stream.of(manifest.digest()), digests.stream())
+                                        .collect(Collectors.toList())
+                                )
+                            )
+                            .thenCompose(nothing -> this.addManifestLinks(ref, manifest.digest()))
+                            .thenCompose(nothing -> this.catalog.add(this.name))
+                            .thenApply(nothing -> manifest);
+                    }
                 )
         );
     }
@@ -127,37 +183,27 @@ public final class AstoManifests implements Manifests {
         );
     }
 
+    @Override
+    public CompletionStage<Boolean> exists(final ManifestRef ref) {
+        return this.asto.exists(this.layout.manifest(this.name, ref));
+    }
+
     @Override
     public CompletionStage<Tags> tags(final Optional<Tag> from, final int limit) {
-        final Key root = this.layout.tags(this.name);
-        return this.asto.list(root).thenApply(
-            keys -> new AstoTags(this.name, root, keys, from, limit)
+        return this.index.tags(this.name, from, limit).thenApply(
+            tags -> new TagsPage(this.name, tags, from, limit)
         );
     }
 
     /**
      * Validates manifest by checking all referenced blobs exist.
      *
-     * @param manifest Manifest.
+     * @param digests Digests of blobs referenced by manifest.
      * @return Validation completion.
      */
-    private CompletionStage<Void> validate(final Manifest manifest) {
-        final Stream<Digest> digests;
-        try {
-            digests = Stream.concat(
-                Stream.of(manifest.config()),
-                manifest.layers().stream()
-                    .filter(layer -> layer.urls().isEmpty())
-                    .map(Layer::digest)
-            );
-        } catch (final JsonException ex) {
-            throw new InvalidManifestException(
-                String.format("Failed to parse manifest: %s", ex.getMessage()),
-                ex
-            );
-        }
+    private CompletionStage<Void> validate(final Collection<Digest> digests) {
         return CompletableFuture.allOf(
-            digests.map(
+            digests.stream().map(
                 digest -> this.blobs.blob(digest).thenCompose(
                     opt -> {
                         if (!opt.isPresent()) {
@@ -172,6 +218,28 @@ public final class AstoManifests implements Manifests {
         );
     }
 
+    /**
+     * Collects digests of blobs stored in registry and referenced by manifest.
+     *
+     * @param manifest Manifest.
+     * @return Config and layers digests.
+     */
+    private static Collection<Digest> digests(final Manifest manifest) {
+        try {
+            return Stream.concat(
+                Stream.of(manifest.config()),
+                manifest.layers().stream()
+                    .filter(layer -> layer.urls().isEmpty())
+                    .map(Layer::digest)
+            ).collect(Collectors.toList());
+        } catch (final JsonException ex) {
+            throw new InvalidManifestException(
+                String.format("Failed to parse manifest: %s", ex.getMessage()),
+                ex
+            );
+        }
+    }
+
     /**
      * Adds links to manifest blob by reference and by digest.
      *
@@ -183,7 +251,7 @@ public final class AstoManifests implements Manifests {
         return CompletableFuture.allOf(
             this.addLink(new ManifestRef.FromDigest(digest), digest),
             this.addLink(ref, digest)
-        );
+        ).thenCompose(nothing -> this.index.added(this.name, ref));
     }
 
     /**
@@ -54,6 +54,26 @@ public final class AstoRepo implements Repo {
      */
     private final Layout layout;
 
+    /**
+     * Active upload sessions.
+     */
+    private final UploadSessions sessions;
+
+    /**
+     * Repositories catalog index.
+     */
+    private final CatalogIndex catalog;
+
+    /**
+     * Repository tags index.
+     */
+    private final TagsIndex tags;
+
+    /**
+     * Blob uses.
+     */
+    private final BlobUses uses;
+
     /**
      * Ctor.
      *
@@ -62,9 +82,59 @@ public final class AstoRepo implements Repo {
      * @param name Repository name
      */
     public AstoRepo(final Storage asto, final Layout layout, final RepoName name) {
+        this(asto, layout, name, new UploadSessions());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Asto storage
+     * @param layout Storage layout.
+     * @param name Repository name
+     * @param sessions Active upload sessions.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoRepo(
+        final Storage asto,
+        final Layout layout,
+        final RepoName name,
+        final UploadSessions sessions
+    ) {
+        this(
+            asto, layout, name, sessions,
+            new CatalogIndex(asto, layout), new TagsIndex(asto, layout),
+            new BlobUses.Stored(asto, layout)
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Asto storage
+     * @param layout Storage layout.
+     * @param name Repository name
+     * @param sessions Active upload sessions.
+     * @param catalog Repositories catalog index.
+     * @param tags Repository tags index.
+     * @param uses Blob uses.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoRepo(
+        final Storage asto,
+        final Layout layout,
+        final RepoName name,
+        final UploadSessions sessions,
+        final CatalogIndex catalog,
+        final TagsIndex tags,
+        final BlobUses uses
+    ) {
         this.asto = asto;
         this.layout = layout;
         this.name = name;
+        this.sessions = sessions;
+        this.catalog = catalog;
+        this.tags = tags;
+        this.uses = uses;
     }
 
     @Override
@@ -74,12 +144,14 @@ public final class AstoRepo implements Repo {
 
     @Override
     public Manifests manifests() {
-        return new AstoManifests(this.asto, this.blobs(), this.layout, this.name);
+        return new AstoManifests(
+            this.asto, this.blobs(), this.layout, this.name, this.catalog, this.tags
+        );
     }
 
     @Override
     public Uploads uploads() {
-        return new AstoUploads(this.asto, this.layout, this.name);
+        return new AstoUploads(this.asto, this.layout, this.name, this.sessions, this.catalog);
     }
 
     /**
@@ -88,6 +160,6 @@ public final class AstoRepo implements Repo {
      * @return Blobs storage.
      */
     private AstoBlobs blobs() {
-        return new AstoBlobs(this.asto, this.layout, this.name);
+        return new AstoBlobs(this.asto, this.layout, this.name, this.uses);
     }
 }
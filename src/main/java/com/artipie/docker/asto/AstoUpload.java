@@ -46,7 +46,9 @@ import org.reactivestreams.Publisher;
  * Asto implementation of {@link Upload}.
  *
  * @since 0.2
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
+@SuppressWarnings("PMD.TooManyMethods")
 public final class AstoUpload implements Upload {
 
     /**
@@ -70,6 +72,11 @@ public final class AstoUpload implements Upload {
     @SuppressWarnings("PMD.AvoidFieldNameMatchingMethodName")
     private final String uuid;
 
+    /**
+     * Active upload sessions.
+     */
+    private final UploadSessions sessions;
+
     /**
      * Ctor.
      *
@@ -84,11 +91,32 @@ public final class AstoUpload implements Upload {
         final UploadsLayout layout,
         final RepoName name,
         final String uuid
+    ) {
+        this(storage, layout, name, uuid, new UploadSessions());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Uploads layout.
+     * @param name Repository name.
+     * @param uuid Upload UUID.
+     * @param sessions Active upload sessions.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoUpload(
+        final Storage storage,
+        final UploadsLayout layout,
+        final RepoName name,
+        final String uuid,
+        final UploadSessions sessions
     ) {
         this.storage = storage;
         this.layout = layout;
         this.name = name;
         this.uuid = uuid;
+        this.sessions = sessions;
     }
 
     @Override
@@ -98,14 +126,16 @@ public final class AstoUpload implements Upload {
 
     @Override
     public CompletionStage<Void> start() {
-        return this.storage.save(this.started(), new Content.From(new byte[0]));
+        return new StartedMarker(this.storage, this.root()).save(this.sessions.now()).thenRun(
+            () -> this.sessions.started(this.name, this.uuid)
+        );
     }
 
     @Override
     public CompletionStage<Long> append(final Publisher<ByteBuffer> chunk) {
-        return this.chunks().thenCompose(
-            chunks -> {
-                if (chunks.size() > 0) {
+        return this.empty().thenCompose(
+            empty -> {
+                if (!empty) {
                     throw new UnsupportedOperationException("Multiple chunks are not supported");
                 }
                 final Key tmp = new Key.From(this.root(), UUID.randomUUID().toString());
@@ -117,6 +147,11 @@ public final class AstoUpload implements Upload {
                     }
                 ).thenCompose(
                     key -> this.storage.size(key).thenApply(updated -> updated - 1)
+                ).thenApply(
+                    offset -> {
+                        this.sessions.appended(this.name, this.uuid, data.digest(), offset);
+                        return offset;
+                    }
                 );
             }
         );
@@ -124,18 +159,25 @@ public final class AstoUpload implements Upload {
 
     @Override
     public CompletionStage<Long> offset() {
-        return this.chunks().thenCompose(
-            chunks -> {
-                final CompletionStage<Long> result;
-                if (chunks.isEmpty()) {
-                    result = CompletableFuture.completedFuture(0L);
-                } else {
-                    final Key key = chunks.iterator().next();
-                    result = this.storage.size(key).thenApply(size -> Math.max(size - 1, 0));
-                }
-                return result;
-            }
-        );
+        return this.sessions.find(this.name, this.uuid)
+            .<CompletionStage<Long>>map(
+                session -> CompletableFuture.completedFuture(Math.max(session.offset(), 0))
+            )
+            .orElseGet(
+                () -> this.chunks().thenCompose(
+                    chunks -> {
+                        final CompletionStage<Long> result;
+                        if (chunks.isEmpty()) {
+                            result = CompletableFuture.completedFuture(0L);
+                        } else {
+                            final Key key = chunks.iterator().next();
+                            result = this.storage.size(key)
+                                .thenApply(size -> Math.max(size - 1, 0));
+                        }
+                        return result;
+                    }
+                )
+            );
     }
 
     @Override
@@ -158,7 +200,12 @@ public final class AstoUpload implements Upload {
                             }
                         }
                     ).thenCompose(
-                        blob -> this.delete().thenApply(nothing -> blob)
+                        blob -> this.delete().thenApply(
+                            nothing -> {
+                                this.sessions.finished(this.uuid);
+                                return blob;
+                            }
+                        )
                     );
                 } else {
                     result = new FailedCompletionStage<>(
@@ -185,7 +232,7 @@ public final class AstoUpload implements Upload {
      * @return Key.
      */
     private Key started() {
-        return new Key.From(this.root(), "started");
+        return new StartedMarker(this.storage, this.root()).key();
     }
 
     /**
@@ -198,6 +245,20 @@ public final class AstoUpload implements Upload {
         return new Key.From(this.root(), String.format("%s_%s", digest.alg(), digest.hex()));
     }
 
+    /**
+     * Checks that no chunks were appended to upload yet.
+     * Registered upload session is used if present, storage is checked otherwise.
+     *
+     * @return True if upload has no chunks.
+     */
+    private CompletionStage<Boolean> empty() {
+        return this.sessions.find(this.name, this.uuid)
+            .<CompletionStage<Boolean>>map(
+                session -> CompletableFuture.completedFuture(!session.digest().isPresent())
+            )
+            .orElseGet(() -> this.chunks().thenApply(Collection::isEmpty));
+    }
+
     /**
      * List all chunk keys.
      *
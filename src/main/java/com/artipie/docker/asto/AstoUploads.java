@@ -23,6 +23,7 @@
  */
 package com.artipie.docker.asto;
 
+import com.artipie.asto.Key;
 import com.artipie.asto.Storage;
 import com.artipie.docker.RepoName;
 import com.artipie.docker.Upload;
@@ -54,6 +55,16 @@ public final class AstoUploads implements Uploads {
      */
     private final RepoName name;
 
+    /**
+     * Active upload sessions.
+     */
+    private final UploadSessions sessions;
+
+    /**
+     * Repositories catalog index to register repository on upload start, if any.
+     */
+    private final Optional<CatalogIndex> catalog;
+
     /**
      * Ctor.
      *
@@ -62,33 +73,98 @@ public final class AstoUploads implements Uploads {
      * @param name Repository name
      */
     public AstoUploads(final Storage asto, final UploadsLayout layout, final RepoName name) {
+        this(asto, layout, name, new UploadSessions());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Asto storage
+     * @param layout Uploads layout.
+     * @param name Repository name
+     * @param sessions Active upload sessions.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoUploads(
+        final Storage asto,
+        final UploadsLayout layout,
+        final RepoName name,
+        final UploadSessions sessions
+    ) {
+        this(asto, layout, name, sessions, Optional.empty());
+    }
+
+    /**
+     * Ctor.
+     * Repository is registered in catalog index when upload is started,
+     * so uploads of repository with no manifests yet could be found by {@link UploadsSweeper}.
+     *
+     * @param asto Asto storage
+     * @param layout Uploads layout.
+     * @param name Repository name
+     * @param sessions Active upload sessions.
+     * @param catalog Repositories catalog index.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public AstoUploads(
+        final Storage asto,
+        final UploadsLayout layout,
+        final RepoName name,
+        final UploadSessions sessions,
+        final CatalogIndex catalog
+    ) {
+        this(asto, layout, name, sessions, Optional.of(catalog));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param asto Asto storage
+     * @param layout Uploads layout.
+     * @param name Repository name
+     * @param sessions Active upload sessions.
+     * @param catalog Repositories catalog index, if any.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    private AstoUploads(
+        final Storage asto,
+        final UploadsLayout layout,
+        final RepoName name,
+        final UploadSessions sessions,
+        final Optional<CatalogIndex> catalog
+    ) {
         this.asto = asto;
         this.layout = layout;
         this.name = name;
+        this.sessions = sessions;
+        this.catalog = catalog;
     }
 
     @Override
     public CompletionStage<Upload> start() {
-        final String uuid = UUID.randomUUID().toString();
-        final AstoUpload upload = new AstoUpload(this.asto, this.layout, this.name, uuid);
-        return upload.start().thenApply(ignored -> upload);
+        final AstoUpload upload = this.upload(UUID.randomUUID().toString());
+        return this.catalog.map(index -> index.add(this.name))
+            .orElseGet(() -> CompletableFuture.allOf())
+            .thenCompose(nothing -> upload.start())
+            .thenApply(ignored -> upload);
     }
 
     @Override
     public CompletionStage<Optional<Upload>> get(final String uuid) {
-        final CompletableFuture<Optional<Upload>> result;
+        final CompletionStage<Optional<Upload>> result;
         if (uuid.isEmpty()) {
             result = CompletableFuture.completedFuture(Optional.empty());
+        } else if (this.sessions.find(this.name, uuid).isPresent()) {
+            result = CompletableFuture.completedFuture(Optional.of(this.upload(uuid)));
         } else {
-            result = this.asto.list(this.layout.upload(this.name, uuid)).thenApply(
+            final Key root = this.layout.upload(this.name, uuid);
+            result = this.asto.list(root).thenCompose(
                 list -> {
-                    final Optional<Upload> upload;
+                    final CompletionStage<Optional<Upload>> upload;
                     if (list.isEmpty()) {
-                        upload = Optional.empty();
+                        upload = CompletableFuture.completedFuture(Optional.empty());
                     } else {
-                        upload = Optional.of(
-                            new AstoUpload(this.asto, this.layout, this.name, uuid)
-                        );
+                        upload = this.unexpired(root, uuid);
                     }
                     return upload;
                 }
@@ -96,4 +172,35 @@ public final class AstoUploads implements Uploads {
         }
         return result;
     }
+
+    /**
+     * Get upload if it is not expired.
+     *
+     * @param root Upload root key.
+     * @param uuid Upload UUID.
+     * @return Upload, empty if it is expired.
+     */
+    private CompletionStage<Optional<Upload>> unexpired(final Key root, final String uuid) {
+        return new StartedMarker(this.asto, root).time().thenApply(
+            time -> {
+                final Optional<Upload> upload;
+                if (time.isPresent() && this.sessions.expired(time.get())) {
+                    upload = Optional.empty();
+                } else {
+                    upload = Optional.of(this.upload(uuid));
+                }
+                return upload;
+            }
+        );
+    }
+
+    /**
+     * Create upload instance.
+     *
+     * @param uuid Upload UUID.
+     * @return Upload.
+     */
+    private AstoUpload upload(final String uuid) {
+        return new AstoUpload(this.asto, this.layout, this.name, uuid, this.sessions);
+    }
 }
@@ -26,9 +26,13 @@ package com.artipie.docker.asto;
 
 import com.artipie.asto.Key;
 import com.artipie.docker.Digest;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Key for blob data in storage.
+ * Blobs are fanned out by prefix directories taken from digest hex,
+ * one directory of two hex chars by default.
  *
  * @since 0.2
  */
@@ -40,10 +44,68 @@ final class BlobKey extends Key.Wrap {
      * @param digest Blob digest
      */
     BlobKey(final Digest digest) {
-        super(
-            new Key.From(
-                "blobs", digest.alg(), digest.hex().substring(0, 2), digest.hex(), "data"
-            )
-        );
+        this(new DefaultLayout().blobs(), digest);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param root Blobs root key.
+     * @param digest Blob digest
+     */
+    BlobKey(final Key root, final Digest digest) {
+        this(root, digest, 1, 2);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param digest Blob digest
+     * @param depth Number of prefix directories.
+     * @param width Number of hex chars in each prefix directory.
+     */
+    BlobKey(final Digest digest, final int depth, final int width) {
+        this(new DefaultLayout().blobs(), digest, depth, width);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param root Blobs root key.
+     * @param digest Blob digest
+     * @param depth Number of prefix directories.
+     * @param width Number of hex chars in each prefix directory.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    BlobKey(final Key root, final Digest digest, final int depth, final int width) {
+        super(new Key.From(root, BlobKey.parts(digest, depth, width).toArray(new String[0])));
+    }
+
+    /**
+     * Build key parts.
+     *
+     * @param digest Blob digest
+     * @param depth Number of prefix directories.
+     * @param width Number of hex chars in each prefix directory.
+     * @return Key parts.
+     */
+    private static List<String> parts(final Digest digest, final int depth, final int width) {
+        final String hex = digest.hex();
+        if (depth < 0 || width <= 0 || depth * width > hex.length()) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Invalid blob prefix of depth %d and width %d for digest %s",
+                    depth, width, digest.string()
+                )
+            );
+        }
+        final List<String> parts = new ArrayList<>(depth + 3);
+        parts.add(digest.alg());
+        for (int level = 0; level < depth; level += 1) {
+            parts.add(hex.substring(level * width, (level + 1) * width));
+        }
+        parts.add(hex);
+        parts.add("data");
+        return parts;
     }
 }
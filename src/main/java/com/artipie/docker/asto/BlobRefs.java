@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent reverse index of blob references.
+ * For every blob it keeps manifests and repositories referencing the blob,
+ * so blob usage is resolved by listing one key instead of parsing all manifests.
+ * Reference of blob {@code <alg>:<hex>} by manifest {@code <malg>:<mhex>}
+ * of repository {@code <repo>} is stored as empty value with key
+ * {@code <refs>/<alg>/<hex>/<repo>/<malg>_<mhex>}, where {@code <refs>} is
+ * references root of layout. References are added on manifest put and removed
+ * when manifest revision is removed from repository.
+ *
+ * @since 0.13
+ */
+public final class BlobRefs {
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Storage layout.
+     */
+    private final Layout layout;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     */
+    public BlobRefs(final Storage storage, final Layout layout) {
+        this.storage = storage;
+        this.layout = layout;
+    }
+
+    /**
+     * Add references of blobs by manifest.
+     *
+     * @param repo Repository name.
+     * @param manifest Manifest digest.
+     * @param blobs Digests of blobs referenced by manifest.
+     * @return Completion of update.
+     */
+    public CompletionStage<Void> add(
+        final RepoName repo, final Digest manifest, final Collection<Digest> blobs
+    ) {
+        return CompletableFuture.allOf(
+            blobs.stream().map(
+                blob -> this.storage.save(
+                    this.reference(blob, repo, manifest), new Content.From(new byte[0])
+                ).toCompletableFuture()
+            ).toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Remove references of blobs by manifest of repository, e.g. when manifest
+     * revision is removed. Referenced blobs are found in manifest content,
+     * so references should be removed before manifest blob is removed.
+     *
+     * @param repo Repository name.
+     * @param manifest Manifest digest.
+     * @return Completion of update.
+     */
+    public CompletionStage<Void> remove(final RepoName repo, final Digest manifest) {
+        return new BlobsScan(this.storage, this.layout).mentioned(repo, manifest).thenCompose(
+            mentioned -> CompletableFuture.allOf(
+                Stream.concat(
+                    Stream.of(manifest.string()),
+                    mentioned.orElse(Collections.emptySet()).stream()
+                ).distinct().map(
+                    blob -> this.delete(
+                        this.reference(new Digest.FromString(blob), repo, manifest)
+                    ).toCompletableFuture()
+                ).toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Find references of blob.
+     *
+     * @param blob Blob digest.
+     * @return References of blob, empty if blob is not referenced.
+     */
+    public CompletionStage<Collection<Reference>> references(final Digest blob) {
+        final Key root = this.index(blob);
+        return this.storage.list(root).thenApply(
+            keys -> keys.stream()
+                .map(key -> new Reference(key.string().substring(root.string().length() + 1)))
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Check if blob is referenced by any manifest.
+     *
+     * @param blob Blob digest.
+     * @return True if blob is referenced.
+     */
+    public CompletionStage<Boolean> referenced(final Digest blob) {
+        return this.references(blob).thenApply(refs -> !refs.isEmpty());
+    }
+
+    /**
+     * Remove key if it exists.
+     *
+     * @param key Key.
+     * @return Completion of removal.
+     */
+    private CompletionStage<Void> delete(final Key key) {
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = this.storage.delete(key);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Key of blob reference by manifest.
+     *
+     * @param blob Blob digest.
+     * @param repo Repository name.
+     * @param manifest Manifest digest.
+     * @return Key.
+     */
+    private Key reference(final Digest blob, final RepoName repo, final Digest manifest) {
+        return new Key.From(
+            this.index(blob), repo.value(),
+            String.format("%s_%s", manifest.alg(), manifest.hex())
+        );
+    }
+
+    /**
+     * Index root key of blob.
+     *
+     * @param blob Blob digest.
+     * @return Key.
+     */
+    private Key index(final Digest blob) {
+        return new Key.From(this.layout.refs(), blob.alg(), blob.hex());
+    }
+
+    /**
+     * Reference of blob by manifest.
+     *
+     * @since 0.13
+     */
+    public static final class Reference {
+
+        /**
+         * Reference key string relative to blob index root.
+         */
+        private final String path;
+
+        /**
+         * Ctor.
+         *
+         * @param path Reference key string relative to blob index root.
+         */
+        Reference(final String path) {
+            this.path = path;
+        }
+
+        /**
+         * Repository referencing blob.
+         *
+         * @return Repository name.
+         */
+        public RepoName repo() {
+            return new RepoName.Simple(this.path.substring(0, this.path.lastIndexOf('/')));
+        }
+
+        /**
+         * Manifest referencing blob.
+         *
+         * @return Manifest digest.
+         */
+        public Digest manifest() {
+            final String name = this.path.substring(this.path.lastIndexOf('/') + 1);
+            final int sep = name.indexOf('_');
+            return new Digest.FromString(
+                String.format("%s:%s", name.substring(0, sep), name.substring(sep + 1))
+            );
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.misc.LruCache;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Last use marks of blobs.
+ * Blob is used when it is uploaded, mounted or found by digest, e.g. on HEAD request
+ * of a client checking if layer should be pushed. Garbage collector keeps unreferenced
+ * blob used recently, since manifest referencing it may be pushed soon.
+ *
+ * @since 0.13
+ */
+public interface BlobUses {
+
+    /**
+     * Mark blob as used now.
+     *
+     * @param digest Blob digest.
+     * @return Completion of marking.
+     */
+    CompletionStage<Void> touch(Digest digest);
+
+    /**
+     * Time of last use of blob.
+     *
+     * @param digest Blob digest.
+     * @return Last use time, empty if blob use is unknown.
+     */
+    CompletionStage<Optional<Instant>> last(Digest digest);
+
+    /**
+     * Forget use mark of blob, e.g. when blob is removed.
+     *
+     * @param digest Blob digest.
+     * @return Completion of removal.
+     */
+    CompletionStage<Void> forget(Digest digest);
+
+    /**
+     * Blob uses which are not tracked.
+     *
+     * @since 0.13
+     */
+    final class None implements BlobUses {
+
+        @Override
+        public CompletionStage<Void> touch(final Digest digest) {
+            return CompletableFuture.allOf();
+        }
+
+        @Override
+        public CompletionStage<Optional<Instant>> last(final Digest digest) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        @Override
+        public CompletionStage<Void> forget(final Digest digest) {
+            return CompletableFuture.allOf();
+        }
+    }
+
+    /**
+     * Blob uses stored as epoch millis with key {@code <gc>/uses/<alg>/<hex>},
+     * where {@code <gc>} is garbage collector root of layout.
+     * Mark of blob is written at most once per interval by this instance,
+     * so interval should be much shorter than garbage collector grace period:
+     * blob is protected for at least grace period minus interval after use.
+     *
+     * @since 0.13
+     */
+    final class Stored implements BlobUses {
+
+        /**
+         * Default interval between writes of blob mark.
+         */
+        private static final Duration INTERVAL = Duration.ofHours(1);
+
+        /**
+         * Maximum number of blobs with remembered write time.
+         */
+        private static final int MAX = 10_000;
+
+        /**
+         * Storage.
+         */
+        private final Storage storage;
+
+        /**
+         * Use marks root key.
+         */
+        private final Key root;
+
+        /**
+         * Interval between writes of blob mark.
+         */
+        private final Duration interval;
+
+        /**
+         * Clock.
+         */
+        private final Clock clock;
+
+        /**
+         * Times of last mark writes by digest.
+         */
+        private final LruCache<String, Instant> written;
+
+        /**
+         * Ctor.
+         *
+         * @param storage Storage.
+         * @param layout Storage layout.
+         */
+        public Stored(final Storage storage, final Layout layout) {
+            this(storage, layout, Stored.INTERVAL, Clock.systemUTC());
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param storage Storage.
+         * @param layout Storage layout.
+         * @param interval Interval between writes of blob mark.
+         * @param clock Clock.
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        public Stored(
+            final Storage storage, final Layout layout, final Duration interval, final Clock clock
+        ) {
+            this.storage = storage;
+            this.root = new Key.From(layout.collector(), "uses");
+            this.interval = interval;
+            this.clock = clock;
+            this.written = new LruCache<>(Stored.MAX);
+        }
+
+        @Override
+        public CompletionStage<Void> touch(final Digest digest) {
+            final Instant now = this.clock.instant();
+            final CompletionStage<Void> res;
+            if (this.written.get(digest.string())
+                .filter(time -> time.plus(this.interval).isAfter(now)).isPresent()) {
+                res = CompletableFuture.allOf();
+            } else {
+                res = this.storage.save(
+                    this.key(digest),
+                    new Content.From(
+                        String.valueOf(now.toEpochMilli()).getBytes(StandardCharsets.US_ASCII)
+                    )
+                ).thenRun(() -> this.written.put(digest.string(), now));
+            }
+            return res;
+        }
+
+        @Override
+        public CompletionStage<Optional<Instant>> last(final Digest digest) {
+            final Key key = this.key(digest);
+            return this.storage.exists(key).thenCompose(
+                exists -> {
+                    final CompletionStage<Optional<Instant>> res;
+                    if (exists) {
+                        res = this.storage.value(key)
+                            .thenCompose(content -> new PublisherAs(content).asciiString())
+                            .thenApply(
+                                text -> Optional.of(Instant.ofEpochMilli(Long.parseLong(text)))
+                            );
+                    } else {
+                        res = CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    return res;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Void> forget(final Digest digest) {
+            this.written.remove(digest.string());
+            final Key key = this.key(digest);
+            return this.storage.exists(key).thenCompose(
+                exists -> {
+                    final CompletionStage<Void> res;
+                    if (exists) {
+                        res = this.storage.delete(key);
+                    } else {
+                        res = CompletableFuture.allOf();
+                    }
+                    return res;
+                }
+            );
+        }
+
+        /**
+         * Use mark key of blob.
+         *
+         * @param digest Blob digest.
+         * @return Key.
+         */
+        private Key key(final Digest digest) {
+            return new Key.From(this.root, digest.alg(), digest.hex());
+        }
+    }
+}
@@ -0,0 +1,612 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Garbage collector of blobs not referenced by any manifest.
+ * <p>
+ * Mark phase walks manifest revisions of all repositories in parallel
+ * and marks every manifest blob and every digest mentioned in manifest content,
+ * so configs, layers and manifests referenced from manifest lists are kept
+ * for any manifest format. Sweep phase lists blobs and finds unmarked ones.
+ * </p>
+ * <p>
+ * Unreferenced blob is not removed at once: it is saved to checkpoint with time
+ * when it was first found unreferenced and is removed by one of following runs
+ * only if it is still unreferenced after grace period.
+ * Right before removal the last use of blob is checked (see {@link BlobUses}):
+ * blob uploaded, mounted or found by digest within grace period is kept and saved
+ * to checkpoint with time of last use, so grace period restarts from last use.
+ * This protects old unreferenced blobs reused by a push, for which manifest
+ * is not pushed yet. Blob references index is checked then as well, it protects blobs
+ * referenced by manifests pushed after mark phase: manifest push updates the index
+ * before manifest links are added.
+ * </p>
+ * <p>
+ * Only removal is incremental: every run removes at most one batch of blobs,
+ * so large clean up is spread over several runs. Marks are not persisted and mark phase
+ * is full on every run, because manifests may be pushed or removed between runs.
+ * </p>
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class BlobsGarbageCollector {
+
+    /**
+     * Default grace period.
+     */
+    private static final Duration DEFAULT_GRACE = Duration.ofDays(1);
+
+    /**
+     * Default number of repositories traversed in parallel.
+     */
+    private static final int DEFAULT_WORKERS = 4;
+
+    /**
+     * Default maximum number of blobs removed in one run.
+     */
+    private static final int DEFAULT_BATCH = 1000;
+
+    /**
+     * Manifest revision link key pattern, relative to repositories root.
+     */
+    private static final Pattern REVISION = Pattern.compile(
+        "(?<repo>.+)/_manifests/revisions/(?<alg>[^/]+)/(?<hex>[^/]+)/link"
+    );
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Storage layout.
+     */
+    private final Layout layout;
+
+    /**
+     * Scan of stored blobs.
+     */
+    private final BlobsScan scan;
+
+    /**
+     * Blob uses.
+     */
+    private final BlobUses uses;
+
+    /**
+     * Checkpoint key.
+     */
+    private final Key checkpoint;
+
+    /**
+     * Grace period.
+     */
+    private final Duration grace;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Number of repositories traversed in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * Maximum number of blobs removed in one run.
+     */
+    private final int batch;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     */
+    public BlobsGarbageCollector(final Storage storage, final Layout layout) {
+        this(storage, layout, BlobsGarbageCollector.DEFAULT_GRACE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param grace Grace period.
+     */
+    public BlobsGarbageCollector(
+        final Storage storage, final Layout layout, final Duration grace
+    ) {
+        this(
+            storage, layout, grace, Clock.systemUTC(),
+            BlobsGarbageCollector.DEFAULT_WORKERS, BlobsGarbageCollector.DEFAULT_BATCH
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param grace Grace period.
+     * @param clock Clock.
+     * @param parallelism Number of repositories traversed in parallel.
+     * @param batch Maximum number of blobs removed in one run.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public BlobsGarbageCollector(
+        final Storage storage,
+        final Layout layout,
+        final Duration grace,
+        final Clock clock,
+        final int parallelism,
+        final int batch
+    ) {
+        this.storage = storage;
+        this.layout = layout;
+        this.grace = grace;
+        this.clock = clock;
+        this.parallelism = parallelism;
+        this.batch = batch;
+        this.scan = new BlobsScan(storage, layout);
+        this.uses = new BlobUses.Stored(storage, layout);
+        this.checkpoint = new Key.From(layout.collector(), "blobs-candidates");
+    }
+
+    /**
+     * Collect garbage: remove expired unreferenced blobs and save checkpoint.
+     *
+     * @return Report.
+     */
+    public CompletionStage<Report> collect() {
+        return this.run(false);
+    }
+
+    /**
+     * Dry run: find blobs to be removed without modifying storage.
+     *
+     * @return Report.
+     */
+    public CompletionStage<Report> report() {
+        return this.run(true);
+    }
+
+    /**
+     * Run garbage collection.
+     *
+     * @param dry Dry run flag.
+     * @return Report.
+     */
+    private CompletionStage<Report> run(final boolean dry) {
+        final Instant now = this.clock.instant();
+        return this.mark().thenCompose(
+            marked -> this.scan.keys().thenCompose(
+                blobs -> this.candidates().thenCompose(
+                    previous -> {
+                        final Map<String, List<Key>> unreferenced = new TreeMap<>(blobs);
+                        unreferenced.keySet().removeAll(marked);
+                        final Map<String, Instant> candidates = new ConcurrentSkipListMap<>();
+                        final Map<String, List<Key>> expired = new TreeMap<>();
+                        for (final Map.Entry<String, List<Key>> blob : unreferenced.entrySet()) {
+                            final Instant first = previous.getOrDefault(blob.getKey(), now);
+                            if (expired.size() < this.batch
+                                && first.plus(this.grace).isBefore(now)) {
+                                expired.put(blob.getKey(), blob.getValue());
+                            } else {
+                                candidates.put(blob.getKey(), first);
+                            }
+                        }
+                        return this.sweep(dry, expired, candidates).thenCompose(
+                            indexed -> {
+                                unreferenced.keySet().removeAll(indexed);
+                                expired.keySet().removeAll(indexed);
+                                expired.keySet().removeAll(candidates.keySet());
+                                final Report report = new Report(
+                                    marked.size() + indexed.size(),
+                                    unreferenced.keySet(),
+                                    expired.keySet()
+                                );
+                                final CompletionStage<Report> res;
+                                if (dry) {
+                                    res = CompletableFuture.completedFuture(report);
+                                } else {
+                                    res = this.save(candidates).thenApply(nothing -> report);
+                                }
+                                return res;
+                            }
+                        );
+                    }
+                )
+            )
+        );
+    }
+
+    /**
+     * Remove expired blobs unless it is dry run. Last use and blob references index
+     * are checked right before removal of every blob: blob used within grace period
+     * is added to candidates with time of last use, blob referenced by manifest pushed
+     * after mark phase is kept.
+     *
+     * @param dry Dry run flag.
+     * @param expired Data keys of expired blobs by digest.
+     * @param candidates Candidates to save to checkpoint.
+     * @return Digests of blobs found referenced in index.
+     */
+    private CompletionStage<Set<String>> sweep(
+        final boolean dry,
+        final Map<String, List<Key>> expired,
+        final Map<String, Instant> candidates
+    ) {
+        final Set<String> indexed = ConcurrentHashMap.newKeySet();
+        return this.parallel(
+            new ArrayList<>(expired.keySet()),
+            digest -> this.used(new Digest.FromString(digest)).thenCompose(
+                used -> {
+                    final CompletionStage<Void> res;
+                    if (used.isPresent()) {
+                        candidates.put(digest, used.get());
+                        res = CompletableFuture.allOf();
+                    } else {
+                        res = this.unindexed(dry, digest, expired.get(digest)).thenAccept(
+                            unindexed -> {
+                                if (!unindexed) {
+                                    indexed.add(digest);
+                                }
+                            }
+                        );
+                    }
+                    return res;
+                }
+            )
+        ).thenApply(nothing -> indexed);
+    }
+
+    /**
+     * Last use of blob within grace period.
+     *
+     * @param blob Blob digest.
+     * @return Last use time, empty if blob was not used within grace period.
+     */
+    private CompletionStage<Optional<Instant>> used(final Digest blob) {
+        final Instant now = this.clock.instant();
+        return this.uses.last(blob).thenApply(
+            last -> last.filter(time -> time.plus(this.grace).isAfter(now))
+        );
+    }
+
+    /**
+     * Check blob is not referenced according to blob references index
+     * and remove it with its use mark unless it is dry run.
+     *
+     * @param dry Dry run flag.
+     * @param digest Blob digest.
+     * @param keys Blob data keys.
+     * @return True if blob is not referenced in index.
+     */
+    private CompletionStage<Boolean> unindexed(
+        final boolean dry, final String digest, final List<Key> keys
+    ) {
+        final Digest blob = new Digest.FromString(digest);
+        return new BlobRefs(this.storage, this.layout).referenced(blob).thenCompose(
+            referenced -> {
+                final CompletionStage<Void> res;
+                if (referenced || dry) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.delete(keys).thenCompose(nothing -> this.uses.forget(blob));
+                }
+                return res.thenApply(nothing -> !referenced);
+            }
+        );
+    }
+
+    /**
+     * Remove all data keys of blob.
+     *
+     * @param keys Blob data keys.
+     * @return Completion of removal.
+     */
+    private CompletionStage<Void> delete(final List<Key> keys) {
+        return CompletableFuture.allOf(
+            keys.stream().map(this.storage::delete).toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Mark phase: find digests of all blobs referenced by manifests.
+     *
+     * @return Referenced digests.
+     */
+    private CompletionStage<Set<String>> mark() {
+        final Key root = this.layout.repositories();
+        return this.storage.list(root).thenCompose(
+            keys -> {
+                final Map<RepoName, List<Digest>> revisions = BlobsGarbageCollector.revisions(
+                    root, keys
+                );
+                final Set<String> marked = ConcurrentHashMap.newKeySet();
+                return this.parallel(
+                    new ArrayList<>(revisions.entrySet()),
+                    entry -> {
+                        CompletableFuture<Void> repo = CompletableFuture.allOf();
+                        for (final Digest digest : entry.getValue()) {
+                            repo = repo.thenCompose(
+                                nothing -> this.mark(entry.getKey(), digest, marked)
+                            );
+                        }
+                        return repo;
+                    }
+                ).thenApply(nothing -> marked);
+            }
+        );
+    }
+
+    /**
+     * Mark manifest blob and all digests referenced by manifest.
+     *
+     * @param repo Repository name.
+     * @param digest Manifest digest.
+     * @param marked Marked digests.
+     * @return Completion of marking.
+     */
+    private CompletableFuture<Void> mark(
+        final RepoName repo, final Digest digest, final Set<String> marked
+    ) {
+        marked.add(digest.string());
+        return this.scan.mentioned(repo, digest).thenAccept(
+            mentioned -> mentioned.ifPresent(marked::addAll)
+        ).toCompletableFuture();
+    }
+
+    /**
+     * Read checkpoint.
+     *
+     * @return Unreferenced blobs found by previous run with time they were first found.
+     */
+    private CompletionStage<Map<String, Instant>> candidates() {
+        return this.storage.exists(this.checkpoint).thenCompose(
+            exists -> {
+                final CompletionStage<Map<String, Instant>> res;
+                if (exists) {
+                    res = this.storage.value(this.checkpoint)
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenApply(
+                            text -> Arrays.stream(text.split("\n"))
+                                .map(line -> line.split(" "))
+                                .filter(parts -> parts.length == 2)
+                                .collect(
+                                    Collectors.toMap(
+                                        parts -> parts[0],
+                                        parts -> Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                                        (first, second) -> first
+                                    )
+                                )
+                        );
+                } else {
+                    res = CompletableFuture.completedFuture(Collections.emptyMap());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Save checkpoint.
+     *
+     * @param candidates Unreferenced blobs with time they were first found.
+     * @return Completion of save.
+     */
+    private CompletionStage<Void> save(final Map<String, Instant> candidates) {
+        return this.storage.save(
+            this.checkpoint,
+            new Content.From(
+                candidates.entrySet().stream()
+                    .map(
+                        entry -> String.format(
+                            "%s %d\n", entry.getKey(), entry.getValue().toEpochMilli()
+                        )
+                    )
+                    .collect(Collectors.joining())
+                    .getBytes(StandardCharsets.US_ASCII)
+            )
+        );
+    }
+
+    /**
+     * Process items with bounded parallelism.
+     *
+     * @param items Items.
+     * @param action Action to perform for each item.
+     * @param <T> Item type.
+     * @return Completion of processing.
+     */
+    private <T> CompletionStage<Void> parallel(
+        final List<T> items, final Function<T, CompletionStage<Void>> action
+    ) {
+        final int workers = Math.max(1, Math.min(this.parallelism, items.size()));
+        final CompletableFuture<?>[] chains = new CompletableFuture<?>[workers];
+        for (int worker = 0; worker < workers; worker += 1) {
+            CompletableFuture<Void> chain = CompletableFuture.allOf();
+            for (int idx = worker; idx < items.size(); idx += workers) {
+                final T item = items.get(idx);
+                chain = chain.thenCompose(nothing -> action.apply(item));
+            }
+            chains[worker] = chain;
+        }
+        return CompletableFuture.allOf(chains);
+    }
+
+    /**
+     * Find manifest revisions of all repositories.
+     *
+     * @param root Repositories root key.
+     * @param keys Keys inside repositories root.
+     * @return Manifest digests by repository.
+     */
+    private static Map<RepoName, List<Digest>> revisions(
+        final Key root, final Collection<Key> keys
+    ) {
+        final Map<RepoName, List<Digest>> revisions = new HashMap<>();
+        for (final Key key : keys) {
+            final Matcher matcher = BlobsGarbageCollector.REVISION.matcher(
+                BlobsGarbageCollector.relative(root, key)
+            );
+            if (matcher.matches()) {
+                revisions.computeIfAbsent(
+                    new RepoName.Simple(matcher.group("repo")), name -> new ArrayList<>(1)
+                ).add(BlobsGarbageCollector.digest(matcher));
+            }
+        }
+        return revisions;
+    }
+
+    /**
+     * Digest from matched key.
+     *
+     * @param matcher Matcher of key with algorithm and hex groups.
+     * @return Digest.
+     */
+    private static Digest digest(final Matcher matcher) {
+        return new Digest.FromString(
+            String.format("%s:%s", matcher.group("alg"), matcher.group("hex"))
+        );
+    }
+
+    /**
+     * Key string relative to root.
+     *
+     * @param root Root key.
+     * @param key Key inside root.
+     * @return Relative key string.
+     */
+    private static String relative(final Key root, final Key key) {
+        return key.string().substring(root.string().length() + 1);
+    }
+
+    /**
+     * Garbage collection report.
+     *
+     * @since 0.13
+     */
+    public static final class Report {
+
+        /**
+         * Number of referenced digests.
+         */
+        private final int refs;
+
+        /**
+         * Unreferenced blobs.
+         */
+        private final Collection<String> unrefs;
+
+        /**
+         * Blobs removed or to be removed on dry run.
+         */
+        private final Collection<String> expired;
+
+        /**
+         * Ctor.
+         *
+         * @param refs Number of referenced digests.
+         * @param unrefs Unreferenced blobs.
+         * @param expired Blobs removed or to be removed on dry run.
+         */
+        Report(final int refs, final Collection<String> unrefs, final Collection<String> expired) {
+            this.refs = refs;
+            this.unrefs = new ArrayList<>(unrefs);
+            this.expired = new ArrayList<>(expired);
+        }
+
+        /**
+         * Number of digests referenced by manifests.
+         *
+         * @return Number of referenced digests.
+         */
+        public int referenced() {
+            return this.refs;
+        }
+
+        /**
+         * Blobs not referenced by any manifest, including ones in grace period.
+         *
+         * @return Unreferenced blobs digests.
+         */
+        public Collection<Digest> unreferenced() {
+            return Report.digests(this.unrefs);
+        }
+
+        /**
+         * Blobs removed by collection or to be removed on dry run.
+         *
+         * @return Removed blobs digests.
+         */
+        public Collection<Digest> removed() {
+            return Report.digests(this.expired);
+        }
+
+        /**
+         * Convert strings to digests.
+         *
+         * @param strings Digest strings.
+         * @return Digests.
+         */
+        private static Collection<Digest> digests(final Collection<String> strings) {
+            return strings.stream().map(Digest.FromString::new).collect(Collectors.toList());
+        }
+    }
+}
@@ -26,6 +26,8 @@ package com.artipie.docker.asto;
 import com.artipie.asto.Key;
 import com.artipie.docker.Digest;
 import com.artipie.docker.RepoName;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Blobs layout in storage. Used to evaluate location for blobs in storage.
@@ -42,4 +44,17 @@ public interface BlobsLayout {
      * @return Key for storing blob.
      */
     Key blob(RepoName repo, Digest digest);
+
+    /**
+     * Get keys to read blob from, in lookup order.
+     * Blob is read from first existing key, by default it is the only key
+     * where blob is stored.
+     *
+     * @param repo Repository name.
+     * @param digest Blob digest.
+     * @return Keys to read blob from.
+     */
+    default List<Key> reads(final RepoName repo, final Digest digest) {
+        return Collections.singletonList(this.blob(repo, digest));
+    }
 }
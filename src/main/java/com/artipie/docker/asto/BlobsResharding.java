@@ -0,0 +1,310 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Online migration of blobs from one sharded layout to another.
+ * <p>
+ * Migration is done by copy then cutover: {@link #copy()} copies blobs
+ * to keys of target layout leaving source keys in place. Registry should be
+ * switched to {@link #layout()} before first copy and kept on it for the whole
+ * cutover: it writes blobs with target layout and reads them with target layout first,
+ * falling back to source layout, so blobs not copied yet or already removed
+ * from source keys are served. After all registry instances are switched
+ * {@link #copy()} should be run again to copy blobs pushed with source layout,
+ * then {@link #cleanup()} removes source keys and registry can be switched
+ * to target layout.
+ * </p>
+ * <p>
+ * Blobs are processed in batches sorted by key, blob content is streamed
+ * from source key to target key. Last processed key is saved to checkpoint
+ * after every batch, so interrupted migration is resumed from checkpoint.
+ * Blobs already present in target layout are skipped.
+ * </p>
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class BlobsResharding {
+
+    /**
+     * Default number of blobs processed in one batch.
+     */
+    private static final int DEFAULT_BATCH = 100;
+
+    /**
+     * Checkpoint key.
+     */
+    private static final Key CHECKPOINT = new Key.From("_migration", "blobs-resharding");
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Source layout.
+     */
+    private final ShardedLayout source;
+
+    /**
+     * Target layout.
+     */
+    private final ShardedLayout target;
+
+    /**
+     * Number of blobs processed in one batch.
+     */
+    private final int batch;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param source Source layout.
+     * @param target Target layout.
+     */
+    public BlobsResharding(
+        final Storage storage, final ShardedLayout source, final ShardedLayout target
+    ) {
+        this(storage, source, target, BlobsResharding.DEFAULT_BATCH);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param source Source layout.
+     * @param target Target layout.
+     * @param batch Number of blobs processed in one batch.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public BlobsResharding(
+        final Storage storage,
+        final ShardedLayout source,
+        final ShardedLayout target,
+        final int batch
+    ) {
+        this.storage = storage;
+        this.source = source;
+        this.target = target;
+        this.batch = batch;
+    }
+
+    /**
+     * Layout for registry during migration: writes blobs to target keys
+     * and reads them from target keys, falling back to source keys.
+     *
+     * @return Fallback layout.
+     */
+    public Layout layout() {
+        return new FallbackLayout(this.target, this.source);
+    }
+
+    /**
+     * Copy blobs from source keys to target keys.
+     * Migration is resumed from checkpoint, checkpoint is removed when all blobs are copied.
+     *
+     * @return Number of copied blobs.
+     */
+    public CompletionStage<Integer> copy() {
+        return this.resumed().thenCompose(
+            from -> this.blobs().thenCompose(
+                blobs -> {
+                    final List<Map.Entry<Key, Digest>> remaining = blobs.stream()
+                        .filter(blob -> blob.getKey().string().compareTo(from) > 0)
+                        .collect(Collectors.toList());
+                    final AtomicInteger copied = new AtomicInteger();
+                    CompletableFuture<Void> chain = CompletableFuture.allOf();
+                    for (int start = 0; start < remaining.size(); start += this.batch) {
+                        final List<Map.Entry<Key, Digest>> part = remaining.subList(
+                            start, Math.min(start + this.batch, remaining.size())
+                        );
+                        chain = chain.thenCompose(
+                            nothing -> CompletableFuture.allOf(
+                                part.stream()
+                                    .map(blob -> this.copy(blob, copied).toCompletableFuture())
+                                    .toArray(CompletableFuture[]::new)
+                            )
+                        ).thenCompose(
+                            nothing -> this.storage.save(
+                                BlobsResharding.CHECKPOINT,
+                                new Content.From(
+                                    part.get(part.size() - 1).getKey().string()
+                                        .getBytes(StandardCharsets.UTF_8)
+                                )
+                            )
+                        );
+                    }
+                    return chain.thenCompose(
+                        nothing -> this.storage.delete(BlobsResharding.CHECKPOINT)
+                    ).thenApply(nothing -> copied.get());
+                }
+            )
+        );
+    }
+
+    /**
+     * Remove source keys of blobs present in target layout.
+     *
+     * @return Number of removed keys.
+     */
+    public CompletionStage<Integer> cleanup() {
+        return this.blobs().thenCompose(
+            blobs -> {
+                final AtomicInteger removed = new AtomicInteger();
+                CompletableFuture<Void> chain = CompletableFuture.allOf();
+                for (int start = 0; start < blobs.size(); start += this.batch) {
+                    final List<Map.Entry<Key, Digest>> part = blobs.subList(
+                        start, Math.min(start + this.batch, blobs.size())
+                    );
+                    chain = chain.thenCompose(
+                        nothing -> CompletableFuture.allOf(
+                            part.stream()
+                                .map(blob -> this.remove(blob, removed).toCompletableFuture())
+                                .toArray(CompletableFuture[]::new)
+                        )
+                    );
+                }
+                return chain.thenApply(nothing -> removed.get());
+            }
+        );
+    }
+
+    /**
+     * Copy blob from source key to target key if it is not copied yet.
+     *
+     * @param blob Source key with blob digest.
+     * @param copied Counter of copied blobs.
+     * @return Completion of copy.
+     */
+    private CompletionStage<Void> copy(
+        final Map.Entry<Key, Digest> blob, final AtomicInteger copied
+    ) {
+        final Key key = blob.getKey();
+        final Key dest = this.target.blob(blob.getValue());
+        return this.storage.exists(dest).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = CompletableFuture.allOf();
+                } else {
+                    res = this.storage.value(key)
+                        .thenCompose(content -> this.storage.save(dest, content))
+                        .thenRun(copied::incrementAndGet);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Remove source key if blob is present in target layout.
+     *
+     * @param blob Source key with blob digest.
+     * @param removed Counter of removed keys.
+     * @return Completion of removal.
+     */
+    private CompletionStage<Void> remove(
+        final Map.Entry<Key, Digest> blob, final AtomicInteger removed
+    ) {
+        final Key key = blob.getKey();
+        final Key dest = this.target.blob(blob.getValue());
+        return this.storage.exists(dest).thenCompose(
+            exists -> {
+                final CompletionStage<Void> res;
+                if (exists) {
+                    res = this.storage.delete(key).thenRun(removed::incrementAndGet);
+                } else {
+                    res = CompletableFuture.allOf();
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * List blobs keys of source layout sorted by key.
+     *
+     * @return Sorted keys with blob digests.
+     */
+    private CompletionStage<List<Map.Entry<Key, Digest>>> blobs() {
+        return new BlobsScan(this.storage, this.source).keys().thenApply(
+            blobs -> blobs.entrySet().stream()
+                .flatMap(
+                    entry -> entry.getValue().stream().<Map.Entry<Key, Digest>>map(
+                        key -> new AbstractMap.SimpleImmutableEntry<>(
+                            key, new Digest.FromString(entry.getKey())
+                        )
+                    )
+                )
+                .filter(
+                    blob -> {
+                        final String str = this.source.blob(blob.getValue()).string();
+                        return str.equals(blob.getKey().string())
+                            && !str.equals(this.target.blob(blob.getValue()).string());
+                    }
+                )
+                .sorted(Comparator.comparing(blob -> blob.getKey().string()))
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Read checkpoint.
+     *
+     * @return Last processed key, empty string if there is no checkpoint.
+     */
+    private CompletionStage<String> resumed() {
+        return this.storage.exists(BlobsResharding.CHECKPOINT).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.storage.value(BlobsResharding.CHECKPOINT)
+                        .thenCompose(
+                            content -> new PublisherAs(content).string(StandardCharsets.UTF_8)
+                        );
+                } else {
+                    res = CompletableFuture.completedFuture("");
+                }
+                return res;
+            }
+        );
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scan of blobs stored with layout, shared by blob maintenance tasks
+ * such as garbage collection, cache eviction and resharding.
+ * Finds blob data keys under blobs root of layout for any sharding,
+ * blob may have several keys while blobs are resharded,
+ * and digests mentioned in manifest content.
+ * Scan lists all keys under blobs root, so its cost grows with number of blobs.
+ *
+ * @since 0.13
+ */
+public final class BlobsScan {
+
+    /**
+     * Blob data key pattern, relative to blobs root.
+     */
+    private static final Pattern BLOB = Pattern.compile(
+        "(?<alg>[^/]+)/(?:.+/)?(?<hex>[^/]+)/data"
+    );
+
+    /**
+     * Digest pattern.
+     */
+    private static final Pattern DIGESTS = Pattern.compile(
+        "[a-z0-9]+(?:[.+_-][a-z0-9]+)*:[a-fA-F0-9]{32,}"
+    );
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Storage layout.
+     */
+    private final Layout layout;
+
+    /**
+     * Blobs root key.
+     */
+    private final Key root;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     */
+    public BlobsScan(final Storage storage, final Layout layout) {
+        this.storage = storage;
+        this.layout = layout;
+        this.root = layout.blobs();
+    }
+
+    /**
+     * List blob data keys.
+     *
+     * @return Blob data keys by digest string.
+     */
+    public CompletionStage<Map<String, List<Key>>> keys() {
+        return this.storage.list(this.root).thenApply(this::keys);
+    }
+
+    /**
+     * Read digests mentioned in manifest content: config, layers
+     * and manifests referenced from manifest list.
+     *
+     * Manifest blob is looked up with layout, so it is found while blobs are resharded.
+     *
+     * @param repo Repository name.
+     * @param manifest Manifest digest.
+     * @return Digest strings, empty if manifest blob does not exist.
+     */
+    public CompletionStage<Optional<Set<String>>> mentioned(
+        final RepoName repo, final Digest manifest
+    ) {
+        return new AstoBlobs(this.storage, this.layout, repo).blob(manifest).thenCompose(
+            found -> found.map(
+                blob -> blob.content()
+                    .thenCompose(
+                        content -> new PublisherAs(content).string(StandardCharsets.UTF_8)
+                    )
+                    .thenApply(BlobsScan::mentioned)
+                    .thenApply(Optional::of)
+            ).orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()))
+        );
+    }
+
+    /**
+     * Find blob data keys.
+     *
+     * @param keys Keys inside blobs root.
+     * @return Blob data keys by digest string.
+     */
+    private Map<String, List<Key>> keys(final Collection<Key> keys) {
+        final int start = this.root.string().length() + 1;
+        final Map<String, List<Key>> blobs = new HashMap<>();
+        for (final Key key : keys) {
+            final Matcher matcher = BlobsScan.BLOB.matcher(key.string().substring(start));
+            if (matcher.matches()) {
+                blobs.computeIfAbsent(
+                    String.format("%s:%s", matcher.group("alg"), matcher.group("hex")),
+                    digest -> new ArrayList<>(1)
+                ).add(key);
+            }
+        }
+        return blobs;
+    }
+
+    /**
+     * Find digests mentioned in manifest content.
+     *
+     * @param json Manifest content.
+     * @return Digest strings.
+     */
+    private static Set<String> mentioned(final String json) {
+        final Set<String> digests = new HashSet<>();
+        final Matcher matcher = BlobsScan.DIGESTS.matcher(json);
+        while (matcher.find()) {
+            digests.add(matcher.group());
+        }
+        return digests;
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.RepoName;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Sorted index of repository names.
+ * <p>
+ * Every repository is registered by empty marker with key {@code <catalog>/<name>/_repo},
+ * where {@code <catalog>} is catalog root of layout, when first manifest is put into it.
+ * Markers are loaded once into sorted in-memory set, so catalog page is read by seeking
+ * to start name without listing all repositories keys.
+ * If index was never built, it is built once from keys of repositories root.
+ * Repository missing in loaded index is registered only if its marker is absent,
+ * so registration costs single marker check per repository and index instance.
+ * </p>
+ * <p>
+ * Every new marker is followed by new index version written to storage.
+ * When loaded index is older than TTL or on {@link #refresh()} only the version is read,
+ * and all markers are listed again only if it changed, so names registered by other
+ * registry nodes become visible within TTL while unchanged catalog is never listed again.
+ * </p>
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class CatalogIndex {
+
+    /**
+     * Repository marker name.
+     */
+    private static final String REPO = "_repo";
+
+    /**
+     * Default time loaded index is used before markers are read again.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Index root key.
+     */
+    private final Key root;
+
+    /**
+     * Repositories root key.
+     */
+    private final Key repos;
+
+    /**
+     * Repository names.
+     */
+    private final NavigableSet<String> sorted;
+
+    /**
+     * Index loading.
+     */
+    private final AtomicReference<CompletableFuture<Void>> loading;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Time loaded index is used before markers are read again.
+     */
+    private final Duration ttl;
+
+    /**
+     * Time when index loading started, null if index is not loaded.
+     */
+    private final AtomicReference<Instant> since;
+
+    /**
+     * Index version in storage when index was loaded.
+     */
+    private final AtomicReference<String> version;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     */
+    public CatalogIndex(final Storage storage, final Layout layout) {
+        this(storage, layout, Clock.systemUTC(), CatalogIndex.DEFAULT_TTL);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param clock Clock.
+     * @param ttl Time loaded index is used before index version is read again.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public CatalogIndex(
+        final Storage storage, final Layout layout, final Clock clock, final Duration ttl
+    ) {
+        this.storage = storage;
+        this.root = layout.catalog();
+        this.repos = layout.repositories();
+        this.clock = clock;
+        this.ttl = ttl;
+        this.sorted = new ConcurrentSkipListSet<>();
+        this.loading = new AtomicReference<>();
+        this.since = new AtomicReference<>();
+        this.version = new AtomicReference<>();
+    }
+
+    /**
+     * Register repository.
+     *
+     * @param name Repository name.
+     * @return Completion of registration.
+     */
+    public CompletionStage<Void> add(final RepoName name) {
+        final CompletionStage<Void> res;
+        if (this.sorted.contains(name.value())) {
+            res = CompletableFuture.allOf();
+        } else {
+            final Key marker = this.marker(name.value());
+            res = this.storage.exists(marker).thenCompose(
+                exists -> {
+                    final CompletionStage<Void> saved;
+                    if (exists) {
+                        saved = CompletableFuture.allOf();
+                    } else {
+                        saved = this.storage.save(marker, new Content.From(new byte[0]))
+                            .thenCompose(nothing -> this.change());
+                    }
+                    return saved;
+                }
+            ).thenRun(() -> this.sorted.add(name.value()));
+        }
+        return res;
+    }
+
+    /**
+     * Read page of repository names.
+     *
+     * @param from From which name to start, exclusive.
+     * @param limit Maximum number of names returned.
+     * @return Ordered repository names.
+     */
+    public CompletionStage<List<RepoName>> names(final Optional<RepoName> from, final int limit) {
+        return this.fresh().thenApply(
+            nothing -> from.map(name -> this.sorted.tailSet(name.value(), false))
+                .orElse(this.sorted)
+                .stream()
+                .limit(limit)
+                .map(RepoName.Simple::new)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Reload index from storage if index version changed since it was loaded.
+     *
+     * @return Completion of reload.
+     */
+    public CompletionStage<Void> refresh() {
+        final Instant now = this.clock.instant();
+        return this.stored().thenCompose(
+            stored -> {
+                if (!stored.equals(this.version.get())) {
+                    this.loading.set(null);
+                }
+                this.since.compareAndSet(null, now);
+                return this.load();
+            }
+        );
+    }
+
+    /**
+     * Load index from storage, checking index version if loaded index is older than TTL.
+     *
+     * @return Completion of loading.
+     */
+    private CompletionStage<Void> fresh() {
+        final Instant loaded = this.since.get();
+        final CompletionStage<Void> res;
+        if (loaded != null && !this.clock.instant().isBefore(loaded.plus(this.ttl))
+            && this.since.compareAndSet(loaded, null)) {
+            res = this.refresh();
+        } else {
+            res = this.load();
+        }
+        return res;
+    }
+
+    /**
+     * Load index from storage once.
+     *
+     * @return Completion of loading.
+     */
+    private CompletionStage<Void> load() {
+        final CompletableFuture<Void> created = new CompletableFuture<>();
+        final CompletableFuture<Void> current = this.loading.updateAndGet(
+            prev -> Optional.ofNullable(prev).orElse(created)
+        );
+        if (current.equals(created)) {
+            this.since.set(this.clock.instant());
+            this.stored().thenCompose(
+                stored -> this.read().thenAccept(
+                    names -> {
+                        this.sorted.addAll(names);
+                        this.version.set(stored);
+                    }
+                )
+            ).whenComplete((nothing, err) -> this.loaded(created, err));
+        }
+        return current;
+    }
+
+    /**
+     * Complete index loading.
+     *
+     * @param loaded Loading future.
+     * @param err Loading error, null if index was loaded successfully.
+     */
+    private void loaded(final CompletableFuture<Void> loaded, final Throwable err) {
+        if (err == null) {
+            loaded.complete(null);
+        } else {
+            this.loading.compareAndSet(loaded, null);
+            loaded.completeExceptionally(err);
+        }
+    }
+
+    /**
+     * Read repository names from index markers, build index if it was never built.
+     *
+     * @return Repository names.
+     */
+    private CompletionStage<Set<String>> read() {
+        final Key built = new Key.From(this.root, "_built");
+        return this.storage.exists(built).thenCompose(
+            exists -> {
+                final CompletionStage<Set<String>> res;
+                if (exists) {
+                    res = this.storage.list(this.root).thenApply(
+                        keys -> CatalogIndex.extract(this.root, keys)
+                    );
+                } else {
+                    res = this.storage.list(this.repos).thenCompose(
+                        keys -> {
+                            final Set<String> found = CatalogIndex.extract(this.repos, keys);
+                            return CompletableFuture.allOf(
+                                found.stream().map(
+                                    name -> this.storage.save(
+                                        this.marker(name), new Content.From(new byte[0])
+                                    ).toCompletableFuture()
+                                ).toArray(CompletableFuture[]::new)
+                            ).thenCompose(
+                                nothing -> this.storage.save(
+                                    built, new Content.From(new byte[0])
+                                )
+                            ).thenApply(nothing -> found);
+                        }
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Read index version from storage.
+     *
+     * @return Version, empty string if index was never changed.
+     */
+    private CompletionStage<String> stored() {
+        final Key key = this.versionKey();
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.storage.value(key)
+                        .thenCompose(content -> new PublisherAs(content).asciiString());
+                } else {
+                    res = CompletableFuture.completedFuture("");
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Write new index version to storage.
+     *
+     * @return Completion of write.
+     */
+    private CompletionStage<Void> change() {
+        return this.storage.save(
+            this.versionKey(),
+            new Content.From(UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII))
+        );
+    }
+
+    /**
+     * Index version key.
+     *
+     * @return Key.
+     */
+    private Key versionKey() {
+        return new Key.From(this.root, "_version");
+    }
+
+    /**
+     * Repository marker key.
+     *
+     * @param name Repository name.
+     * @return Key.
+     */
+    private Key marker(final String name) {
+        return new Key.From(this.root, name, CatalogIndex.REPO);
+    }
+
+    /**
+     * Extract repository names from keys.
+     * Name is a part of key relative to root before first part starting with underscore,
+     * such as {@code _manifests} or {@code _uploads}, or first part of relative key
+     * if there is no such part. Keys starting with underscore are skipped.
+     *
+     * @param root Root key.
+     * @param keys Keys inside root.
+     * @return Repository names.
+     */
+    private static Set<String> extract(final Key root, final Collection<Key> keys) {
+        final Set<String> names = new TreeSet<>();
+        for (final Key key : keys) {
+            final List<String> parts = Arrays.asList(
+                key.string().substring(root.string().length() + 1).split("/")
+            );
+            int end = 1;
+            while (end < parts.size() && !CatalogIndex.internal(parts.get(end))) {
+                end += 1;
+            }
+            if (end == parts.size()) {
+                end = 1;
+            }
+            if (!CatalogIndex.internal(parts.get(0))) {
+                names.add(String.join("/", parts.subList(0, end)));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Check if key part is internal, e.g. {@code _manifests}, not a part of repository name.
+     *
+     * @param part Key part.
+     * @return True if part starts with underscore.
+     */
+    private static boolean internal(final String part) {
+        return !part.isEmpty() && part.charAt(0) == '_';
+    }
+}
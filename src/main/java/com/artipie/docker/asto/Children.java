@@ -25,9 +25,11 @@ package com.artipie.docker.asto;
 
 import com.artipie.asto.Key;
 import java.util.Collection;
-import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Direct children keys for root from collection of keys.
@@ -63,33 +65,46 @@ class Children {
      * @return Ordered child names.
      */
     public Set<String> names() {
-        final Set<String> set = new TreeSet<>();
-        for (final Key key : this.keys) {
-            set.add(this.child(key));
-        }
-        return set;
+        return this.stream().collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Extract child names in single pass over keys.
+     * Consecutive duplicates are skipped, so for keys sorted by storage
+     * every child name is returned once in order of keys.
+     * Names are not sorted and duplicates may remain for unsorted keys.
+     *
+     * @return Child names.
+     */
+    public Stream<String> stream() {
+        final String prefix = String.format("%s/", this.root.string());
+        final AtomicReference<String> last = new AtomicReference<>();
+        return this.keys.stream()
+            .map(key -> this.child(prefix, key))
+            .filter(name -> !name.equals(last.getAndSet(name)));
     }
 
     /**
      * Extract direct root child node from key.
      *
+     * @param prefix Root key string with trailing delimiter.
      * @param key Key.
      * @return Direct child name.
      */
-    private String child(final Key key) {
-        Key child = key;
-        while (true) {
-            final Optional<Key> parent = child.parent();
-            if (!parent.isPresent()) {
-                throw new IllegalStateException(
-                    String.format("Key %s does not belong to root %s", key, this.root)
-                );
-            }
-            if (parent.get().string().equals(this.root.string())) {
-                break;
-            }
-            child = parent.get();
+    private String child(final String prefix, final Key key) {
+        final String str = key.string();
+        if (!str.startsWith(prefix) || str.length() == prefix.length()) {
+            throw new IllegalStateException(
+                String.format("Key %s does not belong to root %s", key, this.root)
+            );
+        }
+        final int end = str.indexOf('/', prefix.length());
+        final String child;
+        if (end < 0) {
+            child = str.substring(prefix.length());
+        } else {
+            child = str.substring(prefix.length(), end);
         }
-        return child.string().substring(this.root.string().length() + 1);
+        return child;
     }
 }
@@ -33,6 +33,7 @@ import com.artipie.docker.ref.ManifestRef;
  *
  * @since 0.7
  */
+@SuppressWarnings("PMD.TooManyMethods")
 public final class DefaultLayout implements Layout {
 
     @Override
@@ -40,9 +41,34 @@ public final class DefaultLayout implements Layout {
         return new Key.From("repositories");
     }
 
+    @Override
+    public Key blobs() {
+        return new Key.From("blobs");
+    }
+
+    @Override
+    public Key refs() {
+        return new Key.From("_refs");
+    }
+
+    @Override
+    public Key catalog() {
+        return new Key.From("_catalog");
+    }
+
+    @Override
+    public Key collector() {
+        return new Key.From("_gc");
+    }
+
+    @Override
+    public Key cache() {
+        return new Key.From("_cache");
+    }
+
     @Override
     public Key blob(final RepoName repo, final Digest digest) {
-        return new BlobKey(digest);
+        return new BlobKey(this.blobs(), digest);
     }
 
     @Override
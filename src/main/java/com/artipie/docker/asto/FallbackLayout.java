@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.ref.ManifestRef;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage layout which reads blobs from fallback layout when they are not found
+ * with primary layout. Used while blobs are migrated from one layout to another:
+ * blobs are written to new layout and read from new layout first, then from old one,
+ * so blobs not copied yet or pushed during cutover are always served.
+ * Other elements are located with primary layout.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class FallbackLayout implements Layout {
+
+    /**
+     * Primary layout.
+     */
+    private final Layout primary;
+
+    /**
+     * Fallback layout.
+     */
+    private final Layout fallback;
+
+    /**
+     * Ctor.
+     *
+     * @param primary Primary layout.
+     * @param fallback Fallback layout.
+     */
+    public FallbackLayout(final Layout primary, final Layout fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Key repositories() {
+        return this.primary.repositories();
+    }
+
+    @Override
+    public Key blobs() {
+        return this.primary.blobs();
+    }
+
+    @Override
+    public Key refs() {
+        return this.primary.refs();
+    }
+
+    @Override
+    public Key catalog() {
+        return this.primary.catalog();
+    }
+
+    @Override
+    public Key collector() {
+        return this.primary.collector();
+    }
+
+    @Override
+    public Key cache() {
+        return this.primary.cache();
+    }
+
+    @Override
+    public Key blob(final RepoName repo, final Digest digest) {
+        return this.primary.blob(repo, digest);
+    }
+
+    @Override
+    public List<Key> reads(final RepoName repo, final Digest digest) {
+        final List<Key> keys = new ArrayList<>(this.primary.reads(repo, digest));
+        for (final Key key : this.fallback.reads(repo, digest)) {
+            if (keys.stream().noneMatch(known -> known.string().equals(key.string()))) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public Key manifest(final RepoName repo, final ManifestRef ref) {
+        return this.primary.manifest(repo, ref);
+    }
+
+    @Override
+    public Key tags(final RepoName repo) {
+        return this.primary.tags(repo);
+    }
+
+    @Override
+    public Key upload(final RepoName repo, final String uuid) {
+        return this.primary.upload(repo, uuid);
+    }
+}
@@ -39,4 +39,39 @@ public interface Layout extends BlobsLayout, ManifestsLayout, UploadsLayout {
      * @return Key for storing repositories.
      */
     Key repositories();
+
+    /**
+     * Create blobs root key, all blobs are stored under this key.
+     *
+     * @return Key for storing blobs.
+     */
+    Key blobs();
+
+    /**
+     * Create blob references index root key.
+     *
+     * @return Key for storing blob references.
+     */
+    Key refs();
+
+    /**
+     * Create repositories catalog index root key.
+     *
+     * @return Key for storing catalog index.
+     */
+    Key catalog();
+
+    /**
+     * Create garbage collector state root key.
+     *
+     * @return Key for storing garbage collector state.
+     */
+    Key collector();
+
+    /**
+     * Create proxy cache state root key.
+     *
+     * @return Key for storing proxy cache state.
+     */
+    Key cache();
 }
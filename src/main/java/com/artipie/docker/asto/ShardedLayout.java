@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.ref.ManifestRef;
+
+/**
+ * Storage layout with configurable blobs sharding.
+ * Blobs are fanned out by several prefix directories taken from digest hex,
+ * e.g. {@code blobs/sha256/ab/cd/<hex>/data} for depth 2 and width 2,
+ * so every directory holds less entries on large stores.
+ * Other elements are located same way as in {@link DefaultLayout},
+ * layout with depth 1 and width 2 is same as {@link DefaultLayout}.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class ShardedLayout implements Layout {
+
+    /**
+     * Origin layout.
+     */
+    private final Layout origin;
+
+    /**
+     * Number of prefix directories.
+     */
+    private final int depth;
+
+    /**
+     * Number of hex chars in each prefix directory.
+     */
+    private final int width;
+
+    /**
+     * Ctor.
+     */
+    public ShardedLayout() {
+        this(1, 2);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param depth Number of prefix directories.
+     * @param width Number of hex chars in each prefix directory.
+     */
+    public ShardedLayout(final int depth, final int width) {
+        this(new DefaultLayout(), depth, width);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin layout.
+     * @param depth Number of prefix directories.
+     * @param width Number of hex chars in each prefix directory.
+     */
+    private ShardedLayout(final Layout origin, final int depth, final int width) {
+        this.origin = origin;
+        this.depth = depth;
+        this.width = width;
+    }
+
+    @Override
+    public Key repositories() {
+        return this.origin.repositories();
+    }
+
+    @Override
+    public Key blobs() {
+        return this.origin.blobs();
+    }
+
+    @Override
+    public Key refs() {
+        return this.origin.refs();
+    }
+
+    @Override
+    public Key catalog() {
+        return this.origin.catalog();
+    }
+
+    @Override
+    public Key collector() {
+        return this.origin.collector();
+    }
+
+    @Override
+    public Key cache() {
+        return this.origin.cache();
+    }
+
+    @Override
+    public Key blob(final RepoName repo, final Digest digest) {
+        return this.blob(digest);
+    }
+
+    @Override
+    public Key manifest(final RepoName repo, final ManifestRef ref) {
+        return this.origin.manifest(repo, ref);
+    }
+
+    @Override
+    public Key tags(final RepoName repo) {
+        return this.origin.tags(repo);
+    }
+
+    @Override
+    public Key upload(final RepoName repo, final String uuid) {
+        return this.origin.upload(repo, uuid);
+    }
+
+    /**
+     * Blob key, blobs are shared by all repositories.
+     *
+     * @param digest Blob digest.
+     * @return Key for storing blob.
+     */
+    Key blob(final Digest digest) {
+        return new BlobKey(this.blobs(), digest, this.depth, this.width);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Upload started marker.
+ * Marker stores upload start time as epoch milliseconds.
+ * Markers created by earlier versions are empty and have no start time.
+ *
+ * @since 0.13
+ */
+final class StartedMarker {
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Upload root key.
+     */
+    private final Key root;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param root Upload root key.
+     */
+    StartedMarker(final Storage storage, final Key root) {
+        this.storage = storage;
+        this.root = root;
+    }
+
+    /**
+     * Marker key.
+     *
+     * @return Key.
+     */
+    public Key key() {
+        return new Key.From(this.root, "started");
+    }
+
+    /**
+     * Save marker.
+     *
+     * @param time Upload start time.
+     * @return Completion of save operation.
+     */
+    public CompletionStage<Void> save(final Instant time) {
+        return this.storage.save(
+            this.key(),
+            new Content.From(
+                String.valueOf(time.toEpochMilli()).getBytes(StandardCharsets.US_ASCII)
+            )
+        );
+    }
+
+    /**
+     * Read upload start time.
+     *
+     * @return Start time, empty if marker does not exist or has no time.
+     */
+    public CompletionStage<Optional<Instant>> time() {
+        final Key key = this.key();
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Optional<Instant>> result;
+                if (exists) {
+                    result = this.storage.value(key)
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenApply(StartedMarker::parse);
+                } else {
+                    result = CompletableFuture.completedFuture(Optional.empty());
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Parse marker content.
+     *
+     * @param content Marker content.
+     * @return Start time, empty if content is not a valid time.
+     */
+    private static Optional<Instant> parse(final String content) {
+        Optional<Instant> time;
+        try {
+            time = Optional.of(Instant.ofEpochMilli(Long.parseLong(content.trim())));
+        } catch (final NumberFormatException ex) {
+            time = Optional.empty();
+        }
+        return time;
+    }
+}
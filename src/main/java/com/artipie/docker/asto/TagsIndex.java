@@ -0,0 +1,363 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Tag;
+import com.artipie.docker.misc.LruCache;
+import com.artipie.docker.ref.ManifestRef;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Sorted in-memory index of repository tags.
+ * Tags of repository are loaded from storage on first request and are kept sorted,
+ * so tags page is read by seeking to start tag in O(log n + limit).
+ * Loaded tags are updated in place when manifest is put by tag on this node.
+ * Every change of repository tags, on any registry node, writes new tags version
+ * to storage next to tags root. When loaded tags are older than TTL only the version
+ * is read, and tags are listed from storage again only if it changed,
+ * so tags added or removed by other registry nodes become visible within TTL
+ * while unchanged repositories are never listed again.
+ * Least recently used repositories are evicted when index reaches max size.
+ *
+ * @since 0.13
+ */
+public final class TagsIndex {
+
+    /**
+     * Default time loaded tags are used before they are loaded again.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Default max number of repositories in the index.
+     */
+    private static final int DEFAULT_MAX = 1000;
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Manifests layout.
+     */
+    private final ManifestsLayout layout;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Time loaded tags are used before they are loaded again.
+     */
+    private final Duration ttl;
+
+    /**
+     * Loaded tags by repository name.
+     */
+    private final LruCache<String, Loaded> repos;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Manifests layout.
+     */
+    public TagsIndex(final Storage storage, final ManifestsLayout layout) {
+        this(
+            storage, layout, Clock.systemUTC(), TagsIndex.DEFAULT_TTL, TagsIndex.DEFAULT_MAX
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Manifests layout.
+     * @param clock Clock.
+     * @param ttl Time loaded tags are used before they are loaded again.
+     * @param max Max number of repositories in the index.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public TagsIndex(
+        final Storage storage,
+        final ManifestsLayout layout,
+        final Clock clock,
+        final Duration ttl,
+        final int max
+    ) {
+        this.storage = storage;
+        this.layout = layout;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.repos = new LruCache<>(max);
+    }
+
+    /**
+     * Register manifest put by reference.
+     * Only tags are registered: new tags version is written to storage
+     * and the tag is added to loaded tags of repository.
+     * Tags of repository not loaded yet are loaded from storage later.
+     *
+     * @param name Repository name.
+     * @param ref Manifest reference.
+     * @return Completion of registration.
+     */
+    public CompletionStage<Void> added(final RepoName name, final ManifestRef ref) {
+        final CompletionStage<Void> res;
+        if (new Digest.FromString(ref.string()).valid()) {
+            res = CompletableFuture.allOf();
+        } else {
+            res = this.change(name).thenCompose(
+                nothing -> this.repos.get(name.value())
+                    .<CompletionStage<Void>>map(
+                        loaded -> loaded.tags.thenAccept(tags -> tags.add(ref.string()))
+                    )
+                    .orElseGet(() -> CompletableFuture.allOf())
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Read page of repository tags.
+     *
+     * @param name Repository name.
+     * @param from From which tag to start, exclusive.
+     * @param limit Maximum number of tags returned.
+     * @return Ordered tags.
+     */
+    public CompletionStage<List<Tag>> tags(
+        final RepoName name, final Optional<Tag> from, final int limit
+    ) {
+        return this.load(name).thenApply(
+            tags -> from.map(tag -> tags.tailSet(tag.value(), false))
+                .orElse(tags)
+                .stream()
+                .limit(limit)
+                .<Tag>map(Tag.Valid::new)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Forget loaded tags of repository after tags were removed from storage,
+     * so they are loaded from storage again on this and other registry nodes.
+     *
+     * @param name Repository name.
+     * @return Completion of update.
+     */
+    public CompletionStage<Void> forget(final RepoName name) {
+        this.repos.remove(name.value());
+        return this.change(name);
+    }
+
+    /**
+     * Load repository tags unless they are loaded and not older than TTL.
+     * Tags older than TTL are listed again only if tags version changed.
+     *
+     * @param name Repository name.
+     * @return Sorted tags.
+     */
+    private CompletableFuture<NavigableSet<String>> load(final RepoName name) {
+        final Instant now = this.clock.instant();
+        final Optional<Loaded> current = this.repos.get(name.value());
+        final Loaded res;
+        if (current.isPresent() && !current.get().stale(now, this.ttl)) {
+            res = current.get();
+        } else {
+            final Loaded created = new Loaded(now);
+            res = this.repos.merge(
+                name.value(), created,
+                (prev, next) -> Optional.of(prev).filter(old -> !old.stale(now, this.ttl))
+                    .orElse(next)
+            );
+            if (res.equals(created)) {
+                this.read(name, created, current);
+            }
+        }
+        return res.tags;
+    }
+
+    /**
+     * Read repository tags from storage, previously loaded tags are reused
+     * if tags version in storage is the same.
+     *
+     * @param name Repository name.
+     * @param loaded Loaded tags to complete.
+     * @param previous Previously loaded tags.
+     */
+    private void read(final RepoName name, final Loaded loaded, final Optional<Loaded> previous) {
+        this.version(name).thenCompose(
+            version -> previous
+                .filter(prev -> version.equals(prev.version.getNow("")))
+                .map(prev -> prev.tags)
+                .orElseGet(() -> this.list(name))
+                .thenApply(
+                    tags -> {
+                        loaded.version.complete(version);
+                        return tags;
+                    }
+                )
+        ).whenComplete(
+            (tags, err) -> {
+                if (err == null) {
+                    loaded.tags.complete(tags);
+                } else {
+                    this.repos.remove(name.value(), loaded);
+                    loaded.tags.completeExceptionally(err);
+                }
+            }
+        );
+    }
+
+    /**
+     * List repository tags in storage.
+     *
+     * @param name Repository name.
+     * @return Sorted tags.
+     */
+    private CompletableFuture<NavigableSet<String>> list(final RepoName name) {
+        final Key root = this.layout.tags(name);
+        return this.storage.list(root).thenApply(
+            keys -> new Children(root, keys).stream().collect(
+                Collectors.toCollection(ConcurrentSkipListSet::new)
+            )
+        );
+    }
+
+    /**
+     * Read tags version of repository.
+     *
+     * @param name Repository name.
+     * @return Version, empty string if tags were never changed.
+     */
+    private CompletionStage<String> version(final RepoName name) {
+        final Key key = this.versionKey(name);
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<String> res;
+                if (exists) {
+                    res = this.storage.value(key)
+                        .thenCompose(content -> new PublisherAs(content).asciiString());
+                } else {
+                    res = CompletableFuture.completedFuture("");
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Write new tags version of repository.
+     *
+     * @param name Repository name.
+     * @return Completion of write.
+     */
+    private CompletionStage<Void> change(final RepoName name) {
+        return this.storage.save(
+            this.versionKey(name),
+            new Content.From(
+                UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII)
+            )
+        );
+    }
+
+    /**
+     * Tags version key of repository, next to tags root.
+     * Key name doesn't start with tags root name, so it is not listed with tags
+     * by storages listing keys by prefix.
+     *
+     * @param name Repository name.
+     * @return Key.
+     */
+    private Key versionKey(final RepoName name) {
+        final Key tags = this.layout.tags(name);
+        return new Key.From(tags.parent().orElse(Key.ROOT), "_tags_version");
+    }
+
+    /**
+     * Tags of repository loaded from storage.
+     *
+     * @since 0.13
+     */
+    private static final class Loaded {
+
+        /**
+         * Sorted tags, could be in progress.
+         */
+        private final CompletableFuture<NavigableSet<String>> tags;
+
+        /**
+         * Tags version in storage when tags were loaded.
+         */
+        private final CompletableFuture<String> version;
+
+        /**
+         * Time when loading started.
+         */
+        private final Instant since;
+
+        /**
+         * Ctor.
+         *
+         * @param since Time when loading started.
+         */
+        Loaded(final Instant since) {
+            this.tags = new CompletableFuture<>();
+            this.version = new CompletableFuture<>();
+            this.since = since;
+        }
+
+        /**
+         * Check if tags should be loaded again.
+         * Loading in progress is never stale, so concurrent requests wait for it.
+         *
+         * @param now Current time.
+         * @param ttl Time loaded tags are used.
+         * @return True if loaded tags are older than TTL.
+         */
+        boolean stale(final Instant now, final Duration ttl) {
+            return this.tags.isDone() && !now.isBefore(this.since.plus(ttl));
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.misc.LruCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Registry of active uploads.
+ * Keeps state of uploads started or appended by this node in memory,
+ * so upload status checks and chunk appends do not need to list storage.
+ * Storage stays the source of truth: uploads missing in the registry
+ * (e.g. after node restart) are resolved from storage.
+ * Uploads not modified longer than TTL are considered expired.
+ * Number of kept sessions is bounded, least recently used session is dropped
+ * from the registry when bound is reached, so abandoned uploads do not pile up
+ * in memory and dropped upload is resolved from storage as after restart.
+ *
+ * @since 0.13
+ */
+public final class UploadSessions {
+
+    /**
+     * Default upload TTL.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    /**
+     * Default max number of kept sessions.
+     */
+    private static final int MAX = 10_000;
+
+    /**
+     * Sessions by upload UUID.
+     */
+    private final LruCache<String, Session> sessions;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Upload TTL.
+     */
+    private final Duration ttl;
+
+    /**
+     * Ctor.
+     */
+    public UploadSessions() {
+        this(UploadSessions.DEFAULT_TTL);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param ttl Upload TTL.
+     */
+    public UploadSessions(final Duration ttl) {
+        this(Clock.systemUTC(), ttl);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param clock Clock.
+     */
+    public UploadSessions(final Clock clock) {
+        this(clock, UploadSessions.DEFAULT_TTL);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param clock Clock.
+     * @param ttl Upload TTL.
+     */
+    public UploadSessions(final Clock clock, final Duration ttl) {
+        this(clock, ttl, UploadSessions.MAX);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param clock Clock.
+     * @param ttl Upload TTL.
+     * @param max Max number of kept sessions.
+     */
+    public UploadSessions(final Clock clock, final Duration ttl, final int max) {
+        this.sessions = new LruCache<>(max);
+        this.clock = clock;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Find upload session.
+     * Expired session is unregistered and not returned.
+     *
+     * @param repo Repository name.
+     * @param uuid Upload UUID.
+     * @return Session, empty if upload is not registered.
+     */
+    public Optional<Session> find(final RepoName repo, final String uuid) {
+        final Optional<Session> found = this.sessions.get(uuid)
+            .filter(session -> session.repo().equals(repo.value()));
+        if (found.isPresent() && this.expired(found.get().touched())) {
+            this.sessions.remove(uuid, found.get());
+        }
+        return found.filter(session -> !this.expired(session.touched()));
+    }
+
+    /**
+     * Current time.
+     *
+     * @return Current time.
+     */
+    public Instant now() {
+        return this.clock.instant();
+    }
+
+    /**
+     * Check if upload modified at specified time is expired.
+     *
+     * @param time Time of upload start or last modification.
+     * @return True if upload is expired.
+     */
+    public boolean expired(final Instant time) {
+        return time.plus(this.ttl).isBefore(this.clock.instant());
+    }
+
+    /**
+     * Register started upload.
+     *
+     * @param repo Repository name.
+     * @param uuid Upload UUID.
+     */
+    public void started(final RepoName repo, final String uuid) {
+        this.sessions.put(
+            uuid, new Session(repo.value(), uuid, Optional.empty(), 0L, this.clock.instant())
+        );
+    }
+
+    /**
+     * Register chunk appended to upload.
+     *
+     * @param repo Repository name.
+     * @param uuid Upload UUID.
+     * @param digest Appended chunk digest.
+     * @param offset Offset after appending chunk.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public void appended(
+        final RepoName repo, final String uuid, final Digest digest, final long offset
+    ) {
+        this.sessions.put(
+            uuid,
+            new Session(repo.value(), uuid, Optional.of(digest), offset, this.clock.instant())
+        );
+    }
+
+    /**
+     * Unregister finished upload.
+     *
+     * @param uuid Upload UUID.
+     */
+    public void finished(final String uuid) {
+        this.sessions.remove(uuid);
+    }
+
+    /**
+     * Upload session state.
+     *
+     * @since 0.13
+     */
+    public static final class Session {
+
+        /**
+         * Repository name.
+         */
+        private final String rname;
+
+        /**
+         * Upload UUID.
+         */
+        private final String id;
+
+        /**
+         * Digest of appended chunk, empty if nothing was appended yet.
+         */
+        private final Optional<Digest> dgst;
+
+        /**
+         * Current upload offset.
+         */
+        private final long off;
+
+        /**
+         * Time of last upload modification.
+         */
+        private final Instant time;
+
+        /**
+         * Ctor.
+         *
+         * @param repo Repository name.
+         * @param uuid Upload UUID.
+         * @param digest Digest of appended chunk.
+         * @param offset Current upload offset.
+         * @param touched Time of last upload modification.
+         * @checkstyle ParameterNumberCheck (7 lines)
+         */
+        Session(
+            final String repo,
+            final String uuid,
+            final Optional<Digest> digest,
+            final long offset,
+            final Instant touched
+        ) {
+            this.rname = repo;
+            this.id = uuid;
+            this.dgst = digest;
+            this.off = offset;
+            this.time = touched;
+        }
+
+        /**
+         * Repository name.
+         *
+         * @return Repository name string.
+         */
+        public String repo() {
+            return this.rname;
+        }
+
+        /**
+         * Upload UUID.
+         *
+         * @return UUID.
+         */
+        public String uuid() {
+            return this.id;
+        }
+
+        /**
+         * Digest of appended chunk.
+         *
+         * @return Digest, empty if nothing was appended yet.
+         */
+        public Optional<Digest> digest() {
+            return this.dgst;
+        }
+
+        /**
+         * Current upload offset.
+         *
+         * @return Offset.
+         */
+        public long offset() {
+            return this.off;
+        }
+
+        /**
+         * Time of last upload modification.
+         *
+         * @return Time.
+         */
+        public Instant touched() {
+            return this.time;
+        }
+    }
+}
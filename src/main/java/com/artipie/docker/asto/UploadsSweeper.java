@@ -0,0 +1,423 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.docker.RepoName;
+import com.jcabi.log.Logger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Sweeper of expired uploads.
+ * Removes uploads abandoned by failed or cancelled pushes from storage.
+ * Each sweep lists uploads of at most one batch of repositories taken from
+ * {@link CatalogIndex}, continuing from the repository where previous sweep stopped,
+ * so storage is never scanned as a whole and sweeps scheduled with fixed delay
+ * are rate limited and do not affect foreground operations much.
+ * Repositories of a batch are swept one by one, and uploads of repository
+ * are checked and removed by a fixed number of lanes, so a sweep never issues
+ * more than that number of storage operations at once, however many uploads expired.
+ * Catalog index is refreshed when all repositories were swept, so repositories
+ * registered by other nodes are swept in next round.
+ * Uploads with empty started marker created by earlier versions have no start time,
+ * such uploads are expired after TTL since they were first seen by sweeper.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class UploadsSweeper implements Runnable {
+
+    /**
+     * Default number of repositories checked in one sweep.
+     */
+    private static final int DEFAULT_BATCH = 100;
+
+    /**
+     * Number of uploads checked and removed concurrently.
+     */
+    private static final int LANES = 4;
+
+    /**
+     * Uploads directory name.
+     */
+    private static final String DIR = "_uploads";
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Storage layout.
+     */
+    private final Layout layout;
+
+    /**
+     * Active upload sessions.
+     */
+    private final UploadSessions sessions;
+
+    /**
+     * Repositories catalog index.
+     */
+    private final CatalogIndex catalog;
+
+    /**
+     * Maximum number of repositories checked in one sweep.
+     */
+    private final int batch;
+
+    /**
+     * Time when uploads without start time were first seen, by upload root key.
+     */
+    private final ConcurrentMap<String, Instant> seen;
+
+    /**
+     * Name of last repository checked by previous sweep, empty to start from first one.
+     */
+    private final AtomicReference<String> cursor;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param sessions Active upload sessions.
+     */
+    public UploadsSweeper(
+        final Storage storage, final Layout layout, final UploadSessions sessions
+    ) {
+        this(storage, layout, sessions, UploadsSweeper.DEFAULT_BATCH);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param sessions Active upload sessions.
+     * @param batch Maximum number of repositories checked in one sweep.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public UploadsSweeper(
+        final Storage storage,
+        final Layout layout,
+        final UploadSessions sessions,
+        final int batch
+    ) {
+        this(
+            storage, layout, sessions,
+            new CatalogIndex(storage, layout), batch
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param sessions Active upload sessions.
+     * @param catalog Repositories catalog index.
+     * @param batch Maximum number of repositories checked in one sweep.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public UploadsSweeper(
+        final Storage storage,
+        final Layout layout,
+        final UploadSessions sessions,
+        final CatalogIndex catalog,
+        final int batch
+    ) {
+        this.storage = storage;
+        this.layout = layout;
+        this.sessions = sessions;
+        this.catalog = catalog;
+        this.batch = batch;
+        this.seen = new ConcurrentHashMap<>();
+        this.cursor = new AtomicReference<>("");
+    }
+
+    /**
+     * Schedule periodic sweeps.
+     *
+     * @param executor Executor to run sweeps.
+     * @param delay Delay between sweeps.
+     * @return Scheduled task, could be cancelled to stop sweeping.
+     */
+    public ScheduledFuture<?> schedule(
+        final ScheduledExecutorService executor, final Duration delay
+    ) {
+        return executor.scheduleWithFixedDelay(
+            this, delay.toMillis(), delay.toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void run() {
+        try {
+            final int removed = this.sweep().toCompletableFuture().join();
+            if (removed > 0) {
+                Logger.info(this, "Removed %d expired uploads", removed);
+            }
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final RuntimeException ex) {
+            Logger.error(this, "Failed to sweep expired uploads: %[exception]s", ex);
+        }
+    }
+
+    /**
+     * Check uploads of next batch of repositories and remove expired ones.
+     *
+     * @return Number of removed uploads.
+     */
+    public CompletionStage<Integer> sweep() {
+        return this.next().thenCompose(
+            names -> UploadsSweeper.parallel(names, 1, this::sweep)
+        );
+    }
+
+    /**
+     * Select next batch of repositories starting after cursor.
+     * When there are no more repositories, cursor is reset and catalog index
+     * is refreshed for next round.
+     *
+     * @return Repository names.
+     */
+    private CompletionStage<List<RepoName>> next() {
+        final String from = this.cursor.get();
+        return this.catalog.names(
+            Optional.of(from).filter(name -> !name.isEmpty()).map(RepoName.Simple::new),
+            this.batch
+        ).thenCompose(
+            names -> {
+                final CompletionStage<List<RepoName>> res;
+                if (names.size() < this.batch) {
+                    this.cursor.set("");
+                    res = this.catalog.refresh().thenApply(nothing -> names);
+                } else {
+                    this.cursor.set(names.get(names.size() - 1).value());
+                    res = CompletableFuture.completedFuture(names);
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Check uploads of repository and remove expired ones.
+     *
+     * @param name Repository name.
+     * @return Number of removed uploads.
+     */
+    private CompletionStage<Integer> sweep(final RepoName name) {
+        final Key root = new Key.From(
+            this.layout.repositories(), name.value(), UploadsSweeper.DIR
+        );
+        return this.storage.list(root).thenCompose(
+            keys -> {
+                final Map<String, Upload> uploads = this.uploads(name, root, keys);
+                final String prefix = UploadsSweeper.prefix(root);
+                this.seen.keySet().removeIf(
+                    key -> key.startsWith(prefix) && !uploads.containsKey(key)
+                );
+                return UploadsSweeper.parallel(
+                    new ArrayList<>(uploads.values()),
+                    UploadsSweeper.LANES,
+                    this::sweep
+                );
+            }
+        );
+    }
+
+    /**
+     * Remove upload if it is expired.
+     *
+     * @param upload Upload.
+     * @return Number of removed uploads, one if upload was removed.
+     */
+    private CompletionStage<Integer> sweep(final Upload upload) {
+        final CompletionStage<Integer> result;
+        if (this.sessions.find(upload.name, upload.uuid).isPresent()) {
+            this.seen.remove(upload.root.string());
+            result = CompletableFuture.completedFuture(0);
+        } else {
+            result = new StartedMarker(this.storage, upload.root).time().thenCompose(
+                time -> {
+                    final CompletionStage<Integer> res;
+                    if (this.sessions.expired(time.orElseGet(() -> this.firstSeen(upload)))) {
+                        res = UploadsSweeper.parallel(
+                            upload.keys, 1,
+                            key -> this.storage.delete(key).thenApply(nothing -> 1)
+                        ).thenApply(
+                            nothing -> {
+                                this.seen.remove(upload.root.string());
+                                this.sessions.finished(upload.uuid);
+                                return 1;
+                            }
+                        );
+                    } else {
+                        res = CompletableFuture.completedFuture(0);
+                    }
+                    return res;
+                }
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Time when upload without start time was first seen.
+     *
+     * @param upload Upload.
+     * @return First seen time.
+     */
+    private Instant firstSeen(final Upload upload) {
+        return this.seen.computeIfAbsent(upload.root.string(), key -> this.sessions.now());
+    }
+
+    /**
+     * Group keys by uploads.
+     *
+     * @param name Repository name.
+     * @param root Uploads root key of the repository.
+     * @param keys Keys in uploads root.
+     * @return Uploads by root key.
+     */
+    private Map<String, Upload> uploads(
+        final RepoName name, final Key root, final Collection<Key> keys
+    ) {
+        final int prefix = root.string().length() + 1;
+        final Map<String, Upload> uploads = new HashMap<>();
+        for (final Key key : keys) {
+            final String[] parts = key.string().substring(prefix).split("/");
+            final Key upload = this.layout.upload(name, parts[0]);
+            if (parts.length > 1
+                && key.string().startsWith(UploadsSweeper.prefix(upload))) {
+                uploads.computeIfAbsent(
+                    upload.string(), ignored -> new Upload(name, parts[0], upload)
+                ).keys.add(key);
+            }
+        }
+        return uploads;
+    }
+
+    /**
+     * Process items by fixed number of lanes, items of each lane are processed
+     * one after another.
+     *
+     * @param items Items.
+     * @param lanes Number of lanes.
+     * @param action Action returning count for item.
+     * @param <T> Item type.
+     * @return Sum of counts.
+     */
+    private static <T> CompletionStage<Integer> parallel(
+        final List<T> items, final int lanes, final Function<T, CompletionStage<Integer>> action
+    ) {
+        final AtomicInteger total = new AtomicInteger();
+        final CompletableFuture<?>[] chains = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane += 1) {
+            CompletableFuture<Void> chain = CompletableFuture.allOf();
+            for (int idx = lane; idx < items.size(); idx += lanes) {
+                final T item = items.get(idx);
+                chain = chain.thenCompose(
+                    nothing -> action.apply(item).thenAccept(total::addAndGet)
+                );
+            }
+            chains[lane] = chain;
+        }
+        return CompletableFuture.allOf(chains).thenApply(nothing -> total.get());
+    }
+
+    /**
+     * Prefix of keys inside root key.
+     *
+     * @param root Root key.
+     * @return Prefix.
+     */
+    private static String prefix(final Key root) {
+        return String.format("%s/", root.string());
+    }
+
+    /**
+     * Upload found in storage.
+     *
+     * @since 0.13
+     */
+    private static final class Upload {
+
+        /**
+         * Repository name.
+         */
+        private final RepoName name;
+
+        /**
+         * Upload UUID.
+         */
+        private final String uuid;
+
+        /**
+         * Upload root key.
+         */
+        private final Key root;
+
+        /**
+         * Upload keys.
+         */
+        private final List<Key> keys;
+
+        /**
+         * Ctor.
+         *
+         * @param name Repository name.
+         * @param uuid Upload UUID.
+         * @param root Upload root key.
+         */
+        Upload(final RepoName name, final String uuid, final Key root) {
+            this.name = name;
+            this.uuid = uuid;
+            this.root = root;
+            this.keys = new ArrayList<>(1);
+        }
+    }
+}
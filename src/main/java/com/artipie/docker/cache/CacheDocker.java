@@ -48,6 +48,11 @@ public final class CacheDocker implements Docker {
      */
     private final Docker cache;
 
+    /**
+     * Access log of cached blobs.
+     */
+    private final BlobAccess access;
+
     /**
      * Ctor.
      *
@@ -55,13 +60,36 @@ public final class CacheDocker implements Docker {
      * @param cache Cache repository.
      */
     public CacheDocker(final Docker origin, final Docker cache) {
+        this(origin, cache, BlobAccess.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin repository.
+     * @param cache Cache repository.
+     * @param access Access log of cached blobs, used for eviction, see {@link CacheEviction}.
+     */
+    public CacheDocker(final Docker origin, final Docker cache, final BlobAccess access) {
         this.origin = origin;
         this.cache = cache;
+        this.access = access;
     }
 
     @Override
     public Repo repo(final RepoName name) {
-        return new CacheRepo(name, this.origin.repo(name), this.cache.repo(name));
+        return new CacheRepo(
+            name, this.origin.repo(name), this.cache.repo(name), this.access
+        );
+    }
+
+    /**
+     * Warmup of this cache, copying images from origin to cache ahead of pulls.
+     *
+     * @return Cache warmup.
+     */
+    public CacheWarmup warmup() {
+        return new CacheWarmup(this.origin, this.cache, this.access);
     }
 
     @Override
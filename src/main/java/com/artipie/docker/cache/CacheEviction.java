@@ -0,0 +1,614 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.cache;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.asto.BlobRefs;
+import com.artipie.docker.asto.BlobsScan;
+import com.artipie.docker.asto.Layout;
+import com.artipie.docker.asto.TagsIndex;
+import com.jcabi.log.Logger;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Size bounded eviction of least recently used blobs from cache storage.
+ * <p>
+ * When total size of cached blobs is above high watermark, blobs are removed
+ * in order of last access from {@link StoredBlobAccess} until total size
+ * is not above low watermark. Blobs never accessed are stamped with time they
+ * were first seen by eviction, so just cached blobs are not removed first.
+ * </p>
+ * <p>
+ * Manifests left dangling are removed after blobs: manifest revision is removed
+ * if manifest blob or any blob mentioned in manifest is removed,
+ * tags pointing to removed revisions are removed too, as well as blob references
+ * of removed revisions.
+ * So cache falls back to origin for such manifests instead of serving partial images.
+ * </p>
+ * <p>
+ * Every run lists all blobs of cache storage. Sizes of blobs are read from storage
+ * once and kept in memory, since blobs never change. When blobs are evicted,
+ * all keys under repositories root are listed and every manifest link is read
+ * to find dangling manifests, so eviction runs should be scheduled with delay
+ * long enough for listing of large caches.
+ * </p>
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class CacheEviction implements Runnable {
+
+    /**
+     * Manifest link key pattern, relative to repositories root.
+     */
+    private static final Pattern LINK = Pattern.compile(
+        "(?<repo>.+)/_manifests/(?:revisions/(?<alg>[^/]+)/(?<hex>[^/]+)|tags/[^/]+/current)/link"
+    );
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Storage layout.
+     */
+    private final Layout layout;
+
+    /**
+     * Scan of stored blobs.
+     */
+    private final BlobsScan scan;
+
+    /**
+     * Blob access log.
+     */
+    private final StoredBlobAccess access;
+
+    /**
+     * Total size of blobs eviction brings cache down to, in bytes.
+     */
+    private final long low;
+
+    /**
+     * Total size of blobs starting eviction, in bytes.
+     */
+    private final long high;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Tags index of cache, tags of repositories with removed tags are forgotten.
+     */
+    private final TagsIndex tags;
+
+    /**
+     * Sizes of blobs seen by previous runs by digest.
+     */
+    private final Map<String, Long> known;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param access Blob access log.
+     * @param low Total size of blobs eviction brings cache down to, in bytes.
+     * @param high Total size of blobs starting eviction, in bytes.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public CacheEviction(
+        final Storage storage,
+        final Layout layout,
+        final StoredBlobAccess access,
+        final long low,
+        final long high
+    ) {
+        this(storage, layout, access, low, high, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param access Blob access log.
+     * @param low Total size of blobs eviction brings cache down to, in bytes.
+     * @param high Total size of blobs starting eviction, in bytes.
+     * @param clock Clock.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public CacheEviction(
+        final Storage storage,
+        final Layout layout,
+        final StoredBlobAccess access,
+        final long low,
+        final long high,
+        final Clock clock
+    ) {
+        this(storage, layout, access, low, high, clock, new TagsIndex(storage, layout));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param access Blob access log.
+     * @param low Total size of blobs eviction brings cache down to, in bytes.
+     * @param high Total size of blobs starting eviction, in bytes.
+     * @param clock Clock.
+     * @param tags Tags index of cache, see {@link com.artipie.docker.asto.AstoDocker}.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    public CacheEviction(
+        final Storage storage,
+        final Layout layout,
+        final StoredBlobAccess access,
+        final long low,
+        final long high,
+        final Clock clock,
+        final TagsIndex tags
+    ) {
+        this.storage = storage;
+        this.layout = layout;
+        this.access = access;
+        this.low = low;
+        this.high = high;
+        this.clock = clock;
+        this.tags = tags;
+        this.known = new ConcurrentHashMap<>();
+        this.scan = new BlobsScan(storage, layout);
+    }
+
+    /**
+     * Schedule periodic evictions.
+     *
+     * @param executor Executor to run evictions.
+     * @param delay Delay between evictions.
+     * @return Scheduled task, could be cancelled to stop evictions.
+     */
+    public ScheduledFuture<?> schedule(
+        final ScheduledExecutorService executor, final Duration delay
+    ) {
+        return executor.scheduleWithFixedDelay(
+            this, delay.toMillis(), delay.toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void run() {
+        try {
+            final Report report = this.evict().toCompletableFuture().join();
+            if (!report.evicted().isEmpty()) {
+                Logger.info(
+                    this, "Evicted %d blobs, cache size %d -> %d bytes",
+                    report.evicted().size(), report.before(), report.after()
+                );
+            }
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final RuntimeException ex) {
+            Logger.error(this, "Failed to evict cached blobs: %[exception]s", ex);
+        }
+    }
+
+    /**
+     * Evict least recently used blobs if cache is above high watermark.
+     *
+     * @return Report.
+     */
+    public CompletionStage<Report> evict() {
+        final Instant now = this.clock.instant();
+        return this.scan.keys().thenCompose(
+            blobs -> this.sizes(blobs).thenCompose(
+                sizes -> this.access.update(
+                    times -> CacheEviction.stamped(times, blobs.keySet(), now)
+                ).thenCompose(
+                    times -> {
+                        final long before = sizes.values().stream()
+                            .mapToLong(Long::longValue).sum();
+                        final List<String> victims = this.victims(before, sizes, times);
+                        final long after = before - victims.stream()
+                            .mapToLong(sizes::get).sum();
+                        return this.remove(victims, blobs).thenApply(
+                            nothing -> new Report(before, after, victims)
+                        );
+                    }
+                )
+            )
+        );
+    }
+
+    /**
+     * Select blobs to evict.
+     *
+     * @param total Total size of blobs.
+     * @param sizes Blob sizes by digest.
+     * @param times Access times by digest.
+     * @return Digests of blobs to evict, least recently used first.
+     */
+    private List<String> victims(
+        final long total, final Map<String, Long> sizes, final Map<String, Instant> times
+    ) {
+        final List<String> victims = new ArrayList<>(0);
+        if (total > this.high) {
+            final List<String> lru = new ArrayList<>(sizes.keySet());
+            lru.sort(Comparator.comparing(times::get));
+            long left = total;
+            for (final String digest : lru) {
+                if (left <= this.low) {
+                    break;
+                }
+                victims.add(digest);
+                left -= sizes.get(digest);
+            }
+        }
+        return victims;
+    }
+
+    /**
+     * Remove evicted blobs, their access times and dangling manifests.
+     *
+     * @param victims Digests of blobs to evict.
+     * @param blobs Blob data keys by digest.
+     * @return Completion of removal.
+     */
+    private CompletionStage<Void> remove(
+        final List<String> victims, final Map<String, List<Key>> blobs
+    ) {
+        final CompletionStage<Void> res;
+        if (victims.isEmpty()) {
+            res = CompletableFuture.allOf();
+        } else {
+            final Set<String> evicted = new HashSet<>(victims);
+            res = this.dangling(evicted).thenCompose(
+                links -> this.unref(links).thenCompose(
+                    nothing -> CompletableFuture.allOf(
+                        links.stream()
+                            .map(this.storage::delete)
+                            .toArray(CompletableFuture[]::new)
+                    )
+                ).thenCompose(nothing -> this.forget(links))
+            ).thenCompose(
+                nothing -> CompletableFuture.allOf(
+                    victims.stream()
+                        .flatMap(digest -> blobs.get(digest).stream())
+                        .map(this.storage::delete)
+                        .toArray(CompletableFuture[]::new)
+                )
+            ).thenCompose(
+                nothing -> this.access.update(
+                    times -> {
+                        times.keySet().removeAll(evicted);
+                        return times;
+                    }
+                )
+            ).thenAccept(times -> { });
+        }
+        return res;
+    }
+
+    /**
+     * Remove blob references of manifest revisions to be removed.
+     * References are removed before manifest blobs, since manifest content
+     * is read to find referenced blobs.
+     *
+     * @param links Manifest links to be removed.
+     * @return Completion of removal.
+     */
+    private CompletionStage<Void> unref(final List<Key> links) {
+        final Key root = this.layout.repositories();
+        final BlobRefs refs = new BlobRefs(this.storage, this.layout);
+        return CompletableFuture.allOf(
+            links.stream()
+                .map(
+                    link -> CacheEviction.revision(root, link).flatMap(
+                        digest -> CacheEviction.repo(root, link).map(
+                            repo -> refs.remove(repo, digest).toCompletableFuture()
+                        )
+                    )
+                )
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Forget loaded tags of repositories with removed manifest links.
+     *
+     * @param links Removed manifest links.
+     * @return Completion of update.
+     */
+    private CompletionStage<Void> forget(final List<Key> links) {
+        final Key root = this.layout.repositories();
+        return CompletableFuture.allOf(
+            links.stream()
+                .map(link -> CacheEviction.repo(root, link))
+                .filter(Optional::isPresent)
+                .map(repo -> repo.get().value())
+                .distinct()
+                .map(repo -> this.tags.forget(new RepoName.Simple(repo)).toCompletableFuture())
+                .toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Find manifest links left dangling by blobs eviction.
+     *
+     * @param evicted Digests of evicted blobs.
+     * @return Keys of revision and tag links to remove.
+     */
+    private CompletionStage<List<Key>> dangling(final Set<String> evicted) {
+        final Key root = this.layout.repositories();
+        return this.storage.list(root).thenCompose(
+            keys -> {
+                final List<Key> links = keys.stream()
+                    .filter(
+                        key -> CacheEviction.LINK.matcher(CacheEviction.relative(root, key))
+                            .matches()
+                    )
+                    .collect(Collectors.toList());
+                final Map<Key, Boolean> dangling = new ConcurrentHashMap<>();
+                return CompletableFuture.allOf(
+                    links.stream().map(
+                        link -> this.dangling(root, link, evicted).thenAccept(
+                            res -> dangling.put(link, res)
+                        ).toCompletableFuture()
+                    ).toArray(CompletableFuture[]::new)
+                ).thenApply(
+                    nothing -> links.stream()
+                        .filter(dangling::get)
+                        .collect(Collectors.toList())
+                );
+            }
+        );
+    }
+
+    /**
+     * Check if manifest link is left dangling by blobs eviction.
+     *
+     * @param root Repositories root key.
+     * @param link Manifest link key.
+     * @param evicted Digests of evicted blobs.
+     * @return True if manifest blob or any blob mentioned in manifest is evicted.
+     */
+    private CompletionStage<Boolean> dangling(
+        final Key root, final Key link, final Set<String> evicted
+    ) {
+        final RepoName repo = CacheEviction.repo(root, link).orElseThrow(
+            () -> new IllegalStateException(String.format("Not a manifest link: %s", link))
+        );
+        return this.text(link).thenCompose(
+            digest -> {
+                final CompletionStage<Boolean> res;
+                if (evicted.contains(digest)) {
+                    res = CompletableFuture.completedFuture(true);
+                } else {
+                    res = this.scan.mentioned(repo, new Digest.FromString(digest)).thenApply(
+                        mentioned -> mentioned.map(
+                            digests -> digests.stream().anyMatch(evicted::contains)
+                        ).orElse(true)
+                    );
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Read sizes of blobs.
+     * Blobs are immutable, so sizes are kept between runs and only sizes
+     * of blobs not seen by previous runs are read from storage.
+     *
+     * @param blobs Blob data keys by digest.
+     * @return Blob sizes by digest.
+     */
+    private CompletionStage<Map<String, Long>> sizes(final Map<String, List<Key>> blobs) {
+        this.known.keySet().retainAll(blobs.keySet());
+        return CompletableFuture.allOf(
+            blobs.entrySet().stream()
+                .filter(entry -> !this.known.containsKey(entry.getKey()))
+                .map(
+                    entry -> this.storage.size(entry.getValue().get(0)).thenAccept(
+                        size -> this.known.put(entry.getKey(), size)
+                    )
+                ).toArray(CompletableFuture[]::new)
+        ).thenApply(nothing -> new HashMap<>(this.known));
+    }
+
+    /**
+     * Read storage value as string.
+     *
+     * @param key Key.
+     * @return Trimmed value.
+     */
+    private CompletionStage<String> text(final Key key) {
+        return this.storage.value(key)
+            .thenCompose(content -> new PublisherAs(content).string(StandardCharsets.UTF_8))
+            .thenApply(String::trim);
+    }
+
+    /**
+     * Repository of manifest link.
+     *
+     * @param root Repositories root key.
+     * @param link Manifest link key.
+     * @return Repository name, empty if key is not a manifest link.
+     */
+    private static Optional<RepoName> repo(final Key root, final Key link) {
+        final Matcher matcher = CacheEviction.LINK.matcher(CacheEviction.relative(root, link));
+        final Optional<RepoName> res;
+        if (matcher.matches()) {
+            res = Optional.of(new RepoName.Simple(matcher.group("repo")));
+        } else {
+            res = Optional.empty();
+        }
+        return res;
+    }
+
+    /**
+     * Manifest digest of revision link.
+     *
+     * @param root Repositories root key.
+     * @param link Manifest link key.
+     * @return Manifest digest, empty if key is not a revision link.
+     */
+    private static Optional<Digest> revision(final Key root, final Key link) {
+        final Matcher matcher = CacheEviction.LINK.matcher(CacheEviction.relative(root, link));
+        Optional<Digest> res = Optional.empty();
+        if (matcher.matches()) {
+            final String alg = matcher.group("alg");
+            if (alg != null) {
+                res = Optional.of(
+                    new Digest.FromString(String.format("%s:%s", alg, matcher.group("hex")))
+                );
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Stamp blobs never accessed with current time and drop times of missing blobs.
+     *
+     * @param times Access times by digest.
+     * @param blobs Digests of existing blobs.
+     * @param now Current time.
+     * @return Access times of existing blobs.
+     */
+    private static Map<String, Instant> stamped(
+        final Map<String, Instant> times, final Collection<String> blobs, final Instant now
+    ) {
+        final Map<String, Instant> res = new HashMap<>(blobs.size());
+        for (final String digest : blobs) {
+            res.put(digest, times.getOrDefault(digest, now));
+        }
+        return res;
+    }
+
+    /**
+     * Key string relative to root.
+     *
+     * @param root Root key.
+     * @param key Key inside root.
+     * @return Relative key string.
+     */
+    private static String relative(final Key root, final Key key) {
+        return key.string().substring(root.string().length() + 1);
+    }
+
+    /**
+     * Eviction report.
+     *
+     * @since 0.13
+     */
+    public static final class Report {
+
+        /**
+         * Total size of blobs before eviction.
+         */
+        private final long bfr;
+
+        /**
+         * Total size of blobs after eviction.
+         */
+        private final long aftr;
+
+        /**
+         * Digests of evicted blobs.
+         */
+        private final List<String> digests;
+
+        /**
+         * Ctor.
+         *
+         * @param before Total size of blobs before eviction.
+         * @param after Total size of blobs after eviction.
+         * @param evicted Digests of evicted blobs.
+         */
+        Report(final long before, final long after, final List<String> evicted) {
+            this.bfr = before;
+            this.aftr = after;
+            this.digests = Collections.unmodifiableList(evicted);
+        }
+
+        /**
+         * Total size of blobs before eviction.
+         *
+         * @return Size in bytes.
+         */
+        public long before() {
+            return this.bfr;
+        }
+
+        /**
+         * Total size of blobs after eviction.
+         *
+         * @return Size in bytes.
+         */
+        public long after() {
+            return this.aftr;
+        }
+
+        /**
+         * Digests of evicted blobs, least recently used first.
+         *
+         * @return Digests.
+         */
+        public List<String> evicted() {
+            return this.digests;
+        }
+    }
+}
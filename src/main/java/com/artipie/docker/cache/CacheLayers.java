@@ -49,6 +49,11 @@ public final class CacheLayers implements Layers {
      */
     private final Layers cache;
 
+    /**
+     * Access log of cached blobs.
+     */
+    private final BlobAccess access;
+
     /**
      * Ctor.
      *
@@ -56,8 +61,20 @@ public final class CacheLayers implements Layers {
      * @param cache Cache layers.
      */
     public CacheLayers(final Layers origin, final Layers cache) {
+        this(origin, cache, BlobAccess.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin layers.
+     * @param cache Cache layers.
+     * @param access Access log of cached blobs.
+     */
+    public CacheLayers(final Layers origin, final Layers cache, final BlobAccess access) {
         this.origin = origin;
         this.cache = cache;
+        this.access = access;
     }
 
     @Override
@@ -77,6 +94,7 @@ public final class CacheLayers implements Layers {
                 final CompletionStage<Optional<Blob>> result;
                 if (throwable == null) {
                     if (cached.isPresent()) {
+                        this.access.touch(digest);
                         result = CompletableFuture.completedFuture(cached);
                     } else {
                         result = this.origin.get(digest).exceptionally(ignored -> cached);
@@ -62,6 +62,11 @@ public final class CacheManifests implements Manifests {
      */
     private final Repo cache;
 
+    /**
+     * Access log of cached blobs.
+     */
+    private final BlobAccess access;
+
     /**
      * Ctor.
      *
@@ -70,9 +75,25 @@ public final class CacheManifests implements Manifests {
      * @param cache Cache repository.
      */
     public CacheManifests(final RepoName name, final Repo origin, final Repo cache) {
+        this(name, origin, cache, BlobAccess.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param origin Origin repository.
+     * @param cache Cache repository.
+     * @param access Access log of cached blobs.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public CacheManifests(
+        final RepoName name, final Repo origin, final Repo cache, final BlobAccess access
+    ) {
         this.name = name;
         this.origin = origin;
         this.cache = cache;
+        this.access = access;
     }
 
     @Override
@@ -90,10 +111,10 @@ public final class CacheManifests implements Manifests {
                         this.copy(ref);
                         result = CompletableFuture.completedFuture(original);
                     } else {
-                        result = this.cache.manifests().get(ref).exceptionally(ignored -> original);
+                        result = this.cached(ref).exceptionally(ignored -> original);
                     }
                 } else {
-                    result = this.cache.manifests().get(ref);
+                    result = this.cached(ref);
                 }
                 return result;
             }
@@ -107,6 +128,21 @@ public final class CacheManifests implements Manifests {
         ).tags();
     }
 
+    /**
+     * Get manifest from cache.
+     *
+     * @param ref Manifest reference.
+     * @return Cached manifest.
+     */
+    private CompletionStage<Optional<Manifest>> cached(final ManifestRef ref) {
+        return this.cache.manifests().get(ref).thenApply(
+            manifest -> {
+                manifest.ifPresent(found -> this.access.touch(found.digest()));
+                return manifest;
+            }
+        );
+    }
+
     /**
      * Copy manifest by reference from original to cache.
      *
@@ -125,6 +161,14 @@ public final class CacheManifests implements Manifests {
                 ).toCompletableFuture()
             ).thenCompose(
                 nothing -> this.cache.manifests().put(ref, manifest.content())
+            ).thenAccept(
+                nothing -> {
+                    this.access.touch(manifest.digest());
+                    this.access.touch(manifest.config());
+                    manifest.layers().stream()
+                        .filter(layer -> layer.urls().isEmpty())
+                        .forEach(layer -> this.access.touch(layer.digest()));
+                }
             )
         ).handle(
             (ignored, ex) -> {
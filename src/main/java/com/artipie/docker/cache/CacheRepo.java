@@ -51,6 +51,11 @@ public final class CacheRepo implements Repo {
      */
     private final Repo cache;
 
+    /**
+     * Access log of cached blobs.
+     */
+    private final BlobAccess access;
+
     /**
      * Ctor.
      *
@@ -59,19 +64,35 @@ public final class CacheRepo implements Repo {
      * @param cache Cache repository.
      */
     public CacheRepo(final RepoName name, final Repo origin, final Repo cache) {
+        this(name, origin, cache, BlobAccess.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param origin Origin repository.
+     * @param cache Cache repository.
+     * @param access Access log of cached blobs.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public CacheRepo(
+        final RepoName name, final Repo origin, final Repo cache, final BlobAccess access
+    ) {
         this.name = name;
         this.origin = origin;
         this.cache = cache;
+        this.access = access;
     }
 
     @Override
     public Layers layers() {
-        return new CacheLayers(this.origin.layers(), this.cache.layers());
+        return new CacheLayers(this.origin.layers(), this.cache.layers(), this.access);
     }
 
     @Override
     public Manifests manifests() {
-        return new CacheManifests(this.name, this.origin, this.cache);
+        return new CacheManifests(this.name, this.origin, this.cache, this.access);
     }
 
     @Override
@@ -0,0 +1,617 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.cache;
+
+import com.artipie.docker.Digest;
+import com.artipie.docker.Docker;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Tag;
+import com.artipie.docker.asto.CheckedBlobSource;
+import com.artipie.docker.manifest.Layer;
+import com.artipie.docker.manifest.Manifest;
+import com.artipie.docker.ref.ManifestRef;
+import com.jcabi.log.Logger;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Pre-warming of cache with images expected to be pulled.
+ * <p>
+ * Images are given as {@code name:tag} or {@code name@digest} references,
+ * {@code latest} tag is used if neither is specified.
+ * Manifests are resolved from origin, then config and layer blobs missing in cache
+ * are copied from origin to cache, at most given number of blobs at a time.
+ * Blob shared by several images of a repository is copied once.
+ * Manifest is put into cache only after all its blobs are cached,
+ * so cache never serves partial image.
+ * </p>
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class CacheWarmup {
+
+    /**
+     * Origin repository.
+     */
+    private final Docker origin;
+
+    /**
+     * Cache repository.
+     */
+    private final Docker cache;
+
+    /**
+     * Access log of cached blobs.
+     */
+    private final BlobAccess access;
+
+    /**
+     * Max number of manifests resolved or blobs copied at a time.
+     */
+    private final int parallelism;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin repository.
+     * @param cache Cache repository.
+     */
+    public CacheWarmup(final Docker origin, final Docker cache) {
+        this(origin, cache, BlobAccess.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin repository.
+     * @param cache Cache repository.
+     * @param access Access log of cached blobs.
+     */
+    public CacheWarmup(final Docker origin, final Docker cache, final BlobAccess access) {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(origin, cache, access, 8);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin repository.
+     * @param cache Cache repository.
+     * @param access Access log of cached blobs.
+     * @param parallelism Max number of manifests resolved or blobs copied at a time.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public CacheWarmup(
+        final Docker origin,
+        final Docker cache,
+        final BlobAccess access,
+        final int parallelism
+    ) {
+        this.origin = origin;
+        this.cache = cache;
+        this.access = access;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Warm cache with images.
+     *
+     * @param images Image references.
+     * @return Warmup report.
+     */
+    public CompletionStage<Report> warm(final Collection<String> images) {
+        return this.warm(images, Progress.NONE);
+    }
+
+    /**
+     * Warm cache with images.
+     *
+     * @param images Image references.
+     * @param progress Progress listener.
+     * @return Warmup report.
+     */
+    public CompletionStage<Report> warm(final Collection<String> images, final Progress progress) {
+        return this.new Run(
+            images.stream().map(Image::new).collect(Collectors.toList()),
+            progress
+        ).start().thenApply(
+            report -> {
+                Logger.info(
+                    this,
+                    "Cache warmed with %d of %d images, %d blobs copied",
+                    report.warmed().size(), images.size(), report.copied()
+                );
+                return report;
+            }
+        );
+    }
+
+    /**
+     * Run tasks, at most parallelism number of tasks at a time.
+     * Failed task does not stop others.
+     *
+     * @param tasks Tasks.
+     * @return Completion of all tasks.
+     */
+    private CompletionStage<Void> bounded(final List<Supplier<CompletionStage<Void>>> tasks) {
+        final AtomicInteger next = new AtomicInteger();
+        return CompletableFuture.allOf(
+            Stream.generate(() -> CacheWarmup.lane(tasks, next).toCompletableFuture())
+                .limit(Math.min(this.parallelism, tasks.size()))
+                .toArray(CompletableFuture[]::new)
+        );
+    }
+
+    /**
+     * Run tasks one by one, taking next task from shared list until all are taken.
+     *
+     * @param tasks Tasks.
+     * @param next Index of next task.
+     * @return Completion of lane.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static CompletionStage<Void> lane(
+        final List<Supplier<CompletionStage<Void>>> tasks,
+        final AtomicInteger next
+    ) {
+        final int pos = next.getAndIncrement();
+        final CompletionStage<Void> res;
+        if (pos < tasks.size()) {
+            CompletionStage<Void> task;
+            try {
+                task = tasks.get(pos).get();
+                // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final RuntimeException ex) {
+                final CompletableFuture<Void> failed = new CompletableFuture<>();
+                failed.completeExceptionally(ex);
+                task = failed;
+            }
+            res = task.handle(
+                (nothing, err) -> {
+                    if (err != null) {
+                        Logger.warn(CacheWarmup.class, "Warmup task failed: %[exception]s", err);
+                    }
+                    return CacheWarmup.lane(tasks, next);
+                }
+            ).thenCompose(Function.identity());
+        } else {
+            res = CompletableFuture.allOf();
+        }
+        return res;
+    }
+
+    /**
+     * Blobs of manifest to cache.
+     *
+     * @param manifest Manifest.
+     * @return Config and layer digests, foreign layers excluded.
+     */
+    private static Stream<Digest> blobs(final Manifest manifest) {
+        return Stream.concat(
+            Stream.of(manifest.config()),
+            manifest.layers().stream()
+                .filter(layer -> layer.urls().isEmpty())
+                .map(Layer::digest)
+        );
+    }
+
+    /**
+     * Blob key.
+     *
+     * @param name Repository name.
+     * @param digest Blob digest.
+     * @return Key in {@code name@digest} form.
+     */
+    private static String key(final RepoName name, final Digest digest) {
+        return String.format("%s@%s", name.value(), digest.string());
+    }
+
+    /**
+     * Listener of warmup progress.
+     *
+     * @since 0.13
+     */
+    public interface Progress {
+
+        /**
+         * Listener doing nothing.
+         */
+        Progress NONE = (digest, done, total) -> { };
+
+        /**
+         * Blob is processed, either cached or failed.
+         *
+         * @param digest Blob digest.
+         * @param done Number of processed blobs.
+         * @param total Total number of blobs to process.
+         */
+        void blob(Digest digest, int done, int total);
+    }
+
+    /**
+     * Warmup report.
+     *
+     * @since 0.13
+     */
+    public static final class Report {
+
+        /**
+         * Images cached.
+         */
+        private final List<String> cached;
+
+        /**
+         * Images failed.
+         */
+        private final List<String> errors;
+
+        /**
+         * Number of blobs copied.
+         */
+        private final int blobs;
+
+        /**
+         * Ctor.
+         *
+         * @param cached Images cached.
+         * @param errors Images failed.
+         * @param blobs Number of blobs copied.
+         */
+        Report(final List<String> cached, final List<String> errors, final int blobs) {
+            this.cached = Collections.unmodifiableList(cached);
+            this.errors = Collections.unmodifiableList(errors);
+            this.blobs = blobs;
+        }
+
+        /**
+         * Images cached with all blobs.
+         *
+         * @return Image references.
+         */
+        public List<String> warmed() {
+            return this.cached;
+        }
+
+        /**
+         * Images not found in origin or failed to cache.
+         *
+         * @return Image references.
+         */
+        public List<String> failed() {
+            return this.errors;
+        }
+
+        /**
+         * Number of blobs copied from origin, blobs already cached are not counted.
+         *
+         * @return Number of blobs.
+         */
+        public int copied() {
+            return this.blobs;
+        }
+    }
+
+    /**
+     * Image reference.
+     *
+     * @since 0.13
+     */
+    private static final class Image {
+
+        /**
+         * Reference string.
+         */
+        private final String value;
+
+        /**
+         * Ctor.
+         *
+         * @param value Reference string.
+         */
+        Image(final String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return this.value;
+        }
+
+        /**
+         * Repository name.
+         *
+         * @return Name.
+         */
+        RepoName name() {
+            return new RepoName.Valid(this.value.substring(0, this.split()));
+        }
+
+        /**
+         * Manifest reference.
+         *
+         * @return Tag or digest reference, latest tag if not specified.
+         */
+        ManifestRef ref() {
+            final int split = this.split();
+            final ManifestRef ref;
+            if (split < this.value.length()) {
+                ref = new ManifestRef.FromString(this.value.substring(split + 1));
+            } else {
+                ref = new ManifestRef.FromTag(new Tag.Valid("latest"));
+            }
+            return ref;
+        }
+
+        /**
+         * Position of digest or tag separator.
+         *
+         * @return Position, length of reference if there is no separator.
+         */
+        private int split() {
+            final int digest = this.value.indexOf('@');
+            final int tag = this.value.lastIndexOf(':');
+            final int split;
+            if (digest >= 0) {
+                split = digest;
+            } else if (tag > this.value.lastIndexOf('/')) {
+                split = tag;
+            } else {
+                split = this.value.length();
+            }
+            return split;
+        }
+    }
+
+    /**
+     * Warmup run.
+     *
+     * @since 0.13
+     */
+    private final class Run {
+
+        /**
+         * Images.
+         */
+        private final List<Image> images;
+
+        /**
+         * Progress listener.
+         */
+        private final Progress progress;
+
+        /**
+         * Resolved manifests by image index.
+         */
+        private final ConcurrentMap<Integer, Manifest> manifests;
+
+        /**
+         * Blobs failed to cache, in {@code name@digest} form.
+         */
+        private final Set<String> failed;
+
+        /**
+         * Images stored in cache by index.
+         */
+        private final Set<Integer> stored;
+
+        /**
+         * Number of blobs copied.
+         */
+        private final AtomicInteger copied;
+
+        /**
+         * Ctor.
+         *
+         * @param images Images.
+         * @param progress Progress listener.
+         */
+        Run(final List<Image> images, final Progress progress) {
+            this.images = images;
+            this.progress = progress;
+            this.manifests = new ConcurrentHashMap<>();
+            this.failed = ConcurrentHashMap.newKeySet();
+            this.stored = ConcurrentHashMap.newKeySet();
+            this.copied = new AtomicInteger();
+        }
+
+        /**
+         * Start warmup.
+         *
+         * @return Warmup report.
+         */
+        CompletionStage<Report> start() {
+            return CacheWarmup.this.bounded(
+                IntStream.range(0, this.images.size())
+                    .<Supplier<CompletionStage<Void>>>mapToObj(idx -> () -> this.resolve(idx))
+                    .collect(Collectors.toList())
+            ).thenCompose(
+                nothing -> this.copy()
+            ).thenCompose(
+                nothing -> CompletableFuture.allOf(
+                    this.manifests.keySet().stream()
+                        .map(idx -> this.store(idx).toCompletableFuture())
+                        .toArray(CompletableFuture[]::new)
+                )
+            ).thenApply(nothing -> this.report());
+        }
+
+        /**
+         * Resolve image manifest from origin.
+         *
+         * @param idx Image index.
+         * @return Completion.
+         */
+        private CompletionStage<Void> resolve(final int idx) {
+            final Image image = this.images.get(idx);
+            return CacheWarmup.this.origin.repo(image.name()).manifests().get(image.ref())
+                .thenAccept(
+                    manifest -> manifest.ifPresent(found -> this.manifests.put(idx, found))
+                );
+        }
+
+        /**
+         * Copy blobs of resolved images to cache.
+         *
+         * @return Completion.
+         */
+        private CompletionStage<Void> copy() {
+            final Map<String, Map.Entry<RepoName, Digest>> blobs = new LinkedHashMap<>();
+            this.manifests.forEach(
+                (idx, manifest) -> {
+                    final RepoName name = this.images.get(idx).name();
+                    CacheWarmup.blobs(manifest).forEach(
+                        digest -> blobs.put(
+                            CacheWarmup.key(name, digest),
+                            new AbstractMap.SimpleImmutableEntry<>(name, digest)
+                        )
+                    );
+                }
+            );
+            final AtomicInteger done = new AtomicInteger();
+            final List<Supplier<CompletionStage<Void>>> tasks = new ArrayList<>(blobs.size());
+            blobs.forEach(
+                (key, blob) -> tasks.add(
+                    () -> this.copy(blob.getKey(), blob.getValue()).handle(
+                        (nothing, err) -> {
+                            if (err != null) {
+                                this.failed.add(key);
+                            }
+                            this.progress.blob(
+                                blob.getValue(), done.incrementAndGet(), blobs.size()
+                            );
+                            return nothing;
+                        }
+                    )
+                )
+            );
+            return CacheWarmup.this.bounded(tasks);
+        }
+
+        /**
+         * Copy blob from origin to cache unless it is cached already.
+         *
+         * @param name Repository name.
+         * @param digest Blob digest.
+         * @return Completion.
+         */
+        private CompletionStage<Void> copy(final RepoName name, final Digest digest) {
+            return CacheWarmup.this.cache.repo(name).layers().get(digest).thenCompose(
+                cached -> {
+                    final CompletionStage<Void> res;
+                    if (cached.isPresent()) {
+                        res = CompletableFuture.allOf();
+                    } else {
+                        res = CacheWarmup.this.origin.repo(name).layers().get(digest)
+                            .thenCompose(
+                                blob -> blob.orElseThrow(
+                                    () -> new IllegalArgumentException(
+                                        String.format("Blob %s not found in origin", digest)
+                                    )
+                                ).content()
+                            ).thenCompose(
+                                content -> CacheWarmup.this.cache.repo(name).layers().put(
+                                    new CheckedBlobSource(content, digest)
+                                )
+                            ).thenAccept(blob -> this.copied.incrementAndGet());
+                    }
+                    return res;
+                }
+            ).thenAccept(nothing -> CacheWarmup.this.access.touch(digest));
+        }
+
+        /**
+         * Store image manifest in cache if all its blobs are cached.
+         *
+         * @param idx Image index.
+         * @return Completion.
+         */
+        private CompletionStage<Void> store(final int idx) {
+            final Image image = this.images.get(idx);
+            final RepoName name = image.name();
+            final Manifest manifest = this.manifests.get(idx);
+            final CompletionStage<Void> res;
+            final boolean partial = CacheWarmup.blobs(manifest).anyMatch(
+                digest -> this.failed.contains(CacheWarmup.key(name, digest))
+            );
+            if (partial) {
+                res = CompletableFuture.allOf();
+            } else {
+                res = CacheWarmup.this.cache.repo(name).manifests()
+                    .put(image.ref(), manifest.content())
+                    .thenAccept(
+                        nothing -> {
+                            CacheWarmup.this.access.touch(manifest.digest());
+                            this.stored.add(idx);
+                        }
+                    ).exceptionally(
+                        err -> {
+                            Logger.warn(
+                                CacheWarmup.class,
+                                "Failed to cache manifest of %s: %[exception]s", image, err
+                            );
+                            return null;
+                        }
+                    );
+            }
+            return res;
+        }
+
+        /**
+         * Build report.
+         *
+         * @return Report.
+         */
+        private Report report() {
+            final List<String> warmed = new ArrayList<>(this.images.size());
+            final List<String> errors = new ArrayList<>(0);
+            IntStream.range(0, this.images.size()).forEach(
+                idx -> {
+                    if (this.stored.contains(idx)) {
+                        warmed.add(this.images.get(idx).toString());
+                    } else {
+                        errors.add(this.images.get(idx).toString());
+                    }
+                }
+            );
+            return new Report(warmed, errors, this.copied.get());
+        }
+    }
+}
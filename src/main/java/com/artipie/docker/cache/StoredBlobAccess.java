@@ -0,0 +1,394 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.cache;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.asto.Layout;
+import com.jcabi.log.Logger;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Blob access log kept in storage.
+ * Accesses are collected in memory and are merged to access times index in storage
+ * by batches, when batch is full or on {@link #flush()}, off the request path.
+ * Index is sharded by digest prefix with key {@code <cache>/times/<alg>/<hex prefix>},
+ * so flush rewrites only shards of accessed blobs and {@link #update(Function)}
+ * rewrites only shards changed by update, not the whole index.
+ * Index updates are serialized, so concurrent flushes and evictions don't lose accesses.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class StoredBlobAccess implements BlobAccess {
+
+    /**
+     * Length of digest hex prefix selecting index shard.
+     */
+    private static final int PREFIX = 2;
+
+    /**
+     * Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Access times index root key.
+     */
+    private final Key root;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Number of pending accesses triggering flush.
+     */
+    private final int batch;
+
+    /**
+     * Pending accesses by digest.
+     */
+    private final ConcurrentMap<String, Instant> pending;
+
+    /**
+     * Completion of last index update.
+     */
+    private final AtomicReference<CompletableFuture<Void>> tail;
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     */
+    public StoredBlobAccess(final Storage storage, final Layout layout) {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(storage, layout, Clock.systemUTC(), 1000);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param storage Storage.
+     * @param layout Storage layout.
+     * @param clock Clock.
+     * @param batch Number of pending accesses triggering flush.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    public StoredBlobAccess(
+        final Storage storage, final Layout layout, final Clock clock, final int batch
+    ) {
+        this.storage = storage;
+        this.root = new Key.From(layout.cache(), "times");
+        this.clock = clock;
+        this.batch = batch;
+        this.pending = new ConcurrentHashMap<>();
+        this.tail = new AtomicReference<>(CompletableFuture.allOf());
+    }
+
+    @Override
+    public void touch(final Digest digest) {
+        this.pending.put(digest.string(), this.clock.instant());
+        if (this.pending.size() >= this.batch) {
+            this.flush().whenComplete(
+                (nothing, err) -> {
+                    if (err != null) {
+                        Logger.error(
+                            this, "Failed to flush blob accesses: %[exception]s", err
+                        );
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Merge pending accesses to shards of index they belong to.
+     *
+     * @return Completion of merge.
+     */
+    public CompletionStage<Void> flush() {
+        return this.serialized(
+            drained -> CompletableFuture.allOf(
+                this.sharded(drained).entrySet().stream().map(
+                    shard -> this.read(shard.getKey()).thenCompose(
+                        times -> this.write(
+                            shard.getKey(), StoredBlobAccess.merged(times, shard.getValue())
+                        )
+                    ).toCompletableFuture()
+                ).toArray(CompletableFuture[]::new)
+            )
+        );
+    }
+
+    /**
+     * Merge pending accesses to index and change it.
+     * Whole index is read, but only shards changed by merge or change are written.
+     *
+     * @param change Change of access times by digest.
+     * @return Access times by digest after change.
+     */
+    public CompletionStage<Map<String, Instant>> update(
+        final Function<Map<String, Instant>, Map<String, Instant>> change
+    ) {
+        return this.serialized(
+            drained -> this.all().thenCompose(
+                stored -> {
+                    final Map<String, Instant> times = new HashMap<>();
+                    stored.values().forEach(times::putAll);
+                    final Map<String, Instant> changed = change.apply(
+                        StoredBlobAccess.merged(times, drained)
+                    );
+                    final Map<Key, Map<String, Instant>> shards = this.sharded(changed);
+                    final Set<Key> keys = new HashSet<>(stored.keySet());
+                    keys.addAll(shards.keySet());
+                    return CompletableFuture.allOf(
+                        keys.stream().filter(
+                            key -> !shards.getOrDefault(key, Collections.emptyMap())
+                                .equals(stored.getOrDefault(key, Collections.emptyMap()))
+                        ).map(
+                            key -> this.write(
+                                key, shards.getOrDefault(key, Collections.emptyMap())
+                            ).toCompletableFuture()
+                        ).toArray(CompletableFuture[]::new)
+                    ).thenApply(nothing -> changed);
+                }
+            )
+        );
+    }
+
+    /**
+     * Run index update after previous one with accesses taken from pending.
+     * Taken accesses are returned to pending if update fails,
+     * so they are merged to index by next update.
+     *
+     * @param action Index update with taken accesses.
+     * @param <T> Result type.
+     * @return Result of update.
+     */
+    private <T> CompletionStage<T> serialized(
+        final Function<Map<String, Instant>, CompletionStage<T>> action
+    ) {
+        final CompletableFuture<Void> next = new CompletableFuture<>();
+        final Map<String, Instant> drained = new HashMap<>();
+        final CompletableFuture<T> res = this.tail.getAndSet(next)
+            .handle((nothing, err) -> nothing)
+            .thenCompose(nothing -> action.apply(this.drain(drained)));
+        res.whenComplete(
+            (result, err) -> {
+                if (err != null) {
+                    for (final Map.Entry<String, Instant> access : drained.entrySet()) {
+                        this.pending.merge(
+                            access.getKey(), access.getValue(), StoredBlobAccess::latest
+                        );
+                    }
+                }
+                next.complete(null);
+            }
+        );
+        return res;
+    }
+
+    /**
+     * Take pending accesses.
+     *
+     * @param drained Map to put taken accesses to.
+     * @return Taken accesses.
+     */
+    private Map<String, Instant> drain(final Map<String, Instant> drained) {
+        for (final Map.Entry<String, Instant> access : this.pending.entrySet()) {
+            if (this.pending.remove(access.getKey(), access.getValue())) {
+                drained.put(access.getKey(), access.getValue());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Group access times by index shard.
+     *
+     * @param times Access times by digest.
+     * @return Access times by digest grouped by shard key.
+     */
+    private Map<Key, Map<String, Instant>> sharded(final Map<String, Instant> times) {
+        final Map<Key, Map<String, Instant>> res = new HashMap<>();
+        for (final Map.Entry<String, Instant> access : times.entrySet()) {
+            res.computeIfAbsent(this.shard(access.getKey()), key -> new HashMap<>())
+                .put(access.getKey(), access.getValue());
+        }
+        return res;
+    }
+
+    /**
+     * Index shard key of digest.
+     *
+     * @param digest Digest string.
+     * @return Shard key.
+     */
+    private Key shard(final String digest) {
+        final Digest parsed = new Digest.FromString(digest);
+        final String hex = parsed.hex();
+        return new Key.From(
+            this.root, parsed.alg(),
+            hex.substring(0, Math.min(StoredBlobAccess.PREFIX, hex.length()))
+        );
+    }
+
+    /**
+     * Read all shards of index.
+     *
+     * @return Access times by digest grouped by shard key.
+     */
+    private CompletionStage<Map<Key, Map<String, Instant>>> all() {
+        return this.storage.list(this.root).thenCompose(
+            keys -> {
+                final Map<Key, Map<String, Instant>> res = new ConcurrentHashMap<>();
+                return CompletableFuture.allOf(
+                    keys.stream().map(
+                        key -> this.read(key).thenAccept(
+                            times -> res.put(new Key.From(key.string()), times)
+                        ).toCompletableFuture()
+                    ).toArray(CompletableFuture[]::new)
+                ).thenApply(nothing -> res);
+            }
+        );
+    }
+
+    /**
+     * Read index shard.
+     *
+     * @param key Shard key.
+     * @return Access times by digest.
+     */
+    private CompletionStage<Map<String, Instant>> read(final Key key) {
+        return this.storage.exists(key).thenCompose(
+            exists -> {
+                final CompletionStage<Map<String, Instant>> res;
+                if (exists) {
+                    res = this.storage.value(key)
+                        .thenCompose(content -> new PublisherAs(content).asciiString())
+                        .thenApply(
+                            text -> Arrays.stream(text.split("\n"))
+                                .map(line -> line.split(" "))
+                                .filter(parts -> parts.length == 2)
+                                .collect(
+                                    Collectors.toMap(
+                                        parts -> parts[0],
+                                        parts -> Instant.ofEpochMilli(Long.parseLong(parts[1])),
+                                        (first, second) -> first
+                                    )
+                                )
+                        );
+                } else {
+                    res = CompletableFuture.completedFuture(new HashMap<>());
+                }
+                return res;
+            }
+        );
+    }
+
+    /**
+     * Write index shard, shard without access times is removed.
+     *
+     * @param key Shard key.
+     * @param times Access times by digest.
+     * @return Completion of write.
+     */
+    private CompletionStage<Void> write(final Key key, final Map<String, Instant> times) {
+        final CompletionStage<Void> res;
+        if (times.isEmpty()) {
+            res = this.storage.delete(key);
+        } else {
+            res = this.storage.save(
+                key,
+                new Content.From(
+                    times.entrySet().stream()
+                        .map(
+                            entry -> String.format(
+                                "%s %d\n", entry.getKey(), entry.getValue().toEpochMilli()
+                            )
+                        )
+                        .collect(Collectors.joining())
+                        .getBytes(StandardCharsets.US_ASCII)
+                )
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Merge accesses to access times keeping latest time of every digest.
+     *
+     * @param times Access times by digest.
+     * @param accesses Accesses by digest.
+     * @return Merged access times by digest.
+     */
+    private static Map<String, Instant> merged(
+        final Map<String, Instant> times, final Map<String, Instant> accesses
+    ) {
+        final Map<String, Instant> res = new HashMap<>(times);
+        for (final Map.Entry<String, Instant> access : accesses.entrySet()) {
+            res.merge(access.getKey(), access.getValue(), StoredBlobAccess::latest);
+        }
+        return res;
+    }
+
+    /**
+     * Latest of two access times.
+     *
+     * @param first First time.
+     * @param second Second time.
+     * @return Latest time.
+     */
+    private static Instant latest(final Instant first, final Instant second) {
+        final Instant last;
+        if (first.isAfter(second)) {
+            last = first;
+        } else {
+            last = second;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import com.artipie.docker.misc.CircuitBreaker;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged reads across prioritized group members.
+ * Members are asked one by one in priority order: next member is asked
+ * when previous one has no value, failed or did not answer within its usual latency.
+ * Members with open circuit fail immediately, see {@link MemberBreakers}.
+ * First present value wins and all outstanding reads are cancelled.
+ *
+ * @since 0.13
+ */
+public final class HedgedReads {
+
+    /**
+     * Shared scheduler for read timers.
+     */
+    static final ScheduledExecutorService TIMERS =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "docker-group-reads");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+
+    /**
+     * Members latency.
+     */
+    private final MemberLatency latency;
+
+    /**
+     * Members circuit breakers.
+     */
+    private final MemberBreakers breakers;
+
+    /**
+     * Scheduler for hedge timers.
+     */
+    private final ScheduledExecutorService timers;
+
+    /**
+     * Ctor.
+     */
+    public HedgedReads() {
+        this(new MemberLatency());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency.
+     */
+    public HedgedReads(final MemberLatency latency) {
+        this(latency, HedgedReads.TIMERS);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency.
+     * @param timers Scheduler for hedge timers.
+     */
+    public HedgedReads(final MemberLatency latency, final ScheduledExecutorService timers) {
+        this(latency, new MemberBreakers(), timers);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency.
+     * @param breakers Members circuit breakers.
+     * @param timers Scheduler for hedge timers.
+     */
+    public HedgedReads(
+        final MemberLatency latency,
+        final MemberBreakers breakers,
+        final ScheduledExecutorService timers
+    ) {
+        this.latency = latency;
+        this.breakers = breakers;
+        this.timers = timers;
+    }
+
+    /**
+     * Read first present value from members.
+     *
+     * @param members Reads from members in priority order.
+     * @param <T> Value type.
+     * @return First present value, empty if no member has it.
+     */
+    public <T> CompletionStage<Optional<T>> first(
+        final List<Supplier<CompletionStage<Optional<T>>>> members
+    ) {
+        return this.first(HedgedReads.indexed(members));
+    }
+
+    /**
+     * Read first present value from some of members.
+     *
+     * @param members Reads by member index, members missing in the map are not asked.
+     * @param <T> Value type.
+     * @return First present value, empty if no member has it.
+     */
+    public <T> CompletionStage<Optional<T>> first(
+        final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> members
+    ) {
+        final Race<T> race = this.new Race<>(
+            new ArrayList<>(members.keySet()), new ArrayList<>(members.values())
+        );
+        race.start(0);
+        return race.promise;
+    }
+
+    /**
+     * Index member reads by their position in the list.
+     *
+     * @param members Member reads.
+     * @param <T> Value type.
+     * @return Reads by member index.
+     */
+    static <T> SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> indexed(
+        final List<Supplier<CompletionStage<Optional<T>>>> members
+    ) {
+        final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> res = new TreeMap<>();
+        for (int idx = 0; idx < members.size(); idx += 1) {
+            res.put(idx, members.get(idx));
+        }
+        return res;
+    }
+
+    /**
+     * Call member read through its circuit breaker,
+     * turning synchronous failure into failed future.
+     *
+     * @param breaker Member circuit breaker.
+     * @param member Member read.
+     * @param <T> Value type.
+     * @return Member read future.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    static <T> CompletableFuture<Optional<T>> read(
+        final CircuitBreaker breaker, final Supplier<CompletionStage<Optional<T>>> member
+    ) {
+        CompletableFuture<Optional<T>> res;
+        try {
+            res = breaker.call(member);
+        // @checkstyle IllegalCatchCheck (1 line)
+        } catch (final RuntimeException ex) {
+            res = new CompletableFuture<>();
+            res.completeExceptionally(ex);
+        }
+        return res;
+    }
+
+    /**
+     * Single hedged read.
+     *
+     * @param <T> Value type.
+     * @since 0.13
+     */
+    private final class Race<T> {
+
+        /**
+         * Result promise.
+         */
+        private final CompletableFuture<Optional<T>> promise;
+
+        /**
+         * Member indexes.
+         */
+        private final List<Integer> ids;
+
+        /**
+         * Member reads.
+         */
+        private final List<Supplier<CompletionStage<Optional<T>>>> members;
+
+        /**
+         * Position of next member to start.
+         */
+        private final AtomicInteger next;
+
+        /**
+         * Number of finished members.
+         */
+        private final AtomicInteger finished;
+
+        /**
+         * Outstanding reads and timers to cancel when race is over.
+         */
+        private final Queue<Future<?>> outstanding;
+
+        /**
+         * Ctor.
+         *
+         * @param ids Member indexes.
+         * @param members Member reads.
+         */
+        Race(
+            final List<Integer> ids,
+            final List<Supplier<CompletionStage<Optional<T>>>> members
+        ) {
+            this.promise = new CompletableFuture<>();
+            this.ids = ids;
+            this.members = members;
+            this.next = new AtomicInteger();
+            this.finished = new AtomicInteger();
+            this.outstanding = new ConcurrentLinkedQueue<>();
+        }
+
+        /**
+         * Start member read if it is the next one and race is not over.
+         *
+         * @param idx Member position.
+         */
+        void start(final int idx) {
+            if (idx >= this.members.size()) {
+                if (this.members.isEmpty()) {
+                    this.promise.complete(Optional.empty());
+                }
+            } else if (!this.promise.isDone() && this.next.compareAndSet(idx, idx + 1)) {
+                final int member = this.ids.get(idx);
+                final long begin = System.nanoTime();
+                final CompletableFuture<Optional<T>> read = HedgedReads.read(
+                    HedgedReads.this.breakers.breaker(member), this.members.get(idx)
+                );
+                this.outstanding.add(read);
+                read.handle(
+                    (opt, err) -> {
+                        if (err == null) {
+                            HedgedReads.this.latency.record(
+                                member, Duration.ofNanos(System.nanoTime() - begin)
+                            );
+                        }
+                        this.done(idx, opt, err);
+                        return null;
+                    }
+                );
+                this.outstanding.add(
+                    HedgedReads.this.timers.schedule(
+                        () -> this.start(idx + 1),
+                        HedgedReads.this.latency.delay(member).toNanos(),
+                        TimeUnit.NANOSECONDS
+                    )
+                );
+                if (this.promise.isDone()) {
+                    this.cancel();
+                }
+            }
+        }
+
+        /**
+         * Handle finished member read.
+         *
+         * @param idx Member position.
+         * @param opt Read value, null if failed.
+         * @param err Read failure, null if succeeded.
+         */
+        private void done(final int idx, final Optional<T> opt, final Throwable err) {
+            if (err == null && opt.isPresent()) {
+                this.cancel();
+                this.promise.complete(opt);
+            } else if (!(err instanceof CancellationException)
+                && this.finished.incrementAndGet() == this.members.size()) {
+                this.promise.complete(Optional.empty());
+            } else {
+                this.start(idx + 1);
+            }
+        }
+
+        /**
+         * Cancel outstanding reads and timers.
+         */
+        private void cancel() {
+            for (Future<?> future = this.outstanding.poll(); future != null;
+                future = this.outstanding.poll()) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import com.artipie.docker.misc.CircuitBreaker;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers of group members, indexed by member priority.
+ * Reads from member with open circuit fail immediately,
+ * so the group goes straight to the next member.
+ *
+ * @since 0.13
+ */
+public final class MemberBreakers {
+
+    /**
+     * Factory of member breaker.
+     */
+    private final Supplier<CircuitBreaker> factory;
+
+    /**
+     * Breakers by member index.
+     */
+    private final ConcurrentMap<Integer, CircuitBreaker> breakers;
+
+    /**
+     * Ctor.
+     */
+    public MemberBreakers() {
+        this(CircuitBreaker::new);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param factory Factory of member breaker.
+     */
+    public MemberBreakers(final Supplier<CircuitBreaker> factory) {
+        this.factory = factory;
+        this.breakers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Circuit breaker of the member.
+     *
+     * @param member Member index.
+     * @return Circuit breaker.
+     */
+    public CircuitBreaker breaker(final int member) {
+        return this.breakers.computeIfAbsent(member, idx -> this.factory.get());
+    }
+
+    /**
+     * Snapshot of circuit modes by member index.
+     *
+     * @return Circuit mode by member index.
+     */
+    public Map<Integer, CircuitBreaker.Mode> modes() {
+        final Map<Integer, CircuitBreaker.Mode> res = new ConcurrentHashMap<>();
+        this.breakers.forEach((member, breaker) -> res.put(member, breaker.mode()));
+        return res;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Smoothed read latency of group members, indexed by member priority.
+ * Keeps exponentially weighted moving average of latency and of its mean deviation
+ * the same way TCP estimates round trip time, and derives from them a delay after which
+ * the member is considered slow and the next member should be asked too.
+ * Also counts reads that timed out per member.
+ *
+ * @since 0.13
+ */
+public final class MemberLatency {
+
+    /**
+     * Weight of new sample in mean, as a shift: 1/8.
+     */
+    private static final int MEAN_SHIFT = 3;
+
+    /**
+     * Weight of new sample in deviation, as a shift: 1/4.
+     */
+    private static final int DEV_SHIFT = 2;
+
+    /**
+     * Deviations added to the mean to get the delay.
+     */
+    private static final int DEVIATIONS = 4;
+
+    /**
+     * Delay used for members without samples.
+     */
+    private final Duration initial;
+
+    /**
+     * Lower bound of the delay.
+     */
+    private final Duration min;
+
+    /**
+     * Upper bound of the delay.
+     */
+    private final Duration max;
+
+    /**
+     * Estimates by member index.
+     */
+    private final ConcurrentMap<Integer, Estimate> estimates;
+
+    /**
+     * Timed out reads by member index.
+     */
+    private final ConcurrentMap<Integer, AtomicLong> expired;
+
+    /**
+     * Ctor.
+     */
+    public MemberLatency() {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(Duration.ofMillis(100));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param initial Delay used for members without samples.
+     */
+    public MemberLatency(final Duration initial) {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(initial, Duration.ofMillis(5), Duration.ofSeconds(2));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param initial Delay used for members without samples.
+     * @param min Lower bound of the delay.
+     * @param max Upper bound of the delay.
+     */
+    public MemberLatency(final Duration initial, final Duration min, final Duration max) {
+        this.initial = initial;
+        this.min = min;
+        this.max = max;
+        this.estimates = new ConcurrentHashMap<>();
+        this.expired = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Record read latency of the member.
+     *
+     * @param member Member index.
+     * @param latency Observed latency.
+     */
+    public void record(final int member, final Duration latency) {
+        final long sample = latency.toNanos();
+        this.estimates.merge(
+            member,
+            new Estimate(sample, sample / 2),
+            (prev, ignored) -> prev.next(sample)
+        );
+    }
+
+    /**
+     * Record timed out read of the member.
+     *
+     * @param member Member index.
+     */
+    public void timeout(final int member) {
+        this.expired.computeIfAbsent(member, idx -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Delay after which the member is considered slow.
+     *
+     * @param member Member index.
+     * @return Delay, mean latency plus four deviations within configured bounds.
+     */
+    public Duration delay(final int member) {
+        final Estimate estimate = this.estimates.get(member);
+        final Duration delay;
+        if (estimate == null) {
+            delay = this.initial;
+        } else {
+            delay = Duration.ofNanos(
+                Math.min(
+                    this.max.toNanos(),
+                    Math.max(
+                        this.min.toNanos(),
+                        estimate.mean + MemberLatency.DEVIATIONS * estimate.deviation
+                    )
+                )
+            );
+        }
+        return delay;
+    }
+
+    /**
+     * Snapshot of mean latencies by member index.
+     *
+     * @return Mean latency by member index.
+     */
+    public Map<Integer, Duration> means() {
+        final Map<Integer, Duration> res = new ConcurrentHashMap<>();
+        this.estimates.forEach((member, est) -> res.put(member, Duration.ofNanos(est.mean)));
+        return res;
+    }
+
+    /**
+     * Snapshot of timed out reads counts by member index.
+     *
+     * @return Timed out reads count by member index.
+     */
+    public Map<Integer, Long> timeouts() {
+        final Map<Integer, Long> res = new ConcurrentHashMap<>();
+        this.expired.forEach((member, count) -> res.put(member, count.get()));
+        return res;
+    }
+
+    /**
+     * Immutable latency estimate.
+     *
+     * @since 0.13
+     */
+    private static final class Estimate {
+
+        /**
+         * Smoothed mean in nanoseconds.
+         */
+        private final long mean;
+
+        /**
+         * Smoothed mean deviation in nanoseconds.
+         */
+        private final long deviation;
+
+        /**
+         * Ctor.
+         *
+         * @param mean Smoothed mean in nanoseconds.
+         * @param deviation Smoothed mean deviation in nanoseconds.
+         */
+        Estimate(final long mean, final long deviation) {
+            this.mean = mean;
+            this.deviation = deviation;
+        }
+
+        /**
+         * Estimate updated with new sample.
+         *
+         * @param sample Sample in nanoseconds.
+         * @return Updated estimate.
+         */
+        Estimate next(final long sample) {
+            return new Estimate(
+                this.mean + (sample - this.mean >> MemberLatency.MEAN_SHIFT),
+                this.deviation
+                    + (Math.abs(sample - this.mean) - this.deviation >> MemberLatency.DEV_SHIFT)
+            );
+        }
+    }
+}
@@ -42,6 +42,9 @@ import java.util.stream.Collectors;
  * then image from repository coming first is returned.
  * Write operations are not supported.
  * Might be used to join multiple proxy Dockers into single repository.
+ * Dockers failing too often are skipped until they recover, see {@link MemberBreakers}.
+ * Dockers known to have nothing for a manifest or blob served by another docker
+ * are skipped, see {@link RepoRoutes}.
  *
  * @since 0.3
  */
@@ -52,6 +55,21 @@ public final class MultiReadDocker implements Docker {
      */
     private final List<Docker> dockers;
 
+    /**
+     * Hedged reads across dockers.
+     */
+    private final HedgedReads reads;
+
+    /**
+     * Ordered reads across dockers.
+     */
+    private final OrderedReads ordered;
+
+    /**
+     * Learned routes of repositories across dockers.
+     */
+    private final RepoRoutes routes;
+
     /**
      * Ctor.
      *
@@ -67,14 +85,88 @@ public final class MultiReadDocker implements Docker {
      * @param dockers Dockers for reading.
      */
     public MultiReadDocker(final List<Docker> dockers) {
+        this(dockers, new MemberLatency());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param dockers Dockers for reading.
+     * @param latency Dockers latency and timeouts, shared by layers and manifests reads.
+     */
+    public MultiReadDocker(final List<Docker> dockers, final MemberLatency latency) {
+        this(dockers, latency, new MemberBreakers());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param dockers Dockers for reading.
+     * @param latency Dockers latency and timeouts, shared by layers and manifests reads.
+     * @param breakers Dockers circuit breakers, shared by layers and manifests reads.
+     */
+    public MultiReadDocker(
+        final List<Docker> dockers, final MemberLatency latency, final MemberBreakers breakers
+    ) {
+        this(
+            dockers,
+            new HedgedReads(latency, breakers, HedgedReads.TIMERS),
+            new OrderedReads(latency, breakers)
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param dockers Dockers for reading.
+     * @param reads Hedged reads across dockers, shared by all repositories.
+     */
+    public MultiReadDocker(final List<Docker> dockers, final HedgedReads reads) {
+        this(dockers, reads, new OrderedReads());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param dockers Dockers for reading.
+     * @param reads Hedged reads across dockers, used for layers.
+     * @param ordered Ordered reads across dockers, used for manifests.
+     */
+    public MultiReadDocker(
+        final List<Docker> dockers, final HedgedReads reads, final OrderedReads ordered
+    ) {
+        this(dockers, reads, ordered, new RepoRoutes());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param dockers Dockers for reading.
+     * @param reads Hedged reads across dockers, used for layers.
+     * @param ordered Ordered reads across dockers, used for manifests.
+     * @param routes Learned routes of repositories across dockers.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public MultiReadDocker(
+        final List<Docker> dockers,
+        final HedgedReads reads,
+        final OrderedReads ordered,
+        final RepoRoutes routes
+    ) {
         this.dockers = dockers;
+        this.reads = reads;
+        this.ordered = ordered;
+        this.routes = routes;
     }
 
     @Override
     public Repo repo(final RepoName name) {
         return new MultiReadRepo(
             name,
-            this.dockers.stream().map(docker -> docker.repo(name)).collect(Collectors.toList())
+            this.dockers.stream().map(docker -> docker.repo(name)).collect(Collectors.toList()),
+            this.reads,
+            this.ordered,
+            this.routes
         );
     }
 
@@ -26,14 +26,20 @@ package com.artipie.docker.composite;
 import com.artipie.docker.Blob;
 import com.artipie.docker.Digest;
 import com.artipie.docker.Layers;
+import com.artipie.docker.RepoName;
 import com.artipie.docker.asto.BlobSource;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Multi-read {@link Layers} implementation.
+ * Layers are read in priority order, next layers are asked only when previous
+ * don't have the blob or are slower than usual, see {@link HedgedReads}.
+ * Layers known to have nothing for the blob are skipped and layers known to serve
+ * the repository are asked first, see {@link RepoRoutes}.
  *
  * @since 0.3
  */
@@ -44,13 +50,48 @@ public final class MultiReadLayers implements Layers {
      */
     private final List<Layers> layers;
 
+    /**
+     * Hedged reads across layers.
+     */
+    private final HedgedReads reads;
+
+    /**
+     * Route of the repository across layers.
+     */
+    private final RepoRoutes.Route route;
+
     /**
      * Ctor.
      *
      * @param layers Layers for reading.
      */
     public MultiReadLayers(final List<Layers> layers) {
+        this(layers, new HedgedReads());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param layers Layers for reading.
+     * @param reads Hedged reads across layers.
+     */
+    public MultiReadLayers(final List<Layers> layers, final HedgedReads reads) {
+        this(layers, reads, RepoRoutes.NONE.route(new RepoName.Simple("")));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param layers Layers for reading.
+     * @param reads Hedged reads across layers.
+     * @param route Route of the repository across layers.
+     */
+    public MultiReadLayers(
+        final List<Layers> layers, final HedgedReads reads, final RepoRoutes.Route route
+    ) {
         this.layers = layers;
+        this.reads = reads;
+        this.route = route;
     }
 
     @Override
@@ -65,24 +106,14 @@ public final class MultiReadLayers implements Layers {
 
     @Override
     public CompletionStage<Optional<Blob>> get(final Digest digest) {
-        final CompletableFuture<Optional<Blob>> promise = new CompletableFuture<>();
-        CompletableFuture.allOf(
+        return this.route.first(
+            () -> String.format("blobs/%s", digest.string()),
             this.layers.stream()
-                .map(
-                    layer -> layer.get(digest)
-                        .thenAccept(
-                            opt -> {
-                                if (opt.isPresent()) {
-                                    promise.complete(opt);
-                                }
-                            }
-                        )
-                        .toCompletableFuture()
+                .<Supplier<CompletionStage<Optional<Blob>>>>map(
+                    layer -> () -> layer.get(digest)
                 )
-                .toArray(CompletableFuture[]::new)
-        ).handle(
-            (nothing, throwable) -> promise.complete(Optional.empty())
+                .collect(Collectors.toList()),
+            this.reads::first
         );
-        return promise;
     }
 }
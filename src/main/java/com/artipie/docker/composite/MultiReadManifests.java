@@ -24,6 +24,7 @@
 package com.artipie.docker.composite;
 
 import com.artipie.asto.Content;
+import com.artipie.docker.Digest;
 import com.artipie.docker.Manifests;
 import com.artipie.docker.RepoName;
 import com.artipie.docker.Tag;
@@ -34,13 +35,17 @@ import com.artipie.docker.ref.ManifestRef;
 import com.jcabi.log.Logger;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Multi-read {@link Manifests} implementation.
+ * Manifest is taken from the first manifests having it, see {@link OrderedReads}.
+ * Manifests known to have nothing for the reference are skipped, see {@link RepoRoutes}.
+ * Manifests known to serve the repository are asked first for digest references only:
+ * tag may point to different manifests in members, so it is always resolved
+ * by members priority.
  *
  * @since 0.3
  */
@@ -56,6 +61,16 @@ public final class MultiReadManifests implements Manifests {
      */
     private final List<Manifests> manifests;
 
+    /**
+     * Ordered reads across manifests.
+     */
+    private final OrderedReads reads;
+
+    /**
+     * Route of the repository across manifests.
+     */
+    private final RepoRoutes.Route route;
+
     /**
      * Ctor.
      *
@@ -63,8 +78,41 @@ public final class MultiReadManifests implements Manifests {
      * @param manifests Manifests for reading.
      */
     public MultiReadManifests(final RepoName name, final List<Manifests> manifests) {
+        this(name, manifests, new OrderedReads());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param manifests Manifests for reading.
+     * @param reads Ordered reads across manifests.
+     */
+    public MultiReadManifests(
+        final RepoName name, final List<Manifests> manifests, final OrderedReads reads
+    ) {
+        this(name, manifests, reads, RepoRoutes.NONE.route(name));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param manifests Manifests for reading.
+     * @param reads Ordered reads across manifests.
+     * @param route Route of the repository across manifests.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public MultiReadManifests(
+        final RepoName name,
+        final List<Manifests> manifests,
+        final OrderedReads reads,
+        final RepoRoutes.Route route
+    ) {
         this.name = name;
         this.manifests = manifests;
+        this.reads = reads;
+        this.route = route;
     }
 
     @Override
@@ -74,59 +122,33 @@ public final class MultiReadManifests implements Manifests {
 
     @Override
     public CompletionStage<Optional<Manifest>> get(final ManifestRef ref) {
-        return firstNotEmpty(
-            this.manifests.stream().map(
-                mnfsts -> mnfsts.get(ref).handle(
+        final Supplier<String> item = () -> String.format("manifests/%s", ref.string());
+        final List<Supplier<CompletionStage<Optional<Manifest>>>> members = this.manifests
+            .stream()
+            .<Supplier<CompletionStage<Optional<Manifest>>>>map(
+                mnfsts -> () -> mnfsts.get(ref).whenComplete(
                     (manifest, throwable) -> {
-                        final CompletableFuture<Optional<Manifest>> result;
-                        if (throwable == null) {
-                            result = CompletableFuture.completedFuture(manifest);
-                        } else {
+                        if (throwable != null) {
                             Logger.error(
                                 this, "Failed to read manifest %s: %[exception]s",
                                 ref.string(),
                                 throwable
                             );
-                            result = CompletableFuture.completedFuture(Optional.empty());
                         }
-                        return result;
                     }
-                ).thenCompose(Function.identity())
-            ).collect(Collectors.toList())
-        );
+                )
+            ).collect(Collectors.toList());
+        final CompletionStage<Optional<Manifest>> res;
+        if (new Digest.FromString(ref.string()).valid()) {
+            res = this.route.first(item, members, this.reads::first);
+        } else {
+            res = this.reads.first(this.route.reads(item, members));
+        }
+        return res;
     }
 
     @Override
     public CompletionStage<Tags> tags(final Optional<Tag> from, final int limit) {
         return new JoinedTagsSource(this.name, this.manifests, from, limit).tags();
     }
-
-    /**
-     * Returns a new CompletionStage that is completed when first CompletionStage
-     * from the list completes with non-empty result.
-     * The result stage may be completed with empty value
-     *
-     * @param stages Completion stages.
-     * @param <T> Result type.
-     * @return Completion stage with first non-empty result.
-     */
-    private static <T> CompletionStage<Optional<T>> firstNotEmpty(
-        final List<CompletionStage<Optional<T>>> stages
-    ) {
-        final CompletableFuture<Optional<T>> promise = new CompletableFuture<>();
-        CompletionStage<Void> preceeding = CompletableFuture.allOf();
-        for (final CompletionStage<Optional<T>> stage : stages) {
-            preceeding = stage.thenCombine(
-                preceeding,
-                (opt, nothing) -> {
-                    if (opt.isPresent()) {
-                        promise.complete(opt);
-                    }
-                    return nothing;
-                }
-            );
-        }
-        preceeding.thenRun(() -> promise.complete(Optional.empty()));
-        return promise;
-    }
 }
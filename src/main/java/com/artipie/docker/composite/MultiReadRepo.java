@@ -48,6 +48,21 @@ public final class MultiReadRepo implements Repo {
      */
     private final List<Repo> repos;
 
+    /**
+     * Hedged reads across repositories.
+     */
+    private final HedgedReads reads;
+
+    /**
+     * Ordered reads across repositories.
+     */
+    private final OrderedReads ordered;
+
+    /**
+     * Routes of repositories across members.
+     */
+    private final RepoRoutes routes;
+
     /**
      * Ctor.
      *
@@ -55,21 +70,78 @@ public final class MultiReadRepo implements Repo {
      * @param repos Repositories for reading.
      */
     public MultiReadRepo(final RepoName name, final List<Repo> repos) {
+        this(name, repos, new HedgedReads());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param repos Repositories for reading.
+     * @param reads Hedged reads across repositories.
+     */
+    public MultiReadRepo(final RepoName name, final List<Repo> repos, final HedgedReads reads) {
+        this(name, repos, reads, new OrderedReads());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param repos Repositories for reading.
+     * @param reads Hedged reads across repositories, used for layers.
+     * @param ordered Ordered reads across repositories, used for manifests.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public MultiReadRepo(
+        final RepoName name,
+        final List<Repo> repos,
+        final HedgedReads reads,
+        final OrderedReads ordered
+    ) {
+        this(name, repos, reads, ordered, RepoRoutes.NONE);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Repository name.
+     * @param repos Repositories for reading.
+     * @param reads Hedged reads across repositories, used for layers.
+     * @param ordered Ordered reads across repositories, used for manifests.
+     * @param routes Routes of repositories across members.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public MultiReadRepo(
+        final RepoName name,
+        final List<Repo> repos,
+        final HedgedReads reads,
+        final OrderedReads ordered,
+        final RepoRoutes routes
+    ) {
         this.name = name;
         this.repos = repos;
+        this.reads = reads;
+        this.ordered = ordered;
+        this.routes = routes;
     }
 
     @Override
     public Layers layers() {
         return new MultiReadLayers(
-            this.repos.stream().map(Repo::layers).collect(Collectors.toList())
+            this.repos.stream().map(Repo::layers).collect(Collectors.toList()),
+            this.reads,
+            this.routes.route(this.name)
         );
     }
 
     @Override
     public Manifests manifests() {
         return new MultiReadManifests(
-            this.name, this.repos.stream().map(Repo::manifests).collect(Collectors.toList())
+            this.name,
+            this.repos.stream().map(Repo::manifests).collect(Collectors.toList()),
+            this.ordered,
+            this.routes.route(this.name)
         );
     }
 
@@ -0,0 +1,308 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Ordered reads across prioritized group members.
+ * All members are asked at once, value of a member is returned as soon as every
+ * member with higher priority answered it has no value, failed or timed out.
+ * Slow member never delays value of higher priority member and delays
+ * lower priority values at most for the timeout.
+ * Members with open circuit are absent immediately, see {@link MemberBreakers}.
+ *
+ * @since 0.13
+ */
+public final class OrderedReads {
+
+    /**
+     * Members latency and timeouts.
+     */
+    private final MemberLatency latency;
+
+    /**
+     * Members circuit breakers.
+     */
+    private final MemberBreakers breakers;
+
+    /**
+     * Member read timeout.
+     */
+    private final Duration timeout;
+
+    /**
+     * Scheduler for timeouts.
+     */
+    private final ScheduledExecutorService timers;
+
+    /**
+     * Ctor.
+     */
+    public OrderedReads() {
+        this(new MemberLatency());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency and timeouts.
+     */
+    public OrderedReads(final MemberLatency latency) {
+        this(latency, new MemberBreakers());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency and timeouts.
+     * @param breakers Members circuit breakers.
+     */
+    public OrderedReads(final MemberLatency latency, final MemberBreakers breakers) {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(latency, breakers, Duration.ofSeconds(10), HedgedReads.TIMERS);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency and timeouts.
+     * @param timeout Member read timeout.
+     */
+    public OrderedReads(final MemberLatency latency, final Duration timeout) {
+        this(latency, timeout, HedgedReads.TIMERS);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency and timeouts.
+     * @param timeout Member read timeout.
+     * @param timers Scheduler for timeouts.
+     */
+    public OrderedReads(
+        final MemberLatency latency,
+        final Duration timeout,
+        final ScheduledExecutorService timers
+    ) {
+        this(latency, new MemberBreakers(), timeout, timers);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Members latency and timeouts.
+     * @param breakers Members circuit breakers.
+     * @param timeout Member read timeout.
+     * @param timers Scheduler for timeouts.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public OrderedReads(
+        final MemberLatency latency,
+        final MemberBreakers breakers,
+        final Duration timeout,
+        final ScheduledExecutorService timers
+    ) {
+        this.latency = latency;
+        this.breakers = breakers;
+        this.timeout = timeout;
+        this.timers = timers;
+    }
+
+    /**
+     * Read present value of the member with highest priority.
+     *
+     * @param members Reads from members in priority order.
+     * @param <T> Value type.
+     * @return Value of first member having it, empty if no member has it.
+     */
+    public <T> CompletionStage<Optional<T>> first(
+        final List<Supplier<CompletionStage<Optional<T>>>> members
+    ) {
+        return this.first(HedgedReads.indexed(members));
+    }
+
+    /**
+     * Read present value of the member with highest priority from some of members.
+     *
+     * @param members Reads by member index, members missing in the map are not asked.
+     * @param <T> Value type.
+     * @return Value of first member having it, empty if no member has it.
+     */
+    public <T> CompletionStage<Optional<T>> first(
+        final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> members
+    ) {
+        final Resolution<T> resolution = this.new Resolution<>(members.size());
+        int idx = 0;
+        for (final Map.Entry<Integer, Supplier<CompletionStage<Optional<T>>>> member
+            : members.entrySet()) {
+            if (resolution.promise.isDone()) {
+                break;
+            }
+            resolution.start(idx, member.getKey(), member.getValue());
+            idx += 1;
+        }
+        resolution.resolve();
+        return resolution.promise;
+    }
+
+    /**
+     * Single ordered read.
+     *
+     * @param <T> Value type.
+     * @since 0.13
+     */
+    private final class Resolution<T> {
+
+        /**
+         * Result promise.
+         */
+        private final CompletableFuture<Optional<T>> promise;
+
+        /**
+         * Answers by member position, null while member is pending.
+         */
+        private final AtomicReferenceArray<Optional<T>> answers;
+
+        /**
+         * Outstanding reads and timers to cancel when resolved.
+         */
+        private final Queue<Future<?>> outstanding;
+
+        /**
+         * Ctor.
+         *
+         * @param size Members count.
+         */
+        Resolution(final int size) {
+            this.promise = new CompletableFuture<>();
+            this.answers = new AtomicReferenceArray<>(size);
+            this.outstanding = new ConcurrentLinkedQueue<>();
+        }
+
+        /**
+         * Start member read with timeout.
+         *
+         * @param idx Member position.
+         * @param id Member index.
+         * @param member Member read.
+         */
+        void start(
+            final int idx, final int id, final Supplier<CompletionStage<Optional<T>>> member
+        ) {
+            final long begin = System.nanoTime();
+            final CompletableFuture<Optional<T>> read = HedgedReads.read(
+                OrderedReads.this.breakers.breaker(id), member
+            );
+            this.outstanding.add(read);
+            read.handle(
+                (opt, err) -> {
+                    if (err == null) {
+                        OrderedReads.this.latency.record(
+                            id, Duration.ofNanos(System.nanoTime() - begin)
+                        );
+                        this.answer(idx, opt);
+                    } else {
+                        this.answer(idx, Optional.empty());
+                    }
+                    return null;
+                }
+            );
+            if (!read.isDone()) {
+                this.outstanding.add(
+                    OrderedReads.this.timers.schedule(
+                        () -> {
+                            if (this.answers.compareAndSet(idx, null, Optional.empty())) {
+                                OrderedReads.this.latency.timeout(id);
+                                this.resolve();
+                            }
+                        },
+                        OrderedReads.this.timeout.toNanos(),
+                        TimeUnit.NANOSECONDS
+                    )
+                );
+            }
+            if (this.promise.isDone()) {
+                this.cancel();
+            }
+        }
+
+        /**
+         * Complete promise if members with higher priority answered.
+         */
+        void resolve() {
+            if (!this.promise.isDone()) {
+                Optional<Optional<T>> result = Optional.of(Optional.empty());
+                for (int idx = 0; idx < this.answers.length(); idx += 1) {
+                    final Optional<T> answer = this.answers.get(idx);
+                    if (answer == null || answer.isPresent()) {
+                        result = Optional.ofNullable(answer);
+                        break;
+                    }
+                }
+                result.ifPresent(
+                    value -> {
+                        this.cancel();
+                        this.promise.complete(value);
+                    }
+                );
+            }
+        }
+
+        /**
+         * Accept member answer unless it has timed out.
+         *
+         * @param idx Member position.
+         * @param answer Member answer.
+         */
+        private void answer(final int idx, final Optional<T> answer) {
+            if (this.answers.compareAndSet(idx, null, answer)) {
+                this.resolve();
+            }
+        }
+
+        /**
+         * Cancel outstanding reads and timers.
+         */
+        private void cancel() {
+            for (Future<?> future = this.outstanding.poll(); future != null;
+                future = this.outstanding.poll()) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -70,6 +70,11 @@ public final class ReadWriteManifests implements Manifests {
         return this.read.get(ref);
     }
 
+    @Override
+    public CompletionStage<Boolean> exists(final ManifestRef ref) {
+        return this.read.exists(ref);
+    }
+
     @Override
     public CompletionStage<Tags> tags(final Optional<Tag> from, final int limit) {
         return this.read.tags(from, limit);
@@ -0,0 +1,385 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import com.artipie.docker.RepoName;
+import com.artipie.docker.misc.LruCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Learned routing of repository items, such as manifests and blobs, to group members.
+ * Remembers for some time which members served an item and which answered
+ * they have nothing for it. Member that recently had nothing for an item is skipped
+ * while another member is known to serve the same item. Misses are remembered
+ * per item only, so one missing item doesn't affect reads of other items from the member.
+ * Hits are remembered for the repository as well: member with highest priority
+ * that recently served any item of the repository is the known member, it is asked first
+ * for other items of the repository, so reads of new items cost single member call too.
+ * Other members are asked only if known member has nothing for the item.
+ * Least recently used items are evicted when index reaches max size.
+ *
+ * @since 0.13
+ * @checkstyle ParameterNumberCheck (500 lines)
+ */
+public final class RepoRoutes {
+
+    /**
+     * Routes which learn nothing and never skip members.
+     */
+    public static final RepoRoutes NONE = new RepoRoutes(Duration.ZERO, Duration.ZERO, 0);
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Time member is known to serve item.
+     */
+    private final Duration hit;
+
+    /**
+     * Time member is known to have nothing for item.
+     */
+    private final Duration miss;
+
+    /**
+     * Member marks by repository name and item, hit marks of repository
+     * are kept by repository name.
+     */
+    private final LruCache<String, ConcurrentMap<Integer, Mark>> routes;
+
+    /**
+     * Ctor.
+     */
+    public RepoRoutes() {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(Duration.ofMinutes(5), Duration.ofSeconds(30), 10_000);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param hit Time member is known to serve item.
+     * @param miss Time member is known to have nothing for item.
+     * @param max Max number of items in the index.
+     */
+    public RepoRoutes(final Duration hit, final Duration miss, final int max) {
+        this(Clock.systemUTC(), hit, miss, max);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param clock Clock.
+     * @param hit Time member is known to serve item.
+     * @param miss Time member is known to have nothing for item.
+     * @param max Max number of items in the index.
+     */
+    public RepoRoutes(
+        final Clock clock, final Duration hit, final Duration miss, final int max
+    ) {
+        this.clock = clock;
+        this.hit = hit;
+        this.miss = miss;
+        this.routes = new LruCache<>(max);
+    }
+
+    /**
+     * Route of the repository.
+     *
+     * @param name Repository name.
+     * @return Route.
+     */
+    public Route route(final RepoName name) {
+        return this.new Route(name.value());
+    }
+
+    /**
+     * Drop everything learned.
+     */
+    public void invalidate() {
+        this.routes.clear();
+    }
+
+    /**
+     * Route of single repository.
+     *
+     * @since 0.13
+     */
+    public final class Route {
+
+        /**
+         * Repository name.
+         */
+        private final String name;
+
+        /**
+         * Ctor.
+         *
+         * @param name Repository name.
+         */
+        Route(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Member reads of the item to perform: reads of members that may be skipped
+         * are dropped, answers of others are remembered.
+         *
+         * @param item Item of the repository, e.g. manifest reference or blob digest,
+         *  evaluated only if routes learn anything.
+         * @param reads Reads from members in priority order.
+         * @param <T> Value type.
+         * @return Reads by member index.
+         */
+        public <T> SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> reads(
+            final Supplier<String> item,
+            final List<Supplier<CompletionStage<Optional<T>>>> reads
+        ) {
+            final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> res;
+            if (RepoRoutes.this.hit.isZero() && RepoRoutes.this.miss.isZero()) {
+                res = new TreeMap<>();
+                for (int idx = 0; idx < reads.size(); idx += 1) {
+                    res.put(idx, reads.get(idx));
+                }
+            } else {
+                res = this.learned(item.get(), reads);
+            }
+            return res;
+        }
+
+        /**
+         * Read first present value of the item: known member of the repository
+         * is asked first, other members not skipped are asked by the strategy
+         * only if known member has nothing for the item.
+         *
+         * @param item Item of the repository, e.g. manifest reference or blob digest,
+         *  evaluated only if routes learn anything.
+         * @param reads Reads from members in priority order.
+         * @param strategy Strategy reading first present value from members.
+         * @param <T> Value type.
+         * @return First present value, empty if no member has it.
+         */
+        public <T> CompletionStage<Optional<T>> first(
+            final Supplier<String> item,
+            final List<Supplier<CompletionStage<Optional<T>>>> reads,
+            final Function<SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>>,
+                CompletionStage<Optional<T>>> strategy
+        ) {
+            final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> members =
+                this.reads(item, reads);
+            final Optional<Integer> known = this.known().filter(members::containsKey);
+            final CompletionStage<Optional<T>> res;
+            if (known.isPresent()) {
+                final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> first =
+                    new TreeMap<>();
+                first.put(known.get(), members.remove(known.get()));
+                res = strategy.apply(first).thenCompose(
+                    found -> {
+                        final CompletionStage<Optional<T>> value;
+                        if (found.isPresent() || members.isEmpty()) {
+                            value = CompletableFuture.completedFuture(found);
+                        } else {
+                            value = strategy.apply(members);
+                        }
+                        return value;
+                    }
+                );
+            } else {
+                res = strategy.apply(members);
+            }
+            return res;
+        }
+
+        /**
+         * Check if member may be skipped: it recently had nothing for the item
+         * while another member is known to serve it.
+         *
+         * @param item Item of the repository.
+         * @param member Member index.
+         * @return True if member may be skipped.
+         */
+        public boolean skip(final String item, final int member) {
+            final Instant now = RepoRoutes.this.clock.instant();
+            return RepoRoutes.this.routes.get(this.key(item)).filter(
+                marks -> {
+                    final Mark mark = marks.get(member);
+                    return mark != null && !mark.present && mark.fresh(now)
+                        && marks.values().stream().anyMatch(
+                            other -> other.present && other.fresh(now)
+                        );
+                }
+            ).isPresent();
+        }
+
+        /**
+         * Remember member answer for the item.
+         *
+         * @param item Item of the repository.
+         * @param member Member index.
+         * @param present True if member served the item, false if it had nothing.
+         */
+        public void served(final String item, final int member, final boolean present) {
+            final Instant now = RepoRoutes.this.clock.instant();
+            final Duration ttl;
+            if (present) {
+                ttl = RepoRoutes.this.hit;
+            } else {
+                ttl = RepoRoutes.this.miss;
+            }
+            if (!ttl.isZero()) {
+                final Mark mark = new Mark(present, now.plus(ttl));
+                this.marks(this.key(item)).put(member, mark);
+                if (present) {
+                    this.marks(this.name).put(member, mark);
+                }
+            }
+        }
+
+        /**
+         * Member marks of the item, created if absent.
+         *
+         * @param key Index key of the item or repository name.
+         * @return Marks by member index.
+         */
+        private ConcurrentMap<Integer, Mark> marks(final String key) {
+            return RepoRoutes.this.routes.computeIfAbsent(
+                key, nothing -> new ConcurrentHashMap<>()
+            );
+        }
+
+        /**
+         * Known member of the repository: member with highest priority
+         * that recently served any item of the repository.
+         *
+         * @return Member index, empty if no member is known.
+         */
+        private Optional<Integer> known() {
+            final Instant now = RepoRoutes.this.clock.instant();
+            return RepoRoutes.this.routes.get(this.name).flatMap(
+                marks -> marks.entrySet().stream()
+                    .filter(entry -> entry.getValue().present && entry.getValue().fresh(now))
+                    .map(Map.Entry::getKey)
+                    .min(Integer::compare)
+            );
+        }
+
+        /**
+         * Member reads of the item with skipped members dropped,
+         * answers of others are remembered.
+         *
+         * @param item Item of the repository.
+         * @param reads Reads from members in priority order.
+         * @param <T> Value type.
+         * @return Reads by member index.
+         */
+        private <T> SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> learned(
+            final String item,
+            final List<Supplier<CompletionStage<Optional<T>>>> reads
+        ) {
+            final SortedMap<Integer, Supplier<CompletionStage<Optional<T>>>> res =
+                new TreeMap<>();
+            for (int idx = 0; idx < reads.size(); idx += 1) {
+                final int member = idx;
+                final Supplier<CompletionStage<Optional<T>>> read = reads.get(idx);
+                if (!this.skip(item, member)) {
+                    res.put(
+                        member,
+                        () -> read.get().whenComplete(
+                            (opt, err) -> {
+                                if (err == null) {
+                                    this.served(item, member, opt.isPresent());
+                                }
+                            }
+                        )
+                    );
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Index key of the item.
+         *
+         * @param item Item of the repository.
+         * @return Key.
+         */
+        private String key(final String item) {
+            return String.join(" ", this.name, item);
+        }
+    }
+
+    /**
+     * Member mark for item.
+     *
+     * @since 0.13
+     */
+    private static final class Mark {
+
+        /**
+         * True if member served the item.
+         */
+        private final boolean present;
+
+        /**
+         * Expiration time.
+         */
+        private final Instant expires;
+
+        /**
+         * Ctor.
+         *
+         * @param present True if member served the item.
+         * @param expires Expiration time.
+         */
+        Mark(final boolean present, final Instant expires) {
+            this.present = present;
+            this.expires = expires;
+        }
+
+        /**
+         * Check if mark is still valid.
+         *
+         * @param now Current time.
+         * @return True if not expired.
+         */
+        boolean fresh(final Instant now) {
+            return now.isBefore(this.expires);
+        }
+    }
+}
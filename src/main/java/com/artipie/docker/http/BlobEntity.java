@@ -27,8 +27,8 @@ import com.artipie.asto.Content;
 import com.artipie.docker.Digest;
 import com.artipie.docker.Docker;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.RepoNames;
 import com.artipie.docker.error.BlobUnknownError;
-import com.artipie.docker.misc.RqByRegex;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.headers.ContentLength;
@@ -50,6 +50,7 @@ import org.reactivestreams.Publisher;
  *
  * @since 0.2
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ParameterNumberCheck (500 lines)
  */
 final class BlobEntity {
 
@@ -71,7 +72,7 @@ final class BlobEntity {
      *
      * @since 0.2
      */
-    static final class Get implements ScopeSlice {
+    static final class Get implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -88,17 +89,23 @@ final class BlobEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Pull(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.BLOB;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Pull(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final Digest digest = request.digest();
             return new AsyncResponse(
                 this.docker.repo(request.name()).layers().get(digest).thenApply(
@@ -129,7 +136,7 @@ final class BlobEntity {
      *
      * @since 0.2
      */
-    static final class Head implements ScopeSlice {
+    static final class Head implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -146,17 +153,23 @@ final class BlobEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Pull(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.BLOB;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Pull(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final Digest digest = request.digest();
             return new AsyncResponse(
                 this.docker.repo(request.name()).layers().get(digest).thenApply(
@@ -208,9 +221,9 @@ final class BlobEntity {
     static final class Request {
 
         /**
-         * HTTP request line.
+         * Route parsed from HTTP request line.
          */
-        private final RqByRegex rqregex;
+        private final Route route;
 
         /**
          * Ctor.
@@ -218,7 +231,16 @@ final class BlobEntity {
          * @param line HTTP request line.
          */
         Request(final String line) {
-            this.rqregex = new RqByRegex(line, BlobEntity.PATH);
+            this(Route.parsed(line, Route.Entity.BLOB));
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param route Route parsed from HTTP request line.
+         */
+        Request(final Route route) {
+            this.route = route;
         }
 
         /**
@@ -227,7 +249,7 @@ final class BlobEntity {
          * @return Repository name.
          */
         RepoName name() {
-            return new RepoName.Valid(this.rqregex.path().group("name"));
+            return RepoNames.SHARED.name(this.route.name());
         }
 
         /**
@@ -236,7 +258,7 @@ final class BlobEntity {
          * @return Digest.
          */
         Digest digest() {
-            return new Digest.FromString(this.rqregex.path().group("digest"));
+            return new Digest.Parsed(this.route.param());
         }
 
     }
@@ -0,0 +1,297 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.docker.misc.LruCache;
+import com.artipie.http.auth.AuthScheme;
+import com.artipie.http.headers.Authorization;
+import com.artipie.http.rq.RqHeaders;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * Authentication scheme caching authentication results of origin scheme.
+ * Results are cached by HMAC-SHA256 of `Authorization` header value
+ * with random key generated once per process, so credentials are verified once
+ * for parallel and repeated requests, are not kept in memory as is
+ * and could not be recovered from cache keys by precomputed hashes.
+ * Successful results are cached for TTL, failures are cached for shorter negative TTL.
+ * Requests without `Authorization` header are not cached.
+ * When cache reaches max size least recently used result is evicted.
+ *
+ * @since 0.13
+ */
+public final class CachedAuthScheme implements AuthScheme {
+
+    /**
+     * Cache key algorithm.
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Cache key secret, random per process.
+     */
+    private static final byte[] SECRET = CachedAuthScheme.randomKey();
+
+    /**
+     * Default TTL of successful authentication.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    /**
+     * Default TTL of failed authentication.
+     */
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(10);
+
+    /**
+     * Default max number of cached results.
+     */
+    private static final int DEFAULT_MAX = 10_000;
+
+    /**
+     * Origin authentication scheme.
+     */
+    private final AuthScheme origin;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * TTL of successful authentication.
+     */
+    private final Duration ttl;
+
+    /**
+     * TTL of failed authentication.
+     */
+    private final Duration negative;
+
+    /**
+     * Cached results by `Authorization` header HMAC.
+     */
+    private final LruCache<String, Cached> cache;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin authentication scheme.
+     */
+    public CachedAuthScheme(final AuthScheme origin) {
+        this(
+            origin,
+            CachedAuthScheme.DEFAULT_TTL,
+            CachedAuthScheme.NEGATIVE_TTL,
+            CachedAuthScheme.DEFAULT_MAX
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin authentication scheme.
+     * @param ttl TTL of successful authentication.
+     * @param negative TTL of failed authentication.
+     * @param max Max number of cached results.
+     * @checkstyle ParameterNumberCheck (7 lines)
+     */
+    public CachedAuthScheme(
+        final AuthScheme origin,
+        final Duration ttl,
+        final Duration negative,
+        final int max
+    ) {
+        this(origin, Clock.systemUTC(), ttl, negative, max);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin authentication scheme.
+     * @param clock Clock.
+     * @param ttl TTL of successful authentication.
+     * @param negative TTL of failed authentication.
+     * @param max Max number of cached results.
+     * @checkstyle ParameterNumberCheck (8 lines)
+     */
+    public CachedAuthScheme(
+        final AuthScheme origin,
+        final Clock clock,
+        final Duration ttl,
+        final Duration negative,
+        final int max
+    ) {
+        this.origin = origin;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.negative = negative;
+        this.cache = new LruCache<>(max);
+    }
+
+    @Override
+    public CompletionStage<Result> authenticate(
+        final Iterable<Map.Entry<String, String>> headers
+    ) {
+        return new RqHeaders(headers, Authorization.NAME).stream().findFirst()
+            .map(CachedAuthScheme::key)
+            .map(key -> this.cached(key, headers))
+            .orElseGet(() -> this.origin.authenticate(headers));
+    }
+
+    /**
+     * Invalidate all cached results.
+     */
+    public void invalidate() {
+        this.cache.clear();
+    }
+
+    /**
+     * Get cached result or authenticate with origin scheme and cache result.
+     * Concurrent requests with same header share single origin authentication.
+     *
+     * @param key Header HMAC.
+     * @param headers Request headers.
+     * @return Authentication result.
+     */
+    private CompletionStage<Result> cached(
+        final String key, final Iterable<Map.Entry<String, String>> headers
+    ) {
+        final Instant now = this.clock.instant();
+        final Optional<Cached> found = this.cache.get(key)
+            .filter(cached -> cached.valid(now, this.ttl, this.negative));
+        final Cached res;
+        if (found.isPresent()) {
+            res = found.get();
+        } else {
+            final Cached created = new Cached(
+                this.origin.authenticate(headers).toCompletableFuture(), now
+            );
+            this.cache.put(key, created);
+            created.result.whenComplete(
+                (result, err) -> {
+                    if (err != null) {
+                        this.cache.remove(key, created);
+                    }
+                }
+            );
+            res = created;
+        }
+        return res.result;
+    }
+
+    /**
+     * Cache key of `Authorization` header.
+     *
+     * @param header Header value.
+     * @return Hex encoded HMAC of header value.
+     */
+    private static String key(final String header) {
+        try {
+            final Mac mac = Mac.getInstance(CachedAuthScheme.ALGORITHM);
+            mac.init(new SecretKeySpec(CachedAuthScheme.SECRET, CachedAuthScheme.ALGORITHM));
+            return Hex.encodeHexString(mac.doFinal(header.getBytes(StandardCharsets.UTF_8)));
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Generate random cache key secret.
+     *
+     * @return Secret.
+     */
+    private static byte[] randomKey() {
+        // @checkstyle MagicNumberCheck (1 line)
+        final byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    /**
+     * Cached authentication result.
+     *
+     * @since 0.13
+     */
+    private static final class Cached {
+
+        /**
+         * Authentication result, could be in progress.
+         */
+        private final CompletableFuture<Result> result;
+
+        /**
+         * Time when authentication started.
+         */
+        private final Instant created;
+
+        /**
+         * Ctor.
+         *
+         * @param result Authentication result.
+         * @param created Time when authentication started.
+         */
+        Cached(final CompletableFuture<Result> result, final Instant created) {
+            this.result = result;
+            this.created = created;
+        }
+
+        /**
+         * Check if result could be used.
+         * Result in progress is valid, so concurrent requests wait for it.
+         *
+         * @param now Current time.
+         * @param ttl TTL of successful authentication.
+         * @param negative TTL of failed authentication.
+         * @return True if result is valid.
+         */
+        boolean valid(final Instant now, final Duration ttl, final Duration negative) {
+            final boolean res;
+            if (this.result.isDone()) {
+                final Duration age = Duration.between(this.created, now);
+                if (this.result.isCompletedExceptionally()) {
+                    res = false;
+                } else if (this.result.join().user().isPresent()) {
+                    res = age.compareTo(ttl) < 0;
+                } else {
+                    res = age.compareTo(negative) < 0;
+                }
+            } else {
+                res = true;
+            }
+            return res;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.docker.misc.LruCache;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.Map;
+
+/**
+ * Permissions caching authorization decisions of origin permissions.
+ * Decision for user and action is cached for short time,
+ * so requests with same scope, e.g. pulling all layers of an image,
+ * evaluate origin permissions once.
+ * When cache reaches max size least recently used decision is evicted.
+ * Decisions could be invalidated explicitly when origin permissions change.
+ *
+ * @since 0.13
+ */
+public final class CachedPermissions implements Permissions {
+
+    /**
+     * Default decision TTL.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+
+    /**
+     * Default max number of cached decisions.
+     */
+    private static final int DEFAULT_MAX = 10_000;
+
+    /**
+     * Origin permissions.
+     */
+    private final Permissions origin;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Decision TTL.
+     */
+    private final Duration ttl;
+
+    /**
+     * Cached decisions by user and action.
+     */
+    private final LruCache<Map.Entry<Authentication.User, String>, Decision> cache;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin permissions.
+     */
+    public CachedPermissions(final Permissions origin) {
+        this(origin, CachedPermissions.DEFAULT_TTL, CachedPermissions.DEFAULT_MAX);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin permissions.
+     * @param ttl Decision TTL.
+     * @param max Max number of cached decisions.
+     */
+    public CachedPermissions(final Permissions origin, final Duration ttl, final int max) {
+        this(origin, Clock.systemUTC(), ttl, max);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin permissions.
+     * @param clock Clock.
+     * @param ttl Decision TTL.
+     * @param max Max number of cached decisions.
+     * @checkstyle ParameterNumberCheck (7 lines)
+     */
+    public CachedPermissions(
+        final Permissions origin,
+        final Clock clock,
+        final Duration ttl,
+        final int max
+    ) {
+        this.origin = origin;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.cache = new LruCache<>(max);
+    }
+
+    @Override
+    public boolean allowed(final Authentication.User user, final String action) {
+        final Map.Entry<Authentication.User, String> key =
+            new AbstractMap.SimpleImmutableEntry<>(user, action);
+        final Instant now = this.clock.instant();
+        return this.cache.get(key)
+            .filter(decision -> decision.expires.isAfter(now))
+            .map(decision -> decision.allowed)
+            .orElseGet(() -> this.evaluate(key, now));
+    }
+
+    /**
+     * Invalidate all cached decisions.
+     */
+    public void invalidate() {
+        this.cache.clear();
+    }
+
+    /**
+     * Invalidate cached decisions for user.
+     *
+     * @param user User.
+     */
+    public void invalidate(final Authentication.User user) {
+        this.cache.removeIf(key -> key.getKey().equals(user));
+    }
+
+    /**
+     * Evaluate origin permissions and cache decision.
+     *
+     * @param key User and action.
+     * @param now Current time.
+     * @return True if action is allowed.
+     */
+    private boolean evaluate(final Map.Entry<Authentication.User, String> key, final Instant now) {
+        final boolean allowed = this.origin.allowed(key.getKey(), key.getValue());
+        this.cache.put(key, new Decision(allowed, now.plus(this.ttl)));
+        return allowed;
+    }
+
+    /**
+     * Cached authorization decision.
+     *
+     * @since 0.13
+     */
+    private static final class Decision {
+
+        /**
+         * Whether action is allowed.
+         */
+        private final boolean allowed;
+
+        /**
+         * Time when decision expires.
+         */
+        private final Instant expires;
+
+        /**
+         * Ctor.
+         *
+         * @param allowed Whether action is allowed.
+         * @param expires Time when decision expires.
+         */
+        Decision(final boolean allowed, final Instant expires) {
+            this.allowed = allowed;
+            this.expires = expires;
+        }
+    }
+}
@@ -27,7 +27,6 @@ import com.artipie.docker.Docker;
 import com.artipie.docker.RepoName;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
-import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rq.RqParams;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithBody;
@@ -44,6 +43,7 @@ import org.reactivestreams.Publisher;
  *
  * @since 0.8
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ParameterNumberCheck (500 lines)
  */
 final class CatalogEntity {
 
@@ -63,7 +63,7 @@ final class CatalogEntity {
      *
      * @since 0.8
      */
-    public static class Get implements ScopeSlice {
+    public static class Get implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -80,17 +80,23 @@ final class CatalogEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
+        public Route.Entity entity() {
+            return Route.Entity.CATALOG;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
             return new Scope.Registry("catalog", "*");
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final RqParams params = new RqParams(new RequestLineFrom(line).uri().getQuery());
+            final RqParams params = route.params();
             return new AsyncResponse(
                 this.docker.catalog(
                     params.value("last").map(RepoName.Simple::new),
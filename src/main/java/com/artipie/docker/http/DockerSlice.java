@@ -30,10 +30,6 @@ import com.artipie.http.auth.Authentication;
 import com.artipie.http.auth.BasicAuthScheme;
 import com.artipie.http.auth.Permissions;
 import com.artipie.http.rq.RqMethod;
-import com.artipie.http.rt.ByMethodsRule;
-import com.artipie.http.rt.RtRule;
-import com.artipie.http.rt.RtRulePath;
-import com.artipie.http.rt.SliceRoute;
 
 /**
  * Slice implementing Docker Registry HTTP API.
@@ -68,6 +64,9 @@ public final class DockerSlice extends Slice.Wrap {
 
     /**
      * Ctor.
+     * To cache authorization decisions or authentication results, pass permissions
+     * wrapped in {@link CachedPermissions} or scheme wrapped in {@link CachedAuthScheme}
+     * and keep them to invalidate cached entries when access rules or credentials change.
      *
      * @param docker Docker repository.
      * @param perms Access permissions.
@@ -76,91 +75,65 @@ public final class DockerSlice extends Slice.Wrap {
     public DockerSlice(final Docker docker, final Permissions perms, final AuthScheme auth) {
         super(
             new ErrorHandlingSlice(
-                new SliceRoute(
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(BaseEntity.PATH),
-                            ByMethodsRule.Standard.GET
-                        ),
-                        auth(new BaseEntity(), perms, auth)
+                new RouteSlice(
+                    new RouteSlice.Target(
+                        Route.Entity.BASE, RqMethod.GET, auth(new BaseEntity(), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(ManifestEntity.PATH),
-                            new ByMethodsRule(RqMethod.HEAD)
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.MANIFEST,
+                        RqMethod.HEAD,
                         auth(new ManifestEntity.Head(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(ManifestEntity.PATH),
-                            ByMethodsRule.Standard.GET
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.MANIFEST,
+                        RqMethod.GET,
                         auth(new ManifestEntity.Get(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(ManifestEntity.PATH),
-                            ByMethodsRule.Standard.PUT
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.MANIFEST,
+                        RqMethod.PUT,
                         new ManifestEntity.PutAuth(
                             docker, new ManifestEntity.Put(docker), auth, perms
                         )
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(TagsEntity.PATH),
-                            ByMethodsRule.Standard.GET
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.TAGS,
+                        RqMethod.GET,
                         auth(new TagsEntity.Get(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(BlobEntity.PATH),
-                            new ByMethodsRule(RqMethod.HEAD)
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.BLOB,
+                        RqMethod.HEAD,
                         auth(new BlobEntity.Head(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(BlobEntity.PATH),
-                            ByMethodsRule.Standard.GET
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.BLOB,
+                        RqMethod.GET,
                         auth(new BlobEntity.Get(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(UploadEntity.PATH),
-                            ByMethodsRule.Standard.POST
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.UPLOAD,
+                        RqMethod.POST,
                         auth(new UploadEntity.Post(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(UploadEntity.PATH),
-                            new ByMethodsRule(RqMethod.PATCH)
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.UPLOAD,
+                        RqMethod.PATCH,
                         auth(new UploadEntity.Patch(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(UploadEntity.PATH),
-                            ByMethodsRule.Standard.PUT
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.UPLOAD,
+                        RqMethod.PUT,
                         auth(new UploadEntity.Put(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(UploadEntity.PATH),
-                            ByMethodsRule.Standard.GET
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.UPLOAD,
+                        RqMethod.GET,
                         auth(new UploadEntity.Get(docker), perms, auth)
                     ),
-                    new RtRulePath(
-                        new RtRule.All(
-                            new RtRule.ByPath(CatalogEntity.PATH),
-                            ByMethodsRule.Standard.GET
-                        ),
+                    new RouteSlice.Target(
+                        Route.Entity.CATALOG,
+                        RqMethod.GET,
                         auth(new CatalogEntity.Get(docker), perms, auth)
                     )
                 )
@@ -176,11 +149,31 @@ public final class DockerSlice extends Slice.Wrap {
      * @param auth Authentication scheme.
      * @return Authorized slice.
      */
-    private static Slice auth(
+    private static RoutedSlice auth(
         final ScopeSlice origin,
         final Permissions perms,
         final AuthScheme auth
     ) {
-        return new DockerAuthSlice(new AuthScopeSlice(origin, auth, perms));
+        final Slice slice = new DockerAuthSlice(new AuthScopeSlice(origin, auth, perms));
+        return (route, line, headers, body) -> slice.response(line, headers, body);
+    }
+
+    /**
+     * Requires authentication and authorization for slice,
+     * scope and response are taken from route parsed by {@link RouteSlice}.
+     *
+     * @param origin Origin slice.
+     * @param perms Access permissions.
+     * @param auth Authentication scheme.
+     * @return Authorized slice.
+     */
+    private static RoutedSlice auth(
+        final RoutedScopeSlice origin,
+        final Permissions perms,
+        final AuthScheme auth
+    ) {
+        return (route, line, headers, body) -> new DockerAuthSlice(
+            new AuthScopeSlice(new RoutedScopeSlice.Bound(origin, route), auth, perms)
+        ).response(line, headers, body);
     }
 }
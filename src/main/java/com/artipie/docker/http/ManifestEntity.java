@@ -26,9 +26,9 @@ package com.artipie.docker.http;
 import com.artipie.asto.Content;
 import com.artipie.docker.Docker;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.RepoNames;
 import com.artipie.docker.error.ManifestError;
 import com.artipie.docker.manifest.Manifest;
-import com.artipie.docker.misc.RqByRegex;
 import com.artipie.docker.ref.ManifestRef;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
@@ -56,6 +56,7 @@ import org.reactivestreams.Publisher;
  *
  * @since 0.2
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ParameterNumberCheck (500 lines)
  */
 final class ManifestEntity {
 
@@ -77,7 +78,7 @@ final class ManifestEntity {
      *
      * @since 0.2
      */
-    public static class Head implements ScopeSlice {
+    public static class Head implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -94,16 +95,23 @@ final class ManifestEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Pull(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.MANIFEST;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Pull(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
-            final Publisher<ByteBuffer> body) {
-            final Request request = new Request(line);
+            final Publisher<ByteBuffer> body
+        ) {
+            final Request request = new Request(route);
             final ManifestRef ref = request.reference();
             return new AsyncResponse(
                 this.docker.repo(request.name()).manifests().get(ref).thenApply(
@@ -134,7 +142,7 @@ final class ManifestEntity {
      *
      * @since 0.2
      */
-    public static class Get implements ScopeSlice {
+    public static class Get implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -151,17 +159,23 @@ final class ManifestEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Pull(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.MANIFEST;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Pull(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName name = request.name();
             final ManifestRef ref = request.reference();
             return new AsyncResponse(
@@ -185,7 +199,7 @@ final class ManifestEntity {
      *
      * @since 0.2
      */
-    public static class Put implements ScopeSlice {
+    public static class Put implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -202,17 +216,23 @@ final class ManifestEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Push(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.MANIFEST;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Push(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName name = request.name();
             final ManifestRef ref = request.reference();
             return new AsyncResponse(
@@ -235,7 +255,7 @@ final class ManifestEntity {
      *
      * @since 0.12
      */
-    public static class PutAuth implements ScopeSlice {
+    public static class PutAuth implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -245,7 +265,7 @@ final class ManifestEntity {
         /**
          * Origin.
          */
-        private final ScopeSlice origin;
+        private final RoutedScopeSlice origin;
 
         /**
          * Access permissions.
@@ -265,7 +285,7 @@ final class ManifestEntity {
          * @param perms Permission
          * @checkstyle ParameterNumberCheck (4 lines)
          */
-        PutAuth(final Docker docker, final ScopeSlice origin,
+        PutAuth(final Docker docker, final RoutedScopeSlice origin,
             final AuthScheme auth, final Permissions perms) {
             this.docker = docker;
             this.origin = origin;
@@ -275,26 +295,28 @@ final class ManifestEntity {
 
         @Override
         public Response response(
-            final String line, final Iterable<Map.Entry<String, String>> headers,
+            final Route route,
+            final String line,
+            final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName name = request.name();
             final ManifestRef ref = request.reference();
             return new AsyncResponse(
-                this.docker.repo(name).manifests().get(ref).thenApply(
-                    manifest -> {
+                this.docker.repo(name).manifests().exists(ref).thenApply(
+                    exists -> {
                         final Permission perm;
-                        if (manifest.isPresent()) {
-                            perm = user -> this.perms.allowed(user, this.scope(line).string());
+                        if (exists) {
+                            perm = user -> this.perms.allowed(user, this.scope(route).string());
                         } else {
                             perm = user -> this.perms.allowed(
-                                user, this.origin.scope(line).string()
-                            ) || this.perms.allowed(user, this.scope(line).string());
+                                user, this.origin.scope(route).string()
+                            ) || this.perms.allowed(user, this.scope(route).string());
                         }
                         return new DockerAuthSlice(
                             new AuthSlice(
-                                this.origin,
+                                new RoutedScopeSlice.Bound(this.origin, route),
                                 this.auth,
                                 perm
                             )
@@ -305,8 +327,13 @@ final class ManifestEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.OverwriteTags(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.MANIFEST;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.OverwriteTags(new Request(route).name());
         }
     }
 
@@ -318,9 +345,9 @@ final class ManifestEntity {
     static final class Request {
 
         /**
-         * HTTP request by RegEx.
+         * Route parsed from HTTP request line.
          */
-        private final RqByRegex rqregex;
+        private final Route route;
 
         /**
          * Ctor.
@@ -328,7 +355,16 @@ final class ManifestEntity {
          * @param line HTTP request line.
          */
         Request(final String line) {
-            this.rqregex = new RqByRegex(line, ManifestEntity.PATH);
+            this(Route.parsed(line, Route.Entity.MANIFEST));
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param route Route parsed from HTTP request line.
+         */
+        Request(final Route route) {
+            this.route = route;
         }
 
         /**
@@ -337,7 +373,7 @@ final class ManifestEntity {
          * @return Repository name.
          */
         RepoName name() {
-            return new RepoName.Valid(this.rqregex.path().group("name"));
+            return RepoNames.SHARED.name(this.route.name());
         }
 
         /**
@@ -346,7 +382,7 @@ final class ManifestEntity {
          * @return Manifest reference.
          */
         ManifestRef reference() {
-            return new ManifestRef.FromString(this.rqregex.path().group("reference"));
+            return new ManifestRef.FromString(this.route.param());
         }
 
     }
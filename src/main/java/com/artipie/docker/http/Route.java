@@ -0,0 +1,308 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqParams;
+import java.net.URI;
+import java.util.Optional;
+
+/**
+ * Docker Registry API route parsed from request URI.
+ * Path is parsed in single pass by searching entity markers
+ * instead of matching regular expressions, query is kept along with path
+ * so routed slices read request parameters without parsing request line again.
+ *
+ * @since 0.13
+ */
+final class Route {
+
+    /**
+     * API version path prefix.
+     */
+    static final String PREFIX = "/v2/";
+
+    /**
+     * Blob path marker.
+     */
+    static final String BLOBS = "/blobs/";
+
+    /**
+     * Upload path marker.
+     */
+    static final String UPLOADS = "/blobs/uploads/";
+
+    /**
+     * Manifest path marker.
+     */
+    static final String MANIFESTS = "/manifests/";
+
+    /**
+     * Tags path suffix.
+     */
+    static final String TAGS = "/tags/list";
+
+    /**
+     * Routed entity.
+     */
+    private final Entity type;
+
+    /**
+     * Repository name, empty string for entities not bound to repository.
+     */
+    private final String rname;
+
+    /**
+     * Entity parameter: manifest reference, blob digest or upload UUID,
+     * empty string for entities having no parameter.
+     */
+    private final String ref;
+
+    /**
+     * Request query, empty string if request has no query.
+     */
+    private final String rquery;
+
+    /**
+     * Ctor.
+     *
+     * @param type Routed entity.
+     * @param rname Repository name.
+     * @param param Entity parameter.
+     * @param query Request query.
+     * @checkstyle ParameterNumberCheck (2 lines)
+     */
+    Route(final Entity type, final String rname, final String param, final String query) {
+        this.type = type;
+        this.rname = rname;
+        this.ref = param;
+        this.rquery = query;
+    }
+
+    /**
+     * Routed entity.
+     *
+     * @return Entity.
+     */
+    Entity entity() {
+        return this.type;
+    }
+
+    /**
+     * Repository name.
+     *
+     * @return Repository name string.
+     */
+    String name() {
+        return this.rname;
+    }
+
+    /**
+     * Entity parameter: manifest reference, blob digest or upload UUID.
+     *
+     * @return Parameter string.
+     */
+    String param() {
+        return this.ref;
+    }
+
+    /**
+     * Request query.
+     *
+     * @return Query string, empty if request has no query.
+     */
+    String query() {
+        return this.rquery;
+    }
+
+    /**
+     * Request query parameters.
+     *
+     * @return Query parameters.
+     */
+    RqParams params() {
+        return new RqParams(this.rquery);
+    }
+
+    /**
+     * Parse route to specified entity from request line.
+     *
+     * @param line Request line.
+     * @param entity Expected entity.
+     * @return Route.
+     * @throws IllegalArgumentException If request path does not match entity.
+     */
+    static Route parsed(final String line, final Entity entity) {
+        final URI uri = new RequestLineFrom(line).uri();
+        return entity.route(uri.getPath(), Route.query(uri)).orElseThrow(
+            () -> new IllegalArgumentException(
+                String.format("Unexpected path: %s", uri.getPath())
+            )
+        );
+    }
+
+    /**
+     * Extract query from request URI.
+     *
+     * @param uri Request URI.
+     * @return Query string, empty if URI has no query.
+     */
+    static String query(final URI uri) {
+        return Optional.ofNullable(uri.getQuery()).orElse("");
+    }
+
+    /**
+     * Extract repository name preceding marker found in path.
+     *
+     * @param path Request path.
+     * @param idx Index of marker in path.
+     * @return Repository name, empty if path has no API version prefix before marker.
+     */
+    private static Optional<String> name(final String path, final int idx) {
+        final Optional<String> name;
+        if (idx >= Route.PREFIX.length() && path.startsWith(Route.PREFIX)) {
+            name = Optional.of(path.substring(Route.PREFIX.length(), idx));
+        } else {
+            name = Optional.empty();
+        }
+        return name;
+    }
+
+    /**
+     * Routed entities in routing priority order.
+     * Path matching several entities is routed to first one accepting request method.
+     *
+     * @since 0.13
+     */
+    enum Entity {
+
+        /**
+         * Base entity, path `/v2/`.
+         */
+        BASE {
+            @Override
+            Optional<Route> route(final String path, final String query) {
+                return Optional.of(path).filter(Route.PREFIX::equals)
+                    .map(any -> new Route(this, "", "", query));
+            }
+        },
+
+        /**
+         * Manifest entity, path `/v2/{name}/manifests/{reference}`.
+         */
+        MANIFEST {
+            @Override
+            Optional<Route> route(final String path, final String query) {
+                final int idx = path.lastIndexOf(Route.MANIFESTS);
+                return Route.name(path, idx).map(
+                    name -> new Route(
+                        this, name, path.substring(idx + Route.MANIFESTS.length()), query
+                    )
+                );
+            }
+        },
+
+        /**
+         * Tags entity, path `/v2/{name}/tags/list`.
+         */
+        TAGS {
+            @Override
+            Optional<Route> route(final String path, final String query) {
+                final int idx = path.length() - Route.TAGS.length();
+                return Optional.of(path).filter(val -> val.endsWith(Route.TAGS))
+                    .flatMap(val -> Route.name(val, idx))
+                    .map(name -> new Route(this, name, "", query));
+            }
+        },
+
+        /**
+         * Blob entity, path `/v2/{name}/blobs/{digest}`,
+         * where digest does not start with `uploads/`.
+         */
+        BLOB {
+            @Override
+            Optional<Route> route(final String path, final String query) {
+                final int len = Route.BLOBS.length();
+                int idx = path.lastIndexOf(Route.BLOBS);
+                while (idx >= 0 && path.startsWith(Route.UPLOADS, idx)) {
+                    idx = path.lastIndexOf(Route.BLOBS, idx - 1);
+                }
+                final int found = idx;
+                return Route.name(path, found).map(
+                    name -> new Route(this, name, path.substring(found + len), query)
+                );
+            }
+        },
+
+        /**
+         * Upload entity, path `/v2/{name}/blobs/uploads/{uuid}`.
+         */
+        UPLOAD {
+            @Override
+            Optional<Route> route(final String path, final String query) {
+                final int idx = path.lastIndexOf(Route.UPLOADS);
+                return Route.name(path, idx).map(
+                    name -> {
+                        final int start = idx + Route.UPLOADS.length();
+                        int end = path.indexOf('/', start);
+                        if (end < 0) {
+                            end = path.length();
+                        }
+                        return new Route(this, name, path.substring(start, end), query);
+                    }
+                );
+            }
+        },
+
+        /**
+         * Catalog entity, path `/v2/_catalog`.
+         */
+        CATALOG {
+            @Override
+            Optional<Route> route(final String path, final String query) {
+                return Optional.of(path).filter("/v2/_catalog"::equals)
+                    .map(any -> new Route(this, "", "", query));
+            }
+        };
+
+        /**
+         * Parse route to this entity from request path without query.
+         *
+         * @param path Request path.
+         * @return Route, empty if path does not match entity.
+         */
+        Optional<Route> route(final String path) {
+            return this.route(path, "");
+        }
+
+        /**
+         * Parse route to this entity from request path and query.
+         *
+         * @param path Request path.
+         * @param query Request query, empty string if request has no query.
+         * @return Route, empty if path does not match entity.
+         */
+        abstract Optional<Route> route(String path, String query);
+    }
+}
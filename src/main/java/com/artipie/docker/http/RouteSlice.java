@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithStatus;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice routing requests to Docker Registry API entities.
+ * Targets are indexed by entity and request method, so request is routed
+ * by parsing request line once and looking up target slice
+ * instead of trying routing rules one by one.
+ * Parsed route, including request query, is passed to target slice,
+ * so targets do not parse request line again.
+ *
+ * @since 0.13
+ */
+final class RouteSlice implements Slice {
+
+    /**
+     * Target slices by entity and request method.
+     */
+    private final Map<Route.Entity, Map<RqMethod, RoutedSlice>> targets;
+
+    /**
+     * Ctor.
+     *
+     * @param targets Routing targets.
+     */
+    RouteSlice(final Target... targets) {
+        this(RouteSlice.index(targets));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param targets Target slices by entity and request method.
+     */
+    private RouteSlice(final Map<Route.Entity, Map<RqMethod, RoutedSlice>> targets) {
+        this.targets = targets;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final RequestLineFrom request = new RequestLineFrom(line);
+        final RqMethod method = request.method();
+        final URI uri = request.uri();
+        final String path = uri.getPath();
+        final String query = Route.query(uri);
+        return Arrays.stream(Route.Entity.values())
+            .map(entity -> this.target(entity, method, path, query))
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .findFirst()
+            .map(target -> target.response(line, headers, body))
+            .orElse(
+                new RsWithBody(
+                    new RsWithStatus(RsStatus.NOT_FOUND), "not found", StandardCharsets.UTF_8
+                )
+            );
+    }
+
+    /**
+     * Find target slice for entity if entity accepts request method and path.
+     *
+     * @param entity Entity.
+     * @param method Request method.
+     * @param path Request path.
+     * @param query Request query.
+     * @return Target slice bound to parsed route, empty if request is not routed to entity.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private Optional<Slice> target(
+        final Route.Entity entity, final RqMethod method, final String path, final String query
+    ) {
+        return Optional.ofNullable(this.targets.get(entity))
+            .map(methods -> methods.get(method))
+            .flatMap(
+                slice -> entity.route(path, query).map(
+                    route -> (line, headers, body) -> slice.response(route, line, headers, body)
+                )
+            );
+    }
+
+    /**
+     * Index targets by entity and request method.
+     *
+     * @param targets Routing targets.
+     * @return Target slices by entity and request method.
+     */
+    private static Map<Route.Entity, Map<RqMethod, RoutedSlice>> index(final Target... targets) {
+        final Map<Route.Entity, Map<RqMethod, RoutedSlice>> index =
+            new EnumMap<>(Route.Entity.class);
+        for (final Target target : targets) {
+            index.computeIfAbsent(target.entity, entity -> new EnumMap<>(RqMethod.class))
+                .putIfAbsent(target.method, target.slice);
+        }
+        return index;
+    }
+
+    /**
+     * Routing target: slice handling requests to entity with method.
+     *
+     * @since 0.13
+     */
+    static final class Target {
+
+        /**
+         * Entity.
+         */
+        private final Route.Entity entity;
+
+        /**
+         * Request method.
+         */
+        private final RqMethod method;
+
+        /**
+         * Target slice.
+         */
+        private final RoutedSlice slice;
+
+        /**
+         * Ctor.
+         *
+         * @param entity Entity.
+         * @param method Request method.
+         * @param slice Target slice.
+         */
+        Target(final Route.Entity entity, final RqMethod method, final RoutedSlice slice) {
+            this.entity = entity;
+            this.method = method;
+            this.slice = slice;
+        }
+    }
+}
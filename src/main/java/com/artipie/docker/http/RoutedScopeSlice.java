@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.http.Response;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+
+/**
+ * Entity slice requiring authorization specified by {@link Scope}
+ * and taking both scope and response from parsed {@link Route}.
+ * Requests passed as plain request line are parsed to route of {@link #entity()}.
+ *
+ * @since 0.13
+ */
+interface RoutedScopeSlice extends ScopeSlice, RoutedSlice {
+
+    /**
+     * Entity handled by this slice.
+     *
+     * @return Entity.
+     */
+    Route.Entity entity();
+
+    /**
+     * Evaluate authentication scope from parsed route.
+     *
+     * @param route Route parsed from request line.
+     * @return Scope.
+     */
+    Scope scope(Route route);
+
+    @Override
+    default Scope scope(final String line) {
+        return this.scope(Route.parsed(line, this.entity()));
+    }
+
+    @Override
+    default Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        return this.response(Route.parsed(line, this.entity()), line, headers, body);
+    }
+
+    /**
+     * Scope slice bound to already parsed route.
+     * Scope and response are taken from route, request line is not parsed again.
+     *
+     * @since 0.13
+     */
+    final class Bound implements ScopeSlice {
+
+        /**
+         * Origin slice.
+         */
+        private final RoutedScopeSlice origin;
+
+        /**
+         * Parsed route.
+         */
+        private final Route route;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin slice.
+         * @param route Parsed route.
+         */
+        Bound(final RoutedScopeSlice origin, final Route route) {
+            this.origin = origin;
+            this.route = route;
+        }
+
+        @Override
+        public Scope scope(final String line) {
+            return this.origin.scope(this.route);
+        }
+
+        @Override
+        public Response response(
+            final String line,
+            final Iterable<Map.Entry<String, String>> headers,
+            final Publisher<ByteBuffer> body
+        ) {
+            return this.origin.response(this.route, line, headers, body);
+        }
+    }
+}
@@ -62,7 +62,7 @@ public interface Scope {
      * @return Scope string.
      */
     default String string() {
-        return String.format("%s:%s:%s", this.type(), this.name(), this.action());
+        return this.type().concat(":").concat(this.name()).concat(":").concat(this.action());
     }
 
     /**
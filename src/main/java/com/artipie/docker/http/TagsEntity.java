@@ -25,11 +25,10 @@ package com.artipie.docker.http;
 
 import com.artipie.docker.Docker;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.RepoNames;
 import com.artipie.docker.Tag;
-import com.artipie.docker.misc.RqByRegex;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
-import com.artipie.http.rq.RequestLineFrom;
 import com.artipie.http.rq.RqParams;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithBody;
@@ -46,6 +45,7 @@ import org.reactivestreams.Publisher;
  *
  * @since 0.8
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ParameterNumberCheck (500 lines)
  */
 final class TagsEntity {
 
@@ -65,7 +65,7 @@ final class TagsEntity {
      *
      * @since 0.8
      */
-    public static class Get implements ScopeSlice {
+    public static class Get implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -82,19 +82,25 @@ final class TagsEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Pull(name(line));
+        public Route.Entity entity() {
+            return Route.Entity.TAGS;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Pull(name(route));
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final RqParams params = new RqParams(new RequestLineFrom(line).uri().getQuery());
+            final RqParams params = route.params();
             return new AsyncResponse(
-                this.docker.repo(name(line)).manifests().tags(
+                this.docker.repo(name(route)).manifests().tags(
                     params.value("last").map(Tag.Valid::new),
                     params.value("n").map(Integer::parseInt).orElse(Integer.MAX_VALUE)
                 ).thenApply(
@@ -110,13 +116,13 @@ final class TagsEntity {
         }
 
         /**
-         * Extract repository name from HTTP request line.
+         * Extract repository name from route.
          *
-         * @param line Request line.
+         * @param route Route parsed from request line.
          * @return Repository name.
          */
-        private static RepoName.Valid name(final String line) {
-            return new RepoName.Valid(new RqByRegex(line, TagsEntity.PATH).path().group("name"));
+        private static RepoName name(final Route route) {
+            return RepoNames.SHARED.name(route.name());
         }
     }
 }
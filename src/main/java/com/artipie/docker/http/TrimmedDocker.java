@@ -27,6 +27,7 @@ import com.artipie.docker.Catalog;
 import com.artipie.docker.Docker;
 import com.artipie.docker.Repo;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.RepoNames;
 import com.artipie.docker.misc.CatalogPage;
 import com.artipie.docker.misc.ParsedCatalog;
 import java.util.Optional;
@@ -95,6 +96,6 @@ public final class TrimmedDocker implements Docker {
                 )
             );
         }
-        return new RepoName.Valid(matcher.group(1));
+        return RepoNames.SHARED.name(matcher.group(1));
     }
 }
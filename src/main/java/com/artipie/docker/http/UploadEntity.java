@@ -27,16 +27,14 @@ import com.artipie.docker.Digest;
 import com.artipie.docker.Docker;
 import com.artipie.docker.Repo;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.RepoNames;
 import com.artipie.docker.error.UploadUnknownError;
-import com.artipie.docker.misc.RqByRegex;
 import com.artipie.http.Connection;
 import com.artipie.http.Response;
 import com.artipie.http.async.AsyncResponse;
 import com.artipie.http.headers.ContentLength;
 import com.artipie.http.headers.Header;
 import com.artipie.http.headers.Location;
-import com.artipie.http.rq.RequestLineFrom;
-import com.artipie.http.rq.RqParams;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithHeaders;
 import com.artipie.http.rs.RsWithStatus;
@@ -55,6 +53,7 @@ import org.reactivestreams.Publisher;
  *
  * @since 0.2
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ParameterNumberCheck (500 lines)
  */
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class UploadEntity {
@@ -77,7 +76,7 @@ public final class UploadEntity {
      *
      * @since 0.2
      */
-    public static final class Post implements ScopeSlice {
+    public static final class Post implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -94,17 +93,23 @@ public final class UploadEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Push(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.UPLOAD;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Push(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName target = request.name();
             final Optional<Digest> mount = request.mount();
             final Optional<RepoName> from = request.from();
@@ -164,7 +169,7 @@ public final class UploadEntity {
      *
      * @since 0.2
      */
-    public static final class Patch implements ScopeSlice {
+    public static final class Patch implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -181,17 +186,23 @@ public final class UploadEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Push(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.UPLOAD;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Push(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName name = request.name();
             final String uuid = request.uuid();
             return new AsyncResponse(
@@ -218,7 +229,7 @@ public final class UploadEntity {
      *  match. There is no direct answer in docs, so this should be check experimentally with real
      *  docker registry.
      */
-    public static final class Put implements ScopeSlice {
+    public static final class Put implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -235,17 +246,23 @@ public final class UploadEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Push(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.UPLOAD;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Push(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName name = request.name();
             final String uuid = request.uuid();
             final Repo repo = this.docker.repo(name);
@@ -270,7 +287,7 @@ public final class UploadEntity {
      *
      * @since 0.3
      */
-    public static final class Get implements ScopeSlice {
+    public static final class Get implements RoutedScopeSlice {
 
         /**
          * Docker repository.
@@ -287,17 +304,23 @@ public final class UploadEntity {
         }
 
         @Override
-        public Scope scope(final String line) {
-            return new Scope.Repository.Pull(new Request(line).name());
+        public Route.Entity entity() {
+            return Route.Entity.UPLOAD;
+        }
+
+        @Override
+        public Scope scope(final Route route) {
+            return new Scope.Repository.Pull(new Request(route).name());
         }
 
         @Override
         public Response response(
+            final Route route,
             final String line,
             final Iterable<Map.Entry<String, String>> headers,
             final Publisher<ByteBuffer> body
         ) {
-            final Request request = new Request(line);
+            final Request request = new Request(route);
             final RepoName name = request.name();
             final String uuid = request.uuid();
             return new AsyncResponse(
@@ -329,9 +352,9 @@ public final class UploadEntity {
     static final class Request {
 
         /**
-         * HTTP request line.
+         * Route parsed from HTTP request line.
          */
-        private final String line;
+        private final Route route;
 
         /**
          * Ctor.
@@ -339,7 +362,16 @@ public final class UploadEntity {
          * @param line HTTP request line.
          */
         Request(final String line) {
-            this.line = line;
+            this(Route.parsed(line, Route.Entity.UPLOAD));
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param route Route parsed from HTTP request line.
+         */
+        Request(final Route route) {
+            this.route = route;
         }
 
         /**
@@ -348,9 +380,7 @@ public final class UploadEntity {
          * @return Repository name.
          */
         RepoName name() {
-            return new RepoName.Valid(
-                new RqByRegex(this.line, UploadEntity.PATH).path().group("name")
-            );
+            return RepoNames.SHARED.name(this.route.name());
         }
 
         /**
@@ -359,7 +389,7 @@ public final class UploadEntity {
          * @return Upload UUID.
          */
         String uuid() {
-            return new RqByRegex(this.line, UploadEntity.PATH).path().group("uuid");
+            return this.route.param();
         }
 
         /**
@@ -368,8 +398,10 @@ public final class UploadEntity {
          * @return Digest.
          */
         Digest digest() {
-            return this.params().value("digest").map(Digest.FromString::new).orElseThrow(
-                () -> new IllegalStateException(String.format("Unexpected query: %s", this.line))
+            return this.route.params().value("digest").map(Digest.Parsed::new).orElseThrow(
+                () -> new IllegalStateException(
+                    String.format("Unexpected query: %s", this.route.query())
+                )
             );
         }
 
@@ -379,7 +411,7 @@ public final class UploadEntity {
          * @return Digest, empty if parameter does not present in query.
          */
         Optional<Digest> mount() {
-            return this.params().value("mount").map(Digest.FromString::new);
+            return this.route.params().value("mount").map(Digest.Parsed::new);
         }
 
         /**
@@ -388,16 +420,7 @@ public final class UploadEntity {
          * @return Repository name, empty if parameter does not present in the query.
          */
         Optional<RepoName> from() {
-            return this.params().value("from").map(RepoName.Valid::new);
-        }
-
-        /**
-         * Extract request query parameters.
-         *
-         * @return Request query parameters.
-         */
-        private RqParams params() {
-            return new RqParams(new RequestLineFrom(this.line).uri().getQuery());
+            return this.route.params().value("from").map(RepoNames.SHARED::name);
         }
     }
 
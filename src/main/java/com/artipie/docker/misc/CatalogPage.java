@@ -28,11 +28,12 @@ import com.artipie.docker.Catalog;
 import com.artipie.docker.RepoName;
 import java.util.Collection;
 import java.util.Optional;
-import javax.json.Json;
-import javax.json.JsonArrayBuilder;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * {@link Catalog} that is a page of given repository names list.
+ * Given names are expected to be sorted, so page is streamed without buffering
+ * and repeated names are skipped by comparing with previous one.
  *
  * @since 0.10
  */
@@ -72,20 +73,19 @@ public final class CatalogPage implements Catalog {
 
     @Override
     public Content json() {
-        final JsonArrayBuilder builder = Json.createArrayBuilder();
-        this.names.stream()
-            .map(RepoName::value)
-            .filter(name -> this.from.map(last -> name.compareTo(last.value()) > 0).orElse(true))
-            .sorted()
-            .distinct()
-            .limit(this.limit)
-            .forEach(builder::add);
-        return new Content.From(
-            Json.createObjectBuilder()
-                .add("repositories", builder)
-                .build()
-                .toString()
-                .getBytes()
+        return new NamesJson(
+            "repositories",
+            () -> {
+                final AtomicReference<String> prev = new AtomicReference<>();
+                return this.names.stream()
+                    .map(RepoName::value)
+                    .filter(
+                        name -> this.from.map(last -> name.compareTo(last.value()) > 0)
+                            .orElse(true)
+                    )
+                    .filter(name -> !name.equals(prev.getAndSet(name)))
+                    .limit(this.limit);
+            }
         );
     }
 }
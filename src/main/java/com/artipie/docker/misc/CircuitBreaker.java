@@ -0,0 +1,345 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for calls to unreliable member, e.g. remote registry.
+ * While closed, calls pass through and outcomes are counted in tumbling windows of calls,
+ * circuit opens when failure rate reaches the threshold in at least half of a window.
+ * While open, calls fail immediately with {@link Rejected} until cool down passes,
+ * then single probe call is let through in half-open state: its success closes the circuit,
+ * its failure opens it again.
+ *
+ * @since 0.13
+ * @checkstyle ParameterNumberCheck (500 lines)
+ */
+public final class CircuitBreaker {
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Failure rate opening the circuit, from 0 to 1.
+     */
+    private final double rate;
+
+    /**
+     * Calls in the window.
+     */
+    private final int window;
+
+    /**
+     * Time circuit stays open before probe call.
+     */
+    private final Duration cooldown;
+
+    /**
+     * Current state.
+     */
+    private final AtomicReference<State> current;
+
+    /**
+     * Ctor.
+     */
+    public CircuitBreaker() {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(Clock.systemUTC(), 0.5, 10, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param clock Clock.
+     * @param rate Failure rate opening the circuit, from 0 to 1.
+     * @param window Calls in the window.
+     * @param cooldown Time circuit stays open before probe call.
+     */
+    public CircuitBreaker(
+        final Clock clock, final double rate, final int window, final Duration cooldown
+    ) {
+        this.clock = clock;
+        this.rate = rate;
+        this.window = window;
+        this.cooldown = cooldown;
+        this.current = new AtomicReference<>(State.closed(Instant.EPOCH));
+    }
+
+    /**
+     * Call member through the circuit.
+     * Cancelled calls are neither failures nor successes.
+     *
+     * @param call Member call.
+     * @param <T> Result type.
+     * @return Call result or failed future if circuit is open.
+     */
+    public <T> CompletableFuture<T> call(final Supplier<? extends CompletionStage<T>> call) {
+        return this.call(call, err -> true);
+    }
+
+    /**
+     * Call member through the circuit, counting only some errors as failures.
+     * Errors not matching the predicate mean member is up, e.g. it denied the request,
+     * and are counted as successes. Cancelled calls are neither failures nor successes.
+     *
+     * @param call Member call.
+     * @param failure Predicate of errors which are member failures.
+     * @param <T> Result type.
+     * @return Call result or failed future if circuit is open.
+     */
+    public <T> CompletableFuture<T> call(
+        final Supplier<? extends CompletionStage<T>> call,
+        final Predicate<Throwable> failure
+    ) {
+        final CompletableFuture<T> res;
+        if (this.permitted()) {
+            res = call.get().toCompletableFuture();
+            res.whenComplete(
+                (val, err) -> {
+                    final Throwable cause = CircuitBreaker.unwrap(err);
+                    if (!(cause instanceof CancellationException)) {
+                        this.record(cause == null || !failure.test(cause));
+                    }
+                }
+            );
+        } else {
+            res = new CompletableFuture<>();
+            res.completeExceptionally(new Rejected());
+        }
+        return res;
+    }
+
+    /**
+     * Current circuit mode.
+     *
+     * @return Mode.
+     */
+    public Mode mode() {
+        return this.current.get().mode;
+    }
+
+    /**
+     * Check if call is permitted, moving open circuit to half-open after cool down.
+     *
+     * @return True if call may proceed.
+     */
+    private boolean permitted() {
+        final State state = this.current.get();
+        final Instant now = this.clock.instant();
+        return state.mode == Mode.CLOSED
+            || !now.isBefore(state.since.plus(this.cooldown))
+            && this.current.compareAndSet(state, State.probing(now));
+    }
+
+    /**
+     * Record call outcome.
+     *
+     * @param success True if call succeeded.
+     */
+    private void record(final boolean success) {
+        final Instant now = this.clock.instant();
+        this.current.updateAndGet(
+            state -> {
+                final State next;
+                if (state.mode == Mode.CLOSED) {
+                    next = state.counted(success, this.rate, this.window, now);
+                } else if (state.mode == Mode.HALF_OPEN && success) {
+                    next = State.closed(now);
+                } else if (state.mode == Mode.HALF_OPEN) {
+                    next = State.open(now);
+                } else {
+                    next = state;
+                }
+                return next;
+            }
+        );
+    }
+
+    /**
+     * Unwrap completion exception.
+     *
+     * @param err Error, may be null.
+     * @return Cause of completion exception or error itself.
+     */
+    private static Throwable unwrap(final Throwable err) {
+        final Throwable res;
+        if (err instanceof CompletionException && err.getCause() != null) {
+            res = err.getCause();
+        } else {
+            res = err;
+        }
+        return res;
+    }
+
+    /**
+     * Circuit mode.
+     *
+     * @since 0.13
+     */
+    public enum Mode {
+        /**
+         * Calls pass through.
+         */
+        CLOSED,
+
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+
+        /**
+         * Single probe call is in flight, other calls are rejected.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Failure of call rejected by open circuit.
+     *
+     * @since 0.13
+     */
+    @SuppressWarnings("serial")
+    public static final class Rejected extends IllegalStateException {
+
+        /**
+         * Ctor.
+         */
+        public Rejected() {
+            super("Circuit is open");
+        }
+    }
+
+    /**
+     * Immutable circuit state.
+     *
+     * @since 0.13
+     */
+    private static final class State {
+
+        /**
+         * Mode.
+         */
+        private final Mode mode;
+
+        /**
+         * Time the mode was entered.
+         */
+        private final Instant since;
+
+        /**
+         * Calls counted in current window.
+         */
+        private final int calls;
+
+        /**
+         * Failures counted in current window.
+         */
+        private final int failures;
+
+        /**
+         * Ctor.
+         *
+         * @param mode Mode.
+         * @param since Time the mode was entered.
+         * @param calls Calls counted in current window.
+         * @param failures Failures counted in current window.
+         */
+        State(final Mode mode, final Instant since, final int calls, final int failures) {
+            this.mode = mode;
+            this.since = since;
+            this.calls = calls;
+            this.failures = failures;
+        }
+
+        /**
+         * State with call outcome counted.
+         *
+         * @param success True if call succeeded.
+         * @param rate Failure rate opening the circuit.
+         * @param window Calls in the window.
+         * @param now Current time.
+         * @return Next state.
+         */
+        State counted(
+            final boolean success, final double rate, final int window, final Instant now
+        ) {
+            final int total = this.calls + 1;
+            int failed = this.failures;
+            if (!success) {
+                failed += 1;
+            }
+            final State next;
+            if (total * 2 >= window && failed >= rate * total) {
+                next = State.open(now);
+            } else if (total >= window) {
+                next = State.closed(now);
+            } else {
+                next = new State(Mode.CLOSED, this.since, total, failed);
+            }
+            return next;
+        }
+
+        /**
+         * Closed state with empty window.
+         *
+         * @param now Current time.
+         * @return State.
+         */
+        static State closed(final Instant now) {
+            return new State(Mode.CLOSED, now, 0, 0);
+        }
+
+        /**
+         * Open state.
+         *
+         * @param now Current time.
+         * @return State.
+         */
+        static State open(final Instant now) {
+            return new State(Mode.OPEN, now, 0, 0);
+        }
+
+        /**
+         * Half-open state.
+         *
+         * @param now Current time.
+         * @return State.
+         */
+        static State probing(final Instant now) {
+            return new State(Mode.HALF_OPEN, now, 0, 0);
+        }
+    }
+}
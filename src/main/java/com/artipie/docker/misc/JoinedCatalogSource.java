@@ -27,11 +27,10 @@ import com.artipie.docker.Catalog;
 import com.artipie.docker.Docker;
 import com.artipie.docker.RepoName;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -90,20 +89,37 @@ public final class JoinedCatalogSource {
 
     /**
      * Load catalog.
+     * Names are merged from sorted pages of every source,
+     * further pages are loaded only when needed to fill the limit.
      *
      * @return Catalog.
      */
     public CompletionStage<Catalog> catalog() {
-        final List<CompletionStage<List<RepoName>>> all = this.dockers.stream().map(
-            docker -> docker.catalog(this.from, this.limit)
-                .thenApply(ParsedCatalog::new)
-                .thenCompose(ParsedCatalog::repos)
-                .exceptionally(err -> Collections.emptyList())
-        ).collect(Collectors.toList());
-        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).thenApply(
-            nothing -> all.stream().flatMap(
-                stage -> stage.toCompletableFuture().join().stream()
-            ).collect(Collectors.toList())
-        ).thenApply(names -> new CatalogPage(names, this.from, this.limit));
+        return new SortedMerge(
+            this.dockers.stream().map(this::pages).collect(Collectors.toList()),
+            this.from.map(RepoName::value),
+            this.limit
+        ).names().thenApply(
+            names -> new CatalogPage(
+                names.stream().map(RepoName.Simple::new).collect(Collectors.toList()),
+                this.from,
+                this.limit
+            )
+        );
+    }
+
+    /**
+     * Pages of repository names loaded from registry catalog.
+     *
+     * @param docker Registry to load catalog from.
+     * @return Function of name to start after to page of names.
+     */
+    private Function<Optional<String>, CompletionStage<List<String>>> pages(
+        final Docker docker
+    ) {
+        return start -> docker.catalog(start.map(RepoName.Simple::new), this.limit)
+            .thenApply(ParsedCatalog::new)
+            .thenCompose(ParsedCatalog::repos)
+            .thenApply(repos -> repos.stream().map(RepoName::value).collect(Collectors.toList()));
     }
 }
@@ -28,11 +28,10 @@ import com.artipie.docker.RepoName;
 import com.artipie.docker.Tag;
 import com.artipie.docker.Tags;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -103,20 +102,38 @@ public final class JoinedTagsSource {
 
     /**
      * Load tags.
+     * Tags are merged from sorted pages of every source,
+     * further pages are loaded only when needed to fill the limit.
      *
      * @return Tags.
      */
     public CompletionStage<Tags> tags() {
-        final List<CompletionStage<List<Tag>>> all = this.manifests.stream().map(
-            mnfsts -> mnfsts.tags(this.from, this.limit)
-                .thenApply(ParsedTags::new)
-                .thenCompose(ParsedTags::tags)
-                .exceptionally(err -> Collections.emptyList())
-        ).collect(Collectors.toList());
-        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).thenApply(
-            nothing -> all.stream().flatMap(
-                stage -> stage.toCompletableFuture().join().stream()
-            ).collect(Collectors.toList())
-        ).thenApply(names -> new TagsPage(this.repo, names, this.from, this.limit));
+        return new SortedMerge(
+            this.manifests.stream().map(this::pages).collect(Collectors.toList()),
+            this.from.map(Tag::value),
+            this.limit
+        ).names().thenApply(
+            names -> new TagsPage(
+                this.repo,
+                names.stream().map(Tag.Valid::new).collect(Collectors.toList()),
+                this.from,
+                this.limit
+            )
+        );
+    }
+
+    /**
+     * Pages of tag names loaded from manifests.
+     *
+     * @param mnfsts Manifests to load tags from.
+     * @return Function of tag to start after to page of tag names.
+     */
+    private Function<Optional<String>, CompletionStage<List<String>>> pages(
+        final Manifests mnfsts
+    ) {
+        return start -> mnfsts.tags(start.map(Tag.Valid::new), this.limit)
+            .thenApply(ParsedTags::new)
+            .thenCompose(ParsedTags::tags)
+            .thenApply(tags -> tags.stream().map(Tag::value).collect(Collectors.toList()));
     }
 }
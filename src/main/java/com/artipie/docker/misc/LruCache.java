@@ -0,0 +1,188 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-memory cache with least recently used eviction.
+ * When cache reaches max size, least recently read or written entry is evicted,
+ * so working set slightly larger than max size keeps most of its hits
+ * instead of being dropped at once. Access to cache is serialized by a lock,
+ * operations take constant time.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @since 0.13
+ */
+public final class LruCache<K, V> {
+
+    /**
+     * Max number of entries.
+     */
+    private final int max;
+
+    /**
+     * Entries in access order, least recently used first.
+     */
+    private final Map<K, V> entries;
+
+    /**
+     * Ctor.
+     *
+     * @param max Max number of entries.
+     */
+    public LruCache(final int max) {
+        this.max = max;
+        // @checkstyle MagicNumberCheck (1 line)
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get value and mark it as recently used.
+     *
+     * @param key Key.
+     * @return Value if present.
+     */
+    public Optional<V> get(final K key) {
+        synchronized (this.entries) {
+            return Optional.ofNullable(this.entries.get(key));
+        }
+    }
+
+    /**
+     * Put value, evicting least recently used entry if cache is full.
+     *
+     * @param key Key.
+     * @param value Value.
+     */
+    public void put(final K key, final V value) {
+        synchronized (this.entries) {
+            this.entries.put(key, value);
+            this.evict();
+        }
+    }
+
+    /**
+     * Get value or compute and put it if absent.
+     *
+     * @param key Key.
+     * @param function Function computing value.
+     * @return Present or computed value.
+     */
+    public V computeIfAbsent(final K key, final Function<K, V> function) {
+        synchronized (this.entries) {
+            final V value = this.entries.computeIfAbsent(key, function);
+            this.evict();
+            return value;
+        }
+    }
+
+    /**
+     * Put value if absent or merge it with present value.
+     *
+     * @param key Key.
+     * @param value Value.
+     * @param function Function merging present and new values.
+     * @return Value in cache.
+     */
+    public V merge(final K key, final V value, final BinaryOperator<V> function) {
+        synchronized (this.entries) {
+            final V merged = this.entries.merge(key, value, function);
+            this.evict();
+            return merged;
+        }
+    }
+
+    /**
+     * Remove entry.
+     *
+     * @param key Key.
+     */
+    public void remove(final K key) {
+        synchronized (this.entries) {
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove entry if it is mapped to value.
+     *
+     * @param key Key.
+     * @param value Value.
+     */
+    public void remove(final K key, final V value) {
+        synchronized (this.entries) {
+            this.entries.remove(key, value);
+        }
+    }
+
+    /**
+     * Remove entries with keys matching filter.
+     *
+     * @param filter Keys filter.
+     */
+    public void removeIf(final Predicate<K> filter) {
+        synchronized (this.entries) {
+            this.entries.keySet().removeIf(filter);
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Number of entries.
+     *
+     * @return Size.
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Evict least recently used entries over max size.
+     */
+    private void evict() {
+        final Iterator<K> keys = this.entries.keySet().iterator();
+        while (this.entries.size() > this.max && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
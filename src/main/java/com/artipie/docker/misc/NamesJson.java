@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import com.artipie.asto.Content;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.reactivestreams.Subscriber;
+
+/**
+ * JSON object with list of names, e.g. repositories catalog or tags list.
+ * JSON is written straight into chunks of content while names are read from the source,
+ * so no JSON object tree or full response string is kept in memory.
+ * Names source is requested once per subscription.
+ *
+ * @since 0.13
+ */
+public final class NamesJson implements Content {
+
+    /**
+     * Max size of single chunk in chars.
+     */
+    private static final int CHUNK = 8192;
+
+    /**
+     * Value of `name` field written before names array.
+     */
+    private final Optional<String> name;
+
+    /**
+     * Names array field name.
+     */
+    private final String field;
+
+    /**
+     * Names source.
+     */
+    private final Supplier<Stream<String>> names;
+
+    /**
+     * Ctor.
+     *
+     * @param field Names array field name.
+     * @param names Names source.
+     */
+    public NamesJson(final String field, final Supplier<Stream<String>> names) {
+        this(Optional.empty(), field, names);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Value of `name` field written before names array.
+     * @param field Names array field name.
+     * @param names Names source.
+     */
+    public NamesJson(
+        final String name, final String field, final Supplier<Stream<String>> names
+    ) {
+        this(Optional.of(name), field, names);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name Value of `name` field written before names array, if any.
+     * @param field Names array field name.
+     * @param names Names source.
+     */
+    public NamesJson(
+        final Optional<String> name,
+        final String field,
+        final Supplier<Stream<String>> names
+    ) {
+        this.name = name;
+        this.field = field;
+        this.names = names;
+    }
+
+    @Override
+    public Optional<Long> size() {
+        return Optional.empty();
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super ByteBuffer> subscriber) {
+        Flowable.<ByteBuffer, Iterator<String>>generate(
+            () -> {
+                final AtomicReference<String> sep = new AtomicReference<>("");
+                return Stream.concat(
+                    Stream.concat(
+                        Stream.of(this.prefix()),
+                        this.names.get().map(
+                            item -> sep.getAndSet(",").concat(NamesJson.quoted(item))
+                        )
+                    ),
+                    Stream.of("]}")
+                ).iterator();
+            },
+            (tokens, emitter) -> {
+                final StringBuilder chunk = new StringBuilder(0);
+                while (chunk.length() < NamesJson.CHUNK && tokens.hasNext()) {
+                    chunk.append(tokens.next());
+                }
+                if (chunk.length() > 0) {
+                    emitter.onNext(
+                        ByteBuffer.wrap(chunk.toString().getBytes(StandardCharsets.UTF_8))
+                    );
+                }
+                if (!tokens.hasNext()) {
+                    emitter.onComplete();
+                }
+            }
+        ).subscribe(subscriber);
+    }
+
+    /**
+     * Beginning of JSON object up to names array start.
+     *
+     * @return JSON text.
+     */
+    private String prefix() {
+        final StringBuilder res = new StringBuilder("{");
+        this.name.ifPresent(
+            val -> res.append("\"name\":").append(NamesJson.quoted(val)).append(',')
+        );
+        return res.append(NamesJson.quoted(this.field)).append(":[").toString();
+    }
+
+    /**
+     * Quote and escape JSON string.
+     *
+     * @param value String value.
+     * @return JSON string literal.
+     */
+    private static String quoted(final String value) {
+        final StringBuilder res = new StringBuilder(value.length() + 2).append('"');
+        for (int idx = 0; idx < value.length(); idx += 1) {
+            final char chr = value.charAt(idx);
+            if (chr == '"' || chr == '\\') {
+                res.append('\\').append(chr);
+            } else if (chr < ' ') {
+                res.append(String.format("\\u%04x", (int) chr));
+            } else {
+                res.append(chr);
+            }
+        }
+        return res.append('"').toString();
+    }
+}
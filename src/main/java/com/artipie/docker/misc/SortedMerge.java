@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * K-way merge of sorted pages of names loaded from multiple sources.
+ * Each source is asked for a page of names starting after specified name, exclusive.
+ * Merge takes names in sorted order skipping duplicates until limit is reached,
+ * next page is requested from a source only when all names from its previous page
+ * are taken. Source returning less names than limit is considered exhausted,
+ * failing source is considered empty.
+ *
+ * @since 0.13
+ */
+final class SortedMerge {
+
+    /**
+     * Sources of pages: function of name to start after to page of names.
+     */
+    private final List<Function<Optional<String>, CompletionStage<List<String>>>> sources;
+
+    /**
+     * From which name to start, exclusive.
+     */
+    private final Optional<String> from;
+
+    /**
+     * Maximum number of names returned.
+     */
+    private final int limit;
+
+    /**
+     * Ctor.
+     *
+     * @param sources Sources of pages.
+     * @param from From which name to start, exclusive.
+     * @param limit Maximum number of names returned.
+     */
+    SortedMerge(
+        final List<Function<Optional<String>, CompletionStage<List<String>>>> sources,
+        final Optional<String> from,
+        final int limit
+    ) {
+        this.sources = sources;
+        this.from = from;
+        this.limit = limit;
+    }
+
+    /**
+     * Merge names.
+     *
+     * @return Sorted distinct names, not more than limit.
+     */
+    public CompletionStage<List<String>> names() {
+        final List<CompletableFuture<Cursor>> cursors = this.sources.stream().map(
+            source -> new Cursor(source, this.from, this.limit).fill().toCompletableFuture()
+        ).collect(Collectors.toList());
+        return CompletableFuture.allOf(cursors.toArray(new CompletableFuture<?>[0])).thenCompose(
+            nothing -> {
+                final PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                    Math.max(cursors.size(), 1), Comparator.comparing(Cursor::head)
+                );
+                cursors.forEach(cursor -> SortedMerge.requeue(queue, cursor.join()));
+                return this.next(queue, new ArrayList<>(0));
+            }
+        );
+    }
+
+    /**
+     * Take names from cursors until limit is reached or all cursors are exhausted.
+     *
+     * @param queue Cursors having buffered names ordered by head name.
+     * @param result Names taken so far.
+     * @return Names taken.
+     */
+    private CompletionStage<List<String>> next(
+        final PriorityQueue<Cursor> queue, final List<String> result
+    ) {
+        CompletionStage<List<String>> res = null;
+        while (res == null) {
+            if (result.size() >= this.limit || queue.isEmpty()) {
+                res = CompletableFuture.completedFuture(result);
+            } else {
+                final Cursor cursor = queue.poll();
+                final String name = cursor.take();
+                if (result.isEmpty() || !result.get(result.size() - 1).equals(name)) {
+                    result.add(name);
+                }
+                if (cursor.drained() && result.size() < this.limit) {
+                    res = cursor.fill().thenCompose(
+                        filled -> this.next(SortedMerge.requeue(queue, filled), result)
+                    );
+                } else {
+                    SortedMerge.requeue(queue, cursor);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Put cursor back to queue if it has buffered names.
+     *
+     * @param queue Queue of cursors.
+     * @param cursor Cursor.
+     * @return Queue of cursors.
+     */
+    private static PriorityQueue<Cursor> requeue(
+        final PriorityQueue<Cursor> queue, final Cursor cursor
+    ) {
+        if (cursor.available()) {
+            queue.add(cursor);
+        }
+        return queue;
+    }
+
+    /**
+     * Cursor over pages of single source.
+     *
+     * @since 0.13
+     */
+    private static final class Cursor {
+
+        /**
+         * Source of pages.
+         */
+        private final Function<Optional<String>, CompletionStage<List<String>>> source;
+
+        /**
+         * Page size requested.
+         */
+        private final int size;
+
+        /**
+         * Names of current page not taken yet.
+         */
+        private final Deque<String> buffer;
+
+        /**
+         * Last name loaded.
+         */
+        private final AtomicReference<Optional<String>> last;
+
+        /**
+         * Flag indicating that source has no more pages.
+         */
+        private final AtomicBoolean exhausted;
+
+        /**
+         * Ctor.
+         *
+         * @param source Source of pages.
+         * @param from From which name to start, exclusive.
+         * @param size Page size requested.
+         */
+        Cursor(
+            final Function<Optional<String>, CompletionStage<List<String>>> source,
+            final Optional<String> from,
+            final int size
+        ) {
+            this.source = source;
+            this.size = size;
+            this.buffer = new ArrayDeque<>(0);
+            this.last = new AtomicReference<>(from);
+            this.exhausted = new AtomicBoolean(false);
+        }
+
+        /**
+         * Load next page into buffer.
+         * Names not following last loaded name are ignored, so source ignoring
+         * start name cannot make the merge loop.
+         *
+         * @return This cursor with loaded page.
+         */
+        CompletionStage<Cursor> fill() {
+            final Optional<String> start = this.last.get();
+            return this.source.apply(start)
+                .exceptionally(err -> Collections.emptyList())
+                .thenApply(
+                    page -> {
+                        final List<String> names = page.stream()
+                            .filter(name -> start.map(val -> name.compareTo(val) > 0).orElse(true))
+                            .sorted()
+                            .collect(Collectors.toList());
+                        this.buffer.addAll(names);
+                        if (names.isEmpty() || page.size() < this.size) {
+                            this.exhausted.set(true);
+                        } else {
+                            this.last.set(Optional.of(names.get(names.size() - 1)));
+                        }
+                        return this;
+                    }
+                );
+        }
+
+        /**
+         * Check if cursor has buffered names.
+         *
+         * @return True if there are names to take.
+         */
+        boolean available() {
+            return !this.buffer.isEmpty();
+        }
+
+        /**
+         * Check if all buffered names are taken but source may have more pages.
+         *
+         * @return True if next page should be loaded.
+         */
+        boolean drained() {
+            return this.buffer.isEmpty() && !this.exhausted.get();
+        }
+
+        /**
+         * Smallest buffered name.
+         *
+         * @return Name.
+         */
+        String head() {
+            return this.buffer.getFirst();
+        }
+
+        /**
+         * Take smallest buffered name.
+         *
+         * @return Name.
+         */
+        String take() {
+            return this.buffer.removeFirst();
+        }
+    }
+}
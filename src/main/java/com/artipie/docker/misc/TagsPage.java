@@ -29,11 +29,12 @@ import com.artipie.docker.Tag;
 import com.artipie.docker.Tags;
 import java.util.Collection;
 import java.util.Optional;
-import javax.json.Json;
-import javax.json.JsonArrayBuilder;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * {@link Tags} that is a page of given tags list.
+ * Given tags are expected to be sorted, so page is streamed without buffering
+ * and repeated names are skipped by comparing with previous one.
  *
  * @since 0.10
  */
@@ -82,21 +83,20 @@ public final class TagsPage implements Tags {
 
     @Override
     public Content json() {
-        final JsonArrayBuilder builder = Json.createArrayBuilder();
-        this.tags.stream()
-            .map(Tag::value)
-            .filter(name -> this.from.map(last -> name.compareTo(last.value()) > 0).orElse(true))
-            .sorted()
-            .distinct()
-            .limit(this.limit)
-            .forEach(builder::add);
-        return new Content.From(
-            Json.createObjectBuilder()
-                .add("name", this.repo.value())
-                .add("tags", builder)
-                .build()
-                .toString()
-                .getBytes()
+        return new NamesJson(
+            this.repo.value(),
+            "tags",
+            () -> {
+                final AtomicReference<String> prev = new AtomicReference<>();
+                return this.tags.stream()
+                    .map(Tag::value)
+                    .filter(
+                        name -> this.from.map(last -> name.compareTo(last.value()) > 0)
+                            .orElse(true)
+                    )
+                    .filter(name -> !name.equals(prev.getAndSet(name)))
+                    .limit(this.limit);
+            }
         );
     }
 }
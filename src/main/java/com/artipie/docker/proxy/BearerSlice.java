@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.misc.LruCache;
+import com.artipie.http.Connection;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.headers.Authorization;
+import com.artipie.http.headers.WwwAuthenticate;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rs.RsStatus;
+import hu.akarnokd.rxjava2.interop.CompletableInterop;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice sending requests to remote repository with bearer token.
+ * Bearer challenge remote answered with is remembered by repository,
+ * so following requests to the repository are sent with cached token
+ * right away instead of being challenged again.
+ * Body of challenge response is drained before request is retried,
+ * so upstream connection is released. When max number of challenges is reached,
+ * least recently used challenge is evicted.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class BearerSlice implements Slice {
+
+    /**
+     * Repository path pattern.
+     */
+    private static final Pattern PATH = Pattern.compile(
+        "^/v2/(?<name>.+)/(manifests|blobs|tags)/.*$"
+    );
+
+    /**
+     * Max number of remembered challenges.
+     */
+    private static final int MAX = 10_000;
+
+    /**
+     * Origin slice.
+     */
+    private final Slice origin;
+
+    /**
+     * Bearer tokens.
+     */
+    private final BearerTokens tokens;
+
+    /**
+     * Remembered challenges by repository.
+     */
+    private final LruCache<String, WwwAuthenticate> challenges;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin slice.
+     * @param tokens Bearer tokens.
+     */
+    public BearerSlice(final Slice origin, final BearerTokens tokens) {
+        this.origin = origin;
+        this.tokens = tokens;
+        this.challenges = new LruCache<>(BearerSlice.MAX);
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        return new AsyncResponse(
+            new PublisherAs(body).bytes().thenApply(
+                bytes -> connection -> this.send(line, headers, bytes, connection)
+            )
+        );
+    }
+
+    /**
+     * Send request to origin, authenticating it if challenged.
+     *
+     * @param line Request line.
+     * @param headers Request headers.
+     * @param body Request body.
+     * @param connection Response connection.
+     * @return Completion stage.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private CompletionStage<Void> send(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final byte[] body,
+        final Connection connection
+    ) {
+        final String repo = BearerSlice.repo(line);
+        final Optional<WwwAuthenticate> known = this.challenges.get(repo);
+        return this.authorized(headers, known).thenCompose(
+            first -> this.origin.response(line, first, new Content.From(body)).send(
+                (status, rsheaders, rsbody) -> {
+                    final Optional<WwwAuthenticate> challenge = BearerSlice.challenge(
+                        status, rsheaders
+                    );
+                    final CompletionStage<Void> result;
+                    if (challenge.isPresent()) {
+                        known.ifPresent(this.tokens::expire);
+                        this.challenges.put(repo, challenge.get());
+                        result = BearerSlice.drain(rsbody).thenCompose(
+                            nothing -> this.authorized(headers, challenge)
+                        ).thenCompose(
+                            second -> this.origin.response(
+                                line, second, new Content.From(body)
+                            ).send(connection)
+                        );
+                    } else {
+                        result = connection.accept(status, rsheaders, rsbody);
+                    }
+                    return result;
+                }
+            )
+        );
+    }
+
+    /**
+     * Add bearer token to request headers.
+     *
+     * @param headers Request headers.
+     * @param challenge Bearer challenge, if known.
+     * @return Request headers with token.
+     */
+    private CompletionStage<Headers> authorized(
+        final Iterable<Map.Entry<String, String>> headers,
+        final Optional<WwwAuthenticate> challenge
+    ) {
+        return challenge.map(
+            value -> this.tokens.token(value).<Headers>thenApply(
+                token -> new Headers.From(headers, new Authorization.Bearer(token))
+            )
+        ).orElseGet(() -> CompletableFuture.completedFuture(new Headers.From(headers)));
+    }
+
+    /**
+     * Drain response body ignoring its content and errors.
+     *
+     * @param body Response body.
+     * @return Completion of draining.
+     */
+    private static CompletionStage<Void> drain(final Publisher<ByteBuffer> body) {
+        return Flowable.fromPublisher(body).ignoreElements().onErrorComplete()
+            .to(CompletableInterop.await());
+    }
+
+    /**
+     * Extract bearer challenge from response.
+     *
+     * @param status Response status.
+     * @param headers Response headers.
+     * @return Bearer challenge if remote responded with one.
+     */
+    private static Optional<WwwAuthenticate> challenge(
+        final RsStatus status,
+        final Headers headers
+    ) {
+        return Optional.of(status)
+            .filter(RsStatus.UNAUTHORIZED::equals)
+            .flatMap(
+                unauthorized -> new RqHeaders(headers, WwwAuthenticate.NAME).stream().findFirst()
+            )
+            .map(WwwAuthenticate::new)
+            .filter(header -> "Bearer".equals(header.scheme()));
+    }
+
+    /**
+     * Name of repository request is sent to.
+     *
+     * @param line Request line.
+     * @return Repository name, empty for requests not to repository.
+     */
+    private static String repo(final String line) {
+        final Matcher matcher = BearerSlice.PATH.matcher(
+            new RequestLineFrom(line).uri().getPath()
+        );
+        final String name;
+        if (matcher.matches()) {
+            name = matcher.group("name");
+        } else {
+            name = "";
+        }
+        return name;
+    }
+}
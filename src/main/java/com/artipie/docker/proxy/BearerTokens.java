@@ -0,0 +1,404 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.misc.LruCache;
+import com.artipie.http.Headers;
+import com.artipie.http.client.ClientSlices;
+import com.artipie.http.client.UriClientSlice;
+import com.artipie.http.client.auth.AuthClientSlice;
+import com.artipie.http.client.auth.Authenticator;
+import com.artipie.http.headers.WwwAuthenticate;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+
+/**
+ * Bearer tokens of remote repository token service.
+ * Tokens are cached by realm, service and scope of the challenge until they expire.
+ * Token is refreshed in background when it gets close to expiration,
+ * while still valid token is used. Concurrent refreshes of same token are coalesced
+ * into single request to token service. When cache reaches max size,
+ * least recently used token is evicted.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class BearerTokens {
+
+    /**
+     * Token lifetime if token service does not report it.
+     */
+    private static final Duration LIFETIME = Duration.ofSeconds(60);
+
+    /**
+     * Client slices.
+     */
+    private final ClientSlices client;
+
+    /**
+     * Token service authenticator.
+     */
+    private final Authenticator auth;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Time before token expiration to refresh it.
+     */
+    private final Duration margin;
+
+    /**
+     * Cached tokens by challenge.
+     */
+    private final LruCache<String, Token> tokens;
+
+    /**
+     * Token requests in progress by challenge.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Token>> pending;
+
+    /**
+     * Ctor.
+     *
+     * @param client Client slices.
+     */
+    public BearerTokens(final ClientSlices client) {
+        this(client, Authenticator.ANONYMOUS);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param client Client slices.
+     * @param auth Token service authenticator.
+     */
+    public BearerTokens(final ClientSlices client, final Authenticator auth) {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(client, auth, Clock.systemUTC(), Duration.ofSeconds(30), 1000);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param client Client slices.
+     * @param auth Token service authenticator.
+     * @param clock Clock.
+     * @param margin Time before token expiration to refresh it.
+     * @param max Max number of cached tokens.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public BearerTokens(
+        final ClientSlices client,
+        final Authenticator auth,
+        final Clock clock,
+        final Duration margin,
+        final int max
+    ) {
+        this.client = client;
+        this.auth = auth;
+        this.clock = clock;
+        this.margin = margin;
+        this.tokens = new LruCache<>(max);
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get token for challenge.
+     *
+     * @param challenge Bearer challenge of remote repository.
+     * @return Token.
+     */
+    public CompletionStage<String> token(final WwwAuthenticate challenge) {
+        final String key = BearerTokens.key(challenge);
+        final Instant now = this.clock.instant();
+        final Optional<Token> cached = this.tokens.get(key)
+            .filter(token -> token.valid(now));
+        final CompletionStage<String> res;
+        if (cached.isPresent()) {
+            if (cached.get().stale(now)) {
+                this.refresh(key, challenge);
+            }
+            res = CompletableFuture.completedFuture(cached.get().value());
+        } else {
+            res = this.refresh(key, challenge).thenApply(Token::value);
+        }
+        return res;
+    }
+
+    /**
+     * Forget token for challenge, e.g. when remote rejected it.
+     *
+     * @param challenge Bearer challenge of remote repository.
+     */
+    public void expire(final WwwAuthenticate challenge) {
+        this.tokens.remove(BearerTokens.key(challenge));
+    }
+
+    /**
+     * Request new token unless it is already requested.
+     *
+     * @param key Challenge key.
+     * @param challenge Bearer challenge.
+     * @return Token.
+     */
+    private CompletableFuture<Token> refresh(final String key, final WwwAuthenticate challenge) {
+        final AtomicBoolean started = new AtomicBoolean();
+        final CompletableFuture<Token> res = this.pending.computeIfAbsent(
+            key,
+            nothing -> {
+                started.set(true);
+                return new CompletableFuture<>();
+            }
+        );
+        if (started.get()) {
+            CompletableFuture.completedFuture(challenge).thenCompose(this::fetch).thenApply(
+                token -> {
+                    this.tokens.put(key, token);
+                    return token;
+                }
+            ).whenComplete(
+                (token, err) -> {
+                    this.pending.remove(key, res);
+                    if (err == null) {
+                        res.complete(token);
+                    } else {
+                        res.completeExceptionally(err);
+                    }
+                }
+            );
+        }
+        return res;
+    }
+
+    /**
+     * Request token from token service.
+     * Request is started via {@link #refresh(String, WwwAuthenticate)} so that any
+     * exception thrown here, e.g. on malformed realm, fails the pending request.
+     *
+     * @param challenge Bearer challenge.
+     * @return Token.
+     */
+    private CompletionStage<Token> fetch(final WwwAuthenticate challenge) {
+        final Instant issued = this.clock.instant();
+        final URI realm = URI.create(challenge.realm());
+        final String query = challenge.params().stream()
+            .filter(param -> !"realm".equals(param.name()))
+            .map(
+                param -> String.format(
+                    "%s=%s", BearerTokens.encoded(param.name()), BearerTokens.encoded(param.value())
+                )
+            )
+            .collect(Collectors.joining("&"));
+        return new ResponseSink<>(
+            new AuthClientSlice(new UriClientSlice(this.client, realm), this.auth).response(
+                new RequestLine(RqMethod.GET, String.format("?%s", query)).toString(),
+                Headers.EMPTY,
+                Content.EMPTY
+            ),
+            (status, headers, body) -> {
+                final CompletionStage<Token> result;
+                if (status == RsStatus.OK) {
+                    result = new PublisherAs(body).bytes().thenApply(
+                        bytes -> new Token(bytes, issued, this.margin)
+                    );
+                } else {
+                    result = new FailedCompletionStage<>(
+                        new IllegalStateException(
+                            String.format("Token request to %s failed: %s", realm, status)
+                        )
+                    );
+                }
+                return result;
+            }
+        ).result();
+    }
+
+    /**
+     * URL-encode query parameter.
+     *
+     * @param value Parameter name or value.
+     * @return Encoded value.
+     */
+    private static String encoded(final String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (final UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Key of challenge.
+     *
+     * @param challenge Bearer challenge.
+     * @return Realm, service and scope of challenge.
+     */
+    private static String key(final WwwAuthenticate challenge) {
+        return challenge.params().stream()
+            .filter(
+                param -> "realm".equals(param.name())
+                    || "service".equals(param.name())
+                    || "scope".equals(param.name())
+            )
+            .map(param -> String.format("%s=%s", param.name(), param.value()))
+            .sorted()
+            .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Token issued by token service.
+     *
+     * @since 0.13
+     */
+    private static final class Token {
+
+        /**
+         * Token service response.
+         */
+        private final JsonObject json;
+
+        /**
+         * Time token was requested.
+         */
+        private final Instant issued;
+
+        /**
+         * Time before token expiration to refresh it.
+         */
+        private final Duration margin;
+
+        /**
+         * Ctor.
+         *
+         * @param bytes Token service response.
+         * @param issued Time token was requested.
+         * @param margin Time before token expiration to refresh it.
+         */
+        Token(final byte[] bytes, final Instant issued, final Duration margin) {
+            this(Token.parse(bytes), issued, margin);
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param json Token service response.
+         * @param issued Time token was requested.
+         * @param margin Time before token expiration to refresh it.
+         */
+        Token(final JsonObject json, final Instant issued, final Duration margin) {
+            this.json = json;
+            this.issued = issued;
+            this.margin = margin;
+        }
+
+        /**
+         * Token value.
+         *
+         * @return Token.
+         */
+        String value() {
+            return this.json.getString("token", this.json.getString("access_token", ""));
+        }
+
+        /**
+         * Check token is not expired.
+         *
+         * @param now Current time.
+         * @return True if token is valid.
+         */
+        boolean valid(final Instant now) {
+            return now.isBefore(this.issued.plus(this.lifetime()));
+        }
+
+        /**
+         * Check token should be refreshed.
+         * Token is refreshed margin before expiration, but not earlier than half of lifetime.
+         *
+         * @param now Current time.
+         * @return True if token is close to expiration.
+         */
+        boolean stale(final Instant now) {
+            final Duration lifetime = this.lifetime();
+            Duration before = lifetime.dividedBy(2);
+            if (this.margin.compareTo(before) < 0) {
+                before = this.margin;
+            }
+            return !now.isBefore(this.issued.plus(lifetime).minus(before));
+        }
+
+        /**
+         * Token lifetime.
+         *
+         * @return Lifetime reported by token service.
+         */
+        private Duration lifetime() {
+            return Optional.ofNullable(this.json.getJsonNumber("expires_in"))
+                .map(num -> Duration.ofSeconds(num.longValue()))
+                .orElse(BearerTokens.LIFETIME);
+        }
+
+        /**
+         * Parse token service response.
+         *
+         * @param bytes Response body.
+         * @return JSON object.
+         */
+        private static JsonObject parse(final byte[] bytes) {
+            final JsonObject json;
+            try (JsonReader reader = Json.createReader(new ByteArrayInputStream(bytes))) {
+                json = reader.readObject();
+            }
+            if (!json.containsKey("token") && !json.containsKey("access_token")) {
+                throw new IllegalStateException("Token service responded with no token");
+            }
+            return json;
+        }
+    }
+}
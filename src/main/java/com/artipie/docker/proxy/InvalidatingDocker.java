@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.docker.Blob;
+import com.artipie.docker.Catalog;
+import com.artipie.docker.Digest;
+import com.artipie.docker.Docker;
+import com.artipie.docker.Layers;
+import com.artipie.docker.Manifests;
+import com.artipie.docker.Repo;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Tag;
+import com.artipie.docker.Tags;
+import com.artipie.docker.Uploads;
+import com.artipie.docker.asto.BlobSource;
+import com.artipie.docker.manifest.Manifest;
+import com.artipie.docker.ref.ManifestRef;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Docker invalidating proxy misses of repository when manifest or blob is put into it.
+ * Proxy misses are kept for short time, so registry combining proxy with local storage,
+ * e.g. {@link com.artipie.docker.composite.ReadWriteDocker} or
+ * {@link com.artipie.docker.cache.CacheDocker}, should wrap local storage
+ * with this decorator sharing {@link Misses} with {@link ProxyDocker}.
+ * Otherwise clients may get 404 for pushed items until misses expire.
+ * Items added to remote repository are found by proxy after misses expire.
+ *
+ * @since 0.13
+ */
+public final class InvalidatingDocker implements Docker {
+
+    /**
+     * Origin docker.
+     */
+    private final Docker origin;
+
+    /**
+     * Proxy misses.
+     */
+    private final Misses misses;
+
+    /**
+     * Ctor.
+     *
+     * @param origin Origin docker.
+     * @param misses Proxy misses.
+     */
+    public InvalidatingDocker(final Docker origin, final Misses misses) {
+        this.origin = origin;
+        this.misses = misses;
+    }
+
+    @Override
+    public Repo repo(final RepoName name) {
+        return new InvalidatingRepo(this.origin.repo(name), name, this.misses);
+    }
+
+    @Override
+    public CompletionStage<Catalog> catalog(final Optional<RepoName> from, final int limit) {
+        return this.origin.catalog(from, limit);
+    }
+
+    /**
+     * Repository invalidating proxy misses on put.
+     *
+     * @since 0.13
+     */
+    private static final class InvalidatingRepo implements Repo {
+
+        /**
+         * Origin repository.
+         */
+        private final Repo origin;
+
+        /**
+         * Repository name.
+         */
+        private final RepoName name;
+
+        /**
+         * Proxy misses.
+         */
+        private final Misses misses;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin repository.
+         * @param name Repository name.
+         * @param misses Proxy misses.
+         */
+        InvalidatingRepo(final Repo origin, final RepoName name, final Misses misses) {
+            this.origin = origin;
+            this.name = name;
+            this.misses = misses;
+        }
+
+        @Override
+        public Layers layers() {
+            return new InvalidatingLayers(this.origin.layers(), this.name, this.misses);
+        }
+
+        @Override
+        public Manifests manifests() {
+            return new InvalidatingManifests(this.origin.manifests(), this.name, this.misses);
+        }
+
+        @Override
+        public Uploads uploads() {
+            return this.origin.uploads();
+        }
+    }
+
+    /**
+     * Layers invalidating proxy misses on put and mount.
+     *
+     * @since 0.13
+     */
+    private static final class InvalidatingLayers implements Layers {
+
+        /**
+         * Origin layers.
+         */
+        private final Layers origin;
+
+        /**
+         * Repository name.
+         */
+        private final RepoName name;
+
+        /**
+         * Proxy misses.
+         */
+        private final Misses misses;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin layers.
+         * @param name Repository name.
+         * @param misses Proxy misses.
+         */
+        InvalidatingLayers(final Layers origin, final RepoName name, final Misses misses) {
+            this.origin = origin;
+            this.name = name;
+            this.misses = misses;
+        }
+
+        @Override
+        public CompletionStage<Blob> put(final BlobSource source) {
+            return this.origin.put(source).thenApply(
+                blob -> {
+                    this.misses.invalidate(this.name);
+                    return blob;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Blob> mount(final Blob blob) {
+            return this.origin.mount(blob).thenApply(
+                mounted -> {
+                    this.misses.invalidate(this.name);
+                    return mounted;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Optional<Blob>> get(final Digest digest) {
+            return this.origin.get(digest);
+        }
+    }
+
+    /**
+     * Manifests invalidating proxy misses on put.
+     *
+     * @since 0.13
+     */
+    private static final class InvalidatingManifests implements Manifests {
+
+        /**
+         * Origin manifests.
+         */
+        private final Manifests origin;
+
+        /**
+         * Repository name.
+         */
+        private final RepoName name;
+
+        /**
+         * Proxy misses.
+         */
+        private final Misses misses;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin manifests.
+         * @param name Repository name.
+         * @param misses Proxy misses.
+         */
+        InvalidatingManifests(
+            final Manifests origin, final RepoName name, final Misses misses
+        ) {
+            this.origin = origin;
+            this.name = name;
+            this.misses = misses;
+        }
+
+        @Override
+        public CompletionStage<Manifest> put(final ManifestRef ref, final Content content) {
+            return this.origin.put(ref, content).thenApply(
+                manifest -> {
+                    this.misses.invalidate(this.name);
+                    return manifest;
+                }
+            );
+        }
+
+        @Override
+        public CompletionStage<Optional<Manifest>> get(final ManifestRef ref) {
+            return this.origin.get(ref);
+        }
+
+        @Override
+        public CompletionStage<Boolean> exists(final ManifestRef ref) {
+            return this.origin.exists(ref);
+        }
+
+        @Override
+        public CompletionStage<Tags> tags(final Optional<Tag> from, final int limit) {
+            return this.origin.tags(from, limit);
+        }
+    }
+}
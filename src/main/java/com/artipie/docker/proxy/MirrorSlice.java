@@ -0,0 +1,506 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.Digest;
+import com.artipie.docker.composite.MemberBreakers;
+import com.artipie.docker.error.InvalidDigestException;
+import com.artipie.docker.misc.CircuitBreaker;
+import com.artipie.docker.misc.DigestedFlowable;
+import com.artipie.http.Connection;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.rq.RequestLineFrom;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.reactivestreams.Publisher;
+
+/**
+ * Slice sending requests to a pool of remote repository mirrors,
+ * to be used as remote of {@link ProxyDocker}.
+ * <p>
+ * Blob downloads are spread across mirrors in proportion to their measured transfer rate,
+ * other requests go to the mirror responding fastest. Mirrors with open circuit are tried last.
+ * Request fails over to next mirror when mirror fails, responds with server error
+ * or 404, or does not respond within timeout learned from its latency.
+ * Only slow first response triggers failover: once response body is being transferred
+ * it is not switched to another mirror, so slow transfer is not failed over.
+ * Slow transfer lowers measured rate of the mirror and so its share of next downloads instead.
+ * </p>
+ * <p>
+ * Downloaded blob content is checked against blob digest: body of blob not matching
+ * the digest ends with {@link InvalidDigestException} and is counted as mirror failure.
+ * The check is done when whole body has been streamed, so bytes are passed downstream
+ * before they are verified. MirrorSlice must therefore sit behind a consumer which
+ * discards the content on error and does not expose it until it is complete,
+ * e.g. {@link com.artipie.docker.cache.CacheDocker} storing layers
+ * via {@link com.artipie.docker.asto.CheckedBlobSource}.
+ * </p>
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class MirrorSlice implements Slice {
+
+    /**
+     * Shared scheduler for mirror timeouts.
+     */
+    private static final ScheduledExecutorService TIMERS =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "docker-mirror-timers");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+
+    /**
+     * Blob path pattern.
+     */
+    private static final Pattern BLOB = Pattern.compile(
+        "^/v2/.+/blobs/(?<digest>sha256:[0-9a-f]+)$"
+    );
+
+    /**
+     * Mirrors.
+     */
+    private final List<Slice> mirrors;
+
+    /**
+     * Mirrors metrics.
+     */
+    private final MirrorStats stats;
+
+    /**
+     * Mirrors circuit breakers.
+     */
+    private final MemberBreakers breakers;
+
+    /**
+     * Scheduler for mirror timeouts.
+     */
+    private final ScheduledExecutorService timers;
+
+    /**
+     * Ctor.
+     *
+     * @param mirrors Mirrors.
+     */
+    public MirrorSlice(final List<Slice> mirrors) {
+        this(mirrors, new MirrorStats());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param mirrors Mirrors.
+     * @param stats Mirrors metrics.
+     */
+    public MirrorSlice(final List<Slice> mirrors, final MirrorStats stats) {
+        this(mirrors, stats, new MemberBreakers(), MirrorSlice.TIMERS);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param mirrors Mirrors.
+     * @param stats Mirrors metrics.
+     * @param breakers Mirrors circuit breakers.
+     * @param timers Scheduler for mirror timeouts.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public MirrorSlice(
+        final List<Slice> mirrors,
+        final MirrorStats stats,
+        final MemberBreakers breakers,
+        final ScheduledExecutorService timers
+    ) {
+        this.mirrors = mirrors;
+        this.stats = stats;
+        this.breakers = breakers;
+        this.timers = timers;
+    }
+
+    @Override
+    public Response response(
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final Publisher<ByteBuffer> body
+    ) {
+        final RequestLineFrom request = new RequestLineFrom(line);
+        final Matcher matcher = MirrorSlice.BLOB.matcher(request.uri().getPath());
+        final Optional<Digest> blob = Optional.of(matcher)
+            .filter(Matcher::matches)
+            .filter(ignored -> request.method() == RqMethod.GET)
+            .map(found -> new Digest.FromString(found.group("digest")));
+        final List<Integer> order;
+        if (matcher.matches()) {
+            order = this.spread();
+        } else {
+            order = this.fastest();
+        }
+        return new AsyncResponse(
+            new PublisherAs(body).bytes().thenCompose(
+                bytes -> this.attempt(order, 0, line, headers, bytes, blob)
+            )
+        );
+    }
+
+    /**
+     * Send request to mirror, failing over to next one.
+     *
+     * @param order Mirrors in order of preference.
+     * @param pos Position of mirror to try.
+     * @param line Request line.
+     * @param headers Request headers.
+     * @param body Request body.
+     * @param blob Digest of requested blob, if blob content is requested.
+     * @return Response.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private CompletionStage<Response> attempt(
+        final List<Integer> order,
+        final int pos,
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final byte[] body,
+        final Optional<Digest> blob
+    ) {
+        final int mirror = order.get(pos);
+        final boolean last = pos + 1 >= order.size();
+        final CompletableFuture<Head> head = this.send(mirror, line, headers, body, blob);
+        if (!last) {
+            final ScheduledFuture<?> timer = this.timers.schedule(
+                () -> {
+                    if (!head.isDone()) {
+                        this.stats.slow(mirror);
+                        head.completeExceptionally(new TimeoutException());
+                    }
+                },
+                this.stats.timeout(mirror).toNanos(),
+                TimeUnit.NANOSECONDS
+            );
+            head.whenComplete((ignored, err) -> timer.cancel(false));
+        }
+        return head.handle(
+            (rsp, err) -> {
+                final CompletionStage<Response> res;
+                if (err == null && (last || rsp.usable())) {
+                    res = CompletableFuture.completedFuture(rsp);
+                } else if (last) {
+                    final CompletableFuture<Response> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(err);
+                    res = failed;
+                } else {
+                    Optional.ofNullable(rsp).ifPresent(Head::discard);
+                    res = this.attempt(order, pos + 1, line, headers, body, blob);
+                }
+                return res;
+            }
+        ).thenCompose(Function.identity());
+    }
+
+    /**
+     * Send request to mirror through its circuit breaker.
+     * Mirror call is considered successful when response body is transferred.
+     *
+     * @param mirror Mirror index.
+     * @param line Request line.
+     * @param headers Request headers.
+     * @param body Request body.
+     * @param blob Digest of requested blob, if blob content is requested.
+     * @return Response head.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private CompletableFuture<Head> send(
+        final int mirror,
+        final String line,
+        final Iterable<Map.Entry<String, String>> headers,
+        final byte[] body,
+        final Optional<Digest> blob
+    ) {
+        final CompletableFuture<Head> head = new CompletableFuture<>();
+        final CompletableFuture<Void> outcome = new CompletableFuture<>();
+        final long start = System.nanoTime();
+        this.breakers.breaker(mirror).call(
+            () -> {
+                this.mirrors.get(mirror).response(line, headers, new Content.From(body)).send(
+                    this.connection(mirror, start, blob, head, outcome)
+                ).whenComplete(
+                    (nothing, err) -> {
+                        if (err != null) {
+                            this.stats.failed(mirror);
+                            outcome.completeExceptionally(err);
+                            head.completeExceptionally(err);
+                        }
+                    }
+                );
+                return outcome;
+            }
+        ).whenComplete(
+            (nothing, err) -> {
+                if (err instanceof CircuitBreaker.Rejected) {
+                    head.completeExceptionally(err);
+                }
+            }
+        );
+        return head;
+    }
+
+    /**
+     * Connection accepting response of mirror as response head.
+     *
+     * @param mirror Mirror index.
+     * @param start Time request was sent in nanoseconds.
+     * @param blob Digest of requested blob, if blob content is requested.
+     * @param head Response head.
+     * @param outcome Mirror call outcome.
+     * @return Connection.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private Connection connection(
+        final int mirror,
+        final long start,
+        final Optional<Digest> blob,
+        final CompletableFuture<Head> head,
+        final CompletableFuture<Void> outcome
+    ) {
+        return (status, headers, body) -> {
+            final long responded = System.nanoTime();
+            this.stats.responded(mirror, Duration.ofNanos(responded - start));
+            if (status.serverError()) {
+                this.stats.failed(mirror);
+                outcome.completeExceptionally(
+                    new IllegalStateException(
+                        String.format("Mirror %d responded %s", mirror, status)
+                    )
+                );
+            }
+            final CompletableFuture<Void> terminated = new CompletableFuture<>();
+            final Head rsp = new Head(
+                status,
+                headers,
+                this.metered(
+                    mirror,
+                    MirrorSlice.verified(body, blob.filter(ignored -> status == RsStatus.OK)),
+                    responded,
+                    outcome
+                ).doOnTerminate(() -> terminated.complete(null))
+                    .doOnCancel(() -> terminated.complete(null))
+            );
+            if (!head.complete(rsp)) {
+                rsp.discard();
+            }
+            return terminated;
+        };
+    }
+
+    /**
+     * Meter response body transfer, completing mirror call outcome when body is transferred.
+     *
+     * @param mirror Mirror index.
+     * @param body Response body.
+     * @param start Time transfer started in nanoseconds.
+     * @param outcome Mirror call outcome.
+     * @return Metered body.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    private Flowable<ByteBuffer> metered(
+        final int mirror,
+        final Flowable<ByteBuffer> body,
+        final long start,
+        final CompletableFuture<Void> outcome
+    ) {
+        final AtomicLong bytes = new AtomicLong();
+        return body.doOnNext(buf -> bytes.addAndGet(buf.remaining()))
+            .doOnComplete(
+                () -> {
+                    this.stats.transferred(
+                        mirror, bytes.get(), Duration.ofNanos(System.nanoTime() - start)
+                    );
+                    outcome.complete(null);
+                }
+            ).doOnError(
+                err -> {
+                    this.stats.failed(mirror);
+                    outcome.completeExceptionally(err);
+                }
+            ).doOnCancel(() -> outcome.cancel(false));
+    }
+
+    /**
+     * Mirrors for blob download, shuffled with probability of being first
+     * proportional to measured transfer rate.
+     *
+     * @return Mirror indexes in order of preference.
+     */
+    private List<Integer> spread() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Map<Integer, Double> keys = IntStream.range(0, this.mirrors.size()).boxed()
+            .collect(
+                Collectors.toMap(
+                    Function.identity(),
+                    idx -> -Math.log(1.0 - random.nextDouble())
+                        / Math.max(1L, this.stats.rate(idx))
+                )
+            );
+        return this.healthy(Comparator.comparing(keys::get));
+    }
+
+    /**
+     * Mirrors in order of learned response time.
+     *
+     * @return Mirror indexes in order of preference.
+     */
+    private List<Integer> fastest() {
+        return this.healthy(Comparator.comparing(this.stats::timeout));
+    }
+
+    /**
+     * Order mirrors, mirrors with open circuit go last.
+     *
+     * @param preference Mirrors preference.
+     * @return Mirror indexes in order of preference.
+     */
+    private List<Integer> healthy(final Comparator<Integer> preference) {
+        return IntStream.range(0, this.mirrors.size()).boxed().sorted(
+            Comparator.<Integer, Boolean>comparing(
+                idx -> this.breakers.breaker(idx).mode() == CircuitBreaker.Mode.OPEN
+            ).thenComparing(preference)
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Check response body against blob digest.
+     * Mismatch is only reported as error at the end of the body, after all bytes were emitted.
+     *
+     * @param body Response body.
+     * @param blob Expected blob digest, empty if there is nothing to check.
+     * @return Checked body.
+     */
+    private static Flowable<ByteBuffer> verified(
+        final Publisher<ByteBuffer> body,
+        final Optional<Digest> blob
+    ) {
+        return blob.map(
+            expected -> {
+                final DigestedFlowable digested = new DigestedFlowable(body);
+                return digested.doOnComplete(
+                    () -> {
+                        final String calculated = digested.digest().hex();
+                        if (!expected.hex().equals(calculated)) {
+                            throw new InvalidDigestException(
+                                String.format(
+                                    "calculated: %s expected: %s", calculated, expected.hex()
+                                )
+                            );
+                        }
+                    }
+                );
+            }
+        ).orElseGet(() -> Flowable.fromPublisher(body));
+    }
+
+    /**
+     * Response head received from mirror.
+     *
+     * @since 0.13
+     */
+    private static final class Head implements Response {
+
+        /**
+         * Response status.
+         */
+        private final RsStatus status;
+
+        /**
+         * Response headers.
+         */
+        private final Headers headers;
+
+        /**
+         * Response body.
+         */
+        private final Flowable<ByteBuffer> body;
+
+        /**
+         * Ctor.
+         *
+         * @param status Response status.
+         * @param headers Response headers.
+         * @param body Response body.
+         */
+        Head(final RsStatus status, final Headers headers, final Flowable<ByteBuffer> body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public CompletionStage<Void> send(final Connection connection) {
+            return connection.accept(this.status, this.headers, this.body);
+        }
+
+        /**
+         * Check response may be returned to client, so there is no need to try next mirror.
+         *
+         * @return False if mirror failed or has no requested item.
+         */
+        boolean usable() {
+            return !this.status.serverError() && this.status != RsStatus.NOT_FOUND;
+        }
+
+        /**
+         * Discard response, consuming its body.
+         */
+        void discard() {
+            this.body.ignoreElements().onErrorComplete().subscribe();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.docker.composite.MemberLatency;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of mirrors by mirror index: response latency, transferred bytes,
+ * smoothed transfer rate and failures.
+ * Transfer rate of a mirror not measured yet is assumed to be the best measured one,
+ * so new mirrors get their share of downloads until measured.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class MirrorStats {
+
+    /**
+     * Transfer rate assumed when nothing is measured yet, bytes per second.
+     */
+    private static final long INITIAL = 1024L * 1024L;
+
+    /**
+     * Rate smoothing shift, new sample has weight of 1/8.
+     */
+    private static final int SHIFT = 3;
+
+    /**
+     * Response latency.
+     */
+    private final MemberLatency latency;
+
+    /**
+     * Transferred bytes.
+     */
+    private final ConcurrentMap<Integer, AtomicLong> totals;
+
+    /**
+     * Smoothed transfer rates, bytes per second.
+     */
+    private final ConcurrentMap<Integer, Long> speeds;
+
+    /**
+     * Failed requests and transfers.
+     */
+    private final ConcurrentMap<Integer, AtomicLong> errors;
+
+    /**
+     * Ctor.
+     */
+    public MirrorStats() {
+        // @checkstyle MagicNumberCheck (2 lines)
+        this(
+            new MemberLatency(Duration.ofSeconds(1), Duration.ofMillis(100), Duration.ofSeconds(30))
+        );
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param latency Response latency, its delay is used as mirror timeout.
+     */
+    public MirrorStats(final MemberLatency latency) {
+        this.latency = latency;
+        this.totals = new ConcurrentHashMap<>();
+        this.speeds = new ConcurrentHashMap<>();
+        this.errors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Record mirror responded.
+     *
+     * @param mirror Mirror index.
+     * @param elapsed Time from request to response.
+     */
+    public void responded(final int mirror, final Duration elapsed) {
+        this.latency.record(mirror, elapsed);
+    }
+
+    /**
+     * Record mirror did not respond in time.
+     *
+     * @param mirror Mirror index.
+     */
+    public void slow(final int mirror) {
+        this.latency.timeout(mirror);
+    }
+
+    /**
+     * Record response body transferred from mirror.
+     *
+     * @param mirror Mirror index.
+     * @param bytes Number of bytes.
+     * @param elapsed Transfer time.
+     */
+    public void transferred(final int mirror, final long bytes, final Duration elapsed) {
+        this.totals.computeIfAbsent(mirror, idx -> new AtomicLong()).addAndGet(bytes);
+        final long nanos = elapsed.toNanos();
+        if (bytes > 0 && nanos > 0) {
+            final long sample = bytes * TimeUnit.SECONDS.toNanos(1) / nanos;
+            this.speeds.merge(
+                mirror, sample, (prev, next) -> prev + (next - prev >> MirrorStats.SHIFT)
+            );
+        }
+    }
+
+    /**
+     * Record mirror request or transfer failed.
+     *
+     * @param mirror Mirror index.
+     */
+    public void failed(final int mirror) {
+        this.errors.computeIfAbsent(mirror, idx -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Time after which mirror is considered slow.
+     *
+     * @param mirror Mirror index.
+     * @return Timeout.
+     */
+    public Duration timeout(final int mirror) {
+        return this.latency.delay(mirror);
+    }
+
+    /**
+     * Smoothed transfer rate of mirror.
+     *
+     * @param mirror Mirror index.
+     * @return Bytes per second.
+     */
+    public long rate(final int mirror) {
+        return this.speeds.getOrDefault(
+            mirror,
+            this.speeds.values().stream().mapToLong(Long::longValue).max()
+                .orElse(MirrorStats.INITIAL)
+        );
+    }
+
+    /**
+     * Snapshot of mean response latencies.
+     *
+     * @return Mean latency by mirror index.
+     */
+    public Map<Integer, Duration> latencies() {
+        return this.latency.means();
+    }
+
+    /**
+     * Snapshot of timed out requests counts.
+     *
+     * @return Timed out requests count by mirror index.
+     */
+    public Map<Integer, Long> timeouts() {
+        return this.latency.timeouts();
+    }
+
+    /**
+     * Snapshot of transferred bytes.
+     *
+     * @return Transferred bytes by mirror index.
+     */
+    public Map<Integer, Long> bytes() {
+        return MirrorStats.snapshot(this.totals);
+    }
+
+    /**
+     * Snapshot of smoothed transfer rates.
+     *
+     * @return Bytes per second by mirror index.
+     */
+    public Map<Integer, Long> rates() {
+        return new ConcurrentHashMap<>(this.speeds);
+    }
+
+    /**
+     * Snapshot of failures counts.
+     *
+     * @return Failed requests and transfers count by mirror index.
+     */
+    public Map<Integer, Long> failures() {
+        return MirrorStats.snapshot(this.errors);
+    }
+
+    /**
+     * Snapshot of counters.
+     *
+     * @param counters Counters.
+     * @return Counter values.
+     */
+    private static Map<Integer, Long> snapshot(final Map<Integer, AtomicLong> counters) {
+        final Map<Integer, Long> res = new ConcurrentHashMap<>();
+        counters.forEach((mirror, count) -> res.put(mirror, count.get()));
+        return res;
+    }
+}
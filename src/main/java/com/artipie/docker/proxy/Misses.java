@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.docker.RepoName;
+import com.artipie.docker.misc.LruCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Short living cache of paths remote repository answered with 404.
+ * Remote is not asked for such path again until the miss expires,
+ * so clients probing for nonexistent tags or blobs don't reach remote.
+ * Miss is invalidated when the item is found, e.g. manifest is found by tag
+ * and so is known to exist by digest. Misses of repository are invalidated when
+ * manifest or blob is put into local storage wrapped with {@link InvalidatingDocker}.
+ * When cache reaches max size least recently used miss is evicted.
+ *
+ * @since 0.13
+ */
+public final class Misses {
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Miss TTL.
+     */
+    private final Duration ttl;
+
+    /**
+     * Miss expiration times by path.
+     */
+    private final LruCache<String, Instant> cache;
+
+    /**
+     * Ctor.
+     */
+    public Misses() {
+        // @checkstyle MagicNumberCheck (1 line)
+        this(Duration.ofSeconds(30), 10_000);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param ttl Miss TTL.
+     * @param max Max number of cached misses.
+     */
+    public Misses(final Duration ttl, final int max) {
+        this(Clock.systemUTC(), ttl, max);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param clock Clock.
+     * @param ttl Miss TTL.
+     * @param max Max number of cached misses.
+     */
+    public Misses(final Clock clock, final Duration ttl, final int max) {
+        this.clock = clock;
+        this.ttl = ttl;
+        this.cache = new LruCache<>(max);
+    }
+
+    /**
+     * Check if remote recently answered path with 404.
+     *
+     * @param path Remote path.
+     * @return True if miss is cached and not expired.
+     */
+    public boolean missing(final String path) {
+        final Instant now = this.clock.instant();
+        final Optional<Instant> expires = this.cache.get(path);
+        final boolean missing = expires.filter(time -> time.isAfter(now)).isPresent();
+        if (expires.isPresent() && !missing) {
+            this.cache.remove(path, expires.get());
+        }
+        return missing;
+    }
+
+    /**
+     * Remember remote answered path with 404.
+     *
+     * @param path Remote path.
+     */
+    public void missed(final String path) {
+        this.cache.put(path, this.clock.instant().plus(this.ttl));
+    }
+
+    /**
+     * Invalidate miss of path, as item was found.
+     *
+     * @param path Remote path.
+     */
+    public void found(final String path) {
+        this.cache.remove(path);
+    }
+
+    /**
+     * Invalidate misses of repository.
+     *
+     * @param name Repository name.
+     */
+    public void invalidate(final RepoName name) {
+        final String prefix = String.format("/v2/%s/", name.value());
+        this.cache.removeIf(path -> path.startsWith(prefix));
+    }
+
+    /**
+     * Invalidate all misses.
+     */
+    public void invalidate() {
+        this.cache.clear();
+    }
+}
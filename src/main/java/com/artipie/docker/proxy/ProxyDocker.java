@@ -30,6 +30,7 @@ import com.artipie.docker.Catalog;
 import com.artipie.docker.Docker;
 import com.artipie.docker.Repo;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.misc.CircuitBreaker;
 import com.artipie.http.Headers;
 import com.artipie.http.Slice;
 import com.artipie.http.rq.RequestLine;
@@ -40,8 +41,13 @@ import java.util.concurrent.CompletionStage;
 
 /**
  * Proxy {@link Docker} implementation.
+ * Calls to remote repository go through circuit breaker,
+ * so they fail immediately while remote is down.
+ * Items remote answered with 404 are remembered for a short time,
+ * so repeated lookups of missing tags and blobs do not reach remote.
  *
  * @since 0.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class ProxyDocker implements Docker {
 
@@ -50,41 +56,85 @@ public final class ProxyDocker implements Docker {
      */
     private final Slice remote;
 
+    /**
+     * Remote repository circuit breaker.
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * Paths remote recently answered with 404.
+     */
+    private final Misses misses;
+
     /**
      * Ctor.
      *
      * @param remote Remote repository.
      */
     public ProxyDocker(final Slice remote) {
+        this(remote, new CircuitBreaker());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param tokens Bearer tokens of remote repository token service.
+     */
+    public ProxyDocker(final Slice remote, final BearerTokens tokens) {
+        this(new BearerSlice(remote, tokens));
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param breaker Remote repository circuit breaker, shared by all repositories.
+     */
+    public ProxyDocker(final Slice remote, final CircuitBreaker breaker) {
+        this(remote, breaker, new Misses());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param breaker Remote repository circuit breaker, shared by all repositories.
+     * @param misses Paths remote recently answered with 404, shared by all repositories.
+     */
+    public ProxyDocker(final Slice remote, final CircuitBreaker breaker, final Misses misses) {
         this.remote = remote;
+        this.breaker = breaker;
+        this.misses = misses;
     }
 
     @Override
     public Repo repo(final RepoName name) {
-        return new ProxyRepo(this.remote, name);
+        return new ProxyRepo(this.remote, name, this.breaker, this.misses);
     }
 
     @Override
     public CompletionStage<Catalog> catalog(final Optional<RepoName> from, final int limit) {
-        return new ResponseSink<>(
-            this.remote.response(
-                new RequestLine(RqMethod.GET, new CatalogUri(from, limit).string()).toString(),
-                Headers.EMPTY,
-                Content.EMPTY
-            ),
-            (status, headers, body) -> {
-                final CompletionStage<Catalog> result;
-                if (status == RsStatus.OK) {
-                    result = new PublisherAs(body).bytes().thenApply(
-                        bytes -> () -> new Content.From(bytes)
-                    );
-                } else {
-                    result = new FailedCompletionStage<>(
-                        new IllegalArgumentException(String.format("Unexpected status: %s", status))
-                    );
+        return this.breaker.call(
+            () -> new ResponseSink<>(
+                this.remote.response(
+                    new RequestLine(RqMethod.GET, new CatalogUri(from, limit).string()).toString(),
+                    Headers.EMPTY,
+                    Content.EMPTY
+                ),
+                (status, headers, body) -> {
+                    final CompletionStage<Catalog> result;
+                    if (status == RsStatus.OK) {
+                        result = new PublisherAs(body).bytes().thenApply(
+                            bytes -> () -> new Content.From(bytes)
+                        );
+                    } else {
+                        result = new FailedCompletionStage<>(new UnexpectedStatusException(status));
+                    }
+                    return result;
                 }
-                return result;
-            }
-        ).result();
+            ).result(),
+            new RemoteFailure()
+        );
     }
 }
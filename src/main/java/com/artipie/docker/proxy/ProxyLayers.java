@@ -30,6 +30,7 @@ import com.artipie.docker.Digest;
 import com.artipie.docker.Layers;
 import com.artipie.docker.RepoName;
 import com.artipie.docker.asto.BlobSource;
+import com.artipie.docker.misc.CircuitBreaker;
 import com.artipie.http.Headers;
 import com.artipie.http.Slice;
 import com.artipie.http.headers.ContentLength;
@@ -44,6 +45,7 @@ import java.util.concurrent.CompletionStage;
  * Proxy implementation of {@link Layers}.
  *
  * @since 0.3
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 public final class ProxyLayers implements Layers {
 
@@ -57,6 +59,16 @@ public final class ProxyLayers implements Layers {
      */
     private final RepoName name;
 
+    /**
+     * Remote repository circuit breaker.
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * Paths remote recently answered with 404.
+     */
+    private final Misses misses;
+
     /**
      * Ctor.
      *
@@ -64,8 +76,39 @@ public final class ProxyLayers implements Layers {
      * @param name Repository name.
      */
     public ProxyLayers(final Slice remote, final RepoName name) {
+        this(remote, name, new CircuitBreaker());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param name Repository name.
+     * @param breaker Remote repository circuit breaker.
+     */
+    public ProxyLayers(final Slice remote, final RepoName name, final CircuitBreaker breaker) {
+        this(remote, name, breaker, new Misses());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param name Repository name.
+     * @param breaker Remote repository circuit breaker.
+     * @param misses Paths remote recently answered with 404.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public ProxyLayers(
+        final Slice remote,
+        final RepoName name,
+        final CircuitBreaker breaker,
+        final Misses misses
+    ) {
         this.remote = remote;
         this.name = name;
+        this.breaker = breaker;
+        this.misses = misses;
     }
 
     @Override
@@ -80,34 +123,46 @@ public final class ProxyLayers implements Layers {
 
     @Override
     public CompletionStage<Optional<Blob>> get(final Digest digest) {
-        return new ResponseSink<>(
-            this.remote.response(
-                new RequestLine(RqMethod.HEAD, new BlobPath(this.name, digest).string()).toString(),
-                Headers.EMPTY,
-                Content.EMPTY
-            ),
-            (status, headers, body) -> {
-                final CompletionStage<Optional<Blob>> result;
-                if (status == RsStatus.OK) {
-                    result = CompletableFuture.completedFuture(
-                        Optional.of(
-                            new ProxyBlob(
-                                this.remote,
-                                this.name,
-                                digest,
-                                new ContentLength(headers).longValue()
-                            )
-                        )
-                    );
-                } else if (status == RsStatus.NOT_FOUND) {
-                    result = CompletableFuture.completedFuture(Optional.empty());
-                } else {
-                    result = new FailedCompletionStage<>(
-                        new IllegalArgumentException(String.format("Unexpected status: %s", status))
-                    );
-                }
-                return result;
-            }
-        ).result();
+        final String path = new BlobPath(this.name, digest).string();
+        final CompletionStage<Optional<Blob>> res;
+        if (this.misses.missing(path)) {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        } else {
+            res = this.breaker.call(
+                () -> new ResponseSink<>(
+                    this.remote.response(
+                        new RequestLine(RqMethod.HEAD, path).toString(),
+                        Headers.EMPTY,
+                        Content.EMPTY
+                    ),
+                    (status, headers, body) -> {
+                        final CompletionStage<Optional<Blob>> result;
+                        if (status == RsStatus.OK) {
+                            this.misses.found(path);
+                            result = CompletableFuture.completedFuture(
+                                Optional.of(
+                                    new ProxyBlob(
+                                        this.remote,
+                                        this.name,
+                                        digest,
+                                        new ContentLength(headers).longValue()
+                                    )
+                                )
+                            );
+                        } else if (status == RsStatus.NOT_FOUND) {
+                            this.misses.missed(path);
+                            result = CompletableFuture.completedFuture(Optional.empty());
+                        } else {
+                            result = new FailedCompletionStage<>(
+                                new UnexpectedStatusException(status)
+                            );
+                        }
+                        return result;
+                    }
+                ).result(),
+                new RemoteFailure()
+            );
+        }
+        return res;
     }
 }
@@ -35,6 +35,7 @@ import com.artipie.docker.Tags;
 import com.artipie.docker.http.DigestHeader;
 import com.artipie.docker.manifest.JsonManifest;
 import com.artipie.docker.manifest.Manifest;
+import com.artipie.docker.misc.CircuitBreaker;
 import com.artipie.docker.ref.ManifestRef;
 import com.artipie.http.Headers;
 import com.artipie.http.Slice;
@@ -63,6 +64,16 @@ public final class ProxyManifests implements Manifests {
      */
     private final RepoName name;
 
+    /**
+     * Remote repository circuit breaker.
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * Paths remote recently answered with 404.
+     */
+    private final Misses misses;
+
     /**
      * Ctor.
      *
@@ -70,8 +81,39 @@ public final class ProxyManifests implements Manifests {
      * @param name Repository name.
      */
     public ProxyManifests(final Slice remote, final RepoName name) {
+        this(remote, name, new CircuitBreaker());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param name Repository name.
+     * @param breaker Remote repository circuit breaker.
+     */
+    public ProxyManifests(final Slice remote, final RepoName name, final CircuitBreaker breaker) {
+        this(remote, name, breaker, new Misses());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param name Repository name.
+     * @param breaker Remote repository circuit breaker.
+     * @param misses Paths remote recently answered with 404.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public ProxyManifests(
+        final Slice remote,
+        final RepoName name,
+        final CircuitBreaker breaker,
+        final Misses misses
+    ) {
         this.remote = remote;
         this.name = name;
+        this.breaker = breaker;
+        this.misses = misses;
     }
 
     @Override
@@ -81,52 +123,72 @@ public final class ProxyManifests implements Manifests {
 
     @Override
     public CompletionStage<Optional<Manifest>> get(final ManifestRef ref) {
-        return new ResponseSink<>(
-            this.remote.response(
-                new RequestLine(RqMethod.GET, new ManifestPath(this.name, ref).string()).toString(),
-                Headers.EMPTY,
-                Content.EMPTY
-            ),
-            (status, headers, body) -> {
-                final CompletionStage<Optional<Manifest>> result;
-                if (status == RsStatus.OK) {
-                    final Digest digest = new DigestHeader(headers).value();
-                    result = new PublisherAs(body).bytes().thenApply(
-                        bytes -> Optional.of(new JsonManifest(digest, bytes))
-                    );
-                } else if (status == RsStatus.NOT_FOUND) {
-                    result = CompletableFuture.completedFuture(Optional.empty());
-                } else {
-                    result = unexpected(status);
-                }
-                return result;
-            }
-        ).result();
+        final String path = new ManifestPath(this.name, ref).string();
+        final CompletionStage<Optional<Manifest>> res;
+        if (this.misses.missing(path)) {
+            res = CompletableFuture.completedFuture(Optional.empty());
+        } else {
+            res = this.breaker.call(
+                () -> new ResponseSink<>(
+                    this.remote.response(
+                        new RequestLine(RqMethod.GET, path).toString(),
+                        Headers.EMPTY,
+                        Content.EMPTY
+                    ),
+                    (status, headers, body) -> {
+                        final CompletionStage<Optional<Manifest>> result;
+                        if (status == RsStatus.OK) {
+                            final Digest digest = new DigestHeader(headers).value();
+                            this.misses.found(path);
+                            this.misses.found(
+                                new ManifestPath(
+                                    this.name, new ManifestRef.FromDigest(digest)
+                                ).string()
+                            );
+                            result = new PublisherAs(body).bytes().thenApply(
+                                bytes -> Optional.of(new JsonManifest(digest, bytes))
+                            );
+                        } else if (status == RsStatus.NOT_FOUND) {
+                            this.misses.missed(path);
+                            result = CompletableFuture.completedFuture(Optional.empty());
+                        } else {
+                            result = unexpected(status);
+                        }
+                        return result;
+                    }
+                ).result(),
+                new RemoteFailure()
+            );
+        }
+        return res;
     }
 
     @Override
     public CompletionStage<Tags> tags(final Optional<Tag> from, final int limit) {
-        return new ResponseSink<>(
-            this.remote.response(
-                new RequestLine(
-                    RqMethod.GET,
-                    new TagsListUri(this.name, from, limit).string()
-                ).toString(),
-                Headers.EMPTY,
-                Content.EMPTY
-            ),
-            (status, headers, body) -> {
-                final CompletionStage<Tags> result;
-                if (status == RsStatus.OK) {
-                    result = new PublisherAs(body).bytes().thenApply(
-                        bytes -> () -> new Content.From(bytes)
-                    );
-                } else {
-                    result = unexpected(status);
+        return this.breaker.call(
+            () -> new ResponseSink<>(
+                this.remote.response(
+                    new RequestLine(
+                        RqMethod.GET,
+                        new TagsListUri(this.name, from, limit).string()
+                    ).toString(),
+                    Headers.EMPTY,
+                    Content.EMPTY
+                ),
+                (status, headers, body) -> {
+                    final CompletionStage<Tags> result;
+                    if (status == RsStatus.OK) {
+                        result = new PublisherAs(body).bytes().thenApply(
+                            bytes -> () -> new Content.From(bytes)
+                        );
+                    } else {
+                        result = unexpected(status);
+                    }
+                    return result;
                 }
-                return result;
-            }
-        ).result();
+            ).result(),
+            new RemoteFailure()
+        );
     }
 
     /**
@@ -137,8 +199,6 @@ public final class ProxyManifests implements Manifests {
      * @return Failed completion stage.
      */
     private static <T> CompletionStage<T> unexpected(final RsStatus status) {
-        return new FailedCompletionStage<>(
-            new IllegalArgumentException(String.format("Unexpected status: %s", status))
-        );
+        return new FailedCompletionStage<>(new UnexpectedStatusException(status));
     }
 }
@@ -28,6 +28,7 @@ import com.artipie.docker.Manifests;
 import com.artipie.docker.Repo;
 import com.artipie.docker.RepoName;
 import com.artipie.docker.Uploads;
+import com.artipie.docker.misc.CircuitBreaker;
 import com.artipie.http.Slice;
 
 /**
@@ -47,6 +48,16 @@ public final class ProxyRepo implements Repo {
      */
     private final RepoName name;
 
+    /**
+     * Remote repository circuit breaker.
+     */
+    private final CircuitBreaker breaker;
+
+    /**
+     * Paths remote recently answered with 404.
+     */
+    private final Misses misses;
+
     /**
      * Ctor.
      *
@@ -54,18 +65,49 @@ public final class ProxyRepo implements Repo {
      * @param name Repository name.
      */
     public ProxyRepo(final Slice remote, final RepoName name) {
+        this(remote, name, new CircuitBreaker());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param name Repository name.
+     * @param breaker Remote repository circuit breaker.
+     */
+    public ProxyRepo(final Slice remote, final RepoName name, final CircuitBreaker breaker) {
+        this(remote, name, breaker, new Misses());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param remote Remote repository.
+     * @param name Repository name.
+     * @param breaker Remote repository circuit breaker.
+     * @param misses Paths remote recently answered with 404.
+     * @checkstyle ParameterNumberCheck (10 lines)
+     */
+    public ProxyRepo(
+        final Slice remote,
+        final RepoName name,
+        final CircuitBreaker breaker,
+        final Misses misses
+    ) {
         this.remote = remote;
         this.name = name;
+        this.breaker = breaker;
+        this.misses = misses;
     }
 
     @Override
     public Layers layers() {
-        return new ProxyLayers(this.remote, this.name);
+        return new ProxyLayers(this.remote, this.name, this.breaker, this.misses);
     }
 
     @Override
     public Manifests manifests() {
-        return new ProxyManifests(this.remote, this.name);
+        return new ProxyManifests(this.remote, this.name, this.breaker, this.misses);
     }
 
     @Override
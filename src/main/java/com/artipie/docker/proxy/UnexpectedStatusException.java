@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.http.rs.RsStatus;
+
+/**
+ * Remote repository responded with status proxy cannot handle.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("serial")
+final class UnexpectedStatusException extends IllegalArgumentException {
+
+    /**
+     * Response status.
+     */
+    private final RsStatus status;
+
+    /**
+     * Ctor.
+     *
+     * @param status Response status.
+     */
+    UnexpectedStatusException(final RsStatus status) {
+        super(String.format("Unexpected status: %s", status));
+        this.status = status;
+    }
+
+    /**
+     * Check the status means remote failure rather than remote denying the request.
+     *
+     * @return True for server errors.
+     */
+    boolean remoteFailure() {
+        return this.status.serverError();
+    }
+}
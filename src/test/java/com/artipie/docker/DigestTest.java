@@ -27,14 +27,19 @@ package com.artipie.docker;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsSame;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 /**
  * Test case for {@link Digest}.
  *
  * @since 0.1
  */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class DigestTest {
     @Test
     void parsesValidString() {
@@ -66,4 +71,52 @@ public final class DigestTest {
             new IsEqual<>("sha256:6c3c624b58dbbcd3c0dd82b4c53f04194d1247c6eebdaab7c610cf7d66709b3b")
         );
     }
+
+    @Test
+    void parsedHasSameStringRepresentation() {
+        final String hex = "6c3c624b58dbbcd3c0dd82b4c53f04194d1247c6eebdaab7c610cf7d66709b3b";
+        final Digest digest = new Digest.Parsed(String.format("sha256:%s", hex));
+        MatcherAssert.assertThat("bad algorithm", digest.alg(), new IsEqual<>("sha256"));
+        MatcherAssert.assertThat("bad hex", digest.hex(), new IsEqual<>(hex));
+        MatcherAssert.assertThat(
+            "bad string", digest.string(), new IsEqual<>(String.format("sha256:%s", hex))
+        );
+    }
+
+    @Test
+    void parsedMemoizesHex() {
+        final Digest digest = new Digest.Parsed("sha256:0123456789abcdef");
+        MatcherAssert.assertThat(
+            digest.hex(),
+            new IsSame<>(digest.hex())
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sha256:12345", "sha256:ABCD", "tarsum.v1+sha256:not-hex"})
+    void parsedKeepsNonCanonicalHex(final String str) {
+        MatcherAssert.assertThat(new Digest.Parsed(str).string(), new IsEqual<>(str));
+    }
+
+    @Test
+    void parsedDigestsAreEqualByValue() {
+        final Digest.Sha256 sha = new Digest.Sha256("0123456789abcdef");
+        final Digest.Parsed parsed = new Digest.Parsed(sha);
+        final Digest.Parsed other = new Digest.Parsed(sha.string());
+        MatcherAssert.assertThat("not equal", parsed, new IsEqual<>(other));
+        MatcherAssert.assertThat(
+            "different hash codes", parsed.hashCode(), new IsEqual<>(other.hashCode())
+        );
+        MatcherAssert.assertThat(
+            "equal to other digest",
+            parsed,
+            new IsNot<>(new IsEqual<>(new Digest.Parsed("sha256:0123456789abcdee")))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"asd", ":abc", "sha256:", "sha256:abc:def"})
+    void parsedFailsOnInvalidString(final String str) {
+        Assertions.assertThrows(IllegalStateException.class, () -> new Digest.Parsed(str));
+    }
 }
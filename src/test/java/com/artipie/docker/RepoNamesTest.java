@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker;
+
+import com.artipie.docker.error.InvalidRepoNameException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsSame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link RepoNames}.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class RepoNamesTest {
+
+    @Test
+    void returnsValidatedName() {
+        final String name = "my-org/my-repo";
+        MatcherAssert.assertThat(
+            new RepoNames(2).name(name).value(),
+            new IsEqual<>(name)
+        );
+    }
+
+    @Test
+    void returnsSameInstanceForSameName() {
+        final RepoNames names = new RepoNames(2);
+        MatcherAssert.assertThat(
+            names.name("library/busybox"),
+            new IsSame<>(names.name("library/busybox"))
+        );
+    }
+
+    @Test
+    void failsOnInvalidName() {
+        Assertions.assertThrows(
+            InvalidRepoNameException.class,
+            () -> new RepoNames(2).name("Invalid/Name")
+        );
+    }
+
+    @Test
+    void forgetsNamesWhenFull() {
+        final RepoNames names = new RepoNames(2);
+        final RepoName first = names.name("one");
+        names.name("two");
+        names.name("three");
+        MatcherAssert.assertThat(
+            names.name("one"),
+            new IsNot<>(new IsSame<>(first))
+        );
+    }
+
+    @Test
+    void keepsRecentlyUsedNameWhenFull() {
+        final RepoNames names = new RepoNames(2);
+        final RepoName first = names.name("first");
+        names.name("second");
+        names.name("first");
+        names.name("third");
+        MatcherAssert.assertThat(
+            names.name("first"),
+            new IsSame<>(first)
+        );
+    }
+
+    @Test
+    void namesAreEqualByValue() {
+        MatcherAssert.assertThat(
+            new RepoNames(2).name("repo"),
+            new IsEqual<>(new RepoNames(2).name("repo"))
+        );
+    }
+}
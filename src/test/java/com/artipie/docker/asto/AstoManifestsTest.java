@@ -95,6 +95,23 @@ final class AstoManifestsTest {
         MatcherAssert.assertThat(manifest.isPresent(), new IsEqual<>(false));
     }
 
+    @Test
+    @Timeout(5)
+    void shouldCheckManifestExists() {
+        MatcherAssert.assertThat(
+            "Existing manifest not found",
+            this.manifests.exists(new ManifestRef.FromTag(new Tag.Valid("1")))
+                .toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Absent manifest found",
+            this.manifests.exists(new ManifestRef.FromTag(new Tag.Valid("2")))
+                .toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+    }
+
     @Test
     @Timeout(5)
     void shouldReadAddedManifest() {
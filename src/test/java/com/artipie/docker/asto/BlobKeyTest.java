@@ -33,6 +33,7 @@ import org.junit.jupiter.api.Test;
  *
  * @since 0.2
  */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class BlobKeyTest {
 
     @Test
@@ -48,4 +49,18 @@ public final class BlobKeyTest {
             )
         );
     }
+
+    @Test
+    public void buildsShardedPathFromDigest() {
+        final String hex = "00801519ca78ec3ac54f0aea959bce240ab3b42fae7727d2359b1f9ebcabe23d";
+        MatcherAssert.assertThat(
+            new BlobKey(new Digest.Sha256(hex), 2, 2).string(),
+            Matchers.equalTo(
+                String.join(
+                    "/",
+                    "blobs", "sha256", "00", "80", hex, "data"
+                )
+            )
+        );
+    }
 }
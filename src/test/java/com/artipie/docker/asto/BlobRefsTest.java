@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.ref.ManifestRef;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BlobRefs}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class BlobRefsTest {
+
+    @Test
+    void shouldFindAddedReferences() {
+        final BlobRefs refs = new BlobRefs(new InMemoryStorage(), new DefaultLayout());
+        final Digest layer = new Digest.Sha256("layer".getBytes());
+        final Digest manifest = new Digest.Sha256("manifest".getBytes());
+        refs.add(new RepoName.Simple("library/alpine"), manifest, Arrays.asList(layer))
+            .toCompletableFuture().join();
+        final BlobRefs.Reference ref = refs.references(layer).toCompletableFuture().join()
+            .iterator().next();
+        MatcherAssert.assertThat(
+            "Repository found",
+            ref.repo().value(),
+            new IsEqual<>("library/alpine")
+        );
+        MatcherAssert.assertThat(
+            "Manifest found",
+            ref.manifest().string(),
+            new IsEqual<>(manifest.string())
+        );
+    }
+
+    @Test
+    void shouldNotFindReferencesOfUnknownBlob() {
+        MatcherAssert.assertThat(
+            new BlobRefs(new InMemoryStorage(), new DefaultLayout())
+                .referenced(new Digest.Sha256("unknown".getBytes()))
+                .toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void shouldIndexPutManifest() {
+        final Storage storage = new InMemoryStorage();
+        final RepoName name = new RepoName.Simple("my-repo");
+        final AstoBlobs blobs = new AstoBlobs(storage, new DefaultLayout(), name);
+        final Digest config = blobs.put(new TrustedBlobSource("cfg".getBytes()))
+            .toCompletableFuture().join().digest();
+        final Digest manifest = new AstoManifests(storage, blobs, new DefaultLayout(), name)
+            .put(
+                new ManifestRef.FromString("1.0"),
+                new Content.From(
+                    Json.createObjectBuilder()
+                        .add("config", Json.createObjectBuilder().add("digest", config.string()))
+                        .add("layers", Json.createArrayBuilder())
+                        .build().toString().getBytes()
+                )
+            ).toCompletableFuture().join().digest();
+        MatcherAssert.assertThat(
+            new BlobRefs(storage, new DefaultLayout()).references(config)
+                .toCompletableFuture().join().stream()
+                .map(ref -> String.format("%s %s", ref.repo().value(), ref.manifest().string()))
+                .collect(Collectors.toList()),
+            Matchers.contains(String.format("my-repo %s", manifest.string()))
+        );
+    }
+
+    @Test
+    void shouldRemoveReferencesOfManifest() {
+        final Storage storage = new InMemoryStorage();
+        final Layout layout = new DefaultLayout();
+        final RepoName name = new RepoName.Simple("my-image");
+        final AstoBlobs blobs = new AstoBlobs(storage, layout, name);
+        final Digest config = blobs.put(new TrustedBlobSource("conf".getBytes()))
+            .toCompletableFuture().join().digest();
+        final Digest manifest = new AstoManifests(storage, blobs, layout, name).put(
+            new ManifestRef.FromString("2.0"),
+            new Content.From(
+                Json.createObjectBuilder()
+                    .add("config", Json.createObjectBuilder().add("digest", config.string()))
+                    .add("layers", Json.createArrayBuilder())
+                    .build().toString().getBytes()
+            )
+        ).toCompletableFuture().join().digest();
+        final BlobRefs refs = new BlobRefs(storage, layout);
+        refs.add(new RepoName.Simple("other"), manifest, Arrays.asList(config))
+            .toCompletableFuture().join();
+        refs.remove(name, manifest).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Reference by other repository is kept",
+            refs.references(config).toCompletableFuture().join().stream()
+                .map(ref -> ref.repo().value())
+                .collect(Collectors.toList()),
+            Matchers.contains("other")
+        );
+        MatcherAssert.assertThat(
+            "Manifest self reference is removed",
+            refs.referenced(manifest).toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+    }
+}
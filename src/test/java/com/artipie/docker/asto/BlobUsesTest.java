@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BlobUses}.
+ *
+ * @since 0.13
+ */
+final class BlobUsesTest {
+
+    /**
+     * Blob digest.
+     */
+    private static final Digest BLOB = new Digest.Sha256("blob".getBytes());
+
+    @Test
+    void shouldFindLastUse() {
+        final Instant now = Instant.now();
+        final BlobUses uses = BlobUsesTest.uses(new InMemoryStorage(), now);
+        uses.touch(BlobUsesTest.BLOB).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            uses.last(BlobUsesTest.BLOB).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of(Instant.ofEpochMilli(now.toEpochMilli())))
+        );
+    }
+
+    @Test
+    void shouldNotFindUnknownUse() {
+        MatcherAssert.assertThat(
+            BlobUsesTest.uses(new InMemoryStorage(), Instant.now())
+                .last(BlobUsesTest.BLOB).toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void shouldWriteMarkOncePerInterval() {
+        final Storage storage = new InMemoryStorage();
+        final BlobUses uses = BlobUsesTest.uses(storage, Instant.now());
+        uses.touch(BlobUsesTest.BLOB).toCompletableFuture().join();
+        final Key key = new Key.From("_gc", "uses", "sha256", BlobUsesTest.BLOB.hex());
+        storage.save(key, new Content.From("0".getBytes())).join();
+        uses.touch(BlobUsesTest.BLOB).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            uses.last(BlobUsesTest.BLOB).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of(Instant.EPOCH))
+        );
+    }
+
+    @Test
+    void shouldForgetUse() {
+        final BlobUses uses = BlobUsesTest.uses(new InMemoryStorage(), Instant.now());
+        uses.touch(BlobUsesTest.BLOB).toCompletableFuture().join();
+        uses.forget(BlobUsesTest.BLOB).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            uses.last(BlobUsesTest.BLOB).toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    /**
+     * Create blob uses with fixed clock.
+     *
+     * @param storage Storage.
+     * @param now Current time.
+     * @return Blob uses.
+     */
+    private static BlobUses uses(final Storage storage, final Instant now) {
+        return new BlobUses.Stored(
+            storage, new DefaultLayout(), Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC)
+        );
+    }
+}
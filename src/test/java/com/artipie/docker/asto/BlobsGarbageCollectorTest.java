@@ -0,0 +1,388 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Blob;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.ref.ManifestRef;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.json.Json;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BlobsGarbageCollector}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class BlobsGarbageCollectorTest {
+
+    /**
+     * Grace period.
+     */
+    private static final Duration GRACE = Duration.ofHours(1);
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    /**
+     * Start time.
+     */
+    private Instant start;
+
+    /**
+     * Blob referenced by manifest config.
+     */
+    private Digest config;
+
+    /**
+     * Blob referenced by manifest layer.
+     */
+    private Digest layer;
+
+    /**
+     * Manifest blob.
+     */
+    private Digest manifest;
+
+    /**
+     * Blob not referenced by any manifest.
+     */
+    private Digest orphan;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+        this.start = Instant.now();
+        final RepoName name = new RepoName.Simple("library/alpine");
+        final AstoBlobs blobs = new AstoBlobs(this.storage, new DefaultLayout(), name);
+        this.config = BlobsGarbageCollectorTest.put(blobs, "config");
+        this.layer = BlobsGarbageCollectorTest.put(blobs, "layer");
+        this.orphan = BlobsGarbageCollectorTest.put(blobs, "orphan");
+        this.manifest = new AstoManifests(this.storage, blobs, new DefaultLayout(), name).put(
+            new ManifestRef.FromString("latest"),
+            new Content.From(
+                Json.createObjectBuilder()
+                    .add(
+                        "config",
+                        Json.createObjectBuilder().add("digest", this.config.string())
+                    )
+                    .add(
+                        "layers",
+                        Json.createArrayBuilder().add(
+                            Json.createObjectBuilder().add("digest", this.layer.string())
+                        )
+                    )
+                    .build().toString().getBytes()
+            )
+        ).toCompletableFuture().join().digest();
+    }
+
+    @Test
+    void shouldKeepUnreferencedBlobDuringGracePeriod() {
+        final BlobsGarbageCollector.Report report = this.collector(Duration.ZERO)
+            .collect().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Orphan blob found",
+            BlobsGarbageCollectorTest.strings(report.unreferenced()),
+            Matchers.contains(this.orphan.string())
+        );
+        MatcherAssert.assertThat(
+            "Nothing removed",
+            BlobsGarbageCollectorTest.strings(report.removed()),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void shouldRemoveUnreferencedBlobAfterGracePeriod() {
+        this.collector(Duration.ZERO).collect().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Orphan blob removed",
+            BlobsGarbageCollectorTest.strings(
+                this.collector(BlobsGarbageCollectorTest.GRACE.plusMinutes(1))
+                    .collect().toCompletableFuture().join().removed()
+            ),
+            Matchers.contains(this.orphan.string())
+        );
+        MatcherAssert.assertThat(
+            "Orphan blob data removed",
+            this.storage.exists(new BlobKey(this.orphan)).join(),
+            new IsEqual<>(false)
+        );
+        for (final Digest digest : new Digest[] {this.config, this.layer, this.manifest}) {
+            MatcherAssert.assertThat(
+                String.format("Referenced blob %s kept", digest.string()),
+                this.storage.exists(new BlobKey(digest)).join(),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    @Test
+    void shouldNotModifyStorageOnDryRun() {
+        this.collector(Duration.ZERO).collect().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Orphan blob reported",
+            BlobsGarbageCollectorTest.strings(
+                this.collector(BlobsGarbageCollectorTest.GRACE.plusMinutes(1))
+                    .report().toCompletableFuture().join().removed()
+            ),
+            Matchers.contains(this.orphan.string())
+        );
+        MatcherAssert.assertThat(
+            "Orphan blob data kept",
+            this.storage.exists(new BlobKey(this.orphan)).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldNotRemoveBlobFoundFirstTime() {
+        MatcherAssert.assertThat(
+            this.collector(BlobsGarbageCollectorTest.GRACE.plusMinutes(1))
+                .collect().toCompletableFuture().join().removed(),
+            Matchers.empty()
+        );
+    }
+
+    @Test
+    void shouldKeepBlobReferencedInIndex() {
+        this.collector(Duration.ZERO).collect().toCompletableFuture().join();
+        new BlobRefs(this.storage, new DefaultLayout()).add(
+            new RepoName.Simple("other"), this.manifest, Collections.singleton(this.orphan)
+        ).toCompletableFuture().join();
+        this.collector(BlobsGarbageCollectorTest.GRACE.plusMinutes(1))
+            .collect().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.storage.exists(new BlobKey(this.orphan)).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldKeepBlobReferencedAfterMarkPhase() {
+        this.collector(Duration.ZERO).collect().toCompletableFuture().join();
+        final Storage origin = this.storage;
+        final Digest blob = this.orphan;
+        final Digest referrer = this.manifest;
+        this.storage = new PushingStorage(
+            origin,
+            () -> new BlobRefs(origin, new DefaultLayout()).add(
+                new RepoName.Simple("pushed"), referrer, Collections.singleton(blob)
+            )
+        );
+        MatcherAssert.assertThat(
+            "Blob referenced after mark phase not removed",
+            this.collector(BlobsGarbageCollectorTest.GRACE.plusMinutes(1))
+                .collect().toCompletableFuture().join().removed(),
+            Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            "Blob referenced after mark phase kept",
+            origin.exists(new BlobKey(this.orphan)).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldKeepOldOrphanReusedByPush() {
+        this.collector(Duration.ZERO).collect().toCompletableFuture().join();
+        final Duration used = BlobsGarbageCollectorTest.GRACE.multipliedBy(2);
+        new AstoBlobs(
+            this.storage,
+            new DefaultLayout(),
+            new RepoName.Simple("pushed"),
+            new BlobUses.Stored(
+                this.storage,
+                new DefaultLayout(),
+                Duration.ofMinutes(1),
+                Clock.fixed(this.start.plus(used), ZoneOffset.UTC)
+            )
+        ).blob(this.orphan).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Reused orphan kept after grace period from first found",
+            this.collector(used.plusMinutes(1)).collect().toCompletableFuture().join().removed(),
+            Matchers.empty()
+        );
+        MatcherAssert.assertThat(
+            "Reused orphan data kept",
+            this.storage.exists(new BlobKey(this.orphan)).join(),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Reused orphan removed after grace period from last use",
+            BlobsGarbageCollectorTest.strings(
+                this.collector(used.plus(BlobsGarbageCollectorTest.GRACE).plusMinutes(1))
+                    .collect().toCompletableFuture().join().removed()
+            ),
+            Matchers.contains(this.orphan.string())
+        );
+    }
+
+    /**
+     * Create collector with clock moved from start time.
+     *
+     * @param shift Clock shift from start.
+     * @return Collector.
+     */
+    private BlobsGarbageCollector collector(final Duration shift) {
+        return new BlobsGarbageCollector(
+            this.storage,
+            new DefaultLayout(),
+            BlobsGarbageCollectorTest.GRACE,
+            Clock.fixed(this.start.plus(shift), ZoneOffset.UTC),
+            2,
+            2
+        );
+    }
+
+    /**
+     * Put blob.
+     *
+     * @param blobs Blobs.
+     * @param content Blob content.
+     * @return Blob digest.
+     */
+    private static Digest put(final AstoBlobs blobs, final String content) {
+        return blobs.put(new TrustedBlobSource(content.getBytes()))
+            .thenApply(Blob::digest)
+            .toCompletableFuture().join();
+    }
+
+    /**
+     * Convert digests to strings.
+     *
+     * @param digests Digests.
+     * @return Digest strings.
+     */
+    private static Collection<String> strings(final Collection<Digest> digests) {
+        return digests.stream().map(Digest::string).collect(Collectors.toList());
+    }
+
+    /**
+     * Storage which pushes manifest concurrently when blobs are listed,
+     * i.e. after mark phase of garbage collection.
+     *
+     * @since 0.13
+     */
+    private static final class PushingStorage implements Storage {
+
+        /**
+         * Origin storage.
+         */
+        private final Storage origin;
+
+        /**
+         * Manifest push.
+         */
+        private final Supplier<CompletionStage<Void>> push;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin storage.
+         * @param push Manifest push.
+         */
+        private PushingStorage(
+            final Storage origin, final Supplier<CompletionStage<Void>> push
+        ) {
+            this.origin = origin;
+            this.push = push;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            return this.origin.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Collection<Key>> list(final Key key) {
+            final CompletableFuture<Collection<Key>> res;
+            if (key.string().equals(new DefaultLayout().blobs().string())) {
+                res = this.origin.list(key).thenCompose(
+                    keys -> this.push.get().thenApply(nothing -> keys)
+                );
+            } else {
+                res = this.origin.list(key);
+            }
+            return res;
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            return this.origin.save(key, content);
+        }
+
+        @Override
+        public CompletableFuture<Void> move(final Key source, final Key target) {
+            return this.origin.move(source, target);
+        }
+
+        @Override
+        public CompletableFuture<Long> size(final Key key) {
+            return this.origin.size(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            return this.origin.value(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Key key) {
+            return this.origin.delete(key);
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(
+            final Key key,
+            final Function<Storage, CompletionStage<T>> function
+        ) {
+            return this.origin.exclusively(key, function);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BlobsResharding}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class BlobsReshardingTest {
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    /**
+     * Stored blobs digests.
+     */
+    private Collection<Digest> digests;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+        this.digests = Arrays.asList("one", "two", "three").stream()
+            .map(
+                data -> new AstoBlobs(
+                    this.storage, new DefaultLayout(), new RepoName.Simple("any")
+                ).put(new TrustedBlobSource(data.getBytes())).toCompletableFuture().join()
+                    .digest()
+            )
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void shouldCopyBlobsToTargetLayout() {
+        final ShardedLayout target = new ShardedLayout(2, 2);
+        MatcherAssert.assertThat(
+            "All blobs copied",
+            this.resharding(target).copy().toCompletableFuture().join(),
+            new IsEqual<>(this.digests.size())
+        );
+        for (final Digest digest : this.digests) {
+            MatcherAssert.assertThat(
+                String.format("Blob %s available with target layout", digest.string()),
+                new PublisherAs(this.storage.value(target.blob(digest)).join())
+                    .bytes().toCompletableFuture().join().length > 0,
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    @Test
+    void shouldResumeFromCheckpoint() {
+        final ShardedLayout target = new ShardedLayout(2, 2);
+        final String last = this.storage.list(new Key.From("blobs")).join().stream()
+            .map(Key::string)
+            .sorted()
+            .findFirst().get();
+        this.storage.save(
+            new Key.From("_migration", "blobs-resharding"), new Content.From(last.getBytes())
+        ).join();
+        MatcherAssert.assertThat(
+            this.resharding(target).copy().toCompletableFuture().join(),
+            new IsEqual<>(this.digests.size() - 1)
+        );
+    }
+
+    @Test
+    void shouldRemoveSourceKeysOnCleanup() {
+        final ShardedLayout target = new ShardedLayout(2, 2);
+        final BlobsResharding resharding = this.resharding(target);
+        resharding.copy().toCompletableFuture().join();
+        resharding.cleanup().toCompletableFuture().join();
+        for (final Digest digest : this.digests) {
+            MatcherAssert.assertThat(
+                String.format("Blob %s removed from source layout", digest.string()),
+                this.storage.exists(new ShardedLayout().blob(digest)).join(),
+                new IsEqual<>(false)
+            );
+        }
+    }
+
+    @Test
+    void shouldServeBlobsDuringCutover() {
+        final BlobsResharding resharding = this.resharding(new ShardedLayout(2, 2));
+        final AstoBlobs blobs = new AstoBlobs(
+            this.storage, resharding.layout(), new RepoName.Simple("cutover")
+        );
+        this.assertServed(blobs, "before copy");
+        resharding.copy().toCompletableFuture().join();
+        this.assertServed(blobs, "after copy");
+        resharding.cleanup().toCompletableFuture().join();
+        this.assertServed(blobs, "after cleanup");
+    }
+
+    /**
+     * Check all blobs are served.
+     *
+     * @param blobs Blobs.
+     * @param stage Migration stage.
+     */
+    private void assertServed(final AstoBlobs blobs, final String stage) {
+        for (final Digest digest : this.digests) {
+            MatcherAssert.assertThat(
+                String.format("Blob %s served %s", digest.string(), stage),
+                blobs.blob(digest).toCompletableFuture().join().isPresent(),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    /**
+     * Create resharding from default layout.
+     *
+     * @param target Target layout.
+     * @return Resharding.
+     */
+    private BlobsResharding resharding(final ShardedLayout target) {
+        return new BlobsResharding(this.storage, new ShardedLayout(), target, 2);
+    }
+}
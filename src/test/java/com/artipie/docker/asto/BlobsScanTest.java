@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import java.util.List;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BlobsScan}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class BlobsScanTest {
+
+    /**
+     * Blob digest.
+     */
+    private static final Digest DIGEST = new Digest.Sha256(
+        "abcdef0123456789abcdef0123456789abcdef0123456789abcdef0123456789"
+    );
+
+    @Test
+    void findsBlobsOfShardedLayout() {
+        final Storage storage = new InMemoryStorage();
+        final Layout layout = new ShardedLayout(2, 2);
+        final Key blob = layout.blob(new RepoName.Simple("test"), BlobsScanTest.DIGEST);
+        storage.save(blob, Content.EMPTY).join();
+        storage.save(new Key.From(layout.blobs(), "sha256", "ab", "other"), Content.EMPTY)
+            .join();
+        final Map<String, List<Key>> keys = new BlobsScan(storage, layout).keys()
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Single blob found",
+            keys.keySet(),
+            Matchers.contains(BlobsScanTest.DIGEST.string())
+        );
+        MatcherAssert.assertThat(
+            "Blob data key found",
+            keys.get(BlobsScanTest.DIGEST.string()).get(0).string(),
+            new IsEqual<>(blob.string())
+        );
+    }
+
+    @Test
+    void findsMentionedDigests() {
+        final Storage storage = new InMemoryStorage();
+        final RepoName name = new RepoName.Simple("my-alpine");
+        final Digest manifest = new Digest.Sha256(String.format("%064d", 2));
+        final String other = String.format("sha256:%064d", 1);
+        storage.save(
+            new DefaultLayout().blob(name, manifest),
+            new Content.From(
+                String.format(
+                    "{\"config\":{\"digest\":\"%s\"},\"layers\":[{\"digest\":\"%s\"}]}",
+                    BlobsScanTest.DIGEST.string(), other
+                ).getBytes()
+            )
+        ).join();
+        MatcherAssert.assertThat(
+            new BlobsScan(
+                storage, new FallbackLayout(new ShardedLayout(2, 2), new DefaultLayout())
+            ).mentioned(name, manifest).toCompletableFuture().join().get(),
+            Matchers.containsInAnyOrder(BlobsScanTest.DIGEST.string(), other)
+        );
+    }
+
+    @Test
+    void findsNothingMentionedInAbsentManifest() {
+        MatcherAssert.assertThat(
+            new BlobsScan(new InMemoryStorage(), new DefaultLayout())
+                .mentioned(new RepoName.Simple("absent"), BlobsScanTest.DIGEST)
+                .toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void findsAllKeysOfBlobWhileResharded() {
+        final Storage storage = new InMemoryStorage();
+        final RepoName name = new RepoName.Simple("any");
+        storage.save(new DefaultLayout().blob(name, BlobsScanTest.DIGEST), Content.EMPTY).join();
+        storage.save(new ShardedLayout(2, 2).blob(name, BlobsScanTest.DIGEST), Content.EMPTY)
+            .join();
+        MatcherAssert.assertThat(
+            new BlobsScan(storage, new DefaultLayout()).keys().toCompletableFuture().join()
+                .get(BlobsScanTest.DIGEST.string()),
+            Matchers.hasSize(2)
+        );
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.fake.MovingClock;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Tests for {@link CatalogIndex}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class CatalogIndexTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        ",5,a;b;c;d",
+        "b,5,c;d",
+        ",2,a;b",
+        "b,1,c",
+        "d,5,''"
+    })
+    void shouldReadPages(final String from, final int limit, final String result) {
+        final CatalogIndex index = new CatalogIndex(new InMemoryStorage(), new DefaultLayout());
+        for (final String name : new String[] {"c", "a", "d", "b"}) {
+            index.add(new RepoName.Simple(name)).toCompletableFuture().join();
+        }
+        MatcherAssert.assertThat(
+            index.names(Optional.ofNullable(from).map(RepoName.Simple::new), limit)
+                .toCompletableFuture().join().stream()
+                .map(RepoName::value)
+                .collect(Collectors.joining(";")),
+            Matchers.equalTo(result)
+        );
+    }
+
+    @Test
+    void shouldBuildIndexFromRepositories() {
+        final Storage storage = new InMemoryStorage();
+        for (final String key : new String[] {
+            "repositories/library/alpine/_manifests/tags/latest/current/link",
+            "repositories/library/alpine/_uploads/123/started",
+            "repositories/busybox/_manifests/revisions/sha256/abc/link",
+        }) {
+            storage.save(new Key.From(key), new Content.From(new byte[0])).join();
+        }
+        MatcherAssert.assertThat(
+            "Index built from repositories",
+            CatalogIndexTest.names(new CatalogIndex(storage, new DefaultLayout())),
+            Matchers.contains("busybox", "library/alpine")
+        );
+        storage.save(
+            new Key.From("repositories/ignored/_manifests/link"), new Content.From(new byte[0])
+        ).join();
+        MatcherAssert.assertThat(
+            "Built index read from markers",
+            CatalogIndexTest.names(new CatalogIndex(storage, new DefaultLayout())),
+            Matchers.contains("busybox", "library/alpine")
+        );
+    }
+
+    @Test
+    void shouldReadNamesAddedByOtherIndexAfterRefresh() {
+        final Storage storage = new InMemoryStorage();
+        final CatalogIndex index = new CatalogIndex(storage, new DefaultLayout());
+        CatalogIndexTest.names(index);
+        new CatalogIndex(storage, new DefaultLayout()).add(new RepoName.Simple("other"))
+            .toCompletableFuture().join();
+        index.refresh().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            CatalogIndexTest.names(index),
+            Matchers.contains("other")
+        );
+    }
+
+    @Test
+    void shouldReadNamesAddedByOtherIndexAfterTtl() {
+        final Storage storage = new InMemoryStorage();
+        final MovingClock clock = new MovingClock();
+        final CatalogIndex index = new CatalogIndex(
+            storage, new DefaultLayout(), clock, Duration.ofMinutes(1)
+        );
+        CatalogIndexTest.names(index);
+        new CatalogIndex(storage, new DefaultLayout()).add(new RepoName.Simple("remote"))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Loaded index is used within TTL",
+            CatalogIndexTest.names(index),
+            Matchers.empty()
+        );
+        clock.forward(Duration.ofMinutes(1));
+        MatcherAssert.assertThat(
+            "Markers are read again after TTL",
+            CatalogIndexTest.names(index),
+            Matchers.contains("remote")
+        );
+    }
+
+    @Test
+    void shouldNotListUnchangedIndexAfterTtl() {
+        final Storage storage = new InMemoryStorage();
+        final MovingClock clock = new MovingClock();
+        final CatalogIndex index = new CatalogIndex(
+            storage, new DefaultLayout(), clock, Duration.ofMinutes(1)
+        );
+        index.add(new RepoName.Simple("first")).toCompletableFuture().join();
+        CatalogIndexTest.names(index);
+        storage.save(
+            new Key.From("_catalog/unversioned/_repo"), new Content.From(new byte[0])
+        ).join();
+        clock.forward(Duration.ofMinutes(1));
+        MatcherAssert.assertThat(
+            "Markers are not listed while index version is unchanged",
+            CatalogIndexTest.names(index),
+            Matchers.contains("first")
+        );
+        new CatalogIndex(storage, new DefaultLayout()).add(new RepoName.Simple("second"))
+            .toCompletableFuture().join();
+        clock.forward(Duration.ofMinutes(1));
+        MatcherAssert.assertThat(
+            "Markers are listed after index version changed",
+            CatalogIndexTest.names(index),
+            Matchers.contains("first", "second", "unversioned")
+        );
+    }
+
+    @Test
+    void shouldNotRewriteExistingMarker() {
+        final Storage storage = new InMemoryStorage();
+        final Key marker = new Key.From("_catalog/known/_repo");
+        storage.save(marker, new Content.From("kept".getBytes(StandardCharsets.UTF_8))).join();
+        new CatalogIndex(storage, new DefaultLayout()).add(new RepoName.Simple("known"))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(storage.value(marker).join()).asciiString()
+                .toCompletableFuture().join(),
+            Matchers.equalTo("kept")
+        );
+    }
+
+    /**
+     * Read all names from index.
+     *
+     * @param index Index.
+     * @return Names.
+     */
+    private static List<String> names(final CatalogIndex index) {
+        return index.names(Optional.empty(), Integer.MAX_VALUE).toCompletableFuture().join()
+            .stream().map(RepoName::value).collect(Collectors.toList());
+    }
+}
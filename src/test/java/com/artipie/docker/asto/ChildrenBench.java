@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Key;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link Children} over one million sorted tag keys.
+ * Compares single pass streaming used by {@link TagsIndex} with
+ * sort-and-distinct extraction of child names.
+ * Run it from test classpath with {@code org.openjdk.jmh.Main ChildrenBench}
+ * after {@code mvn test-compile}.
+ *
+ * @since 0.13
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ChildrenBench {
+
+    /**
+     * Amount of tags.
+     */
+    private static final int TAGS = 250_000;
+
+    /**
+     * Root key.
+     */
+    private static final Key ROOT = new Key.From("repositories", "bench", "_manifests", "tags");
+
+    /**
+     * Keys inside root, four per tag, sorted as storage lists them.
+     */
+    private List<Key> keys;
+
+    /**
+     * Generate keys.
+     */
+    @Setup
+    public void setup() {
+        final List<String> names = new ArrayList<>(ChildrenBench.TAGS * 4);
+        for (int idx = 0; idx < ChildrenBench.TAGS; idx += 1) {
+            final String tag = String.format("%s/tag-%07d", ChildrenBench.ROOT.string(), idx);
+            names.add(String.format("%s/current/link", tag));
+            for (int rev = 0; rev < 3; rev += 1) {
+                names.add(String.format("%s/index/sha256/%064d/link", tag, idx + rev));
+            }
+        }
+        this.keys = names.stream().sorted().map(Key.From::new)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Stream child names in single pass into index set.
+     *
+     * @return Child names.
+     */
+    @Benchmark
+    public Set<String> stream() {
+        return new Children(ChildrenBench.ROOT, this.keys).stream().collect(
+            Collectors.toCollection(ConcurrentSkipListSet::new)
+        );
+    }
+
+    /**
+     * Extract child names by sorting and removing duplicates.
+     *
+     * @return Child names.
+     */
+    @Benchmark
+    public List<String> sortedDistinct() {
+        return ChildrenBench.sorted(ChildrenBench.ROOT, this.keys);
+    }
+
+    /**
+     * Child names with sort and distinct over all keys.
+     *
+     * @param root Root key.
+     * @param keys Keys inside root.
+     * @return Child names.
+     */
+    private static List<String> sorted(final Key root, final Collection<Key> keys) {
+        final int start = root.string().length() + 1;
+        return keys.stream()
+            .map(Key::string)
+            .map(str -> str.substring(start))
+            .map(str -> str.substring(0, str.indexOf('/')))
+            .sorted()
+            .distinct()
+            .collect(Collectors.toList());
+    }
+}
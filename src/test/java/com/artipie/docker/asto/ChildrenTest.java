@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Key;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Children}.
+ *
+ * @since 0.13
+ */
+final class ChildrenTest {
+
+    /**
+     * Root key.
+     */
+    private static final Key ROOT = new Key.From("root", "tags");
+
+    @Test
+    void shouldStreamUniqueChildrenOfSortedKeys() {
+        MatcherAssert.assertThat(
+            new Children(
+                ChildrenTest.ROOT,
+                ChildrenTest.keys("a-b/current/link", "a/current/link", "a/index/x", "b")
+            ).stream().collect(Collectors.toList()),
+            Matchers.contains("a-b", "a", "b")
+        );
+    }
+
+    @Test
+    void shouldExtractOrderedNames() {
+        MatcherAssert.assertThat(
+            new Children(
+                ChildrenTest.ROOT,
+                ChildrenTest.keys("b/link", "a/link", "c/x/link", "a/other")
+            ).names(),
+            Matchers.contains("a", "b", "c")
+        );
+    }
+
+    @Test
+    void shouldFailOnKeyOutsideRoot() {
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> new Children(
+                ChildrenTest.ROOT, Arrays.asList(new Key.From("root/tagsx/link"))
+            ).names()
+        );
+    }
+
+    /**
+     * Create keys inside root.
+     *
+     * @param names Key names relative to root.
+     * @return Keys.
+     */
+    private static Collection<Key> keys(final String... names) {
+        return Arrays.stream(names)
+            .map(name -> new Key.From(ChildrenTest.ROOT, name))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Blob;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link FallbackLayout}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class FallbackLayoutTest {
+
+    @Test
+    void readsPrimaryKeyFirst() {
+        final RepoName name = new RepoName.Simple("my-alpine");
+        final Digest digest = new Digest.Sha256("data".getBytes());
+        final ShardedLayout primary = new ShardedLayout(2, 2);
+        final ShardedLayout fallback = new ShardedLayout();
+        MatcherAssert.assertThat(
+            new FallbackLayout(primary, fallback).reads(name, digest).stream()
+                .map(Key::string)
+                .collect(Collectors.toList()),
+            Matchers.contains(
+                primary.blob(digest).string(), fallback.blob(digest).string()
+            )
+        );
+    }
+
+    @Test
+    void writesWithPrimaryLayout() {
+        final RepoName name = new RepoName.Simple("my-busybox");
+        final Digest digest = new Digest.Sha256("content".getBytes());
+        final ShardedLayout primary = new ShardedLayout(2, 2);
+        MatcherAssert.assertThat(
+            new FallbackLayout(primary, new DefaultLayout()).blob(name, digest).string(),
+            new IsEqual<>(primary.blob(digest).string())
+        );
+    }
+
+    @Test
+    void loadsBlobFromFallbackKey() {
+        final Storage storage = new InMemoryStorage();
+        final RepoName name = new RepoName.Simple("my-nginx");
+        final byte[] data = "blob".getBytes();
+        final Digest digest = new Digest.Sha256(data);
+        storage.save(new DefaultLayout().blob(name, digest), new Content.From(data)).join();
+        final Optional<Blob> blob = new AstoBlobs(
+            storage, new FallbackLayout(new ShardedLayout(2, 2), new DefaultLayout()), name
+        ).blob(digest).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            blob.get().size().toCompletableFuture().join(),
+            new IsEqual<>((long) data.length)
+        );
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link ShardedLayout}.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class ShardedLayoutTest {
+
+    @Test
+    void buildsShardedBlob() {
+        final String hex = "abcdef1519ca78ec3ac54f0aea959bce240ab3b42fae7727d2359b1f9ebcabe2";
+        MatcherAssert.assertThat(
+            // @checkstyle MagicNumberCheck (1 line)
+            new ShardedLayout(3, 1)
+                .blob(new RepoName.Simple("any"), new Digest.Sha256(hex)).string(),
+            new IsEqual<>(String.format("blobs/sha256/a/b/c/%s/data", hex))
+        );
+    }
+
+    @Test
+    void buildsSameBlobAsDefaultLayout() {
+        final Digest digest = new Digest.Sha256("data".getBytes());
+        final RepoName name = new RepoName.Simple("my-alpine");
+        MatcherAssert.assertThat(
+            new ShardedLayout().blob(name, digest).string(),
+            new IsEqual<>(new DefaultLayout().blob(name, digest).string())
+        );
+    }
+
+    @Test
+    void buildsTagsAsDefaultLayout() {
+        final RepoName name = new RepoName.Simple("my-alpine");
+        MatcherAssert.assertThat(
+            new ShardedLayout(2, 2).tags(name).string(),
+            new IsEqual<>(new DefaultLayout().tags(name).string())
+        );
+    }
+}
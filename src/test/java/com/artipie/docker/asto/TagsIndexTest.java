@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Tag;
+import com.artipie.docker.fake.MovingClock;
+import com.artipie.docker.ref.ManifestRef;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Tests for {@link TagsIndex}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class TagsIndexTest {
+
+    /**
+     * Repository name.
+     */
+    private static final RepoName NAME = new RepoName.Simple("my-alpine");
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+        for (final String tag : new String[] {"3", "1", "4", "2"}) {
+            this.link(tag);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        ",10,1;2;3;4",
+        "2,10,3;4",
+        ",2,1;2",
+        "1,2,2;3",
+        "4,10,''"
+    })
+    void shouldReadPages(final String from, final int limit, final String result) {
+        MatcherAssert.assertThat(
+            this.tags(new TagsIndex(this.storage, new DefaultLayout()), from, limit),
+            new IsEqual<>(result)
+        );
+    }
+
+    @Test
+    void shouldAddTagToLoadedIndex() {
+        final TagsIndex index = new TagsIndex(this.storage, new DefaultLayout());
+        this.tags(index, null, Integer.MAX_VALUE);
+        this.link("0");
+        index.added(TagsIndexTest.NAME, new ManifestRef.FromString("0"))
+            .toCompletableFuture().join();
+        index.added(
+            TagsIndexTest.NAME,
+            new ManifestRef.FromDigest(new Digest.Sha256("manifest".getBytes()))
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.tags(index, null, Integer.MAX_VALUE),
+            new IsEqual<>("0;1;2;3;4")
+        );
+    }
+
+    @Test
+    void shouldReloadTagsAfterTtl() {
+        final MovingClock clock = new MovingClock();
+        final TagsIndex index = new TagsIndex(
+            this.storage, new DefaultLayout(), clock, Duration.ofMinutes(1), 10
+        );
+        this.tags(index, null, Integer.MAX_VALUE);
+        this.storage.delete(TagsIndexTest.key("4")).join();
+        new TagsIndex(this.storage, new DefaultLayout()).forget(TagsIndexTest.NAME)
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Loaded tags are used within TTL",
+            this.tags(index, null, Integer.MAX_VALUE),
+            new IsEqual<>("1;2;3;4")
+        );
+        clock.forward(Duration.ofMinutes(1));
+        MatcherAssert.assertThat(
+            "Tags changed by other node are loaded again after TTL",
+            this.tags(index, null, Integer.MAX_VALUE),
+            new IsEqual<>("1;2;3")
+        );
+    }
+
+    @Test
+    void shouldNotListUnchangedTagsAfterTtl() {
+        final MovingClock clock = new MovingClock();
+        final TagsIndex index = new TagsIndex(
+            this.storage, new DefaultLayout(), clock, Duration.ofMinutes(1), 10
+        );
+        this.tags(index, null, Integer.MAX_VALUE);
+        this.link("5");
+        clock.forward(Duration.ofMinutes(1));
+        MatcherAssert.assertThat(
+            "Unchanged tags version keeps loaded tags",
+            this.tags(index, null, Integer.MAX_VALUE),
+            new IsEqual<>("1;2;3;4")
+        );
+        new TagsIndex(this.storage, new DefaultLayout())
+            .added(TagsIndexTest.NAME, new ManifestRef.FromString("5"))
+            .toCompletableFuture().join();
+        clock.forward(Duration.ofMinutes(1));
+        MatcherAssert.assertThat(
+            "Tag added by other node is visible after TTL",
+            this.tags(index, null, Integer.MAX_VALUE),
+            new IsEqual<>("1;2;3;4;5")
+        );
+    }
+
+    /**
+     * Read tags page as string.
+     *
+     * @param index Tags index.
+     * @param from From which tag to start.
+     * @param limit Maximum number of tags.
+     * @return Tags joined by semicolon.
+     */
+    private String tags(final TagsIndex index, final String from, final int limit) {
+        return index.tags(
+            TagsIndexTest.NAME, Optional.ofNullable(from).map(Tag.Valid::new), limit
+        ).toCompletableFuture().join().stream()
+            .map(Tag::value)
+            .collect(Collectors.joining(";"));
+    }
+
+    /**
+     * Save tag link.
+     *
+     * @param tag Tag.
+     */
+    private void link(final String tag) {
+        this.storage.save(TagsIndexTest.key(tag), new Content.From(new byte[0])).join();
+    }
+
+    /**
+     * Tag link key.
+     *
+     * @param tag Tag.
+     * @return Key.
+     */
+    private static Key key(final String tag) {
+        return new Key.From(new DefaultLayout().tags(TagsIndexTest.NAME), tag, "current", "link");
+    }
+}
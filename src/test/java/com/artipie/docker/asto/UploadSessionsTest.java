@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Upload;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link UploadSessions}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class UploadSessionsTest {
+
+    @Test
+    void shouldFindStartedUploadWithoutStorage() {
+        final UploadSessions sessions = new UploadSessions();
+        final RepoName name = new RepoName.Simple("my-repo");
+        final Upload upload = new AstoUploads(
+            new InMemoryStorage(), new DefaultLayout(), name, sessions
+        ).start().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            sessions.find(name, upload.uuid()).isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldNotFindUploadFromOtherRepo() {
+        final UploadSessions sessions = new UploadSessions();
+        sessions.started(new RepoName.Simple("one"), "abc");
+        MatcherAssert.assertThat(
+            sessions.find(new RepoName.Simple("two"), "abc").isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void shouldTrackAppendedOffset() {
+        final UploadSessions sessions = new UploadSessions();
+        final RepoName name = new RepoName.Simple("repo");
+        final Upload upload = new AstoUploads(
+            new InMemoryStorage(), new DefaultLayout(), name, sessions
+        ).start().toCompletableFuture().join();
+        upload.append(Flowable.just(ByteBuffer.wrap("abc".getBytes())))
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            sessions.find(name, upload.uuid()).get().offset(),
+            new IsEqual<>(2L)
+        );
+    }
+
+    @Test
+    void shouldForgetFinishedUpload() {
+        final UploadSessions sessions = new UploadSessions();
+        final RepoName name = new RepoName.Simple("repo");
+        final InMemoryStorage storage = new InMemoryStorage();
+        final Upload upload = new AstoUploads(storage, new DefaultLayout(), name, sessions)
+            .start().toCompletableFuture().join();
+        final byte[] data = "chunk".getBytes();
+        upload.append(Flowable.just(ByteBuffer.wrap(data))).toCompletableFuture().join();
+        upload.putTo(
+            new AstoLayers(new AstoBlobs(storage, new DefaultLayout(), name)),
+            new Digest.Sha256(data)
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            sessions.find(name, upload.uuid()).isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void shouldFallBackToStorageForUnknownUpload() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final RepoName name = new RepoName.Simple("repo");
+        final String uuid = new AstoUploads(storage, new DefaultLayout(), name)
+            .start().toCompletableFuture().join().uuid();
+        MatcherAssert.assertThat(
+            new AstoUploads(storage, new DefaultLayout(), name, new UploadSessions())
+                .get(uuid).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldDropLeastRecentlyUsedSession() {
+        final UploadSessions sessions = new UploadSessions(
+            Clock.systemUTC(), Duration.ofHours(1), 2
+        );
+        final RepoName name = new RepoName.Simple("repo");
+        sessions.started(name, "first");
+        sessions.started(name, "second");
+        sessions.find(name, "first");
+        sessions.started(name, "third");
+        MatcherAssert.assertThat(
+            "Least recently used session is dropped",
+            sessions.find(name, "second").isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Recently used session is kept",
+            sessions.find(name, "first").isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldNotFindExpiredUpload() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final RepoName name = new RepoName.Simple("repo");
+        final Instant start = Instant.now();
+        final String uuid = new AstoUploads(
+            storage, new DefaultLayout(), name,
+            new UploadSessions(Clock.fixed(start, ZoneOffset.UTC), Duration.ofHours(1))
+        ).start().toCompletableFuture().join().uuid();
+        MatcherAssert.assertThat(
+            new AstoUploads(
+                storage, new DefaultLayout(), name,
+                new UploadSessions(
+                    Clock.fixed(start.plus(Duration.ofHours(2)), ZoneOffset.UTC),
+                    Duration.ofHours(1)
+                )
+            ).get(uuid).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+    }
+}
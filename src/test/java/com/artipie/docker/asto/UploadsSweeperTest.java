@@ -0,0 +1,380 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.asto;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Upload;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link UploadsSweeper}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class UploadsSweeperTest {
+
+    /**
+     * Upload TTL.
+     */
+    private static final Duration TTL = Duration.ofHours(1);
+
+    /**
+     * Storage.
+     */
+    private Storage storage;
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    /**
+     * Upload sessions.
+     */
+    private UploadSessions sessions;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+        this.clock = new MovingClock();
+        this.sessions = new UploadSessions(this.clock, UploadsSweeperTest.TTL);
+    }
+
+    @Test
+    void shouldRemoveExpiredUpload() {
+        final RepoName name = new RepoName.Simple("my-alpine");
+        final Upload upload = this.uploads(name, new UploadSessions(this.clock))
+            .start().toCompletableFuture().join();
+        this.clock.forward(UploadsSweeperTest.TTL.plusMinutes(1));
+        final UploadsSweeper sweeper = this.sweeper(2);
+        MatcherAssert.assertThat(
+            "Upload removed",
+            sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Upload keys removed",
+            this.storage.list(new DefaultLayout().upload(name, upload.uuid()))
+                .join().isEmpty(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldKeepFreshUpload() {
+        final RepoName name = new RepoName.Simple("fresh");
+        final Upload upload = this.uploads(name, new UploadSessions(this.clock))
+            .start().toCompletableFuture().join();
+        this.clock.forward(UploadsSweeperTest.TTL.minusMinutes(1));
+        this.sweeper(2).sweep().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            this.uploads(name, this.sessions).get(upload.uuid())
+                .toCompletableFuture().join().isPresent(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void shouldKeepActiveSession() {
+        final RepoName name = new RepoName.Simple("active");
+        final Upload upload = this.uploads(name, this.sessions)
+            .start().toCompletableFuture().join();
+        this.clock.forward(UploadsSweeperTest.TTL.minusMinutes(1));
+        this.sessions.started(name, upload.uuid());
+        this.clock.forward(Duration.ofMinutes(2));
+        MatcherAssert.assertThat(
+            this.sweeper(2).sweep().toCompletableFuture().join(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void shouldExpireLegacyUploadAfterFirstSeen() {
+        final Key root = new DefaultLayout().upload(new RepoName.Simple("legacy"), "old");
+        this.storage.save(new Key.From(root, "started"), new Content.From(new byte[0])).join();
+        final UploadsSweeper sweeper = this.sweeper(2);
+        MatcherAssert.assertThat(
+            "Legacy upload kept when first seen",
+            sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(0)
+        );
+        this.clock.forward(UploadsSweeperTest.TTL.plusMinutes(1));
+        MatcherAssert.assertThat(
+            "Legacy upload removed after TTL",
+            sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void shouldRemoveInBoundedBatches() {
+        final UploadSessions initial = new UploadSessions(this.clock);
+        for (final String repo : new String[] {"one", "two", "three"}) {
+            this.uploads(new RepoName.Simple(repo), initial)
+                .start().toCompletableFuture().join();
+        }
+        this.clock.forward(UploadsSweeperTest.TTL.plusMinutes(1));
+        final UploadsSweeper sweeper = this.sweeper(2);
+        MatcherAssert.assertThat(
+            "First batch removed",
+            sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Second batch removed",
+            sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void shouldSweepRepositoryRegisteredByUpload() {
+        final CatalogIndex catalog = new CatalogIndex(this.storage, new DefaultLayout());
+        final UploadsSweeper sweeper = new UploadsSweeper(
+            this.storage, new DefaultLayout(), this.sessions, catalog, 2
+        );
+        sweeper.sweep().toCompletableFuture().join();
+        new AstoUploads(
+            this.storage, new DefaultLayout(), new RepoName.Simple("late"),
+            new UploadSessions(this.clock), catalog
+        ).start().toCompletableFuture().join();
+        this.clock.forward(UploadsSweeperTest.TTL.plusMinutes(1));
+        MatcherAssert.assertThat(
+            sweeper.sweep().toCompletableFuture().join(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void shouldRemoveUploadsByBoundedLanes() throws InterruptedException {
+        final RepoName name = new RepoName.Simple("many");
+        final UploadSessions initial = new UploadSessions(this.clock);
+        final int total = 10;
+        for (int idx = 0; idx < total; idx += 1) {
+            this.uploads(name, initial).start().toCompletableFuture().join();
+        }
+        this.clock.forward(UploadsSweeperTest.TTL.plusMinutes(1));
+        final PendingDeletes pending = new PendingDeletes(this.storage);
+        final CompletableFuture<Integer> sweep = new UploadsSweeper(
+            pending, new DefaultLayout(), this.sessions, 2
+        ).sweep().toCompletableFuture();
+        int max = 0;
+        for (int step = 0; step < 1000 && !sweep.isDone(); step += 1) {
+            Thread.sleep(10);
+            max = Math.max(max, pending.size());
+            pending.complete();
+        }
+        MatcherAssert.assertThat(
+            "All uploads removed",
+            sweep.join(),
+            new IsEqual<>(total)
+        );
+        MatcherAssert.assertThat(
+            "Deletes are bounded by lanes",
+            max,
+            Matchers.lessThanOrEqualTo(4)
+        );
+    }
+
+    /**
+     * Create uploads.
+     *
+     * @param name Repository name.
+     * @param registry Upload sessions.
+     * @return Uploads.
+     */
+    private AstoUploads uploads(final RepoName name, final UploadSessions registry) {
+        return new AstoUploads(this.storage, new DefaultLayout(), name, registry);
+    }
+
+    /**
+     * Create sweeper.
+     *
+     * @param batch Batch size.
+     * @return Sweeper.
+     */
+    private UploadsSweeper sweeper(final int batch) {
+        return new UploadsSweeper(this.storage, new DefaultLayout(), this.sessions, batch);
+    }
+
+    /**
+     * Storage which keeps deletes pending until they are completed by test.
+     *
+     * @since 0.13
+     */
+    private static final class PendingDeletes implements Storage {
+
+        /**
+         * Origin storage.
+         */
+        private final Storage origin;
+
+        /**
+         * Pending deletes by key.
+         */
+        private final Map<Key, CompletableFuture<Void>> pending;
+
+        /**
+         * Ctor.
+         *
+         * @param origin Origin storage.
+         */
+        PendingDeletes(final Storage origin) {
+            this.origin = origin;
+            this.pending = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public CompletableFuture<Boolean> exists(final Key key) {
+            return this.origin.exists(key);
+        }
+
+        @Override
+        public CompletableFuture<Collection<Key>> list(final Key key) {
+            return this.origin.list(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> save(final Key key, final Content content) {
+            return this.origin.save(key, content);
+        }
+
+        @Override
+        public CompletableFuture<Void> move(final Key source, final Key target) {
+            return this.origin.move(source, target);
+        }
+
+        @Override
+        public CompletableFuture<Long> size(final Key key) {
+            return this.origin.size(key);
+        }
+
+        @Override
+        public CompletableFuture<Content> value(final Key key) {
+            return this.origin.value(key);
+        }
+
+        @Override
+        public CompletableFuture<Void> delete(final Key key) {
+            final CompletableFuture<Void> res = new CompletableFuture<>();
+            this.pending.put(key, res);
+            return res;
+        }
+
+        @Override
+        public <T> CompletionStage<T> exclusively(
+            final Key key,
+            final Function<Storage, CompletionStage<T>> function
+        ) {
+            return this.origin.exclusively(key, function);
+        }
+
+        /**
+         * Number of pending deletes.
+         *
+         * @return Number of deletes.
+         */
+        int size() {
+            return this.pending.size();
+        }
+
+        /**
+         * Complete deletes pending now.
+         */
+        void complete() {
+            for (final Key key : new ArrayList<>(this.pending.keySet())) {
+                this.origin.delete(key).join();
+                this.pending.remove(key).complete(null);
+            }
+        }
+    }
+
+    /**
+     * Clock that could be moved forward.
+     *
+     * @since 0.13
+     */
+    private static final class MovingClock extends Clock {
+
+        /**
+         * Current time.
+         */
+        private final AtomicReference<Instant> now;
+
+        /**
+         * Ctor.
+         */
+        MovingClock() {
+            super();
+            this.now = new AtomicReference<>(Instant.EPOCH);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return this.now.get();
+        }
+
+        /**
+         * Move clock forward.
+         *
+         * @param duration Duration.
+         */
+        void forward(final Duration duration) {
+            this.now.set(this.now.get().plus(duration));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.cache;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.Key;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.Tag;
+import com.artipie.docker.asto.BlobRefs;
+import com.artipie.docker.asto.DefaultLayout;
+import com.artipie.docker.asto.TagsIndex;
+import com.artipie.docker.fake.MovingClock;
+import com.artipie.docker.ref.ManifestRef;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CacheEviction}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class CacheEvictionTest {
+
+    /**
+     * Repository name.
+     */
+    private static final RepoName REPO = new RepoName.Simple("my/repo");
+
+    /**
+     * Storage.
+     */
+    private InMemoryStorage storage;
+
+    /**
+     * Layout.
+     */
+    private DefaultLayout layout;
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    /**
+     * Access log.
+     */
+    private StoredBlobAccess access;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new InMemoryStorage();
+        this.layout = new DefaultLayout();
+        this.clock = new MovingClock();
+        this.access = new StoredBlobAccess(this.storage, this.layout, this.clock, 100);
+    }
+
+    @Test
+    void doesNothingBelowHighWatermark() {
+        this.blob(new byte[100]);
+        final CacheEviction.Report report = new CacheEviction(
+            this.storage, this.layout, this.access, 50, 100, this.clock
+        ).evict().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Nothing is evicted",
+            report.evicted(),
+            new IsEqual<>(Collections.emptyList())
+        );
+        MatcherAssert.assertThat(
+            "Cache size is reported",
+            report.after(),
+            new IsEqual<>(100L)
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBlobsWithDanglingManifests() {
+        final Digest old = this.blob(new byte[100]);
+        final Digest recent = this.blob(new byte[200]);
+        final Digest first = this.manifest(old, "one");
+        final Digest second = this.manifest(recent, "two");
+        this.access.touch(old);
+        this.clock.forward(Duration.ofSeconds(1));
+        this.access.touch(first);
+        this.clock.forward(Duration.ofSeconds(1));
+        this.access.touch(recent);
+        this.access.touch(second);
+        final CacheEviction.Report report = new CacheEviction(
+            this.storage, this.layout, this.access, 400, 450, this.clock
+        ).evict().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Least recently used blob is evicted",
+            report.evicted(),
+            new IsEqual<>(Collections.singletonList(old.string()))
+        );
+        MatcherAssert.assertThat(
+            "Evicted blob is removed",
+            this.storage.exists(this.layout.blob(CacheEvictionTest.REPO, old)).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Dangling tag is removed",
+            this.exists(new ManifestRef.FromTag(new Tag.Valid("one"))),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Dangling revision is removed",
+            this.exists(new ManifestRef.FromDigest(first)),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Other tag is kept",
+            this.exists(new ManifestRef.FromTag(new Tag.Valid("two"))),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Other revision is kept",
+            this.exists(new ManifestRef.FromDigest(second)),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void forgetsTagsOfRemovedManifests() {
+        final Digest old = this.blob(new byte[100]);
+        final Digest recent = this.blob(new byte[200]);
+        final Digest first = this.manifest(old, "one");
+        final Digest second = this.manifest(recent, "two");
+        this.access.touch(old);
+        this.clock.forward(Duration.ofSeconds(1));
+        this.access.touch(first);
+        this.clock.forward(Duration.ofSeconds(1));
+        this.access.touch(recent);
+        this.access.touch(second);
+        final TagsIndex tags = new TagsIndex(this.storage, this.layout);
+        tags.tags(CacheEvictionTest.REPO, Optional.empty(), 10).toCompletableFuture().join();
+        new CacheEviction(
+            this.storage, this.layout, this.access, 400, 450, this.clock, tags
+        ).evict().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tags.tags(CacheEvictionTest.REPO, Optional.empty(), 10)
+                .toCompletableFuture().join().stream()
+                .map(Tag::value)
+                .collect(Collectors.toList()),
+            new IsEqual<>(Collections.singletonList("two"))
+        );
+    }
+
+    @Test
+    void removesBlobReferencesOfDanglingManifests() {
+        final Digest old = this.blob(new byte[100]);
+        final Digest recent = this.blob(new byte[200]);
+        final Digest first = this.manifest(old, "one");
+        final Digest second = this.manifest(recent, "two");
+        final BlobRefs refs = new BlobRefs(this.storage, this.layout);
+        refs.add(CacheEvictionTest.REPO, first, Arrays.asList(first, old))
+            .toCompletableFuture().join();
+        refs.add(CacheEvictionTest.REPO, second, Arrays.asList(second, recent))
+            .toCompletableFuture().join();
+        this.access.touch(old);
+        this.clock.forward(Duration.ofSeconds(1));
+        this.access.touch(first);
+        this.clock.forward(Duration.ofSeconds(1));
+        this.access.touch(recent);
+        this.access.touch(second);
+        new CacheEviction(
+            this.storage, this.layout, this.access, 400, 450, this.clock
+        ).evict().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "References of removed manifest are removed",
+            refs.referenced(old).toCompletableFuture().join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "References of kept manifest are kept",
+            refs.referenced(recent).toCompletableFuture().join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void keepsBlobsFirstSeenByEviction() {
+        final Digest old = this.blob(new byte[100]);
+        this.access.touch(old);
+        this.clock.forward(Duration.ofSeconds(1));
+        final Digest fresh = this.blob(new byte[100]);
+        MatcherAssert.assertThat(
+            new CacheEviction(
+                this.storage, this.layout, this.access, 100, 150, this.clock
+            ).evict().toCompletableFuture().join().evicted(),
+            new IsEqual<>(Collections.singletonList(old.string()))
+        );
+        MatcherAssert.assertThat(
+            "Fresh blob is kept",
+            this.storage.exists(this.layout.blob(CacheEvictionTest.REPO, fresh)).join(),
+            new IsEqual<>(true)
+        );
+    }
+
+    /**
+     * Save blob.
+     *
+     * @param data Blob data, should be unique.
+     * @return Blob digest.
+     */
+    private Digest blob(final byte[] data) {
+        final byte[] unique = data.clone();
+        unique[0] = (byte) this.storage.list(Key.ROOT).join().size();
+        final Digest digest = new Digest.Sha256(DigestUtils.sha256Hex(unique));
+        this.storage.save(
+            this.layout.blob(CacheEvictionTest.REPO, digest), new Content.From(unique)
+        ).join();
+        return digest;
+    }
+
+    /**
+     * Save manifest referencing layer with tag.
+     *
+     * @param layer Layer digest.
+     * @param tag Tag.
+     * @return Manifest digest.
+     */
+    private Digest manifest(final Digest layer, final String tag) {
+        final Digest digest = this.blob(
+            String.format("{\"layers\":[{\"digest\":\"%s\"}]}", layer.string())
+                .getBytes(StandardCharsets.US_ASCII)
+        );
+        this.link(new ManifestRef.FromDigest(digest), digest);
+        this.link(new ManifestRef.FromTag(new Tag.Valid(tag)), digest);
+        return digest;
+    }
+
+    /**
+     * Save manifest link.
+     *
+     * @param ref Manifest reference.
+     * @param digest Manifest digest.
+     */
+    private void link(final ManifestRef ref, final Digest digest) {
+        this.storage.save(
+            this.layout.manifest(CacheEvictionTest.REPO, ref),
+            new Content.From(digest.string().getBytes(StandardCharsets.US_ASCII))
+        ).join();
+    }
+
+    /**
+     * Check manifest link exists.
+     *
+     * @param ref Manifest reference.
+     * @return True if exists.
+     */
+    private boolean exists(final ManifestRef ref) {
+        return this.storage.exists(this.layout.manifest(CacheEvictionTest.REPO, ref)).join();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.cache;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.Storage;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Docker;
+import com.artipie.docker.ExampleStorage;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.asto.AstoDocker;
+import com.artipie.docker.ref.ManifestRef;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CacheWarmup}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class CacheWarmupTest {
+
+    /**
+     * Repository name.
+     */
+    private static final RepoName REPO = new RepoName.Simple("my-alpine");
+
+    /**
+     * Origin storage.
+     */
+    private Storage storage;
+
+    /**
+     * Cache repository.
+     */
+    private Docker cache;
+
+    @BeforeEach
+    void setUp() {
+        this.storage = new ExampleStorage();
+        this.cache = new AstoDocker(new InMemoryStorage());
+    }
+
+    @Test
+    void warmsCacheWithImages() {
+        final AtomicInteger progress = new AtomicInteger();
+        final CacheWarmup.Report report = new CacheWarmup(
+            new AstoDocker(this.storage), this.cache
+        ).warm(
+            Arrays.asList("my-alpine:1", "my-alpine"),
+            (digest, done, total) -> progress.incrementAndGet()
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "All images are warmed",
+            report.warmed(),
+            new IsEqual<>(Arrays.asList("my-alpine:1", "my-alpine"))
+        );
+        MatcherAssert.assertThat(
+            "Shared blobs are copied once",
+            report.copied(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Progress is reported per blob",
+            progress.get(),
+            new IsEqual<>(2)
+        );
+        MatcherAssert.assertThat(
+            "Manifest is cached by tag",
+            this.cached("1"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Manifest is cached for default tag",
+            this.cached("latest"),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void skipsCachedBlobs() {
+        final CacheWarmup warmup = new CacheWarmup(new AstoDocker(this.storage), this.cache);
+        warmup.warm(Collections.singletonList("my-alpine:1")).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            warmup.warm(
+                Collections.singletonList(
+                    String.join(
+                        "@",
+                        "my-alpine",
+                        "sha256:cb8a924afdf0229ef7515d9e5b3024e23b3eb03ddbba287f4a19c6ac90b8d221"
+                    )
+                )
+            ).toCompletableFuture().join().copied(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void reportsImagesMissingInOrigin() {
+        final CacheWarmup.Report report = new CacheWarmup(
+            new AstoDocker(this.storage), this.cache
+        ).warm(Arrays.asList("my-alpine:1", "my-alpine:2")).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Existing image is warmed",
+            report.warmed(),
+            new IsEqual<>(Collections.singletonList("my-alpine:1"))
+        );
+        MatcherAssert.assertThat(
+            "Missing image is reported",
+            report.failed(),
+            new IsEqual<>(Collections.singletonList("my-alpine:2"))
+        );
+    }
+
+    @Test
+    void doesNotCacheManifestWithMissingBlob() {
+        this.storage.delete(
+            new Key.From(
+                "blobs", "sha256", "a1",
+                "a187dde48cd289ac374ad8539930628314bc581a481cdb41409c9289419ddb72", "data"
+            )
+        ).join();
+        final CacheWarmup.Report report = new CacheWarmup(
+            new AstoDocker(this.storage), this.cache
+        ).warm(Collections.singletonList("my-alpine:1")).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Image is reported as failed",
+            report.failed(),
+            new IsEqual<>(Collections.singletonList("my-alpine:1"))
+        );
+        MatcherAssert.assertThat(
+            "Manifest is not cached",
+            this.cached("1"),
+            new IsEqual<>(false)
+        );
+    }
+
+    /**
+     * Check manifest is cached.
+     *
+     * @param tag Manifest tag.
+     * @return True if cached.
+     */
+    private boolean cached(final String tag) {
+        return this.cache.repo(CacheWarmupTest.REPO).manifests()
+            .get(new ManifestRef.FromString(tag))
+            .toCompletableFuture().join()
+            .isPresent();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.cache;
+
+import com.artipie.asto.Key;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.asto.DefaultLayout;
+import com.artipie.docker.fake.MovingClock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link StoredBlobAccess}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class StoredBlobAccessTest {
+
+    @Test
+    void keepsAccessesInMemoryUntilFlush() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final StoredBlobAccess access = new StoredBlobAccess(
+            storage, new DefaultLayout(), new MovingClock(), 10
+        );
+        access.touch(new Digest.Sha256("aaa"));
+        MatcherAssert.assertThat(
+            "Not written on touch",
+            storage.exists(new Key.From("_cache/times/sha256/aa")).join(),
+            new IsEqual<>(false)
+        );
+        access.flush().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Written on flush",
+            new PublisherAs(storage.value(new Key.From("_cache/times/sha256/aa")).join())
+                .asciiString().toCompletableFuture().join(),
+            new IsEqual<>("sha256:aaa 0\n")
+        );
+    }
+
+    @Test
+    void keepsAccessesInShardsByDigestPrefix() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final StoredBlobAccess access = new StoredBlobAccess(
+            storage, new DefaultLayout(), new MovingClock(), 10
+        );
+        access.touch(new Digest.Sha256("aaa"));
+        access.touch(new Digest.Sha256("bbb"));
+        access.flush().toCompletableFuture().join();
+        access.update(
+            times -> {
+                times.remove("sha256:aaa");
+                return times;
+            }
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Shard without accesses is removed",
+            storage.exists(new Key.From("_cache/times/sha256/aa")).join(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Other shard is kept",
+            new PublisherAs(storage.value(new Key.From("_cache/times/sha256/bb")).join())
+                .asciiString().toCompletableFuture().join(),
+            new IsEqual<>("sha256:bbb 0\n")
+        );
+    }
+
+    @Test
+    void flushesFullBatch() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final StoredBlobAccess access = new StoredBlobAccess(
+            storage, new DefaultLayout(), new MovingClock(), 2
+        );
+        access.touch(new Digest.Sha256("aaa"));
+        access.touch(new Digest.Sha256("bbb"));
+        MatcherAssert.assertThat(
+            access.update(times -> times).toCompletableFuture().join().size(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void keepsLatestAccess() {
+        final MovingClock clock = new MovingClock();
+        final StoredBlobAccess access = new StoredBlobAccess(
+            new InMemoryStorage(), new DefaultLayout(), clock, 10
+        );
+        final Digest digest = new Digest.Sha256("ccc");
+        access.touch(digest);
+        access.flush().toCompletableFuture().join();
+        clock.forward(Duration.ofMinutes(1));
+        access.touch(digest);
+        final Map<String, Instant> expected = new HashMap<>();
+        expected.put(digest.string(), Instant.EPOCH.plus(Duration.ofMinutes(1)));
+        MatcherAssert.assertThat(
+            access.update(times -> times).toCompletableFuture().join(),
+            new IsEqual<>(expected)
+        );
+    }
+
+    @Test
+    void keepsPendingAccessesOnFailedUpdate() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        final StoredBlobAccess access = new StoredBlobAccess(
+            storage, new DefaultLayout(), new MovingClock(), 10
+        );
+        access.touch(new Digest.Sha256("ddd"));
+        Assertions.assertThrows(
+            Exception.class,
+            () -> access.update(
+                times -> {
+                    throw new IllegalStateException("Update failed");
+                }
+            ).toCompletableFuture().join()
+        );
+        access.flush().toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            new PublisherAs(storage.value(new Key.From("_cache/times/sha256/dd")).join())
+                .asciiString().toCompletableFuture().join(),
+            new IsEqual<>("sha256:ddd 0\n")
+        );
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.docker.misc.CircuitBreaker;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests for {@link HedgedReads}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class HedgedReadsTest {
+
+    @Test
+    void doesNotAskNextWhenFirstAnswers() {
+        final AtomicInteger calls = new AtomicInteger();
+        MatcherAssert.assertThat(
+            "Returns value of first member",
+            new HedgedReads(new MemberLatency(Duration.ofHours(1))).first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> CompletableFuture.completedFuture(Optional.of("one")),
+                    () -> {
+                        calls.incrementAndGet();
+                        return CompletableFuture.completedFuture(Optional.of("two"));
+                    }
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("one"))
+        );
+        MatcherAssert.assertThat(
+            "Second member is not asked",
+            calls.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void asksNextImmediatelyWhenAbsentOrFailed() {
+        final CompletableFuture<Optional<String>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+        MatcherAssert.assertThat(
+            new HedgedReads(new MemberLatency(Duration.ofHours(1))).first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> CompletableFuture.completedFuture(Optional.empty()),
+                    () -> failed,
+                    () -> CompletableFuture.completedFuture(Optional.of("three"))
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("three"))
+        );
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void hedgesSlowMemberAndCancelsIt() {
+        final CompletableFuture<Optional<String>> slow = new CompletableFuture<>();
+        MatcherAssert.assertThat(
+            "Returns value of fast member",
+            new HedgedReads(new MemberLatency(Duration.ofMillis(10))).first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> slow,
+                    () -> CompletableFuture.completedFuture(Optional.of("fast"))
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("fast"))
+        );
+        MatcherAssert.assertThat(
+            "Slow member read is cancelled",
+            slow.isCancelled(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void prefersFirstMemberWhenItAnswersAfterHedge() {
+        final CompletableFuture<Optional<String>> first = new CompletableFuture<>();
+        final CompletableFuture<Optional<String>> second = new CompletableFuture<>();
+        final CompletionStage<Optional<String>> res =
+            new HedgedReads(new MemberLatency(Duration.ofMillis(1))).first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> first,
+                    () -> second
+                )
+            );
+        while (second.getNumberOfDependents() == 0) {
+            Thread.yield();
+        }
+        first.complete(Optional.of("first"));
+        MatcherAssert.assertThat(
+            "Returns value of first member",
+            res.toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("first"))
+        );
+        MatcherAssert.assertThat(
+            "Hedged read is cancelled",
+            second.isCancelled(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void returnsEmptyWhenNoMemberHasValue() {
+        MatcherAssert.assertThat(
+            new HedgedReads().first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> CompletableFuture.completedFuture(Optional.empty()),
+                    () -> CompletableFuture.completedFuture(Optional.empty())
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void returnsEmptyWithoutMembers() {
+        MatcherAssert.assertThat(
+            new HedgedReads().<String>first(Collections.emptyList())
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void skipsMemberWithOpenCircuit() {
+        final MemberBreakers breakers = new MemberBreakers(
+            () -> new CircuitBreaker(Clock.systemUTC(), 0.5, 2, Duration.ofHours(1))
+        );
+        final AtomicInteger calls = new AtomicInteger();
+        final HedgedReads reads = new HedgedReads(
+            new MemberLatency(Duration.ofHours(1)), breakers, HedgedReads.TIMERS
+        );
+        final List<Supplier<CompletionStage<Optional<String>>>> members = Arrays.asList(
+            () -> {
+                calls.incrementAndGet();
+                return new FailedCompletionStage<>(new IllegalStateException());
+            },
+            () -> CompletableFuture.completedFuture(Optional.of("two"))
+        );
+        reads.first(members).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Returns value of next member",
+            reads.first(members).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("two"))
+        );
+        MatcherAssert.assertThat(
+            "Member with open circuit is not called",
+            calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import java.time.Duration;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MemberLatency}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class MemberLatencyTest {
+
+    @Test
+    void usesInitialDelayWithoutSamples() {
+        MatcherAssert.assertThat(
+            new MemberLatency(Duration.ofMillis(42)).delay(0),
+            new IsEqual<>(Duration.ofMillis(42))
+        );
+    }
+
+    @Test
+    void derivesDelayFromSamples() {
+        final MemberLatency latency = new MemberLatency(
+            Duration.ofSeconds(1), Duration.ofMillis(1), Duration.ofSeconds(10)
+        );
+        latency.record(1, Duration.ofMillis(100));
+        MatcherAssert.assertThat(
+            "Delay is mean plus four deviations",
+            latency.delay(1),
+            new IsEqual<>(Duration.ofMillis(300))
+        );
+        for (int idx = 0; idx < 100; idx += 1) {
+            latency.record(1, Duration.ofMillis(100));
+        }
+        MatcherAssert.assertThat(
+            "Delay converges to stable latency",
+            latency.delay(1).toMillis(),
+            new IsEqual<>(100L)
+        );
+    }
+
+    @Test
+    void boundsDelay() {
+        final MemberLatency latency = new MemberLatency(
+            Duration.ofSeconds(1), Duration.ofMillis(20), Duration.ofMillis(50)
+        );
+        latency.record(0, Duration.ofMillis(1));
+        latency.record(1, Duration.ofSeconds(1));
+        MatcherAssert.assertThat(
+            "Delay is not less than min",
+            latency.delay(0),
+            new IsEqual<>(Duration.ofMillis(20))
+        );
+        MatcherAssert.assertThat(
+            "Delay is not greater than max",
+            latency.delay(1),
+            new IsEqual<>(Duration.ofMillis(50))
+        );
+    }
+
+    @Test
+    void countsTimeouts() {
+        final MemberLatency latency = new MemberLatency();
+        latency.timeout(1);
+        latency.timeout(1);
+        MatcherAssert.assertThat(
+            latency.timeouts(),
+            new IsEqual<>(Collections.singletonMap(1, 2L))
+        );
+    }
+}
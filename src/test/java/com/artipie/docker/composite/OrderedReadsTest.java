@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests for {@link OrderedReads}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class OrderedReadsTest {
+
+    @Test
+    void returnsLowerPriorityValueWhenHigherAbsent() {
+        final CompletableFuture<Optional<String>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+        MatcherAssert.assertThat(
+            new OrderedReads().first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> CompletableFuture.completedFuture(Optional.empty()),
+                    () -> failed,
+                    () -> CompletableFuture.completedFuture(Optional.of("three"))
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("three"))
+        );
+    }
+
+    @Test
+    void waitsForHigherPriorityMember() {
+        final CompletableFuture<Optional<String>> first = new CompletableFuture<>();
+        final CompletableFuture<Optional<String>> res = new OrderedReads().first(
+            Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                () -> first,
+                () -> CompletableFuture.completedFuture(Optional.of("second"))
+            )
+        ).toCompletableFuture();
+        MatcherAssert.assertThat(
+            "Not resolved while first member is pending",
+            res.isDone(),
+            new IsEqual<>(false)
+        );
+        first.complete(Optional.of("first"));
+        MatcherAssert.assertThat(
+            "Resolved with first member value",
+            res.join(),
+            new IsEqual<>(Optional.of("first"))
+        );
+    }
+
+    @Test
+    void doesNotWaitForLowerPriorityMember() {
+        final CompletableFuture<Optional<String>> first = new CompletableFuture<>();
+        final CompletableFuture<Optional<String>> slow = new CompletableFuture<>();
+        final CompletableFuture<Optional<String>> res = new OrderedReads().first(
+            Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                () -> first,
+                () -> slow
+            )
+        ).toCompletableFuture();
+        first.complete(Optional.of("first"));
+        MatcherAssert.assertThat(
+            "Resolved with first member value",
+            res.getNow(Optional.empty()),
+            new IsEqual<>(Optional.of("first"))
+        );
+        MatcherAssert.assertThat(
+            "Lower priority read is cancelled",
+            slow.isCancelled(),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void skipsTimedOutMember() {
+        final MemberLatency latency = new MemberLatency();
+        MatcherAssert.assertThat(
+            "Resolved with value of member after timed out one",
+            new OrderedReads(latency, Duration.ofMillis(10)).first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    CompletableFuture::new,
+                    () -> CompletableFuture.completedFuture(Optional.of("second"))
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("second"))
+        );
+        MatcherAssert.assertThat(
+            "Timeout is counted",
+            latency.timeouts(),
+            new IsEqual<>(Collections.singletonMap(0, 1L))
+        );
+    }
+
+    @Test
+    void returnsEmptyWhenNoMemberHasValue() {
+        MatcherAssert.assertThat(
+            new OrderedReads().first(
+                Arrays.<Supplier<CompletionStage<Optional<String>>>>asList(
+                    () -> CompletableFuture.completedFuture(Optional.empty()),
+                    () -> CompletableFuture.completedFuture(Optional.empty())
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+
+    @Test
+    void returnsEmptyWithoutMembers() {
+        MatcherAssert.assertThat(
+            new OrderedReads().<String>first(Collections.emptyList())
+                .toCompletableFuture().join(),
+            new IsEqual<>(Optional.empty())
+        );
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.composite;
+
+import com.artipie.docker.RepoName;
+import com.artipie.docker.fake.MovingClock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RepoRoutes}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class RepoRoutesTest {
+
+    /**
+     * Item of repository.
+     */
+    private static final String ITEM = "manifests/latest";
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    /**
+     * Routes remembering hits for a minute and misses for 10 seconds.
+     */
+    private RepoRoutes routes;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new MovingClock();
+        this.routes = new RepoRoutes(
+            this.clock, Duration.ofMinutes(1), Duration.ofSeconds(10), 100
+        );
+    }
+
+    @Test
+    void doesNotSkipUnknownMember() {
+        MatcherAssert.assertThat(
+            this.routes.route(new RepoName.Simple("unknown")).skip(RepoRoutesTest.ITEM, 0),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotSkipMissWhenNoMemberServes() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("nowhere"));
+        route.served(RepoRoutesTest.ITEM, 0, false);
+        route.served(RepoRoutesTest.ITEM, 1, false);
+        MatcherAssert.assertThat(route.skip(RepoRoutesTest.ITEM, 0), new IsEqual<>(false));
+    }
+
+    @Test
+    void skipsMissWhenOtherMemberServes() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("elsewhere"));
+        route.served(RepoRoutesTest.ITEM, 0, false);
+        route.served(RepoRoutesTest.ITEM, 1, true);
+        MatcherAssert.assertThat(
+            "Member without repository is skipped",
+            route.skip(RepoRoutesTest.ITEM, 0),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Member serving repository is not skipped",
+            route.skip(RepoRoutesTest.ITEM, 1),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Other repository is not affected",
+            this.routes.route(new RepoName.Simple("other")).skip(RepoRoutesTest.ITEM, 0),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void doesNotSkipMemberForOtherItems() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("items"));
+        route.served(RepoRoutesTest.ITEM, 0, false);
+        route.served(RepoRoutesTest.ITEM, 1, true);
+        route.served("manifests/1.0", 1, true);
+        MatcherAssert.assertThat(route.skip("manifests/1.0", 0), new IsEqual<>(false));
+    }
+
+    @Test
+    void learnsNothingWithoutRoutes() {
+        final RepoRoutes.Route route = RepoRoutes.NONE.route(new RepoName.Simple("none"));
+        route.served(RepoRoutesTest.ITEM, 0, false);
+        route.served(RepoRoutesTest.ITEM, 1, true);
+        MatcherAssert.assertThat(route.skip(RepoRoutesTest.ITEM, 0), new IsEqual<>(false));
+    }
+
+    @Test
+    void forgetsExpiredMiss() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("expired"));
+        route.served(RepoRoutesTest.ITEM, 0, false);
+        route.served(RepoRoutesTest.ITEM, 1, true);
+        this.clock.forward(Duration.ofSeconds(10));
+        MatcherAssert.assertThat(route.skip(RepoRoutesTest.ITEM, 0), new IsEqual<>(false));
+    }
+
+    @Test
+    void readsOnlyServingMemberInSteadyState() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("steady"));
+        final AtomicInteger first = new AtomicInteger();
+        final AtomicInteger second = new AtomicInteger();
+        final List<Supplier<CompletionStage<Optional<String>>>> reads = Arrays.asList(
+            () -> {
+                first.incrementAndGet();
+                return CompletableFuture.completedFuture(Optional.empty());
+            },
+            () -> {
+                second.incrementAndGet();
+                return CompletableFuture.completedFuture(Optional.of("two"));
+            }
+        );
+        final HedgedReads hedged = new HedgedReads();
+        for (int idx = 0; idx < 3; idx += 1) {
+            MatcherAssert.assertThat(
+                "Returns value of serving member",
+                hedged.first(route.reads(() -> RepoRoutesTest.ITEM, reads))
+                    .toCompletableFuture().join(),
+                new IsEqual<>(Optional.of("two"))
+            );
+        }
+        MatcherAssert.assertThat(
+            "Member without repository is asked once",
+            first.get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Serving member is asked every time",
+            second.get(),
+            new IsEqual<>(3)
+        );
+    }
+
+    @Test
+    void readsSingleKnownMemberForOtherItem() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("known"));
+        final AtomicInteger first = new AtomicInteger();
+        final AtomicInteger second = new AtomicInteger();
+        final AtomicInteger third = new AtomicInteger();
+        final List<Supplier<CompletionStage<Optional<String>>>> reads = Arrays.asList(
+            RepoRoutesTest.member(first, Optional.empty()),
+            RepoRoutesTest.member(second, Optional.empty()),
+            RepoRoutesTest.member(third, Optional.of("three"))
+        );
+        final HedgedReads hedged = new HedgedReads();
+        route.first(() -> "blobs/one", reads, hedged::first).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Returns value of known member for other item",
+            route.first(() -> "blobs/two", reads, hedged::first).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("three"))
+        );
+        MatcherAssert.assertThat(
+            "Other members are asked for first item only",
+            Arrays.asList(first.get(), second.get()),
+            new IsEqual<>(Arrays.asList(1, 1))
+        );
+        MatcherAssert.assertThat(
+            "Known member is asked once per item",
+            third.get(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void readsOtherMembersWhenKnownMemberHasNothing() {
+        final RepoRoutes.Route route = this.routes.route(new RepoName.Simple("fallback"));
+        final AtomicInteger calls = new AtomicInteger();
+        final HedgedReads hedged = new HedgedReads();
+        route.first(
+            () -> "blobs/one",
+            Arrays.asList(
+                RepoRoutesTest.member(calls, Optional.empty()),
+                RepoRoutesTest.member(calls, Optional.of("known"))
+            ),
+            hedged::first
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            route.first(
+                () -> "blobs/two",
+                Arrays.asList(
+                    RepoRoutesTest.member(calls, Optional.of("other")),
+                    RepoRoutesTest.member(calls, Optional.empty())
+                ),
+                hedged::first
+            ).toCompletableFuture().join(),
+            new IsEqual<>(Optional.of("other"))
+        );
+    }
+
+    /**
+     * Member read counting calls.
+     *
+     * @param calls Calls counter.
+     * @param value Value of the member.
+     * @return Member read.
+     */
+    private static Supplier<CompletionStage<Optional<String>>> member(
+        final AtomicInteger calls, final Optional<String> value
+    ) {
+        return () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(value);
+        };
+    }
+}
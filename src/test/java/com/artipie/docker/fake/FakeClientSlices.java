@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.fake;
+
+import com.artipie.http.Slice;
+import com.artipie.http.client.ClientSlices;
+
+/**
+ * Client slices sending all requests to single slice.
+ *
+ * @since 0.13
+ */
+public final class FakeClientSlices implements ClientSlices {
+
+    /**
+     * Slice.
+     */
+    private final Slice slice;
+
+    /**
+     * Ctor.
+     *
+     * @param slice Slice.
+     */
+    public FakeClientSlices(final Slice slice) {
+        this.slice = slice;
+    }
+
+    @Override
+    public Slice http(final String host) {
+        return this.slice;
+    }
+
+    @Override
+    public Slice http(final String host, final int port) {
+        return this.slice;
+    }
+
+    @Override
+    public Slice https(final String host) {
+        return this.slice;
+    }
+
+    @Override
+    public Slice https(final String host, final int port) {
+        return this.slice;
+    }
+}
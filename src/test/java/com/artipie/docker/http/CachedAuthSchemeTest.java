@@ -0,0 +1,225 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.docker.fake.MovingClock;
+import com.artipie.http.Headers;
+import com.artipie.http.auth.AuthScheme;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.headers.Authorization;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CachedAuthScheme}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class CachedAuthSchemeTest {
+
+    /**
+     * TTL of successful authentication.
+     */
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    /**
+     * TTL of failed authentication.
+     */
+    private static final Duration NEGATIVE = Duration.ofSeconds(10);
+
+    /**
+     * Origin authentications counter.
+     */
+    private AtomicInteger count;
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.count = new AtomicInteger();
+        this.clock = new MovingClock();
+    }
+
+    @Test
+    void authenticatesOnceForSameHeader() {
+        final AuthScheme scheme = this.scheme(this.origin(Optional.of("alice")));
+        for (int cnt = 0; cnt < 2; cnt += 1) {
+            MatcherAssert.assertThat(
+                "Authenticated",
+                scheme.authenticate(CachedAuthSchemeTest.basic("alice"))
+                    .toCompletableFuture().join().user(),
+                new IsEqual<>(Optional.of(new Authentication.User("alice")))
+            );
+        }
+        MatcherAssert.assertThat(this.count.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void authenticatesDifferentHeadersSeparately() {
+        final AuthScheme scheme = this.scheme(this.origin(Optional.of("alice")));
+        scheme.authenticate(CachedAuthSchemeTest.basic("alice")).toCompletableFuture().join();
+        scheme.authenticate(CachedAuthSchemeTest.basic("bob")).toCompletableFuture().join();
+        MatcherAssert.assertThat(this.count.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void authenticatesAgainWhenExpired() {
+        final AuthScheme scheme = this.scheme(this.origin(Optional.of("alice")));
+        scheme.authenticate(CachedAuthSchemeTest.basic("alice")).toCompletableFuture().join();
+        this.clock.forward(CachedAuthSchemeTest.TTL);
+        scheme.authenticate(CachedAuthSchemeTest.basic("alice")).toCompletableFuture().join();
+        MatcherAssert.assertThat(this.count.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void cachesFailureForNegativeTtl() {
+        final AuthScheme scheme = this.scheme(this.origin(Optional.empty()));
+        scheme.authenticate(CachedAuthSchemeTest.basic("eve")).toCompletableFuture().join();
+        scheme.authenticate(CachedAuthSchemeTest.basic("eve")).toCompletableFuture().join();
+        MatcherAssert.assertThat("Failure is cached", this.count.get(), new IsEqual<>(1));
+        this.clock.forward(CachedAuthSchemeTest.NEGATIVE);
+        scheme.authenticate(CachedAuthSchemeTest.basic("eve")).toCompletableFuture().join();
+        MatcherAssert.assertThat("Failure is expired", this.count.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void sharesAuthenticationInProgress() {
+        final CompletableFuture<AuthScheme.Result> result = new CompletableFuture<>();
+        final AuthScheme scheme = this.scheme(
+            headers -> {
+                this.count.incrementAndGet();
+                return result;
+            }
+        );
+        final CompletableFuture<AuthScheme.Result> first = scheme.authenticate(
+            CachedAuthSchemeTest.basic("alice")
+        ).toCompletableFuture();
+        final CompletableFuture<AuthScheme.Result> second = scheme.authenticate(
+            CachedAuthSchemeTest.basic("alice")
+        ).toCompletableFuture();
+        result.complete(new FakeResult(Optional.of("alice")));
+        MatcherAssert.assertThat(
+            "Results are same",
+            first.join().user(),
+            new IsEqual<>(second.join().user())
+        );
+        MatcherAssert.assertThat("Authenticated once", this.count.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void doesNotCacheRequestsWithoutCredentials() {
+        final AuthScheme scheme = this.scheme(this.origin(Optional.empty()));
+        scheme.authenticate(Headers.EMPTY).toCompletableFuture().join();
+        scheme.authenticate(Headers.EMPTY).toCompletableFuture().join();
+        MatcherAssert.assertThat(this.count.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void keepsRecentlyUsedResultWhenFull() {
+        final AuthScheme scheme = this.scheme(this.origin(Optional.of("alice")));
+        for (final String user : new String[] {"alice", "bob", "alice", "carol", "alice"}) {
+            scheme.authenticate(CachedAuthSchemeTest.basic(user)).toCompletableFuture().join();
+        }
+        // @checkstyle MagicNumberCheck (1 line)
+        MatcherAssert.assertThat(this.count.get(), new IsEqual<>(3));
+    }
+
+    /**
+     * Create cached scheme.
+     *
+     * @param origin Origin scheme.
+     * @return Cached scheme.
+     */
+    private AuthScheme scheme(final AuthScheme origin) {
+        return new CachedAuthScheme(
+            origin, this.clock, CachedAuthSchemeTest.TTL, CachedAuthSchemeTest.NEGATIVE, 2
+        );
+    }
+
+    /**
+     * Create origin scheme counting authentications.
+     *
+     * @param user User name returned.
+     * @return Origin scheme.
+     */
+    private AuthScheme origin(final Optional<String> user) {
+        return headers -> {
+            this.count.incrementAndGet();
+            return CompletableFuture.completedFuture(new FakeResult(user));
+        };
+    }
+
+    /**
+     * Headers with Basic authorization.
+     *
+     * @param user User name.
+     * @return Headers.
+     */
+    private static Headers basic(final String user) {
+        return new Headers.From(new Authorization.Basic(user, "secret"));
+    }
+
+    /**
+     * Fake authentication result.
+     *
+     * @since 0.13
+     */
+    private static final class FakeResult implements AuthScheme.Result {
+
+        /**
+         * User name.
+         */
+        private final Optional<String> name;
+
+        /**
+         * Ctor.
+         *
+         * @param name User name.
+         */
+        FakeResult(final Optional<String> name) {
+            this.name = name;
+        }
+
+        @Override
+        public Optional<Authentication.User> user() {
+            return this.name.map(Authentication.User::new);
+        }
+
+        @Override
+        public String challenge() {
+            return "Basic";
+        }
+    }
+}
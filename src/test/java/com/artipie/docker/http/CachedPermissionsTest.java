@@ -0,0 +1,161 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.docker.fake.MovingClock;
+import com.artipie.http.auth.Authentication;
+import com.artipie.http.auth.Permissions;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CachedPermissions}.
+ *
+ * @since 0.13
+ */
+final class CachedPermissionsTest {
+
+    /**
+     * Scope of pulling repository.
+     */
+    private static final String PULL = "repository:my-repo:pull";
+
+    /**
+     * Decision TTL.
+     */
+    private static final Duration TTL = Duration.ofSeconds(10);
+
+    /**
+     * User.
+     */
+    private static final Authentication.User ALICE = new Authentication.User("alice");
+
+    /**
+     * Origin permissions evaluations counter.
+     */
+    private AtomicInteger evaluations;
+
+    /**
+     * Origin permissions allowing only alice to pull.
+     */
+    private Permissions origin;
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    @BeforeEach
+    void setUp() {
+        this.evaluations = new AtomicInteger();
+        this.origin = (user, action) -> {
+            this.evaluations.incrementAndGet();
+            return user.equals(CachedPermissionsTest.ALICE)
+                && action.equals(CachedPermissionsTest.PULL);
+        };
+        this.clock = new MovingClock();
+    }
+
+    @Test
+    void evaluatesOncePerUserAndAction() {
+        final CachedPermissions perms = this.permissions(2);
+        final Authentication.User bob = new Authentication.User("bob");
+        for (int cnt = 0; cnt < 2; cnt += 1) {
+            MatcherAssert.assertThat(
+                "Alice is allowed",
+                perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL),
+                new IsEqual<>(true)
+            );
+            MatcherAssert.assertThat(
+                "Bob is not allowed",
+                perms.allowed(bob, CachedPermissionsTest.PULL),
+                new IsEqual<>(false)
+            );
+        }
+        MatcherAssert.assertThat(this.evaluations.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void evaluatesAgainWhenExpired() {
+        final CachedPermissions perms = this.permissions(2);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        this.clock.forward(CachedPermissionsTest.TTL);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        MatcherAssert.assertThat(this.evaluations.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void evaluatesAgainWhenUserInvalidated() {
+        final CachedPermissions perms = this.permissions(2);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        perms.invalidate(CachedPermissionsTest.ALICE);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        MatcherAssert.assertThat(this.evaluations.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void evaluatesAgainWhenAllInvalidated() {
+        final CachedPermissions perms = this.permissions(2);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        perms.invalidate();
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        MatcherAssert.assertThat(this.evaluations.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void forgetsDecisionsWhenFull() {
+        final CachedPermissions perms = this.permissions(1);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        perms.allowed(CachedPermissionsTest.ALICE, "repository:my-repo:push");
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        // @checkstyle MagicNumberCheck (1 line)
+        MatcherAssert.assertThat(this.evaluations.get(), new IsEqual<>(3));
+    }
+
+    @Test
+    void keepsRecentlyUsedDecisionWhenFull() {
+        final CachedPermissions perms = this.permissions(2);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        perms.allowed(CachedPermissionsTest.ALICE, "repository:my-image:push");
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        perms.allowed(new Authentication.User("john"), CachedPermissionsTest.PULL);
+        perms.allowed(CachedPermissionsTest.ALICE, CachedPermissionsTest.PULL);
+        // @checkstyle MagicNumberCheck (1 line)
+        MatcherAssert.assertThat(this.evaluations.get(), new IsEqual<>(3));
+    }
+
+    /**
+     * Create cached permissions.
+     *
+     * @param max Max number of cached decisions.
+     * @return Permissions.
+     */
+    private CachedPermissions permissions(final int max) {
+        return new CachedPermissions(this.origin, this.clock, CachedPermissionsTest.TTL, max);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.asto.Content;
+import com.artipie.docker.misc.RqByRegex;
+import com.artipie.http.Headers;
+import com.artipie.http.Slice;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.StandardRs;
+import com.artipie.http.rt.ByMethodsRule;
+import com.artipie.http.rt.RtRule;
+import com.artipie.http.rt.RtRulePath;
+import com.artipie.http.rt.SliceRoute;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for routing cost of Docker API request.
+ * Compares {@link RouteSlice} passing parsed route to target with
+ * chain of regex rules where target parses request line again
+ * for every route parameter, as {@link DockerSlice} used to do.
+ * Each operation routes blob, manifest, upload and tags requests.
+ * Run it from test classpath with {@code org.openjdk.jmh.Main RouteSliceBench}
+ * after {@code mvn test-compile}.
+ *
+ * @since 0.13
+ * @checkstyle DesignForExtensionCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RouteSliceBench {
+
+    /**
+     * Request lines routed in one operation.
+     */
+    private static final String[] LINES = {
+        new RequestLine(
+            RqMethod.GET,
+            String.format("/v2/library/alpine/blobs/sha256:%064d", 0)
+        ).toString(),
+        new RequestLine(RqMethod.GET, "/v2/library/alpine/manifests/3.12").toString(),
+        new RequestLine(
+            RqMethod.PATCH,
+            "/v2/library/alpine/blobs/uploads/0f7d6a5e-6d2c-4a1b-9c3e-0c1f1d8c7a91"
+        ).toString(),
+        new RequestLine(RqMethod.GET, "/v2/library/alpine/tags/list?n=10").toString(),
+    };
+
+    /**
+     * Router passing parsed route.
+     */
+    private Slice router;
+
+    /**
+     * Router trying regex rules one by one.
+     */
+    private Slice rules;
+
+    /**
+     * Build routers.
+     *
+     * @param hole Blackhole consuming route parameters.
+     */
+    @Setup
+    public void setup(final Blackhole hole) {
+        this.router = new RouteSlice(
+            RouteSliceBench.target(Route.Entity.BASE, RqMethod.GET, hole),
+            RouteSliceBench.target(Route.Entity.MANIFEST, RqMethod.HEAD, hole),
+            RouteSliceBench.target(Route.Entity.MANIFEST, RqMethod.GET, hole),
+            RouteSliceBench.target(Route.Entity.MANIFEST, RqMethod.PUT, hole),
+            RouteSliceBench.target(Route.Entity.TAGS, RqMethod.GET, hole),
+            RouteSliceBench.target(Route.Entity.BLOB, RqMethod.HEAD, hole),
+            RouteSliceBench.target(Route.Entity.BLOB, RqMethod.GET, hole),
+            RouteSliceBench.target(Route.Entity.UPLOAD, RqMethod.POST, hole),
+            RouteSliceBench.target(Route.Entity.UPLOAD, RqMethod.PATCH, hole),
+            RouteSliceBench.target(Route.Entity.UPLOAD, RqMethod.PUT, hole),
+            RouteSliceBench.target(Route.Entity.UPLOAD, RqMethod.GET, hole),
+            RouteSliceBench.target(Route.Entity.CATALOG, RqMethod.GET, hole)
+        );
+        this.rules = new SliceRoute(
+            RouteSliceBench.rule(BaseEntity.PATH, RqMethod.GET, hole),
+            RouteSliceBench.rule(ManifestEntity.PATH, RqMethod.HEAD, hole),
+            RouteSliceBench.rule(ManifestEntity.PATH, RqMethod.GET, hole),
+            RouteSliceBench.rule(ManifestEntity.PATH, RqMethod.PUT, hole),
+            RouteSliceBench.rule(TagsEntity.PATH, RqMethod.GET, hole),
+            RouteSliceBench.rule(BlobEntity.PATH, RqMethod.HEAD, hole),
+            RouteSliceBench.rule(BlobEntity.PATH, RqMethod.GET, hole),
+            RouteSliceBench.rule(UploadEntity.PATH, RqMethod.POST, hole),
+            RouteSliceBench.rule(UploadEntity.PATH, RqMethod.PATCH, hole),
+            RouteSliceBench.rule(UploadEntity.PATH, RqMethod.PUT, hole),
+            RouteSliceBench.rule(UploadEntity.PATH, RqMethod.GET, hole),
+            RouteSliceBench.rule(CatalogEntity.PATH, RqMethod.GET, hole)
+        );
+    }
+
+    /**
+     * Route requests with {@link RouteSlice}.
+     *
+     * @param hole Blackhole.
+     */
+    @Benchmark
+    public void routed(final Blackhole hole) {
+        RouteSliceBench.route(this.router, hole);
+    }
+
+    /**
+     * Route requests with chain of regex rules.
+     *
+     * @param hole Blackhole.
+     */
+    @Benchmark
+    public void regex(final Blackhole hole) {
+        RouteSliceBench.route(this.rules, hole);
+    }
+
+    /**
+     * Route all request lines with slice.
+     *
+     * @param slice Router.
+     * @param hole Blackhole.
+     */
+    private static void route(final Slice slice, final Blackhole hole) {
+        for (final String line : RouteSliceBench.LINES) {
+            hole.consume(slice.response(line, Headers.EMPTY, Content.EMPTY));
+        }
+    }
+
+    /**
+     * Target reading name and parameter from parsed route.
+     *
+     * @param entity Entity.
+     * @param method Request method.
+     * @param hole Blackhole.
+     * @return Routing target.
+     */
+    private static RouteSlice.Target target(
+        final Route.Entity entity, final RqMethod method, final Blackhole hole
+    ) {
+        return new RouteSlice.Target(
+            entity, method,
+            (route, line, headers, body) -> {
+                hole.consume(route.name());
+                hole.consume(route.param());
+                return StandardRs.OK;
+            }
+        );
+    }
+
+    /**
+     * Rule with target matching regex again for each read parameter,
+     * as entity requests did for repository name and reference.
+     *
+     * @param path Path pattern.
+     * @param method Request method.
+     * @param hole Blackhole.
+     * @return Routing rule.
+     */
+    private static RtRulePath rule(
+        final Pattern path, final RqMethod method, final Blackhole hole
+    ) {
+        return new RtRulePath(
+            new RtRule.All(new RtRule.ByPath(path), new ByMethodsRule(method)),
+            (line, headers, body) -> {
+                hole.consume(new RqByRegex(line, path).path().group());
+                hole.consume(new RqByRegex(line, path).path().group());
+                return StandardRs.OK;
+            }
+        );
+    }
+}
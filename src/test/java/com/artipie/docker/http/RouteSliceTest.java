@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.asto.Content;
+import com.artipie.http.Headers;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Tests for {@link RouteSlice}.
+ *
+ * @since 0.13
+ */
+final class RouteSliceTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "GET,/v2/my-repo/manifests/latest,OK",
+        "PUT,/v2/my-repo/manifests/latest,CREATED",
+        "POST,/v2/my-repo/blobs/uploads/,ACCEPTED",
+        "GET,/v2/my-repo/manifests/a/blobs/uploads/b,OK",
+        "POST,/v2/my-repo/manifests/a/blobs/uploads/,ACCEPTED",
+        "DELETE,/v2/my-repo/manifests/latest,NOT_FOUND",
+        "GET,/v2/my-repo/something,NOT_FOUND"
+    })
+    void routesByEntityAndMethod(final String method, final String path, final String status) {
+        MatcherAssert.assertThat(
+            new RouteSlice(
+                new RouteSlice.Target(
+                    Route.Entity.MANIFEST,
+                    RqMethod.GET,
+                    (route, line, headers, body) -> new RsWithStatus(RsStatus.OK)
+                ),
+                new RouteSlice.Target(
+                    Route.Entity.MANIFEST,
+                    RqMethod.PUT,
+                    (route, line, headers, body) -> new RsWithStatus(RsStatus.CREATED)
+                ),
+                new RouteSlice.Target(
+                    Route.Entity.UPLOAD,
+                    RqMethod.POST,
+                    (route, line, headers, body) -> new RsWithStatus(RsStatus.ACCEPTED)
+                )
+            ).response(
+                new RequestLine(method, path).toString(),
+                Headers.EMPTY,
+                Content.EMPTY
+            ),
+            new RsHasStatus(RsStatus.valueOf(status))
+        );
+    }
+
+    @Test
+    void passesParsedRouteWithQuery() {
+        final AtomicReference<Route> parsed = new AtomicReference<>();
+        new RouteSlice(
+            new RouteSlice.Target(
+                Route.Entity.TAGS,
+                RqMethod.GET,
+                (route, line, headers, body) -> {
+                    parsed.set(route);
+                    return StandardRs.OK;
+                }
+            )
+        ).response(
+            new RequestLine(RqMethod.GET, "/v2/my-repo/tags/list?n=3").toString(),
+            Headers.EMPTY,
+            Content.EMPTY
+        );
+        MatcherAssert.assertThat(
+            "Route name",
+            parsed.get().name(),
+            new IsEqual<>("my-repo")
+        );
+        MatcherAssert.assertThat(
+            "Route query parameter",
+            parsed.get().params().value("n").get(),
+            new IsEqual<>("3")
+        );
+    }
+}
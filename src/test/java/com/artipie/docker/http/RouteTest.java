@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.http;
+
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Tests for {@link Route}.
+ *
+ * @since 0.13
+ */
+final class RouteTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "/v2/my-repo/manifests/latest,MANIFEST,my-repo,latest",
+        "/v2/one/two/manifests/sha256:123,MANIFEST,one/two,sha256:123",
+        "/v2//manifests/1,MANIFEST,'',1",
+        "/v2/a/manifests/b/manifests/c,MANIFEST,a/manifests/b,c",
+        "/v2/my-repo/tags/list,TAGS,my-repo,''",
+        "/v2/my-repo/blobs/sha256:abc,BLOB,my-repo,sha256:abc",
+        "/v2/a/blobs/b/blobs/uploads/c,BLOB,a,b/blobs/uploads/c",
+        "/v2/my-repo/blobs/uploads/,UPLOAD,my-repo,''",
+        "/v2/my-repo/blobs/uploads/123-abc,UPLOAD,my-repo,123-abc",
+        "/v2/my-repo/blobs/uploads/123-abc/more,UPLOAD,my-repo,123-abc",
+        "/v2/_catalog,CATALOG,'',''",
+        "/v2/,BASE,'',''"
+    })
+    // @checkstyle ParameterNumberCheck (3 lines)
+    void shouldParseRoute(
+        final String path, final Route.Entity entity, final String name, final String param
+    ) {
+        final Route route = Route.parsed(new RequestLine(RqMethod.GET, path).toString(), entity);
+        MatcherAssert.assertThat(
+            Arrays.asList(route.name(), route.param()),
+            new IsEqual<>(Arrays.asList(name, param))
+        );
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "/v2/",
+        "/v2/_catalog",
+        "/v2/my-repo/manifests/latest",
+        "/v2/manifests/latest",
+        "/v2/a/manifests/b/tags/list",
+        "/v2/my-repo/tags/list",
+        "/v2/tags/list",
+        "/v2/my-repo/blobs/sha256:abc",
+        "/v2/my-repo/blobs/uploads/123",
+        "/v2/blobs/uploads/123",
+        "/v2/a/blobs/b/blobs/uploads/c",
+        "/v3/my-repo/blobs/sha256:abc",
+        "/v2/my-repo/something"
+    })
+    void shouldMatchEntitiesAsRegex(final String path) {
+        for (final Route.Entity entity : Route.Entity.values()) {
+            final Matcher matcher = RouteTest.regex(entity).matcher(path);
+            MatcherAssert.assertThat(
+                String.format("%s matches %s", path, entity),
+                entity.route(path).isPresent(),
+                new IsEqual<>(matcher.matches())
+            );
+        }
+    }
+
+    @Test
+    void shouldFailOnUnexpectedPath() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> Route.parsed(
+                new RequestLine(RqMethod.GET, "/v2/my-repo/tags/list").toString(),
+                Route.Entity.MANIFEST
+            )
+        );
+    }
+
+    /**
+     * Entity path regex.
+     *
+     * @param entity Entity.
+     * @return Pattern.
+     */
+    private static Pattern regex(final Route.Entity entity) {
+        final Map<Route.Entity, Pattern> regexes = new EnumMap<>(Route.Entity.class);
+        regexes.put(Route.Entity.BASE, BaseEntity.PATH);
+        regexes.put(Route.Entity.MANIFEST, ManifestEntity.PATH);
+        regexes.put(Route.Entity.TAGS, TagsEntity.PATH);
+        regexes.put(Route.Entity.BLOB, BlobEntity.PATH);
+        regexes.put(Route.Entity.UPLOAD, UploadEntity.PATH);
+        regexes.put(Route.Entity.CATALOG, CatalogEntity.PATH);
+        return regexes.get(entity);
+    }
+}
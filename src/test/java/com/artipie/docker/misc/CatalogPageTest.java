@@ -56,7 +56,7 @@ final class CatalogPageTest {
 
     @BeforeEach
     void setUp() {
-        this.names = Stream.of("3", "1", "2", "4", "5", "4")
+        this.names = Stream.of("1", "2", "3", "4", "4", "5")
             .map(RepoName.Simple::new)
             .collect(Collectors.toList());
     }
@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import com.artipie.asto.FailedCompletionStage;
+import com.artipie.docker.fake.MovingClock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link CircuitBreaker}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class CircuitBreakerTest {
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    /**
+     * Breaker opening at half of 4 calls failed, for 10 seconds.
+     */
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new MovingClock();
+        this.breaker = new CircuitBreaker(this.clock, 0.5, 4, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void staysClosedOnSuccess() {
+        for (int idx = 0; idx < 10; idx += 1) {
+            this.succeed();
+        }
+        MatcherAssert.assertThat(
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.CLOSED)
+        );
+    }
+
+    @Test
+    void opensOnFailureRate() {
+        this.succeed();
+        this.fail();
+        MatcherAssert.assertThat(
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.OPEN)
+        );
+    }
+
+    @Test
+    void startsNewWindowAfterFullWindow() {
+        this.succeed();
+        this.succeed();
+        this.succeed();
+        this.fail();
+        MatcherAssert.assertThat(
+            "Closed below failure rate",
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.CLOSED)
+        );
+        this.succeed();
+        this.fail();
+        MatcherAssert.assertThat(
+            "Opened by failure rate of new window",
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.OPEN)
+        );
+    }
+
+    @Test
+    void rejectsCallsWhenOpen() {
+        this.fail();
+        this.fail();
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletionException err = Assertions.assertThrows(
+            CompletionException.class,
+            () -> this.breaker.call(
+                () -> CompletableFuture.completedFuture(calls.incrementAndGet())
+            ).join()
+        );
+        MatcherAssert.assertThat(
+            "Fails with rejection",
+            err.getCause(),
+            new IsInstanceOf(CircuitBreaker.Rejected.class)
+        );
+        MatcherAssert.assertThat(
+            "Member is not called",
+            calls.get(),
+            new IsEqual<>(0)
+        );
+    }
+
+    @Test
+    void closesAfterSuccessfulProbe() {
+        this.fail();
+        this.fail();
+        this.clock.forward(Duration.ofSeconds(10));
+        final CompletableFuture<String> probe = new CompletableFuture<>();
+        this.breaker.call(() -> probe);
+        MatcherAssert.assertThat(
+            "Half-open while probing",
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.HALF_OPEN)
+        );
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> this.breaker.call(() -> CompletableFuture.completedFuture("other")).join(),
+            "Rejects other calls while probing"
+        );
+        probe.complete("ok");
+        MatcherAssert.assertThat(
+            "Closed after successful probe",
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.CLOSED)
+        );
+    }
+
+    @Test
+    void reopensAfterFailedProbe() {
+        this.fail();
+        this.fail();
+        this.clock.forward(Duration.ofSeconds(10));
+        this.fail();
+        MatcherAssert.assertThat(
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.OPEN)
+        );
+    }
+
+    @Test
+    void ignoresCancelledCalls() {
+        for (int idx = 0; idx < 4; idx += 1) {
+            this.breaker.call(CompletableFuture::new).cancel(false);
+        }
+        MatcherAssert.assertThat(
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.CLOSED)
+        );
+    }
+
+    @Test
+    void countsOnlyMatchingErrorsAsFailures() {
+        for (int idx = 0; idx < 4; idx += 1) {
+            this.breaker.call(
+                () -> new FailedCompletionStage<>(new IllegalArgumentException()),
+                err -> err instanceof IllegalStateException
+            );
+        }
+        MatcherAssert.assertThat(
+            this.breaker.mode(),
+            new IsEqual<>(CircuitBreaker.Mode.CLOSED)
+        );
+    }
+
+    /**
+     * Make successful call.
+     */
+    private void succeed() {
+        this.breaker.call(() -> CompletableFuture.completedFuture("ok"));
+    }
+
+    /**
+     * Make failed call.
+     */
+    private void fail() {
+        this.breaker.call(() -> new FailedCompletionStage<>(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LruCache}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class LruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        final LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("one", 1);
+        cache.put("two", 2);
+        cache.get("one");
+        cache.put("three", 3);
+        MatcherAssert.assertThat(
+            "Least recently used evicted",
+            cache.get("two").isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Recently used kept",
+            cache.get("one").get(),
+            new IsEqual<>(1)
+        );
+        MatcherAssert.assertThat(
+            "Size bounded",
+            cache.size(),
+            new IsEqual<>(2)
+        );
+    }
+
+    @Test
+    void keepsMostEntriesOfWorkingSetOverMax() {
+        final LruCache<Integer, Integer> cache = new LruCache<>(100);
+        for (int idx = 0; idx <= 100; idx += 1) {
+            cache.put(idx, idx);
+        }
+        int hits = 0;
+        for (int idx = 0; idx <= 100; idx += 1) {
+            if (cache.get(idx).isPresent()) {
+                hits += 1;
+            }
+        }
+        MatcherAssert.assertThat(hits, new IsEqual<>(100));
+    }
+
+    @Test
+    void computesAbsentValueOnce() {
+        final LruCache<String, String> cache = new LruCache<>(2);
+        cache.computeIfAbsent("key", key -> "first");
+        MatcherAssert.assertThat(
+            cache.computeIfAbsent("key", key -> "second"),
+            new IsEqual<>("first")
+        );
+    }
+
+    @Test
+    void mergesPresentValue() {
+        final LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.merge("key", 1, Integer::sum);
+        MatcherAssert.assertThat(
+            cache.merge("key", 2, Integer::sum),
+            new IsEqual<>(3)
+        );
+    }
+
+    @Test
+    void removesMatchingKeys() {
+        final LruCache<String, Integer> cache = new LruCache<>(10);
+        cache.put("/v2/one/blobs/a", 1);
+        cache.put("/v2/one/manifests/b", 2);
+        cache.put("/v2/two/blobs/a", 3);
+        cache.removeIf(key -> key.startsWith("/v2/one/"));
+        MatcherAssert.assertThat(cache.size(), new IsEqual<>(1));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import io.reactivex.Flowable;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link NamesJson}.
+ *
+ * @since 0.13
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class NamesJsonTest {
+
+    @Test
+    void writesNames() {
+        MatcherAssert.assertThat(
+            NamesJsonTest.text(
+                new NamesJson("my-repo", "tags", () -> Stream.of("1.0", "latest"))
+            ),
+            new IsEqual<>("{\"name\":\"my-repo\",\"tags\":[\"1.0\",\"latest\"]}")
+        );
+    }
+
+    @Test
+    void writesEmptyList() {
+        MatcherAssert.assertThat(
+            NamesJsonTest.text(new NamesJson("repositories", Stream::empty)),
+            new IsEqual<>("{\"repositories\":[]}")
+        );
+    }
+
+    @Test
+    void escapesNames() {
+        final String name = "quote\"slash\\tab\tnew\u00e9";
+        MatcherAssert.assertThat(
+            Json.createReader(
+                new StringReader(
+                    NamesJsonTest.text(new NamesJson("list", () -> Stream.of(name)))
+                )
+            ).readObject().getJsonArray("list").getString(0),
+            new IsEqual<>(name)
+        );
+    }
+
+    @Test
+    void writesLargeListInChunks() {
+        final int count = 10_000;
+        final Content content = new NamesJson(
+            "repositories",
+            () -> IntStream.range(0, count).mapToObj(num -> String.format("repo-%05d", num))
+        );
+        MatcherAssert.assertThat(
+            "Content is split into chunks",
+            Flowable.fromPublisher(content).count().blockingGet() > 1,
+            new IsEqual<>(true)
+        );
+        final JsonObject json = Json.createReader(
+            new StringReader(NamesJsonTest.text(content))
+        ).readObject();
+        MatcherAssert.assertThat(
+            json.getJsonArray("repositories").getValuesAs(JsonString.class).stream()
+                .map(JsonString::getString)
+                .collect(Collectors.toList()),
+            new IsEqual<>(
+                IntStream.range(0, count).mapToObj(num -> String.format("repo-%05d", num))
+                    .collect(Collectors.toList())
+            )
+        );
+    }
+
+    /**
+     * Read content as string.
+     *
+     * @param content Content.
+     * @return String.
+     */
+    private static String text(final Content content) {
+        return new PublisherAs(content).string(StandardCharsets.UTF_8)
+            .toCompletableFuture().join();
+    }
+}
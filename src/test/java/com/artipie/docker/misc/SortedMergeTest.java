@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.misc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SortedMerge}.
+ *
+ * @since 0.13
+ */
+final class SortedMergeTest {
+
+    @Test
+    void mergesSortedDistinctNames() {
+        final int limit = 4;
+        MatcherAssert.assertThat(
+            new SortedMerge(
+                Arrays.asList(
+                    new Paged(limit, new AtomicInteger(), "a", "c", "d", "f"),
+                    new Paged(limit, new AtomicInteger(), "b", "c", "e")
+                ),
+                Optional.of("a"),
+                limit
+            ).names().toCompletableFuture().join(),
+            new IsEqual<>(Arrays.asList("b", "c", "d", "e"))
+        );
+    }
+
+    @Test
+    void loadsNextPagesWhenNeeded() {
+        final int limit = 2;
+        final AtomicInteger calls = new AtomicInteger();
+        MatcherAssert.assertThat(
+            new SortedMerge(
+                Collections.singletonList(
+                    new Paged(limit, calls, "a", "b", "c", "d", "e", "f")
+                ),
+                Optional.of("a"),
+                limit
+            ).names().toCompletableFuture().join(),
+            new IsEqual<>(Arrays.asList("b", "c"))
+        );
+        MatcherAssert.assertThat(
+            "Loads only one page",
+            calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void loadsNextPagesWhenSourceIncludesStart() {
+        final int limit = 3;
+        final AtomicInteger first = new AtomicInteger();
+        final AtomicInteger second = new AtomicInteger();
+        MatcherAssert.assertThat(
+            new SortedMerge(
+                Arrays.asList(
+                    new Paged(limit, first, true, "a", "b", "c", "d", "e"),
+                    new Paged(limit, second, true, "a", "b", "c", "d")
+                ),
+                Optional.of("a"),
+                limit
+            ).names().toCompletableFuture().join(),
+            new IsEqual<>(Arrays.asList("b", "c", "d"))
+        );
+        MatcherAssert.assertThat(
+            "Loads next page from drained sources",
+            Arrays.asList(first.get(), second.get()),
+            new IsEqual<>(Arrays.asList(2, 2))
+        );
+    }
+
+    @Test
+    void treatsFailingSourceAsEmpty() {
+        final int limit = 10;
+        final CompletableFuture<List<String>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException());
+        MatcherAssert.assertThat(
+            new SortedMerge(
+                Arrays.asList(
+                    start -> failed,
+                    new Paged(limit, new AtomicInteger(), "x", "y")
+                ),
+                Optional.empty(),
+                limit
+            ).names().toCompletableFuture().join(),
+            new IsEqual<>(Arrays.asList("x", "y"))
+        );
+    }
+
+    /**
+     * Source returning pages of specified size from sorted names.
+     *
+     * @since 0.13
+     */
+    private static final class Paged
+        implements Function<Optional<String>, CompletionStage<List<String>>> {
+
+        /**
+         * Page size.
+         */
+        private final int size;
+
+        /**
+         * Counter of pages requested.
+         */
+        private final AtomicInteger calls;
+
+        /**
+         * Whether page includes start name.
+         */
+        private final boolean inclusive;
+
+        /**
+         * Names.
+         */
+        private final List<String> names;
+
+        /**
+         * Ctor.
+         *
+         * @param size Page size.
+         * @param calls Counter of pages requested.
+         * @param names Names.
+         */
+        Paged(final int size, final AtomicInteger calls, final String... names) {
+            this(size, calls, false, names);
+        }
+
+        /**
+         * Ctor.
+         *
+         * @param size Page size.
+         * @param calls Counter of pages requested.
+         * @param inclusive Whether page includes start name.
+         * @param names Names.
+         * @checkstyle ParameterNumberCheck (7 lines)
+         */
+        Paged(
+            final int size,
+            final AtomicInteger calls,
+            final boolean inclusive,
+            final String... names
+        ) {
+            this.size = size;
+            this.calls = calls;
+            this.inclusive = inclusive;
+            this.names = new ArrayList<>(Arrays.asList(names));
+        }
+
+        @Override
+        public CompletionStage<List<String>> apply(final Optional<String> start) {
+            this.calls.incrementAndGet();
+            return CompletableFuture.completedFuture(
+                this.names.stream()
+                    .filter(name -> start.map(val -> this.follows(name, val)).orElse(true))
+                    .limit(this.size)
+                    .collect(Collectors.toList())
+            );
+        }
+
+        /**
+         * Check if name should be included in page starting from specified name.
+         *
+         * @param name Name.
+         * @param start Start name.
+         * @return True if name is included.
+         */
+        private boolean follows(final String name, final String start) {
+            final int cmp = name.compareTo(start);
+            return cmp > 0 || this.inclusive && cmp == 0;
+        }
+    }
+}
@@ -56,7 +56,7 @@ final class TagsPageTest {
 
     @BeforeEach
     void setUp() {
-        this.tags = Stream.of("3", "1", "2", "4", "5", "4")
+        this.tags = Stream.of("1", "2", "3", "4", "4", "5")
             .map(Tag.Valid::new)
             .collect(Collectors.toList());
     }
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.docker.fake.FakeClientSlices;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.headers.WwwAuthenticate;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqHeaders;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithHeaders;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import io.reactivex.Flowable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BearerSlice}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+class BearerSliceTest {
+
+    @Test
+    void authenticatesOnChallengeAndReusesToken() {
+        final AtomicInteger remote = new AtomicInteger();
+        final AtomicInteger issued = new AtomicInteger();
+        final Slice slice = new BearerSlice(
+            (line, headers, body) -> {
+                remote.incrementAndGet();
+                final Response response;
+                if (new RqHeaders(headers, "Authorization").contains("Bearer abc")) {
+                    response = StandardRs.OK;
+                } else {
+                    response = new RsWithHeaders(
+                        new RsWithStatus(RsStatus.UNAUTHORIZED),
+                        new Headers.From(
+                            WwwAuthenticate.NAME,
+                            String.join(
+                                ",",
+                                "Bearer realm=\"https://auth.docker.io/token\"",
+                                "service=\"registry.docker.io\"",
+                                "scope=\"repository:library/alpine:pull\""
+                            )
+                        )
+                    );
+                }
+                return response;
+            },
+            new BearerTokens(
+                new FakeClientSlices(
+                    (line, headers, body) -> {
+                        issued.incrementAndGet();
+                        return new RsWithBody("{\"token\":\"abc\"}", StandardCharsets.UTF_8);
+                    }
+                )
+            )
+        );
+        final String line = new RequestLine(
+            RqMethod.GET, "/v2/library/alpine/manifests/latest"
+        ).toString();
+        for (int idx = 0; idx < 2; idx += 1) {
+            MatcherAssert.assertThat(
+                "Request is authorized",
+                slice.response(line, Headers.EMPTY, Content.EMPTY),
+                new RsHasStatus(RsStatus.OK)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Remote is challenged once",
+            remote.get(),
+            new IsEqual<>(3)
+        );
+        MatcherAssert.assertThat(
+            "Token is issued once",
+            issued.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void drainsChallengeResponseBody() {
+        final AtomicBoolean drained = new AtomicBoolean();
+        final AtomicInteger remote = new AtomicInteger();
+        new BearerSlice(
+            (line, headers, body) -> {
+                final Response response;
+                if (remote.incrementAndGet() == 1) {
+                    response = new RsWithBody(
+                        new RsWithHeaders(
+                            new RsWithStatus(RsStatus.UNAUTHORIZED),
+                            new Headers.From(
+                                WwwAuthenticate.NAME,
+                                "Bearer realm=\"https://auth.example.com/token\""
+                            )
+                        ),
+                        Flowable.just(ByteBuffer.wrap("{\"errors\":[]}".getBytes()))
+                            .doOnComplete(() -> drained.set(true))
+                    );
+                } else {
+                    MatcherAssert.assertThat(
+                        "Challenge body is drained before retry",
+                        drained.get(),
+                        new IsEqual<>(true)
+                    );
+                    response = StandardRs.OK;
+                }
+                return response;
+            },
+            new BearerTokens(
+                new FakeClientSlices(
+                    (line, headers, body) -> new RsWithBody(
+                        "{\"token\":\"xyz\"}", StandardCharsets.UTF_8
+                    )
+                )
+            )
+        ).response(
+            new RequestLine(RqMethod.GET, "/v2/library/nginx/manifests/1").toString(),
+            Headers.EMPTY,
+            Content.EMPTY
+        ).send((status, headers, body) -> CompletableFuture.allOf())
+            .toCompletableFuture().join();
+        MatcherAssert.assertThat(remote.get(), new IsEqual<>(2));
+    }
+
+    @Test
+    void passesResponseWithoutChallenge() {
+        MatcherAssert.assertThat(
+            new BearerSlice(
+                (line, headers, body) -> new RsWithStatus(RsStatus.NOT_FOUND),
+                new BearerTokens(
+                    new FakeClientSlices(
+                        (line, headers, body) -> {
+                            throw new IllegalStateException("Token is not expected");
+                        }
+                    )
+                )
+            ).response(
+                new RequestLine(RqMethod.GET, "/v2/library/alpine/blobs/sha256:123").toString(),
+                Headers.EMPTY,
+                Content.EMPTY
+            ),
+            new RsHasStatus(RsStatus.NOT_FOUND)
+        );
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.docker.fake.FakeClientSlices;
+import com.artipie.docker.fake.MovingClock;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.client.auth.Authenticator;
+import com.artipie.http.headers.WwwAuthenticate;
+import com.artipie.http.rs.RsWithBody;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.StringStartsWith;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link BearerTokens}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods"})
+class BearerTokensTest {
+
+    /**
+     * Challenge of remote repository.
+     */
+    private static final WwwAuthenticate CHALLENGE = new WwwAuthenticate(
+        String.join(
+            ",",
+            "Bearer realm=\"https://auth.docker.io/token\"",
+            "service=\"registry.docker.io\"",
+            "scope=\"repository:library/alpine:pull\""
+        )
+    );
+
+    /**
+     * Clock.
+     */
+    private MovingClock clock;
+
+    /**
+     * Number of token requests.
+     */
+    private AtomicInteger requests;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new MovingClock();
+        this.requests = new AtomicInteger();
+    }
+
+    @Test
+    void cachesToken() {
+        final BearerTokens tokens = this.tokens(this.service());
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Cached token is returned",
+            tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join(),
+            new IsEqual<>("token-1")
+        );
+        MatcherAssert.assertThat(
+            "Token service is asked once",
+            this.requests.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void requestsTokenPerScope() {
+        final BearerTokens tokens = this.tokens(this.service());
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            tokens.token(
+                new WwwAuthenticate(
+                    String.join(
+                        ",",
+                        "Bearer realm=\"https://auth.docker.io/token\"",
+                        "service=\"registry.docker.io\"",
+                        "scope=\"repository:library/ubuntu:pull\""
+                    )
+                )
+            ).toCompletableFuture().join(),
+            new IsEqual<>("token-2")
+        );
+    }
+
+    @Test
+    void coalescesConcurrentRequests() {
+        final CompletableFuture<Response> response = new CompletableFuture<>();
+        final BearerTokens tokens = this.tokens(
+            (line, headers, body) -> {
+                this.requests.incrementAndGet();
+                return new AsyncResponse(response);
+            }
+        );
+        final CompletionStage<String> first = tokens.token(BearerTokensTest.CHALLENGE);
+        final CompletionStage<String> second = tokens.token(BearerTokensTest.CHALLENGE);
+        response.complete(BearerTokensTest.body("shared"));
+        MatcherAssert.assertThat(
+            "First caller gets token",
+            first.toCompletableFuture().join(),
+            new IsEqual<>("shared")
+        );
+        MatcherAssert.assertThat(
+            "Second caller gets same token",
+            second.toCompletableFuture().join(),
+            new IsEqual<>("shared")
+        );
+        MatcherAssert.assertThat(
+            "Token service is asked once",
+            this.requests.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void refreshesTokenCloseToExpirationInBackground() {
+        final BearerTokens tokens = this.tokens(this.service());
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        this.clock.forward(Duration.ofSeconds(280));
+        MatcherAssert.assertThat(
+            "Still valid token is returned",
+            tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join(),
+            new IsEqual<>("token-1")
+        );
+        MatcherAssert.assertThat(
+            "Refreshed token is returned next time",
+            tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join(),
+            new IsEqual<>("token-2")
+        );
+    }
+
+    @Test
+    void requestsNewTokenWhenExpired() {
+        final BearerTokens tokens = this.tokens(this.service());
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        this.clock.forward(Duration.ofSeconds(300));
+        MatcherAssert.assertThat(
+            tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join(),
+            new IsEqual<>("token-2")
+        );
+    }
+
+    @Test
+    void requestsNewTokenWhenRejected() {
+        final BearerTokens tokens = this.tokens(this.service());
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        tokens.expire(BearerTokensTest.CHALLENGE);
+        MatcherAssert.assertThat(
+            tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join(),
+            new IsEqual<>("token-2")
+        );
+    }
+
+    @Test
+    void keepsRecentlyUsedTokenWhenFull() {
+        final BearerTokens tokens = new BearerTokens(
+            new FakeClientSlices(this.service()),
+            Authenticator.ANONYMOUS,
+            this.clock,
+            Duration.ofSeconds(30),
+            1
+        );
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Recently used token is kept",
+            this.requests.get(),
+            new IsEqual<>(1)
+        );
+        tokens.token(
+            new WwwAuthenticate(
+                String.join(
+                    ",",
+                    "Bearer realm=\"https://auth.docker.io/token\"",
+                    "service=\"registry.docker.io\"",
+                    "scope=\"repository:library/debian:pull\""
+                )
+            )
+        ).toCompletableFuture().join();
+        tokens.token(BearerTokensTest.CHALLENGE).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Least recently used token is evicted",
+            this.requests.get(),
+            new IsEqual<>(3)
+        );
+    }
+
+    @Test
+    void encodesQueryParameters() {
+        final AtomicReference<String> line = new AtomicReference<>();
+        this.tokens(
+            (rqline, headers, body) -> {
+                line.set(rqline);
+                return BearerTokensTest.body("scoped");
+            }
+        ).token(
+            new WwwAuthenticate(
+                String.join(
+                    ",",
+                    "Bearer realm=\"https://auth.docker.io/token\"",
+                    "scope=\"repository:a:pull repository:b:pull\""
+                )
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            line.get(),
+            new StringStartsWith(
+                "GET /token?scope=repository%3Aa%3Apull+repository%3Ab%3Apull HTTP/1.1"
+            )
+        );
+    }
+
+    @Test
+    void failsAndForgetsRequestOnMalformedRealm() {
+        final BearerTokens tokens = this.tokens(this.service());
+        final WwwAuthenticate malformed = new WwwAuthenticate(
+            "Bearer realm=\"https://auth docker io/token\",scope=\"pull\""
+        );
+        for (int attempt = 0; attempt < 2; attempt += 1) {
+            MatcherAssert.assertThat(
+                tokens.token(malformed).toCompletableFuture().isCompletedExceptionally(),
+                new IsEqual<>(true)
+            );
+        }
+    }
+
+    /**
+     * Create tokens.
+     *
+     * @param service Token service.
+     * @return Tokens.
+     */
+    private BearerTokens tokens(final Slice service) {
+        return new BearerTokens(
+            new FakeClientSlices(service),
+            Authenticator.ANONYMOUS,
+            this.clock,
+            Duration.ofSeconds(30),
+            10
+        );
+    }
+
+    /**
+     * Token service issuing numbered tokens valid for 300 seconds.
+     *
+     * @return Token service.
+     */
+    private Slice service() {
+        return (line, headers, body) -> {
+            if (!line.startsWith("GET /token?service=registry.docker.io&scope=")) {
+                throw new IllegalArgumentException(String.format("Unexpected line: %s", line));
+            }
+            return BearerTokensTest.body(
+                String.format("token-%d", this.requests.incrementAndGet())
+            );
+        };
+    }
+
+    /**
+     * Token service response.
+     *
+     * @param token Token.
+     * @return Response.
+     */
+    private static Response body(final String token) {
+        return new RsWithBody(
+            String.format("{\"token\":\"%s\",\"expires_in\":300}", token),
+            StandardCharsets.UTF_8
+        );
+    }
+}
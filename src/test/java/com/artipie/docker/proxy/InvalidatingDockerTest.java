@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.memory.InMemoryStorage;
+import com.artipie.docker.Digest;
+import com.artipie.docker.Repo;
+import com.artipie.docker.RepoName;
+import com.artipie.docker.asto.AstoDocker;
+import com.artipie.docker.asto.TrustedBlobSource;
+import com.artipie.docker.ref.ManifestRef;
+import java.time.Duration;
+import javax.json.Json;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link InvalidatingDocker}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class InvalidatingDockerTest {
+
+    /**
+     * Repository name.
+     */
+    private static final RepoName NAME = new RepoName.Simple("my-image");
+
+    /**
+     * Proxy misses.
+     */
+    private Misses misses;
+
+    /**
+     * Repository.
+     */
+    private Repo repo;
+
+    @BeforeEach
+    void setUp() {
+        this.misses = new Misses(Duration.ofMinutes(1), 10);
+        this.repo = new InvalidatingDocker(new AstoDocker(new InMemoryStorage()), this.misses)
+            .repo(InvalidatingDockerTest.NAME);
+    }
+
+    @Test
+    void invalidatesMissesOnBlobPut() {
+        final byte[] data = "layer".getBytes();
+        final String path = new BlobPath(InvalidatingDockerTest.NAME, new Digest.Sha256(data))
+            .string();
+        this.misses.missed(path);
+        this.repo.layers().put(new TrustedBlobSource(data)).toCompletableFuture().join();
+        MatcherAssert.assertThat(this.misses.missing(path), new IsEqual<>(false));
+    }
+
+    @Test
+    void invalidatesMissesOnManifestPut() {
+        final ManifestRef ref = new ManifestRef.FromString("latest");
+        final String path = new ManifestPath(InvalidatingDockerTest.NAME, ref).string();
+        final Digest config = this.repo.layers()
+            .put(new TrustedBlobSource("image config".getBytes()))
+            .toCompletableFuture().join().digest();
+        this.misses.missed(path);
+        this.repo.manifests().put(
+            ref,
+            new Content.From(
+                Json.createObjectBuilder()
+                    .add("config", Json.createObjectBuilder().add("digest", config.string()))
+                    .add("layers", Json.createArrayBuilder())
+                    .build().toString().getBytes()
+            )
+        ).toCompletableFuture().join();
+        MatcherAssert.assertThat(this.misses.missing(path), new IsEqual<>(false));
+    }
+}
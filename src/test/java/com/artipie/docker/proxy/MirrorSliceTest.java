@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.asto.Content;
+import com.artipie.asto.ext.PublisherAs;
+import com.artipie.docker.composite.MemberBreakers;
+import com.artipie.docker.composite.MemberLatency;
+import com.artipie.docker.misc.CircuitBreaker;
+import com.artipie.http.Headers;
+import com.artipie.http.Response;
+import com.artipie.http.Slice;
+import com.artipie.http.async.AsyncResponse;
+import com.artipie.http.hm.RsHasStatus;
+import com.artipie.http.rq.RequestLine;
+import com.artipie.http.rq.RqMethod;
+import com.artipie.http.rs.RsStatus;
+import com.artipie.http.rs.RsWithBody;
+import com.artipie.http.rs.RsWithStatus;
+import com.artipie.http.rs.StandardRs;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MirrorSlice}.
+ *
+ * @since 0.13
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+final class MirrorSliceTest {
+
+    /**
+     * Blob content.
+     */
+    private static final byte[] CONTENT = "blob".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Manifest request line.
+     */
+    private static final String MANIFEST = new RequestLine(
+        RqMethod.GET, "/v2/library/alpine/manifests/latest"
+    ).toString();
+
+    @Test
+    void failsOverOnServerError() {
+        final MirrorStats stats = new MirrorStats();
+        MatcherAssert.assertThat(
+            "Response of healthy mirror is returned",
+            new MirrorSlice(
+                Arrays.asList(
+                    (line, headers, body) -> new RsWithStatus(RsStatus.UNAVAILABLE),
+                    (line, headers, body) -> StandardRs.OK
+                ),
+                stats
+            ).response(MirrorSliceTest.MANIFEST, Headers.EMPTY, Content.EMPTY),
+            new RsHasStatus(RsStatus.OK)
+        );
+        MatcherAssert.assertThat(
+            "Failure is counted",
+            stats.failures().get(0),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void failsOverWhenNotFound() {
+        MatcherAssert.assertThat(
+            new MirrorSlice(
+                Arrays.asList(
+                    (line, headers, body) -> new RsWithStatus(RsStatus.NOT_FOUND),
+                    (line, headers, body) -> StandardRs.OK
+                )
+            ).response(MirrorSliceTest.MANIFEST, Headers.EMPTY, Content.EMPTY),
+            new RsHasStatus(RsStatus.OK)
+        );
+    }
+
+    @Test
+    void returnsLastResponseWhenAllMirrorsMiss() {
+        MatcherAssert.assertThat(
+            new MirrorSlice(
+                Arrays.asList(
+                    (line, headers, body) -> new RsWithStatus(RsStatus.NOT_FOUND),
+                    (line, headers, body) -> new RsWithStatus(RsStatus.NOT_FOUND)
+                )
+            ).response(MirrorSliceTest.MANIFEST, Headers.EMPTY, Content.EMPTY),
+            new RsHasStatus(RsStatus.NOT_FOUND)
+        );
+    }
+
+    @Test
+    void returnsServerErrorWhenAllMirrorsFail() {
+        MatcherAssert.assertThat(
+            new MirrorSlice(
+                Arrays.asList(
+                    (line, headers, body) -> new RsWithStatus(RsStatus.UNAVAILABLE),
+                    (line, headers, body) -> new RsWithStatus(RsStatus.INTERNAL_ERROR)
+                )
+            ).response(MirrorSliceTest.MANIFEST, Headers.EMPTY, Content.EMPTY),
+            new RsHasStatus(RsStatus.INTERNAL_ERROR)
+        );
+    }
+
+    @Test
+    void failsOverWhenMirrorIsSlow() {
+        final MirrorStats stats = new MirrorStats(
+            new MemberLatency(Duration.ofMillis(50), Duration.ofMillis(10), Duration.ofSeconds(1))
+        );
+        MatcherAssert.assertThat(
+            "Response of fast mirror is returned",
+            new MirrorSlice(
+                Arrays.asList(
+                    (line, headers, body) -> new AsyncResponse(new CompletableFuture<>()),
+                    (line, headers, body) -> StandardRs.OK
+                ),
+                stats
+            ).response(MirrorSliceTest.MANIFEST, Headers.EMPTY, Content.EMPTY),
+            new RsHasStatus(RsStatus.OK)
+        );
+        MatcherAssert.assertThat(
+            "Timeout is counted",
+            stats.timeouts().get(0),
+            new IsEqual<>(1L)
+        );
+    }
+
+    @Test
+    void skipsMirrorWithOpenCircuit() {
+        final AtomicInteger calls = new AtomicInteger();
+        final MemberBreakers breakers = new MemberBreakers(
+            () -> new CircuitBreaker(Clock.systemUTC(), 1.0, 2, Duration.ofMinutes(1))
+        );
+        final Slice slice = new MirrorSlice(
+            Arrays.asList(
+                (line, headers, body) -> {
+                    calls.incrementAndGet();
+                    return new RsWithStatus(RsStatus.INTERNAL_ERROR);
+                },
+                (line, headers, body) -> StandardRs.OK
+            ),
+            new MirrorStats(),
+            breakers,
+            Executors.newSingleThreadScheduledExecutor()
+        );
+        for (int idx = 0; idx < 3; idx += 1) {
+            MatcherAssert.assertThat(
+                "Response of healthy mirror is returned",
+                slice.response(MirrorSliceTest.MANIFEST, Headers.EMPTY, Content.EMPTY),
+                new RsHasStatus(RsStatus.OK)
+            );
+        }
+        MatcherAssert.assertThat(
+            "Mirror with open circuit is not called",
+            calls.get(),
+            new IsEqual<>(1)
+        );
+    }
+
+    @Test
+    void countsBlobBytesPerMirror() {
+        final MirrorStats stats = new MirrorStats();
+        MatcherAssert.assertThat(
+            "Blob content is returned",
+            MirrorSliceTest.body(
+                new MirrorSlice(
+                    Collections.singletonList(
+                        (line, headers, body) -> new RsWithBody(
+                            StandardRs.OK, MirrorSliceTest.CONTENT
+                        )
+                    ),
+                    stats
+                ).response(MirrorSliceTest.blob(), Headers.EMPTY, Content.EMPTY)
+            ),
+            new IsEqual<>(MirrorSliceTest.CONTENT)
+        );
+        MatcherAssert.assertThat(
+            "Transferred bytes are counted",
+            stats.bytes().get(0),
+            new IsEqual<>((long) MirrorSliceTest.CONTENT.length)
+        );
+    }
+
+    @Test
+    void rejectsBlobNotMatchingDigest() {
+        final MirrorStats stats = new MirrorStats();
+        final Response response = new MirrorSlice(
+            Collections.singletonList(
+                (line, headers, body) -> new RsWithBody(
+                    StandardRs.OK, "corrupted".getBytes(StandardCharsets.UTF_8)
+                )
+            ),
+            stats
+        ).response(MirrorSliceTest.blob(), Headers.EMPTY, Content.EMPTY);
+        Assertions.assertThrows(
+            CompletionException.class,
+            () -> MirrorSliceTest.body(response)
+        );
+        MatcherAssert.assertThat(
+            "Failure is counted",
+            stats.failures().get(0),
+            new IsEqual<>(1L)
+        );
+    }
+
+    /**
+     * Blob request line.
+     *
+     * @return Request line.
+     */
+    private static String blob() {
+        return new RequestLine(
+            RqMethod.GET,
+            String.format(
+                "/v2/library/alpine/blobs/sha256:%s", DigestUtils.sha256Hex(MirrorSliceTest.CONTENT)
+            )
+        ).toString();
+    }
+
+    /**
+     * Read response body.
+     *
+     * @param response Response.
+     * @return Body bytes.
+     */
+    private static byte[] body(final Response response) {
+        final CompletableFuture<byte[]> bytes = new CompletableFuture<>();
+        response.send(
+            (status, headers, body) -> new PublisherAs(body).bytes().handle(
+                (data, err) -> {
+                    if (err == null) {
+                        bytes.complete(data);
+                    } else {
+                        bytes.completeExceptionally(err);
+                    }
+                    return null;
+                }
+            )
+        );
+        return bytes.join();
+    }
+}
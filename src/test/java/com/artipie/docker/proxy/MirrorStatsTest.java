@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import java.time.Duration;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MirrorStats}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+final class MirrorStatsTest {
+
+    @Test
+    void smoothesTransferRate() {
+        final MirrorStats stats = new MirrorStats();
+        stats.transferred(0, 8000, Duration.ofSeconds(1));
+        stats.transferred(0, 16_000, Duration.ofSeconds(1));
+        MatcherAssert.assertThat(
+            "Rate moves towards new sample by one eighth",
+            stats.rate(0),
+            new IsEqual<>(9000L)
+        );
+        MatcherAssert.assertThat(
+            "Bytes are summed up",
+            stats.bytes().get(0),
+            new IsEqual<>(24_000L)
+        );
+    }
+
+    @Test
+    void assumesBestRateForNewMirror() {
+        final MirrorStats stats = new MirrorStats();
+        stats.transferred(0, 1000, Duration.ofSeconds(1));
+        stats.transferred(1, 5000, Duration.ofSeconds(1));
+        MatcherAssert.assertThat(stats.rate(2), new IsEqual<>(5000L));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2020 Artipie
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.artipie.docker.proxy;
+
+import com.artipie.docker.RepoName;
+import com.artipie.docker.fake.MovingClock;
+import java.time.Duration;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Misses}.
+ *
+ * @since 0.13
+ * @checkstyle MagicNumberCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+class MissesTest {
+
+    @Test
+    void remembersMissUntilExpired() {
+        final MovingClock clock = new MovingClock();
+        final Misses misses = new Misses(clock, Duration.ofSeconds(30), 10);
+        final String path = "/v2/test/manifests/latest";
+        misses.missed(path);
+        clock.forward(Duration.ofSeconds(29));
+        MatcherAssert.assertThat(
+            "Miss is remembered within TTL",
+            misses.missing(path),
+            new IsEqual<>(true)
+        );
+        clock.forward(Duration.ofSeconds(1));
+        MatcherAssert.assertThat(
+            "Miss is forgotten after TTL",
+            misses.missing(path),
+            new IsEqual<>(false)
+        );
+    }
+
+    @Test
+    void forgetsMissWhenFound() {
+        final Misses misses = new Misses();
+        final String path = "/v2/test/blobs/sha256:123";
+        misses.missed(path);
+        misses.found(path);
+        MatcherAssert.assertThat(misses.missing(path), new IsEqual<>(false));
+    }
+
+    @Test
+    void invalidatesMissesOfRepository() {
+        final Misses misses = new Misses();
+        final String one = "/v2/one/manifests/latest";
+        final String other = "/v2/one-more/manifests/latest";
+        misses.missed(one);
+        misses.missed(other);
+        misses.invalidate(new RepoName.Simple("one"));
+        MatcherAssert.assertThat(
+            "Misses of repository are invalidated",
+            misses.missing(one),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Misses of other repository are kept",
+            misses.missing(other),
+            new IsEqual<>(true)
+        );
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        final Misses misses = new Misses(Duration.ofMinutes(1), 2);
+        misses.missed("/v2/test/blobs/sha256:1");
+        misses.missed("/v2/test/blobs/sha256:2");
+        misses.missing("/v2/test/blobs/sha256:1");
+        misses.missed("/v2/test/blobs/sha256:3");
+        MatcherAssert.assertThat(
+            "Least recently used miss is evicted",
+            misses.missing("/v2/test/blobs/sha256:2"),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Recently used miss is kept",
+            misses.missing("/v2/test/blobs/sha256:1"),
+            new IsEqual<>(true)
+        );
+        MatcherAssert.assertThat(
+            "Latest miss is kept",
+            misses.missing("/v2/test/blobs/sha256:3"),
+            new IsEqual<>(true)
+        );
+    }
+}
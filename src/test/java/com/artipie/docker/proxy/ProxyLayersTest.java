@@ -26,15 +26,21 @@ package com.artipie.docker.proxy;
 import com.artipie.docker.Blob;
 import com.artipie.docker.Digest;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.misc.CircuitBreaker;
 import com.artipie.http.Headers;
 import com.artipie.http.headers.ContentLength;
 import com.artipie.http.rs.RsFull;
 import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithStatus;
 import io.reactivex.Flowable;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.IsEqual;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -88,4 +94,75 @@ class ProxyLayersTest {
         ).get(new Digest.FromString(digest)).toCompletableFuture().join();
         MatcherAssert.assertThat(found.isPresent(), new IsEqual<>(false));
     }
+
+    @Test
+    void shouldFailFastWhenRemoteIsDown() {
+        final AtomicInteger calls = new AtomicInteger();
+        final ProxyLayers layers = new ProxyLayers(
+            (line, headers, body) -> {
+                calls.incrementAndGet();
+                return new RsWithStatus(RsStatus.INTERNAL_ERROR);
+            },
+            new RepoName.Valid("down"),
+            new CircuitBreaker(Clock.systemUTC(), 1.0, 2, Duration.ofMinutes(1))
+        );
+        final Digest digest = new Digest.FromString("sha256:def");
+        // @checkstyle MagicNumberCheck (1 line)
+        for (int idx = 0; idx < 3; idx += 1) {
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> layers.get(digest).toCompletableFuture().join()
+            );
+        }
+        MatcherAssert.assertThat(calls.get(), new IsEqual<>(1));
+    }
+
+    @Test
+    void shouldNotOpenCircuitOnClientErrors() {
+        final AtomicInteger calls = new AtomicInteger();
+        final ProxyLayers layers = new ProxyLayers(
+            (line, headers, body) -> {
+                calls.incrementAndGet();
+                return new RsWithStatus(RsStatus.UNAUTHORIZED);
+            },
+            new RepoName.Valid("private"),
+            new CircuitBreaker(Clock.systemUTC(), 1.0, 2, Duration.ofMinutes(1))
+        );
+        final Digest digest = new Digest.FromString("sha256:401");
+        // @checkstyle MagicNumberCheck (1 line)
+        for (int idx = 0; idx < 3; idx += 1) {
+            Assertions.assertThrows(
+                CompletionException.class,
+                () -> layers.get(digest).toCompletableFuture().join()
+            );
+        }
+        // @checkstyle MagicNumberCheck (1 line)
+        MatcherAssert.assertThat(calls.get(), new IsEqual<>(3));
+    }
+
+    @Test
+    void shouldNotAskRemoteForRecentlyMissingBlob() {
+        final AtomicInteger calls = new AtomicInteger();
+        final ProxyLayers layers = new ProxyLayers(
+            (line, headers, body) -> {
+                calls.incrementAndGet();
+                return new RsWithStatus(RsStatus.NOT_FOUND);
+            },
+            new RepoName.Valid("missing"),
+            new CircuitBreaker(),
+            new Misses()
+        );
+        final Digest digest = new Digest.FromString("sha256:404");
+        layers.get(digest).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Blob is not found",
+            layers.get(digest).toCompletableFuture().join().isPresent(),
+            new IsEqual<>(false)
+        );
+        MatcherAssert.assertThat(
+            "Remote is asked once",
+            calls.get(),
+            new IsEqual<>(1)
+        );
+    }
 }
@@ -28,8 +28,10 @@ import com.artipie.asto.ext.PublisherAs;
 import com.artipie.docker.Catalog;
 import com.artipie.docker.Digest;
 import com.artipie.docker.RepoName;
+import com.artipie.docker.fake.MovingClock;
 import com.artipie.docker.http.DigestHeader;
 import com.artipie.docker.manifest.Manifest;
+import com.artipie.docker.misc.CircuitBreaker;
 import com.artipie.docker.ref.ManifestRef;
 import com.artipie.http.Headers;
 import com.artipie.http.async.AsyncResponse;
@@ -38,9 +40,11 @@ import com.artipie.http.rs.RsStatus;
 import com.artipie.http.rs.RsWithBody;
 import com.artipie.http.rs.RsWithStatus;
 import com.artipie.http.rs.StandardRs;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.collection.IsEmptyIterable;
@@ -102,6 +106,36 @@ class ProxyManifestsTest {
         MatcherAssert.assertThat(found.isPresent(), new IsEqual<>(false));
     }
 
+    @Test
+    void shouldAskRemoteAgainWhenMissExpires() {
+        final AtomicInteger calls = new AtomicInteger();
+        final MovingClock clock = new MovingClock();
+        final ProxyManifests manifests = new ProxyManifests(
+            (line, headers, body) -> {
+                calls.incrementAndGet();
+                return new RsWithStatus(RsStatus.NOT_FOUND);
+            },
+            new RepoName.Valid("missing"),
+            new CircuitBreaker(),
+            new Misses(clock, Duration.ofSeconds(30), 10)
+        );
+        final ManifestRef ref = new ManifestRef.FromString("absent");
+        manifests.get(ref).toCompletableFuture().join();
+        manifests.get(ref).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Remote is asked once while miss is cached",
+            calls.get(),
+            new IsEqual<>(1)
+        );
+        clock.forward(Duration.ofMinutes(1));
+        manifests.get(ref).toCompletableFuture().join();
+        MatcherAssert.assertThat(
+            "Remote is asked again after miss expired",
+            calls.get(),
+            new IsEqual<>(2)
+        );
+    }
+
     @Test
     void shouldSendRequestCatalogFromRemote() {
         final String name = "my-alpine";